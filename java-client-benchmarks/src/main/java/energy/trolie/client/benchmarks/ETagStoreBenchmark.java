@@ -0,0 +1,126 @@
+package energy.trolie.client.benchmarks;
+
+import energy.trolie.client.ETagStore;
+import energy.trolie.client.impl.FileETagStore;
+import energy.trolie.client.impl.MemoryETagStore;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * <p>Measures ETag store throughput under many subscriptions polling concurrently.</p>
+ * <p>Each thread stands in for the worker pool running a share of the subscriptions.  Every poll looks up
+ * the ETag of its subscription and stores the ETag of the response, which only changes every so many
+ * polls, as when most polls are answered with 304.  The in-memory and file-backed stores are compared
+ * against a map guarded by a single lock.  Contention only shows with several cores, and the stores are
+ * best compared in separate JVMs so each is measured with a profile of its own.  Run with:</p>
+ * <pre>
+ * java -cp ... energy.trolie.client.benchmarks.ETagStoreBenchmark [threads] [subscriptions] [polls per thread] [change every] [locked|memory|file|all]
+ * </pre>
+ */
+public class ETagStoreBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int subscriptions = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int polls = args.length > 2 ? Integer.parseInt(args[2]) : 2_000_000;
+        int changeEvery = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        String only = args.length > 4 ? args[4] : "all";
+
+        String[] keys = new String[subscriptions];
+        for (int i = 0; i < subscriptions; i++) {
+            keys[i] = "/limits/forecast-snapshot?monitoring-set=set-" + i;
+        }
+
+        Path directory = Files.createTempDirectory("etag-benchmark");
+        try {
+            if (only.equals("all") || only.equals("locked")) {
+                run("synchronized map", LockedETagStore::new, keys, threads, polls, changeEvery);
+            }
+            if (only.equals("all") || only.equals("memory")) {
+                run("memory", MemoryETagStore::new, keys, threads, polls, changeEvery);
+            }
+            if (only.equals("all") || only.equals("file")) {
+                run("file", () -> new FileETagStore(directory.resolve("etags-" + System.nanoTime())),
+                        keys, threads, polls, changeEvery);
+            }
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private static void run(String name, Supplier<ETagStore> stores, String[] keys, int threads,
+                            int polls, int changeEvery) throws Exception {
+        //warm up on a separate store
+        poll(stores.get(), keys, threads, polls / 4, changeEvery);
+        ETagStore store = stores.get();
+        long nanos = poll(store, keys, threads, polls, changeEvery);
+        long total = (long) threads * polls;
+        System.out.printf("%-18s %8.1f M polls/s %8.1f ns/poll%n", name,
+                total * 1e3 / nanos, (double) nanos * threads / total);
+        if (store instanceof FileETagStore) {
+            System.out.printf("%-18s %8d journal records%n", "", ((FileETagStore) store).getJournalRecords());
+            ((FileETagStore) store).close();
+        }
+    }
+
+    private static long poll(ETagStore store, String[] keys, int threads, int polls, int changeEvery)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < polls; i++) {
+                    String key = keys[(offset + i * threads) % keys.length];
+                    String eTag = store.getETag(key);
+                    if (eTag == null || i % changeEvery == 0) {
+                        store.putETag(key, "\"" + i + "\"");
+                    } else {
+                        store.putETag(key, eTag);
+                    }
+                }
+                done.countDown();
+            });
+            thread.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return System.nanoTime() - begin;
+    }
+
+    /**
+     * Baseline store guarding a plain map with a single lock
+     */
+    private static class LockedETagStore implements ETagStore {
+
+        private final Map<String, String> eTags = Collections.synchronizedMap(new HashMap<>());
+
+        @Override
+        public String getETag(String endpointPath) {
+            return eTags.get(endpointPath);
+        }
+
+        @Override
+        public void putETag(String endpointPath, String eTag) {
+            eTags.put(endpointPath, eTag);
+        }
+    }
+}
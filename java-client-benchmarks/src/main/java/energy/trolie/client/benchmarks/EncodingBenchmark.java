@@ -0,0 +1,176 @@
+package energy.trolie.client.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import energy.trolie.client.TrolieApiConstants;
+import energy.trolie.client.TrolieClient;
+import energy.trolie.client.TrolieClientBuilder;
+import energy.trolie.client.TrolieRequestContext;
+import energy.trolie.client.impl.model.common.RatingValueDeserializer;
+import energy.trolie.client.impl.model.common.RatingValueSerializer;
+import energy.trolie.client.model.common.RatingValue;
+import energy.trolie.client.model.ratingproposals.ForecastPeriodBuilder;
+import energy.trolie.client.model.ratingproposals.ForecastProposalHeader;
+import energy.trolie.client.request.ratingproposals.ForecastRatingProposalUpdate;
+import energy.trolie.client.spp.SppApiTokenHeaderProvider;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.support.AsyncResponseBuilder;
+
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * <p>Measures the encoding paths run for every value or request: reading and writing
+ * {@link RatingValue} through {@link RatingValueDeserializer} and {@link RatingValueSerializer},
+ * writing forecast proposals through {@link ForecastRatingProposalUpdate} to a local stand-in server,
+ * and signing requests with {@link SppApiTokenHeaderProvider#headersFor(TrolieRequestContext)}.
+ * Allocation is that of the calling thread, which writes the proposal body.  Run with:</p>
+ * <pre>
+ * java -cp ... energy.trolie.client.benchmarks.EncodingBenchmark [values] [resources] [iterations]
+ * </pre>
+ */
+public class EncodingBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+    private static final RatingValueSerializer SERIALIZER = new RatingValueSerializer();
+    private static final int PERIODS = 24;
+    private static final Instant BEGINS = Instant.parse("2025-01-01T00:00:00Z");
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws Exception {
+        int values = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int resources = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        RatingValue[] ratingValues = ratingValues(values);
+        byte[] json = MAPPER.writeValueAsBytes(ratingValues);
+        SerializerProvider provider = MAPPER.getSerializerProvider();
+
+        Measurement.run("rating value read", iterations, values, "value", () -> {
+            try (JsonParser parser = FACTORY.createParser(json)) {
+                parser.nextToken();
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    sink = RatingValueDeserializer.read(parser);
+                }
+            }
+        });
+        Measurement.run("rating value readValueAs", iterations, values, "value", () -> {
+            try (JsonParser parser = MAPPER.createParser(json)) {
+                parser.nextToken();
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    sink = parser.readValueAs(RatingValue.class);
+                }
+            }
+        });
+        Measurement.run("rating value serialize", iterations, values, "value", () -> {
+            CountingOutputStream out = new CountingOutputStream();
+            try (JsonGenerator generator = FACTORY.createGenerator(out)) {
+                generator.writeStartArray();
+                for (RatingValue value : ratingValues) {
+                    SERIALIZER.serialize(value, generator, provider);
+                }
+                generator.writeEndArray();
+            }
+            sink = out.count;
+        });
+        Measurement.run("rating value writeObject", iterations, values, "value", () -> {
+            CountingOutputStream out = new CountingOutputStream();
+            try (JsonGenerator generator = MAPPER.createGenerator(out)) {
+                generator.writeStartArray();
+                for (RatingValue value : ratingValues) {
+                    generator.writeObject(value);
+                }
+                generator.writeEndArray();
+            }
+            sink = out.count;
+        });
+
+        SppApiTokenHeaderProvider spp = new SppApiTokenHeaderProvider("Benchmark-Client",
+                Base64.getEncoder().encodeToString("benchmark-api-key".getBytes(StandardCharsets.UTF_8)),
+                Clock.systemUTC());
+        TrolieRequestContext context = new TrolieRequestContext("GET",
+                URI.create("https://trolie.example.com" + TrolieApiConstants.PATH_FORECAST_SNAPSHOT),
+                TrolieApiConstants.CONTENT_TYPE_FORECAST_SNAPSHOT);
+        int signatures = Math.max(1, values / 10);
+        Measurement.run("spp headersFor", iterations, signatures, "call", () -> {
+            for (int i = 0; i < signatures; i++) {
+                sink = spp.headersFor(context);
+            }
+        });
+
+        byte[] status = ("{\"begins\":\"" + BEGINS + "\"}").getBytes(StandardCharsets.UTF_8);
+        try (StandInServer server = new StandInServer(request -> AsyncResponseBuilder.create(HttpStatus.SC_OK)
+                .setEntity(AsyncEntityProducers.create(status, ContentType.APPLICATION_JSON))
+                .build());
+             TrolieClient client = new TrolieClientBuilder(server.getBaseUrl(), HttpClients.createDefault()).build()) {
+            Measurement.run("forecast proposal write", iterations, resources, "resource",
+                    () -> sink = sendProposal(client, resources));
+        }
+        System.exit(0);
+    }
+
+    private static Object sendProposal(TrolieClient client, int resources) {
+        try (ForecastRatingProposalUpdate update = client.createForecastRatingProposalStreamingUpdate()) {
+            update.begin(ForecastProposalHeader.builder().begins(BEGINS).build());
+            for (int r = 0; r < resources; r++) {
+                update.beginResource("resource-" + r);
+                for (int p = 0; p < PERIODS; p++) {
+                    Instant start = BEGINS.plus(Duration.ofHours(p));
+                    ForecastPeriodBuilder period = update.periodBuilder();
+                    period.setPeriodStart(start);
+                    period.setPeriodEnd(start.plus(Duration.ofHours(1)));
+                    period.setContinuousMVA(100f + p);
+                    period.setEmergencyMVA("lte", 110f + p);
+                    period.setEmergencyMVA("ste", 120f + p);
+                    period.complete();
+                }
+                update.endResource();
+            }
+            return update.complete();
+        }
+    }
+
+    //the units found in practice, in equal shares
+    private static RatingValue[] ratingValues(int count) {
+        RatingValue[] values = new RatingValue[count];
+        for (int i = 0; i < count; i++) {
+            float value = 100f + i % 500 + 0.25f;
+            values[i] = switch (i % 3) {
+                case 0 -> RatingValue.fromMva(value);
+                case 1 -> RatingValue.fromAmps(value * 4);
+                default -> RatingValue.fromMwAndPf(value, 0.95f);
+            };
+        }
+        return values;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package energy.trolie.client.benchmarks;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Times a benchmark case on the calling thread after warming it up, and reports the bytes
+ * allocated by that thread along with the time, as a garbage collection profiler would.
+ */
+final class Measurement {
+
+    private Measurement() {
+    }
+
+    interface Case {
+        void run() throws Exception;
+    }
+
+    /**
+     * Run the case {@code iterations} times to warm up, then {@code iterations} times measured.
+     * @param name label of the case
+     * @param iterations runs to warm up and to measure
+     * @param units units of work done by each run, such as resources or values
+     * @param unit name of the unit in the report
+     * @param benchmark case to run
+     */
+    static void run(String name, int iterations, long units, String unit, Case benchmark) throws Exception {
+        for (int i = 0; i < iterations; i++) {
+            benchmark.run();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            benchmark.run();
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        System.out.printf("%-32s %10.2f ms/op %10.0f ns/%s %10.0f B/%s %8.1f MiB/s allocated%n", name,
+                nanos / 1e6 / iterations,
+                (double) nanos / iterations / units, unit,
+                (double) allocated / iterations / units, unit,
+                allocated / 1048576.0 / (nanos / 1e9));
+    }
+}
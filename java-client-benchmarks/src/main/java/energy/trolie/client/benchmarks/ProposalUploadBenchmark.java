@@ -0,0 +1,198 @@
+package energy.trolie.client.benchmarks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import energy.trolie.client.TrolieClient;
+import energy.trolie.client.TrolieClientBuilder;
+import energy.trolie.client.model.common.RatingValue;
+import energy.trolie.client.model.ratingproposals.ForecastProposalHeader;
+import energy.trolie.client.model.ratingproposals.ForecastRatingPeriod;
+import energy.trolie.client.request.ratingproposals.ForecastRatingProposalUpdate;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.support.AsyncResponseBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>Measures the throughput of streaming forecast rating proposals.</p>
+ * <p>The {@code transfer} mode isolates the hand-off of the body from the writing thread by
+ * generating the same proposal either through a piped stream drained by a second thread, as
+ * proposals were previously sent, or straight into the sink as they are sent now.  The
+ * {@code upload} mode sends proposals end to end to a local stand-in server with
+ * {@link ForecastRatingProposalUpdate}.  Run with:</p>
+ * <pre>
+ * java -cp ... energy.trolie.client.benchmarks.ProposalUploadBenchmark [transfer|upload] [resources] [iterations]
+ * </pre>
+ */
+public class ProposalUploadBenchmark {
+
+    private static final int PERIODS = 240;
+    private static final int PIPE_BUFFER = 4096;
+    private static final Instant BEGINS = Instant.parse("2025-01-01T00:00:00Z");
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "transfer";
+        int resources = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        if ("upload".equalsIgnoreCase(mode)) {
+            upload(resources, iterations, false);
+            upload(resources, iterations, true);
+        } else {
+            transfer(resources, iterations);
+        }
+        System.exit(0);
+    }
+
+    private static void transfer(int resources, int iterations) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        ExecutorService drainer = Executors.newSingleThreadExecutor();
+        //warm up both paths before measuring
+        for (int i = 0; i < 3; i++) {
+            piped(objectMapper, drainer, resources);
+            direct(objectMapper, resources);
+        }
+        long pipedNanos = 0;
+        long directNanos = 0;
+        long bytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            bytes = piped(objectMapper, drainer, resources);
+            pipedNanos += System.nanoTime() - start;
+            start = System.nanoTime();
+            direct(objectMapper, resources);
+            directNanos += System.nanoTime() - start;
+        }
+        drainer.shutdown();
+        System.out.printf("proposal: resources=%d periods=%d size=%.1f MiB iterations=%d%n",
+                resources, PERIODS, bytes / 1048576.0, iterations);
+        report("piped", bytes * iterations, pipedNanos);
+        report("direct", bytes * iterations, directNanos);
+    }
+
+    private static long piped(ObjectMapper objectMapper, ExecutorService drainer, int resources) throws Exception {
+        PipedOutputStream out = new PipedOutputStream();
+        PipedInputStream in = new PipedInputStream(out, PIPE_BUFFER);
+        Future<Long> drained = drainer.submit(() -> drain(in));
+        try (JsonGenerator json = objectMapper.createGenerator(out)) {
+            writeProposal(json, resources);
+        }
+        return drained.get();
+    }
+
+    private static long direct(ObjectMapper objectMapper, int resources) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        try (JsonGenerator json = objectMapper.createGenerator(out)) {
+            writeProposal(json, resources);
+        }
+        return out.count;
+    }
+
+    private static long drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        long count = 0;
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            count += read;
+        }
+        return count;
+    }
+
+    private static void writeProposal(JsonGenerator json, int resources) throws IOException {
+        json.writeStartObject();
+        json.writeFieldName("proposal-header");
+        json.writeObject(ForecastProposalHeader.builder().begins(BEGINS).build());
+        json.writeArrayFieldStart("ratings");
+        for (int i = 0; i < resources; i++) {
+            json.writeStartObject();
+            json.writeStringField("resource-id", "resource-" + i);
+            json.writeArrayFieldStart("periods");
+            for (int p = 0; p < PERIODS; p++) {
+                json.writeObject(period(p));
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    private static void upload(int resources, int iterations, boolean compress) throws Exception {
+        byte[] status = ("{\"begins\":\"" + BEGINS + "\"}").getBytes(StandardCharsets.UTF_8);
+        try (StandInServer server = new StandInServer(request -> AsyncResponseBuilder.create(HttpStatus.SC_OK)
+                .setEntity(AsyncEntityProducers.create(status, ContentType.APPLICATION_JSON))
+                .build());
+             TrolieClient client = new TrolieClientBuilder(server.getBaseUrl(), HttpClients.createDefault())
+                     .requestConfig(RequestConfig.custom().setContentCompressionEnabled(compress).build())
+                     .build()) {
+
+            for (int i = 0; i < 3; i++) {
+                send(client, resources);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                send(client, resources);
+            }
+            long nanos = System.nanoTime() - start;
+            System.out.printf("upload compressed=%s: %.1f proposals/s, %.0f resources/s%n", compress,
+                    iterations / (nanos / 1e9), (double) resources * iterations / (nanos / 1e9));
+        }
+    }
+
+    private static void send(TrolieClient client, int resources) {
+        try (ForecastRatingProposalUpdate update = client.createForecastRatingProposalStreamingUpdate()) {
+            update.begin(ForecastProposalHeader.builder().begins(BEGINS).build());
+            for (int i = 0; i < resources; i++) {
+                update.beginResource("resource-" + i);
+                for (int p = 0; p < PERIODS; p++) {
+                    update.period(period(p));
+                }
+                update.endResource();
+            }
+            update.complete();
+        }
+    }
+
+    private static ForecastRatingPeriod period(int index) {
+        Instant start = BEGINS.plus(Duration.ofHours(index));
+        return ForecastRatingPeriod.builder()
+                .periodStart(start)
+                .periodEnd(start.plus(Duration.ofHours(1)))
+                .continuousOperatingLimit(RatingValue.fromMva(100f + index))
+                .build();
+    }
+
+    private static void report(String name, long bytes, long nanos) {
+        System.out.printf("%-7s %8.1f MiB/s%n", name, bytes / 1048576.0 / (nanos / 1e9));
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
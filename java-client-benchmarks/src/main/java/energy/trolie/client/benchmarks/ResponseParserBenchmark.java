@@ -0,0 +1,256 @@
+package energy.trolie.client.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import energy.trolie.client.exception.StreamingGetException;
+import energy.trolie.client.impl.request.operatingsnapshots.ForecastSnapshotResponseParser;
+import energy.trolie.client.impl.request.operatingsnapshots.RealTimeSnapshotResponseParser;
+import energy.trolie.client.impl.request.operatingsnapshots.SeasonalSnapshotResponseParser;
+import energy.trolie.client.model.operatingsnapshots.ForecastPeriodSnapshot;
+import energy.trolie.client.model.operatingsnapshots.ForecastSnapshotHeader;
+import energy.trolie.client.model.operatingsnapshots.RealTimeLimit;
+import energy.trolie.client.model.operatingsnapshots.RealTimeSnapshotHeader;
+import energy.trolie.client.model.operatingsnapshots.SeasonalPeriodSnapshot;
+import energy.trolie.client.model.operatingsnapshots.SeasonalSnapshotHeader;
+import energy.trolie.client.request.operatingsnapshots.EmergencyLimitsAccessor;
+import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotReceiver;
+import energy.trolie.client.request.operatingsnapshots.PrimitiveForecastSnapshotReceiver;
+import energy.trolie.client.request.operatingsnapshots.RealTimeSnapshotReceiver;
+import energy.trolie.client.request.operatingsnapshots.SeasonalSnapshotReceiver;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * <p>Measures the complete response parsers of forecast, real-time and seasonal snapshots, as run
+ * on every poll, over synthetic snapshots of increasing numbers of resources.  Forecast snapshots
+ * are parsed into objects and through the primitive receiver.  Time and allocation are reported per
+ * resource, so the cost of larger snapshots can be compared directly.  Run with:</p>
+ * <pre>
+ * java -cp ... energy.trolie.client.benchmarks.ResponseParserBenchmark [resources,...] [forecast periods] [iterations]
+ * </pre>
+ */
+public class ResponseParserBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+    private static final Instant BEGINS = Instant.parse("2025-07-12T05:00:00Z");
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws Exception {
+        String[] sizes = (args.length > 0 ? args[0] : "1000,10000,50000").split(",");
+        int periods = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        for (String size : sizes) {
+            int resources = Integer.parseInt(size.trim());
+            byte[] forecast = forecastSnapshot(resources, periods);
+            byte[] realTime = realTimeSnapshot(resources);
+            byte[] seasonal = seasonalSnapshot(resources);
+            System.out.printf("resources=%d: forecast %d KiB, real-time %d KiB, seasonal %d KiB%n", resources,
+                    forecast.length / 1024, realTime.length / 1024, seasonal.length / 1024);
+
+            Measurement.run("forecast " + resources, iterations, resources, "resource",
+                    () -> parsed(new ForecastSnapshotResponseParser(new ForecastSink(), ResponseParserBenchmark::fail)
+                            .parseResponse(new ByteArrayInputStream(forecast), FACTORY)));
+            Measurement.run("forecast primitive " + resources, iterations, resources, "resource",
+                    () -> parsed(new ForecastSnapshotResponseParser(new PrimitiveForecastSink(), ResponseParserBenchmark::fail)
+                            .parseResponse(new ByteArrayInputStream(forecast), FACTORY)));
+            Measurement.run("real-time " + resources, iterations, resources, "resource",
+                    () -> parsed(new RealTimeSnapshotResponseParser(new RealTimeSink(), ResponseParserBenchmark::fail)
+                            .parseResponse(new ByteArrayInputStream(realTime), FACTORY)));
+            Measurement.run("seasonal " + resources, iterations, resources, "resource",
+                    () -> parsed(new SeasonalSnapshotResponseParser(new SeasonalSink(), ResponseParserBenchmark::fail)
+                            .parseResponse(new ByteArrayInputStream(seasonal), FACTORY)));
+        }
+    }
+
+    private static void parsed(Boolean handled) {
+        if (!Boolean.TRUE.equals(handled)) {
+            throw new IllegalStateException("Snapshot was not parsed");
+        }
+    }
+
+    private static void fail(StreamingGetException e) {
+        throw new IllegalStateException(e);
+    }
+
+    private static byte[] forecastSnapshot(int resources, int periods) {
+        StringBuilder json = new StringBuilder("{\"snapshot-header\":{\"begins\":\"").append(BEGINS)
+                .append("\"},\"ratings\":[");
+        for (int r = 0; r < resources; r++) {
+            json.append(r == 0 ? "" : ",").append("{\"resource-id\":\"LINE-").append(r).append("\",\"periods\":[");
+            for (int p = 0; p < periods; p++) {
+                Instant start = BEGINS.plus(p, ChronoUnit.HOURS);
+                json.append(p == 0 ? "" : ",");
+                period(json, start, start.plus(1, ChronoUnit.HOURS), 100 + (r + p) % 50);
+                json.append('}');
+            }
+            json.append("]}");
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] realTimeSnapshot(int resources) {
+        StringBuilder json = new StringBuilder("{\"snapshot-header\":{},\"ratings\":[");
+        for (int r = 0; r < resources; r++) {
+            int limit = 100 + r % 50;
+            json.append(r == 0 ? "" : ",").append("{\"resource-id\":\"LINE-").append(r)
+                    .append("\",\"continuous-operating-limit\":{\"mva\":").append(limit).append('}');
+            emergencyLimits(json, limit);
+            json.append('}');
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    //one period for each of the four seasons
+    private static byte[] seasonalSnapshot(int resources) {
+        String[] seasons = {"winter", "spring", "summer", "fall"};
+        StringBuilder json = new StringBuilder("{\"snapshot-header\":{},\"ratings\":[");
+        for (int r = 0; r < resources; r++) {
+            json.append(r == 0 ? "" : ",").append("{\"resource-id\":\"LINE-").append(r).append("\",\"periods\":[");
+            for (int s = 0; s < seasons.length; s++) {
+                Instant start = BEGINS.plus(91L * s, ChronoUnit.DAYS);
+                json.append(s == 0 ? "" : ",");
+                period(json, start, start.plus(91, ChronoUnit.DAYS), 100 + (r + s) % 50);
+                json.append(",\"season-name\":\"").append(seasons[s]).append("\"}");
+            }
+            json.append("]}");
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    //leaves the period object open
+    static void period(StringBuilder json, Instant start, Instant end, int limit) {
+        json.append("{\"period-start\":\"").append(start).append("\",\"period-end\":\"").append(end)
+                .append("\",\"continuous-operating-limit\":{\"mva\":").append(limit).append('}');
+        emergencyLimits(json, limit);
+    }
+
+    private static void emergencyLimits(StringBuilder json, int limit) {
+        json.append(",\"emergency-operating-limits\":[")
+                .append("{\"duration-name\":\"lte\",\"limit\":{\"mva\":").append(limit + 10).append("}},")
+                .append("{\"duration-name\":\"ste\",\"limit\":{\"mva\":").append(limit + 20).append("}},")
+                .append("{\"duration-name\":\"dal\",\"limit\":{\"mva\":").append(limit + 30).append("}}]");
+    }
+
+    static class ForecastSink implements ForecastSnapshotReceiver {
+
+        private int periods;
+
+        @Override
+        public void beginSnapshot() {
+        }
+
+        @Override
+        public void header(ForecastSnapshotHeader header) {
+        }
+
+        @Override
+        public void beginResource(String resourceId) {
+        }
+
+        @Override
+        public void period(ForecastPeriodSnapshot period) {
+            periods++;
+        }
+
+        @Override
+        public void endResource() {
+        }
+
+        @Override
+        public void endSnapshot() {
+            sink = periods;
+        }
+
+        @Override
+        public void error(StreamingGetException t) {
+        }
+    }
+
+    static class PrimitiveForecastSink extends ForecastSink implements PrimitiveForecastSnapshotReceiver {
+
+        private float total;
+
+        @Override
+        public void period(int resourceIndex, long periodStart, long periodEnd, float continuousLimit,
+                           EmergencyLimitsAccessor emergencyLimits) {
+            total += continuousLimit;
+            for (int i = 0; i < emergencyLimits.size(); i++) {
+                total += emergencyLimits.getLimit(i);
+            }
+        }
+
+        @Override
+        public void endSnapshot() {
+            sink = total;
+        }
+    }
+
+    private static class RealTimeSink implements RealTimeSnapshotReceiver {
+
+        private int limits;
+
+        @Override
+        public void beginSnapshot() {
+        }
+
+        @Override
+        public void header(RealTimeSnapshotHeader header) {
+        }
+
+        @Override
+        public void limit(RealTimeLimit limit) {
+            limits++;
+        }
+
+        @Override
+        public void endSnapshot() {
+            sink = limits;
+        }
+
+        @Override
+        public void error(StreamingGetException t) {
+        }
+    }
+
+    private static class SeasonalSink implements SeasonalSnapshotReceiver {
+
+        private int periods;
+
+        @Override
+        public void beginSnapshot() {
+        }
+
+        @Override
+        public void header(SeasonalSnapshotHeader header) {
+        }
+
+        @Override
+        public void beginResource(String resourceId) {
+        }
+
+        @Override
+        public void period(SeasonalPeriodSnapshot period) {
+            periods++;
+        }
+
+        @Override
+        public void endResource() {
+        }
+
+        @Override
+        public void endSnapshot() {
+            sink = periods;
+        }
+
+        @Override
+        public void error(StreamingGetException t) {
+        }
+    }
+}
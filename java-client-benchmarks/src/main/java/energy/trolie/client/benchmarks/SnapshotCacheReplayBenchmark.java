@@ -0,0 +1,97 @@
+package energy.trolie.client.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import energy.trolie.client.SnapshotCache;
+import energy.trolie.client.impl.MappedFileSnapshotCache;
+import energy.trolie.client.impl.request.operatingsnapshots.ForecastSnapshotResponseParser;
+import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotReceiver;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Supplier;
+
+/**
+ * <p>Measures the replay of a forecast snapshot from a {@link MappedFileSnapshotCache}, as run by a
+ * subscription on its first poll after a restart.  The cached body is the JSON of the response, so replay
+ * maps the file and parses it again, into objects and through the primitive receiver.  The snapshot is
+ * written to the cache one resource at a time, so its size is not bound by the heap.  Run with:</p>
+ * <pre>
+ * java -cp ... energy.trolie.client.benchmarks.SnapshotCacheReplayBenchmark [resources] [periods] [iterations]
+ * </pre>
+ */
+public class SnapshotCacheReplayBenchmark {
+
+    private static final JsonFactory FACTORY = new ObjectMapper().registerModule(new JavaTimeModule()).getFactory();
+    private static final Instant BEGINS = Instant.parse("2025-07-12T05:00:00Z");
+    private static final String KEY = "/limits/forecast-snapshot";
+
+    public static void main(String[] args) throws Exception {
+        int resources = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int periods = args.length > 1 ? Integer.parseInt(args[1]) : 240;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        Path directory = Files.createTempDirectory("replay-benchmark");
+        try {
+            SnapshotCache cache = new MappedFileSnapshotCache(directory);
+            long bytes = store(cache, resources, periods);
+            System.out.printf("resources=%d periods=%d: cached body %d MiB%n", resources, periods, bytes >> 20);
+
+            replay("replay objects", cache, bytes, iterations, ResponseParserBenchmark.ForecastSink::new);
+            replay("replay primitive", cache, bytes, iterations, ResponseParserBenchmark.PrimitiveForecastSink::new);
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private static void replay(String name, SnapshotCache cache, long bytes, int iterations,
+                               Supplier<ForecastSnapshotReceiver> receivers) throws Exception {
+        Measurement.run(name, iterations, bytes >> 20, "MiB", () -> {
+            SnapshotCache.Entry entry = cache.get(KEY);
+            try (InputStream in = entry.openContent()) {
+                if (!Boolean.TRUE.equals(new ForecastSnapshotResponseParser(receivers.get(), e -> {
+                    throw new IllegalStateException(e);
+                }).parseResponse(in, FACTORY))) {
+                    throw new IllegalStateException("Snapshot was not replayed");
+                }
+            }
+        });
+    }
+
+    //the same snapshot as the parser benchmark, written one resource at a time
+    private static long store(SnapshotCache cache, int resources, int periods) {
+        SnapshotCache.Writer writer = cache.newWriter(KEY);
+        long bytes = write(writer, "{\"snapshot-header\":{\"begins\":\"" + BEGINS + "\"},\"ratings\":[");
+        for (int r = 0; r < resources; r++) {
+            StringBuilder json = new StringBuilder(r == 0 ? "" : ",").append("{\"resource-id\":\"LINE-").append(r)
+                    .append("\",\"periods\":[");
+            for (int p = 0; p < periods; p++) {
+                Instant start = BEGINS.plus(p, ChronoUnit.HOURS);
+                json.append(p == 0 ? "" : ",");
+                ResponseParserBenchmark.period(json, start, start.plus(1, ChronoUnit.HOURS), 100 + (r + p) % 50);
+                json.append('}');
+            }
+            bytes += write(writer, json.append("]}").toString());
+        }
+        bytes += write(writer, "]}");
+        writer.commit("\"replay-benchmark\"");
+        return bytes;
+    }
+
+    private static long write(SnapshotCache.Writer writer, String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        writer.write(ByteBuffer.wrap(bytes));
+        return bytes.length;
+    }
+}
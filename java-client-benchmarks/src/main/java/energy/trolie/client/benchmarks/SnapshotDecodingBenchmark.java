@@ -0,0 +1,209 @@
+package energy.trolie.client.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import energy.trolie.client.exception.StreamingGetException;
+import energy.trolie.client.impl.model.operatingsnapshots.SnapshotDecoders;
+import energy.trolie.client.impl.request.operatingsnapshots.ForecastSnapshotResponseParser;
+import energy.trolie.client.model.operatingsnapshots.ForecastPeriodSnapshot;
+import energy.trolie.client.model.operatingsnapshots.ForecastSnapshotHeader;
+import energy.trolie.client.model.operatingsnapshots.RealTimeLimit;
+import energy.trolie.client.model.operatingsnapshots.SeasonalPeriodSnapshot;
+import energy.trolie.client.request.operatingsnapshots.EmergencyLimitsAccessor;
+import energy.trolie.client.request.operatingsnapshots.PrimitiveForecastSnapshotReceiver;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * <p>Compares binding snapshot periods and limits through databind's {@code readValueAs}
+ * against the hand-written {@link SnapshotDecoders}, and against the primitive receiver path.</p>
+ * <p>Payloads are generated in the shape of a real exchange: hourly forecast periods with three
+ * emergency limits each, seasonal periods, and a real-time snapshot of many resources.
+ * Each case is warmed up before being timed.  Run with:</p>
+ * <pre>
+ * java -cp ... energy.trolie.client.benchmarks.SnapshotDecodingBenchmark [resources] [periods] [iterations]
+ * </pre>
+ */
+public class SnapshotDecodingBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws Exception {
+        int resources = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int periods = args.length > 1 ? Integer.parseInt(args[1]) : 240;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        byte[] forecast = forecastSnapshot(resources, periods);
+        byte[] seasonal = seasonalPeriods(resources * 4);
+        byte[] realTime = realTimeLimits(resources * 20);
+        System.out.printf("forecast %d KiB, seasonal %d KiB, real-time %d KiB%n",
+                forecast.length / 1024, seasonal.length / 1024, realTime.length / 1024);
+
+        run("forecast readValueAs", iterations, resources * periods,
+                () -> forEachInRatings(forecast, p -> p.readValueAs(ForecastPeriodSnapshot.class)));
+        run("forecast decoder", iterations, resources * periods,
+                () -> forEachInRatings(forecast, SnapshotDecoders::forecastPeriod));
+        run("forecast primitive", iterations, resources * periods,
+                () -> new ForecastSnapshotResponseParser(new PrimitiveSink(), e -> { throw new IllegalStateException(e); })
+                        .parseResponse(new ByteArrayInputStream(forecast), FACTORY));
+        run("seasonal readValueAs", iterations, resources * 4,
+                () -> forEachInArray(seasonal, p -> p.readValueAs(SeasonalPeriodSnapshot.class)));
+        run("seasonal decoder", iterations, resources * 4,
+                () -> forEachInArray(seasonal, SnapshotDecoders::seasonalPeriod));
+        run("real-time readValueAs", iterations, resources * 20,
+                () -> forEachInArray(realTime, p -> p.readValueAs(RealTimeLimit.class)));
+        run("real-time decoder", iterations, resources * 20,
+                () -> forEachInArray(realTime, SnapshotDecoders::realTimeLimit));
+    }
+
+    private static void run(String name, int iterations, int objects, Case benchmark) throws Exception {
+        for (int i = 0; i < iterations; i++) {
+            benchmark.run();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            benchmark.run();
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        System.out.printf("%-22s %8.1f ms/op %8.0f ns/object %8.0f B/object%n", name,
+                nanos / 1e6 / iterations, (double) nanos / iterations / objects,
+                (double) allocated / iterations / objects);
+    }
+
+    //visits every object of the periods arrays nested in the ratings array
+    private static void forEachInRatings(byte[] json, Decoder decoder) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            while (parser.nextToken() != null) {
+                if (parser.currentToken() == JsonToken.START_ARRAY && "periods".equals(parser.currentName())) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        sink = decoder.decode(parser);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void forEachInArray(byte[] json, Decoder decoder) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                sink = decoder.decode(parser);
+            }
+        }
+    }
+
+    private static byte[] forecastSnapshot(int resources, int periods) {
+        Instant begins = Instant.parse("2025-07-12T05:00:00Z");
+        StringBuilder json = new StringBuilder("{\"snapshot-header\":{\"begins\":\"").append(begins)
+                .append("\"},\"ratings\":[");
+        for (int r = 0; r < resources; r++) {
+            json.append(r == 0 ? "" : ",").append("{\"resource-id\":\"LINE-").append(r).append("\",\"periods\":[");
+            for (int p = 0; p < periods; p++) {
+                Instant start = begins.plus(p, ChronoUnit.HOURS);
+                json.append(p == 0 ? "" : ",");
+                period(json, start, start.plus(1, ChronoUnit.HOURS), 100 + (r + p) % 50);
+                json.append('}');
+            }
+            json.append("]}");
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] seasonalPeriods(int count) {
+        Instant start = Instant.parse("2025-06-01T05:00:00Z");
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            json.append(i == 0 ? "" : ",");
+            period(json, start, start.plus(92, ChronoUnit.DAYS), 100 + i % 50);
+            json.append(",\"season-name\":\"summer\"}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] realTimeLimits(int count) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"resource-id\":\"LINE-").append(i)
+                    .append("\",\"continuous-operating-limit\":{\"mva\":").append(100 + i % 50).append('}');
+            emergencyLimits(json, 100 + i % 50);
+            json.append('}');
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    //leaves the period object open for additional fields
+    private static void period(StringBuilder json, Instant start, Instant end, int limit) {
+        json.append("{\"period-start\":\"").append(start)
+                .append("\",\"period-end\":\"").append(end)
+                .append("\",\"continuous-operating-limit\":{\"mva\":").append(limit).append('}');
+        emergencyLimits(json, limit);
+    }
+
+    private static void emergencyLimits(StringBuilder json, int limit) {
+        json.append(",\"emergency-operating-limits\":[")
+                .append("{\"duration-name\":\"lte\",\"limit\":{\"mva\":").append(limit + 10).append("}},")
+                .append("{\"duration-name\":\"ste\",\"limit\":{\"mva\":").append(limit + 20).append("}},")
+                .append("{\"duration-name\":\"dal\",\"limit\":{\"mva\":").append(limit + 30).append("}}]");
+    }
+
+    private interface Case {
+        void run() throws Exception;
+    }
+
+    private interface Decoder {
+        Object decode(JsonParser parser) throws IOException;
+    }
+
+    private static class PrimitiveSink implements PrimitiveForecastSnapshotReceiver {
+
+        private float total;
+
+        @Override
+        public void period(int resourceIndex, long periodStart, long periodEnd, float continuousLimit,
+                           EmergencyLimitsAccessor emergencyLimits) {
+            total += continuousLimit;
+            for (int i = 0; i < emergencyLimits.size(); i++) {
+                total += emergencyLimits.getLimit(i);
+            }
+        }
+
+        @Override
+        public void beginSnapshot() {
+        }
+
+        @Override
+        public void header(ForecastSnapshotHeader header) {
+        }
+
+        @Override
+        public void beginResource(String resourceId) {
+        }
+
+        @Override
+        public void endResource() {
+        }
+
+        @Override
+        public void endSnapshot() {
+            sink = total;
+        }
+
+        @Override
+        public void error(StreamingGetException t) {
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package energy.trolie.client.benchmarks;
+
+import energy.trolie.client.ExecutorMetrics;
+import energy.trolie.client.TrolieApiConstants;
+import energy.trolie.client.TrolieClient;
+import energy.trolie.client.TrolieClientBuilder;
+import energy.trolie.client.model.operatingsnapshots.RealTimeLimit;
+import energy.trolie.client.model.operatingsnapshots.RealTimeSnapshotHeader;
+import energy.trolie.client.request.operatingsnapshots.RealTimeSnapshotSubscribedReceiver;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.nio.AsyncResponseProducer;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.support.AsyncResponseBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Measures the thread and heap footprint of many concurrent polling subscriptions.</p>
+ * <p>Starts a local stand-in TROLIE server that answers real-time snapshot polls with
+ * a small snapshot followed by 304s, subscribes once per monitoring set and samples the
+ * JVM while the subscriptions poll.  Run with:</p>
+ * <pre>
+ * java -cp ... energy.trolie.client.benchmarks.SubscriptionFootprintBenchmark [platform|virtual] [subscriptions] [pollMs] [seconds]
+ * </pre>
+ * <p>Virtual mode only differs from platform mode on Java 21 or later.</p>
+ */
+public class SubscriptionFootprintBenchmark {
+
+    private static final byte[] SNAPSHOT = ("{\"snapshot-header\":{\"source\":{\"provider\":\"bench\","
+            + "\"last-updated\":\"2025-01-01T00:00:00Z\",\"origin-id\":\"bench\"}},"
+            + "\"limits\":[{\"resource-id\":\"line-1\",\"continuous-operating-limit\":{\"mva\":100.0}}]}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws Exception {
+        boolean virtual = args.length > 0 && "virtual".equalsIgnoreCase(args[0]);
+        int subscriptions = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int pollMs = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+        AtomicLong requests = new AtomicLong();
+        StandInServer server = new StandInServer(request -> {
+            requests.incrementAndGet();
+            return respond(request);
+        });
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        int baselineThreads = threads.getThreadCount();
+        System.gc();
+        long baselineHeap = memory.getHeapMemoryUsage().getUsed();
+
+        TrolieClientBuilder builder = new TrolieClientBuilder(
+                server.getBaseUrl(),
+                HttpClients.custom()
+                        .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                                .setMaxConnTotal(64)
+                                .setMaxConnPerRoute(64)
+                                .build())
+                        .build())
+                .realTimeRatingsPollMs(pollMs);
+        if (virtual) {
+            builder.useVirtualThreads();
+        }
+
+        AtomicLong snapshots = new AtomicLong();
+        try (TrolieClient client = builder.build()) {
+            for (int i = 0; i < subscriptions; i++) {
+                client.subscribeToInUseLimits(new CountingReceiver(snapshots), "set-" + i);
+            }
+
+            int peakThreads = 0;
+            long end = System.currentTimeMillis() + seconds * 1000L;
+            while (System.currentTimeMillis() < end) {
+                Thread.sleep(250);
+                peakThreads = Math.max(peakThreads, threads.getThreadCount());
+            }
+            System.gc();
+            long heap = memory.getHeapMemoryUsage().getUsed();
+            ExecutorMetrics metrics = client.getExecutorMetrics();
+
+            System.out.printf("mode=%s virtual=%s subscriptions=%d pollMs=%d seconds=%d%n",
+                    virtual ? "virtual" : "platform", metrics.isVirtual(), subscriptions, pollMs, seconds);
+            System.out.printf("threads: baseline=%d peak=%d added=%d%n",
+                    baselineThreads, peakThreads, peakThreads - baselineThreads);
+            System.out.printf("heap after GC: baseline=%.1f MiB now=%.1f MiB added=%.1f KiB/subscription%n",
+                    baselineHeap / 1048576.0, heap / 1048576.0,
+                    (heap - baselineHeap) / 1024.0 / subscriptions);
+            System.out.printf("polls=%d (%.1f/s) snapshots=%d queueDepth=%d%n",
+                    requests.get(), requests.get() / (double) seconds, snapshots.get(), metrics.getQueueDepth());
+        } finally {
+            server.close();
+            System.exit(0);
+        }
+    }
+
+    private static AsyncResponseProducer respond(HttpRequest request) {
+        if (request.containsHeader(HttpHeaders.IF_NONE_MATCH)) {
+            return AsyncResponseBuilder.create(HttpStatus.SC_NOT_MODIFIED).build();
+        }
+        return AsyncResponseBuilder.create(HttpStatus.SC_OK)
+                .setHeader(HttpHeaders.ETAG, "\"bench\"")
+                .setEntity(AsyncEntityProducers.create(SNAPSHOT,
+                        ContentType.create(TrolieApiConstants.CONTENT_TYPE_REALTIME_SNAPSHOT)))
+                .build();
+    }
+
+    private static class CountingReceiver implements RealTimeSnapshotSubscribedReceiver {
+
+        private final AtomicLong snapshots;
+
+        CountingReceiver(AtomicLong snapshots) {
+            this.snapshots = snapshots;
+        }
+
+        @Override
+        public void beginSnapshot() {
+            snapshots.incrementAndGet();
+        }
+
+        @Override
+        public void header(RealTimeSnapshotHeader header) {
+        }
+
+        @Override
+        public void limit(RealTimeLimit limit) {
+        }
+
+        @Override
+        public void endSnapshot() {
+        }
+    }
+}
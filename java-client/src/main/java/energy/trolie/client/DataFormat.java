@@ -0,0 +1,182 @@
+package energy.trolie.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Locale;
+
+/**
+ * <p>Data format of snapshots and proposals exchanged with the server, identified by the structured
+ * syntax suffix of the TROLIE vendor media types, such as the <code>+json</code> of
+ * {@link TrolieApiConstants#CONTENT_TYPE_FORECAST_SNAPSHOT}.</p>
+ * <p>Requests in a binary format such as Jackson Smile or CBOR accept it ahead of JSON, and parse each response
+ * in the format the server answered with, so servers without support for the format are still served
+ * in JSON.  Proposals are sent in the format.  Binary formats avoid the text encoding of floats and dates
+ * and are usually smaller on the wire, but servers must support them to benefit.</p>
+ * <p>Binary formats require the matching <code>jackson-dataformat</code> module on the class path.</p>
+ */
+public final class DataFormat {
+
+	/**
+	 * Suffix of the JSON media types
+	 */
+	public static final String SUFFIX_JSON = "json";
+
+	/**
+	 * Suffix of the Jackson Smile media types
+	 */
+	public static final String SUFFIX_SMILE = "smile";
+
+	/**
+	 * Suffix of the CBOR media types
+	 */
+	public static final String SUFFIX_CBOR = "cbor";
+
+	/**
+	 * JSON, the format defined by the TROLIE specification.  Default for all clients.
+	 */
+	public static final DataFormat JSON = new DataFormat(SUFFIX_JSON, null, null);
+
+	private final String suffix;
+	private final JsonFactory factory;
+	//set once the format is bound to the object mapper of a client
+	private final ObjectMapper objectMapper;
+
+	private DataFormat(String suffix, JsonFactory factory, ObjectMapper objectMapper) {
+		this.suffix = suffix;
+		this.factory = factory;
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Create a format from a Jackson factory
+	 * @param suffix structured syntax suffix replacing <code>json</code> in the media types, such as <code>smile</code>
+	 * @param factory factory reading and writing the format
+	 * @return new format
+	 */
+	public static DataFormat of(String suffix, JsonFactory factory) {
+		if (suffix == null || suffix.isBlank()) {
+			throw new IllegalArgumentException("Suffix is required");
+		}
+		if (factory == null) {
+			throw new IllegalArgumentException("Factory is required");
+		}
+		return new DataFormat(suffix.toLowerCase(Locale.ROOT), factory, null);
+	}
+
+	/**
+	 * Jackson Smile, through the <code>jackson-dataformat-smile</code> module
+	 * @return new format
+	 * @throws IllegalStateException if the module is not on the class path
+	 */
+	public static DataFormat smile() {
+		return of(SUFFIX_SMILE, loadFactory("com.fasterxml.jackson.dataformat.smile.SmileFactory"));
+	}
+
+	/**
+	 * CBOR, through the <code>jackson-dataformat-cbor</code> module
+	 * @return new format
+	 * @throws IllegalStateException if the module is not on the class path
+	 */
+	public static DataFormat cbor() {
+		return of(SUFFIX_CBOR, loadFactory("com.fasterxml.jackson.dataformat.cbor.CBORFactory"));
+	}
+
+	private static JsonFactory loadFactory(String className) {
+		try {
+			return (JsonFactory) Class.forName(className).getConstructor().newInstance();
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException(className + " not found.  Add the matching jackson-dataformat module", e);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Failed to create " + className, e);
+		}
+	}
+
+	/**
+	 * Bind this format to the object mapper of a client, so values are read and written with the same
+	 * modules and configuration as JSON.  Should not be called by application code.
+	 * @param jsonMapper object mapper of the client
+	 * @return bound format
+	 */
+	public DataFormat withObjectMapper(ObjectMapper jsonMapper) {
+		if (isJson()) {
+			return new DataFormat(suffix, jsonMapper.getFactory(), jsonMapper);
+		}
+		return new DataFormat(suffix, factory, jsonMapper.copyWith(factory.copy()));
+	}
+
+	/**
+	 *
+	 * @return structured syntax suffix of the media types in this format
+	 */
+	public String getSuffix() {
+		return suffix;
+	}
+
+	/**
+	 *
+	 * @return true for JSON
+	 */
+	public boolean isJson() {
+		return SUFFIX_JSON.equals(suffix);
+	}
+
+	/**
+	 *
+	 * @return object mapper reading and writing this format, or null if not bound to a client
+	 */
+	public ObjectMapper getObjectMapper() {
+		return objectMapper;
+	}
+
+	/**
+	 *
+	 * @return factory reading and writing this format
+	 */
+	public JsonFactory getFactory() {
+		return objectMapper != null ? objectMapper.getFactory() : factory;
+	}
+
+	/**
+	 * Media type of a TROLIE resource in this format
+	 * @param jsonMediaType JSON media type from {@link TrolieApiConstants}
+	 * @return media type with the <code>+json</code> suffix replaced
+	 */
+	public String mediaType(String jsonMediaType) {
+		if (isJson() || !jsonMediaType.endsWith("+" + SUFFIX_JSON)) {
+			return jsonMediaType;
+		}
+		return jsonMediaType.substring(0, jsonMediaType.length() - SUFFIX_JSON.length()) + suffix;
+	}
+
+	/**
+	 * Value of the Accept header for a TROLIE resource, preferring this format over JSON
+	 * @param jsonMediaType JSON media type from {@link TrolieApiConstants}
+	 * @return accepted media types
+	 */
+	public String accept(String jsonMediaType) {
+		if (isJson()) {
+			return jsonMediaType;
+		}
+		return mediaType(jsonMediaType) + ", " + jsonMediaType + ";q=0.5";
+	}
+
+	/**
+	 * Whether a response or request body is in this format
+	 * @param contentType value of the Content-Type header, may be null
+	 * @return true if the media type carries the suffix of this format
+	 */
+	public boolean matches(String contentType) {
+		if (contentType == null) {
+			return false;
+		}
+		int end = contentType.indexOf(';');
+		String mimeType = (end < 0 ? contentType : contentType.substring(0, end)).trim().toLowerCase(Locale.ROOT);
+		return mimeType.endsWith("+" + suffix);
+	}
+
+	@Override
+	public String toString() {
+		return suffix;
+	}
+}
@@ -12,21 +12,22 @@ package energy.trolie.client;
  * inject an in-memory implementation of this store.  Users may wish to
  * override this interface however to use storage such as a database that better
  * maps to their own application architecture.</p>
+ * <p>ETags are keyed by the accepted media type followed by the normalized request URI, including
+ * query parameters, so that requests to the same endpoint with different parameters, such as
+ * different monitoring sets, each keep their own ETag.</p>
  */
 public interface ETagStore {
 
 	/**
-	 * Get the currently stored eTag for this particular path.
-	 * @param endpointPath The full path at which data is requested is effectively
-	 *                     the key to look up the data.
+	 * Get the currently stored eTag for this particular request.
+	 * @param endpointPath key of the request, built from its media type and full URI.
 	 * @return raw string value if stored, null if non-existent.
 	 */
 	String getETag(String endpointPath);
 
 	/**
-	 * Store a new value at this particular path.
-	 * @param endpointPath The full path at which data is requested is effectively
-	 *                     the key to look up the data.
+	 * Store a new value for this particular request.
+	 * @param endpointPath key of the request, built from its media type and full URI.
 	 * @param eTag value of the eTag as returned in the response header from
 	 *             the TROLIE server.
 	 */
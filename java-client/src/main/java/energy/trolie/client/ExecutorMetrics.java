@@ -0,0 +1,53 @@
+package energy.trolie.client;
+
+/**
+ * Point-in-time view of the shared execution service used by a {@link TrolieClient}
+ * to run subscription polls and streaming updates.  Useful for monitoring whether
+ * the worker pool configured with {@link TrolieClientBuilder#workerThreads(int)}
+ * keeps up with the configured subscriptions.
+ */
+public interface ExecutorMetrics {
+
+	/**
+	 *
+	 * @return true if tasks run on virtual threads, see {@link TrolieClientBuilder#useVirtualThreads()}.
+	 */
+	boolean isVirtual();
+
+	/**
+	 *
+	 * @return number of tasks waiting for a free worker.  Always zero on virtual threads.
+	 */
+	int getQueueDepth();
+
+	/**
+	 *
+	 * @return number of workers currently executing a task.
+	 */
+	int getActiveWorkers();
+
+	/**
+	 *
+	 * @return number of worker threads currently alive.  On virtual threads, equal to the
+	 * number of active workers.
+	 */
+	int getPoolSize();
+
+	/**
+	 *
+	 * @return upper bound on the number of worker threads.  Unbounded on virtual threads.
+	 */
+	int getMaxWorkers();
+
+	/**
+	 *
+	 * @return total number of tasks completed by the workers.
+	 */
+	long getCompletedTasks();
+
+	/**
+	 *
+	 * @return number of timed tasks, such as upcoming subscription polls, that are not yet due.
+	 */
+	int getPendingTimers();
+}
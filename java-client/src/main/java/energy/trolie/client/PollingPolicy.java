@@ -0,0 +1,96 @@
+package energy.trolie.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * <p>Decides when a subscription polls next, based on the outcome of its last poll.</p>
+ * <p>By default, subscriptions poll at the fixed rate configured for their endpoint, such as
+ * {@link TrolieClientBuilder#realTimeRatingsPollMs(int)}.  When a policy is configured with
+ * {@link TrolieClientBuilder#pollingPolicy(PollingPolicy)}, each subscription instead asks the policy
+ * for the delay to its next poll once the previous poll has completed, so it may back off while
+ * data is unchanged or the server is failing, and follow the caching directives of the server.
+ * See {@link energy.trolie.client.impl.AdaptivePollingPolicy}.</p>
+ * <p>Policies are shared by all subscriptions of a client, so must be thread safe.  The state of
+ * each subscription is passed in the {@link PollOutcome}.</p>
+ */
+public interface PollingPolicy {
+
+	/**
+	 * Compute the delay to the next poll
+	 * @param outcome outcome of the poll that just completed
+	 * @return delay in milliseconds from the start of that poll to the start of the next one
+	 */
+	long nextPollDelayMillis(PollOutcome outcome);
+
+	/**
+	 * Result of a poll
+	 */
+	enum PollResult {
+		/**
+		 * A new response body was received and handled
+		 */
+		CHANGED,
+		/**
+		 * The server responded 304 Not Modified
+		 */
+		NOT_MODIFIED,
+		/**
+		 * The poll failed, either with an error status or while handling the response
+		 */
+		ERROR
+	}
+
+	/**
+	 * Outcome of a poll, along with the poll history of the subscription
+	 */
+	@AllArgsConstructor
+	@Getter
+	@ToString
+	class PollOutcome {
+
+		/**
+		 * Poll rate configured for the endpoint, in milliseconds
+		 */
+		private final long pollingRateMillis;
+
+		/**
+		 * Result of the poll
+		 */
+		private final PollResult result;
+
+		/**
+		 * HTTP status code of the response, or 0 if none was received
+		 */
+		private final int statusCode;
+
+		/**
+		 * Number of 304 responses in a row, including this poll
+		 */
+		private final int consecutiveNotModified;
+
+		/**
+		 * Number of failed polls in a row, including this poll
+		 */
+		private final int consecutiveErrors;
+
+		/**
+		 * Remaining freshness of the response given by its {@code Cache-Control: max-age} directive,
+		 * less its {@code Age}, in milliseconds.  Zero if the server asked for revalidation with
+		 * {@code no-cache}, or -1 if the response gave no freshness.
+		 */
+		private final long maxAgeMillis;
+
+		/**
+		 * Delay requested by the {@code Retry-After} header of the response, in milliseconds,
+		 * or -1 if none was given
+		 */
+		private final long retryAfterMillis;
+
+		/**
+		 * Wall clock time the poll completed at, in milliseconds since the epoch
+		 */
+		private final long completedAtMillis;
+	}
+}
@@ -24,4 +24,13 @@ public interface RequestSubscription {
 	 * occurred successfully without error.
 	 */
 	boolean isHealthy();
+
+	/**
+	 *
+	 * @return interval between polls currently in effect, in milliseconds.  Equal to the configured
+	 * poll rate, unless a {@link PollingPolicy} has adapted it.  -1 if the subscription does not poll.
+	 */
+	default long getPollIntervalMillis() {
+		return -1;
+	}
 }
@@ -0,0 +1,203 @@
+package energy.trolie.client;
+
+import energy.trolie.client.model.common.PowerSystemResource;
+import energy.trolie.client.model.monitoringsets.MonitoringSet;
+import energy.trolie.client.model.operatingsnapshots.SnapshotHeader;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>Interns the resource IDs seen by a client, assigning each a dense int index that stays
+ * the same for the lifetime of the dictionary, and so across polls of a subscription.</p>
+ * <p>Every snapshot repeats the same IDs.  Parsers look them up straight from the characters
+ * of the response, so a known ID does not produce a new string, and receivers may keep their
+ * data in arrays addressed by {@link #indexOf(String)} rather than in maps keyed by ID.  The
+ * dictionary is seeded from monitoring sets and snapshot headers as they are received, and may be
+ * seeded up front through {@link #seed(MonitoringSet)}.</p>
+ * <p>Lookups of known IDs do not lock.  IDs are never removed.</p>
+ */
+public class ResourceDictionary {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	//open addressing table sized to at most half full, replaced on growth
+	private volatile AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+	//written before the entry referring to an index is published
+	private volatile String[] resourceIds = new String[INITIAL_CAPACITY / 2];
+	private volatile int size;
+
+	/**
+	 * Find or assign the index of a resource
+	 * @param resourceId ID of the resource
+	 * @return dense index of the resource, from zero to {@link #size()} exclusive
+	 */
+	public int indexOf(String resourceId) {
+		int hash = resourceId.hashCode();
+		AtomicReferenceArray<Entry> slots = table;
+		int mask = slots.length() - 1;
+		for (int i = slot(hash, mask); ; i = (i + 1) & mask) {
+			Entry entry = slots.get(i);
+			if (entry == null) {
+				return add(resourceId, hash);
+			} else if (entry.hash == hash && entry.resourceId.equals(resourceId)) {
+				return entry.index;
+			}
+		}
+	}
+
+	/**
+	 * Find or assign the index of a resource given as characters, such as the text buffer of a parser.
+	 * A new string is only created for a resource not seen before.
+	 * @param text characters holding the resource ID
+	 * @param offset start of the ID
+	 * @param length length of the ID
+	 * @return dense index of the resource
+	 */
+	public int indexOf(char[] text, int offset, int length) {
+		//same hash as String.hashCode, so both lookups share the table
+		int hash = 0;
+		for (int i = offset; i < offset + length; i++) {
+			hash = 31 * hash + text[i];
+		}
+		AtomicReferenceArray<Entry> slots = table;
+		int mask = slots.length() - 1;
+		for (int i = slot(hash, mask); ; i = (i + 1) & mask) {
+			Entry entry = slots.get(i);
+			if (entry == null) {
+				return add(new String(text, offset, length), hash);
+			} else if (entry.hash == hash && matches(entry.resourceId, text, offset, length)) {
+				return entry.index;
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param index index as returned by {@link #indexOf(String)}
+	 * @return the shared instance of the resource ID
+	 * @throws IndexOutOfBoundsException if no resource has this index
+	 */
+	public String getResourceId(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("No resource with index " + index);
+		}
+		return resourceIds[index];
+	}
+
+	/**
+	 *
+	 * @return number of resources known, and hence upper bound of the indices handed out so far
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Assign indices to all resources of a monitoring set
+	 * @param monitoringSet monitoring set
+	 */
+	public void seed(MonitoringSet monitoringSet) {
+		seed(monitoringSet.getPowerSystemResources());
+	}
+
+	/**
+	 * Assign indices to all resources listed in a snapshot header
+	 * @param header snapshot header
+	 */
+	public void seed(SnapshotHeader header) {
+		seed(header.getPowerSystemResources());
+	}
+
+	private void seed(Collection<PowerSystemResource> resources) {
+		if (resources == null) {
+			return;
+		}
+		for (PowerSystemResource resource : resources) {
+			if (resource != null && resource.getResourceId() != null) {
+				indexOf(resource.getResourceId());
+			}
+		}
+	}
+
+	private synchronized int add(String resourceId, int hash) {
+		//another thread may have added it, or grown the table, since the unlocked lookup
+		AtomicReferenceArray<Entry> slots = table;
+		int mask = slots.length() - 1;
+		int slot = slot(hash, mask);
+		for (Entry entry; (entry = slots.get(slot)) != null; slot = (slot + 1) & mask) {
+			if (entry.hash == hash && entry.resourceId.equals(resourceId)) {
+				return entry.index;
+			}
+		}
+
+		int index = size;
+		String[] ids = resourceIds;
+		if (index == ids.length) {
+			ids = Arrays.copyOf(ids, ids.length * 2);
+			resourceIds = ids;
+		}
+		ids[index] = resourceId;
+		//counted before the entry is visible, so any index found can be resolved
+		size = index + 1;
+		Entry entry = new Entry(resourceId, hash, index);
+		if ((index + 1) * 2 > slots.length()) {
+			table = rehash(slots, entry);
+		} else {
+			slots.set(slot, entry);
+		}
+		return index;
+	}
+
+	private static AtomicReferenceArray<Entry> rehash(AtomicReferenceArray<Entry> slots, Entry added) {
+		AtomicReferenceArray<Entry> grown = new AtomicReferenceArray<>(slots.length() * 2);
+		for (int i = 0; i < slots.length(); i++) {
+			Entry entry = slots.get(i);
+			if (entry != null) {
+				insert(grown, entry);
+			}
+		}
+		insert(grown, added);
+		return grown;
+	}
+
+	private static void insert(AtomicReferenceArray<Entry> slots, Entry entry) {
+		int mask = slots.length() - 1;
+		int slot = slot(entry.hash, mask);
+		while (slots.get(slot) != null) {
+			slot = (slot + 1) & mask;
+		}
+		slots.set(slot, entry);
+	}
+
+	//spreads the high bits, as IDs often differ only in their last characters
+	private static int slot(int hash, int mask) {
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+
+	private static boolean matches(String resourceId, char[] text, int offset, int length) {
+		if (resourceId.length() != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (resourceId.charAt(i) != text[offset + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static final class Entry {
+
+		final String resourceId;
+		final int hash;
+		final int index;
+
+		Entry(String resourceId, int hash, int index) {
+			this.resourceId = resourceId;
+			this.hash = hash;
+			this.index = index;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package energy.trolie.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * <p>Pluggable persistent store for the last response body received by each subscription.</p>
+ * <p>The {@link ETagStore} lets a subscription resume conditional GETs, but after a restart
+ * the receivers hold no data, so without a cached body the first poll must download a full
+ * snapshot.  When a cache is configured with {@link TrolieClientBuilder#snapshotCache(SnapshotCache)},
+ * each subscription records the body of every successfully handled 200 response along with its
+ * ETag.  On its first poll after a restart, the subscription replays the cached body into its
+ * receiver and then polls with that ETag, so the server only sends data that has changed since.</p>
+ * <p>On-demand requests may likewise keep their last response with
+ * {@link TrolieClientBuilder#responseCache(SnapshotCache)}, so that repeating a request whose data
+ * has not changed replays the cached body on a 304 Not Modified instead of downloading it again.</p>
+ * <p>Entries are keyed by the request URI, including query parameters, and media type.
+ * See {@link energy.trolie.client.impl.MappedFileSnapshotCache} for a file-backed implementation, and
+ * {@link energy.trolie.client.impl.CompressedMemorySnapshotCache} for a compressed in-memory one.</p>
+ */
+public interface SnapshotCache {
+
+	/**
+	 * Look up the cached response for a request
+	 * @param key identifies the request
+	 * @return last stored entry, or null if none is stored or it cannot be read
+	 */
+	Entry get(String key);
+
+	/**
+	 * Begin recording a new response body for a request.  The current entry for the key
+	 * remains visible until the writer is committed.
+	 * @param key identifies the request
+	 * @return writer for the body, or null if nothing can be recorded
+	 */
+	Writer newWriter(String key);
+
+	/**
+	 * Cached response body
+	 */
+	interface Entry {
+
+		/**
+		 *
+		 * @return ETag the body was received with
+		 */
+		String getETag();
+
+		/**
+		 *
+		 * @return read-only view of the uncompressed response body
+		 */
+		ByteBuffer getContent();
+
+		/**
+		 * Open a stream over the uncompressed response body.  Preferred over {@link #getContent()}
+		 * for replaying the body, as caches holding it compressed can then decompress it as it is read.
+		 * @return new stream positioned at the start of the body
+		 * @throws IOException on failure to read the cached body
+		 */
+		InputStream openContent() throws IOException;
+	}
+
+	/**
+	 * Sink for a response body as it is read.  Writers never throw, a failure to record
+	 * only means that the previous entry is kept.
+	 */
+	interface Writer {
+
+		/**
+		 * Append the remaining bytes of the buffer.  The position of the buffer is not changed.
+		 * @param content next part of the response body
+		 */
+		void write(ByteBuffer content);
+
+		/**
+		 * Complete the body and replace the entry for the key
+		 * @param eTag ETag the body was received with
+		 */
+		void commit(String eTag);
+
+		/**
+		 * Discard the recorded body.  Has no effect after a commit.
+		 */
+		void abort();
+	}
+}
@@ -1,20 +1,28 @@
 package energy.trolie.client;
 
+import energy.trolie.client.model.ratingproposals.ProposalHeader;
 import energy.trolie.client.request.monitoringsets.MonitoringSetsReceiver;
 import energy.trolie.client.request.monitoringsets.MonitoringSetsSubscribedReceiver;
+import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotEvent;
 import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotReceiver;
 import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotSubscribedReceiver;
+import energy.trolie.client.request.operatingsnapshots.RealTimeSnapshotEvent;
 import energy.trolie.client.request.operatingsnapshots.RealTimeSnapshotReceiver;
 import energy.trolie.client.request.operatingsnapshots.RealTimeSnapshotSubscribedReceiver;
 import energy.trolie.client.request.operatingsnapshots.SeasonalSnapshotReceiver;
 import energy.trolie.client.request.operatingsnapshots.SeasonalSnapshotSubscribedReceiver;
+import energy.trolie.client.request.operatingsnapshots.SnapshotPublisher;
 import energy.trolie.client.request.ratingproposals.ForecastRatingProposalUpdate;
 import energy.trolie.client.request.ratingproposals.RealTimeRatingProposalUpdate;
+import energy.trolie.client.request.ratingproposals.RealTimeRatingPublisher;
+import energy.trolie.client.request.ratingproposals.ShardedForecastProposalUpdate;
 import lombok.NonNull;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 
 import java.io.Closeable;
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 
 /**
@@ -44,6 +52,12 @@ import java.time.Instant;
  *     notify associated {@link StreamingResponseReceiver}s as new data is returned.  These subscriptions may
  *     be managed using the {@link #unsubscribe(RequestSubscription)} and {@link #unsubscribeAll()}
  *     methods.</li>
+ *     <li>Forecast and real-time subscriptions are also available as {@link java.util.concurrent.Flow.Publisher}s
+ *     of complete snapshots, for consumers that need backpressure.  A consumer that falls behind skips
+ *     intermediate snapshots rather than slowing down polling.</li>
+ *     <li>Each on-demand request also has an asynchronous variant, suffixed with {@code Async}, returning a
+ *     {@link java.util.concurrent.CompletableFuture} completed once the receiver has been handed the whole
+ *     response.  Requests for many monitoring sets may then be issued concurrently and joined.</li>
  *     <li>{@link StreamingUpdate}s are the inverse of the receivers.  Rather than send entire payloads at once
  *     in a giant in-memory structure, these classes allow the API user to send the data in small chunks and stream
  *     it out.  Each StreamingUpdate assumes that its methods are invoked in a particular order matching the structure
@@ -87,6 +101,31 @@ public interface TrolieClient extends Closeable {
     void getDefaultMonitoringSet(
     		MonitoringSetsReceiver receiver);
 
+
+    /**
+     * Asynchronous counterpart of {@link #getMonitoringSet(MonitoringSetsReceiver, String)}.
+     *
+     * @param receiver receiver for monitoring set contents.
+     * @param monitoringSet monitoring set identifier.
+     * @return future completed once the response has been handled, or exceptionally with the
+     * {@link energy.trolie.client.exception.StreamingGetException} also passed to
+     * {@link StreamingResponseReceiver#error}.
+     */
+    CompletableFuture<Void> getMonitoringSetAsync(
+            @NonNull MonitoringSetsReceiver receiver,
+            @NonNull String monitoringSet);
+
+    /**
+     * Asynchronous counterpart of {@link #getDefaultMonitoringSet(MonitoringSetsReceiver)}.
+     *
+     * @param receiver receiver for the monitoring set
+     * @return future completed once the response has been handled, or exceptionally with the
+     * {@link energy.trolie.client.exception.StreamingGetException} also passed to
+     * {@link StreamingResponseReceiver#error}.
+     */
+    CompletableFuture<Void> getDefaultMonitoringSetAsync(
+            MonitoringSetsReceiver receiver);
+
     /**
      * Identical to
      * {@link #subscribeToMonitoringSetUpdates(MonitoringSetsSubscribedReceiver, String)},
@@ -154,6 +193,66 @@ public interface TrolieClient extends Closeable {
             String resourceId,
     		Instant offsetPeriodStart,
     		Instant periodEnd);
+
+
+    /**
+     * Asynchronous counterpart of {@link #getInUseLimitForecasts(ForecastSnapshotReceiver)}.
+     *
+     * @param receiver Streaming data receiver for snapshot data
+     * @return future completed once the response has been handled, or exceptionally with the
+     * {@link energy.trolie.client.exception.StreamingGetException} also passed to
+     * {@link StreamingResponseReceiver#error}.
+     */
+    CompletableFuture<Void> getInUseLimitForecastsAsync(
+            ForecastSnapshotReceiver receiver);
+
+    /**
+     * Asynchronous counterpart of {@link #getInUseLimitForecasts(ForecastSnapshotReceiver, String)}.
+     *
+     * @param receiver Streaming data receiver for snapshot data
+     * @param monitoringSet filter for monitoring set name
+     * @return future completed once the response has been handled, or exceptionally with the
+     * {@link energy.trolie.client.exception.StreamingGetException} also passed to
+     * {@link StreamingResponseReceiver#error}.
+     */
+    CompletableFuture<Void> getInUseLimitForecastsAsync(
+            ForecastSnapshotReceiver receiver,
+            String monitoringSet);
+
+    /**
+     * Asynchronous counterpart of {@link #getInUseLimitForecasts(ForecastSnapshotReceiver, Instant, Instant)}.
+     *
+     * @param receiver Streaming data receiver for snapshot data
+     * @param offsetPeriodStart Optional. Only periods starting at or after this date will be returned.
+     * @param periodEnd Optional. Only periods starting before this date will be returned.
+     * @return future completed once the response has been handled, or exceptionally with the
+     * {@link energy.trolie.client.exception.StreamingGetException} also passed to
+     * {@link StreamingResponseReceiver#error}.
+     */
+    CompletableFuture<Void> getInUseLimitForecastsAsync(
+            ForecastSnapshotReceiver receiver,
+            Instant offsetPeriodStart,
+            Instant periodEnd);
+
+    /**
+     * Asynchronous counterpart of
+     * {@link #getInUseLimitForecasts(ForecastSnapshotReceiver, String, String, Instant, Instant)}.
+     *
+     * @param receiver Streaming data receiver for snapshot data
+     * @param monitoringSet filter for monitoring set name
+     * @param resourceId Only return limits for this power system resource
+     * @param offsetPeriodStart Optional. Only periods starting at or after this date will be returned.
+     * @param periodEnd Optional. Only periods starting before this date will be returned.
+     * @return future completed once the response has been handled, or exceptionally with the
+     * {@link energy.trolie.client.exception.StreamingGetException} also passed to
+     * {@link StreamingResponseReceiver#error}.
+     */
+    CompletableFuture<Void> getInUseLimitForecastsAsync(
+            ForecastSnapshotReceiver receiver,
+            String monitoringSet,
+            String resourceId,
+            Instant offsetPeriodStart,
+            Instant periodEnd);
     
     /**
      * Create a polling subscription for forecast snapshot data updates
@@ -176,6 +275,27 @@ public interface TrolieClient extends Closeable {
     RequestSubscription subscribeToInUseLimitForecastUpdates(
     		ForecastSnapshotSubscribedReceiver receiver);
 
+    /**
+     * Create a polling subscription for forecast snapshot data updates, published as complete
+     * snapshots through a {@link java.util.concurrent.Flow.Publisher} with bounded demand.
+     * Snapshots not yet requested by a subscriber are conflated, keeping only the newest.
+     * Otherwise equivalent to {@link #subscribeToInUseLimitForecastUpdates(ForecastSnapshotSubscribedReceiver, String)}.
+     *
+     * @param monitoringSet optional filter for monitoring set name
+     * @return publisher, which is also the handle to the subscription
+     */
+    SnapshotPublisher<ForecastSnapshotEvent> publishInUseLimitForecasts(
+            String monitoringSet);
+
+    /**
+     * Create a polling subscription for forecast snapshot data updates, published as complete
+     * snapshots through a {@link java.util.concurrent.Flow.Publisher} with bounded demand.
+     *
+     * @return publisher, which is also the handle to the subscription
+     * @see #publishInUseLimitForecasts(String)
+     */
+    SnapshotPublisher<ForecastSnapshotEvent> publishInUseLimitForecasts();
+
     /**
      * Execute a request for the current forecast limits with a streaming response handler
      *
@@ -224,6 +344,66 @@ public interface TrolieClient extends Closeable {
             Instant offsetPeriodStart,
             Instant periodEnd);
 
+
+    /**
+     * Asynchronous counterpart of {@link #getRegionalLimitsForecast(ForecastSnapshotReceiver)}.
+     *
+     * @param receiver Streaming data receiver for snapshot data
+     * @return future completed once the response has been handled, or exceptionally with the
+     * {@link energy.trolie.client.exception.StreamingGetException} also passed to
+     * {@link StreamingResponseReceiver#error}.
+     */
+    CompletableFuture<Void> getRegionalLimitsForecastAsync(
+            ForecastSnapshotReceiver receiver);
+
+    /**
+     * Asynchronous counterpart of {@link #getRegionalLimitsForecast(ForecastSnapshotReceiver, String)}.
+     *
+     * @param receiver Streaming data receiver for snapshot data
+     * @param monitoringSet filter for monitoring set name
+     * @return future completed once the response has been handled, or exceptionally with the
+     * {@link energy.trolie.client.exception.StreamingGetException} also passed to
+     * {@link StreamingResponseReceiver#error}.
+     */
+    CompletableFuture<Void> getRegionalLimitsForecastAsync(
+            ForecastSnapshotReceiver receiver,
+            String monitoringSet);
+
+    /**
+     * Asynchronous counterpart of {@link #getRegionalLimitsForecast(ForecastSnapshotReceiver, Instant, Instant)}.
+     *
+     * @param receiver Streaming data receiver for snapshot data
+     * @param offsetPeriodStart Optional. Only periods starting at or after this date will be returned.
+     * @param periodEnd Optional. Only periods starting before this date will be returned.
+     * @return future completed once the response has been handled, or exceptionally with the
+     * {@link energy.trolie.client.exception.StreamingGetException} also passed to
+     * {@link StreamingResponseReceiver#error}.
+     */
+    CompletableFuture<Void> getRegionalLimitsForecastAsync(
+            ForecastSnapshotReceiver receiver,
+            Instant offsetPeriodStart,
+            Instant periodEnd);
+
+    /**
+     * Asynchronous counterpart of
+     * {@link #getRegionalLimitsForecast(ForecastSnapshotReceiver, String, String, Instant, Instant)}.
+     *
+     * @param receiver Streaming data receiver for snapshot data
+     * @param monitoringSet filter for monitoring set name
+     * @param resourceId Only return limits for this power system resource
+     * @param offsetPeriodStart Optional. Only periods starting at or after this date will be returned.
+     * @param periodEnd Optional. Only periods starting before this date will be returned.
+     * @return future completed once the response has been handled, or exceptionally with the
+     * {@link energy.trolie.client.exception.StreamingGetException} also passed to
+     * {@link StreamingResponseReceiver#error}.
+     */
+    CompletableFuture<Void> getRegionalLimitsForecastAsync(
+            ForecastSnapshotReceiver receiver,
+            String monitoringSet,
+            String resourceId,
+            Instant offsetPeriodStart,
+            Instant periodEnd);
+
     /**
      * Create a polling subscription for regionally limiting forecast snapshot data updates
      *
@@ -243,6 +423,27 @@ public interface TrolieClient extends Closeable {
     RequestSubscription subscribeToRegionalLimitsForecast(
             ForecastSnapshotSubscribedReceiver receiver,
             String monitoringSet);
+
+    /**
+     * Create a polling subscription for regionally limiting forecast snapshot data updates, published as complete
+     * snapshots through a {@link java.util.concurrent.Flow.Publisher} with bounded demand.
+     * Snapshots not yet requested by a subscriber are conflated, keeping only the newest.
+     * Otherwise equivalent to {@link #subscribeToRegionalLimitsForecast(ForecastSnapshotSubscribedReceiver, String)}.
+     *
+     * @param monitoringSet optional filter for monitoring set name
+     * @return publisher, which is also the handle to the subscription
+     */
+    SnapshotPublisher<ForecastSnapshotEvent> publishRegionalLimitsForecast(
+            String monitoringSet);
+
+    /**
+     * Create a polling subscription for regionally limiting forecast snapshot data updates, published as complete
+     * snapshots through a {@link java.util.concurrent.Flow.Publisher} with bounded demand.
+     *
+     * @return publisher, which is also the handle to the subscription
+     * @see #publishRegionalLimitsForecast(String)
+     */
+    SnapshotPublisher<ForecastSnapshotEvent> publishRegionalLimitsForecast();
     
     /**
      * Create a forecast proposal update that can stream the update submission to the server
@@ -251,6 +452,21 @@ public interface TrolieClient extends Closeable {
      */
     ForecastRatingProposalUpdate createForecastRatingProposalStreamingUpdate();
 
+    /**
+     * Create a forecast proposal update that spreads its resources over several concurrent
+     * streaming requests, for proposals too large to send quickly over one.
+     *
+     * @param shards number of concurrent requests.  Limited to one less than the worker threads of the client,
+     *               so that subscriptions keep polling, and hence may drop to a single request.  With only one
+     *               worker thread, the proposal is sent over a single request from a thread of its own.  A shard that cannot start within the connection
+     *               request timeout of the client, because other updates hold the workers or connections,
+     *               fails {@link ShardedForecastProposalUpdate#begin} with a
+     *               {@link energy.trolie.client.exception.TrolieException}.
+     * @return update handle
+     * @see ShardedForecastProposalUpdate
+     */
+    ShardedForecastProposalUpdate createShardedForecastRatingProposalStreamingUpdate(int shards);
+
 
 
     /**
@@ -292,6 +508,46 @@ public interface TrolieClient extends Closeable {
      */
     void getInUseLimits(
             RealTimeSnapshotReceiver receiver);
+
+
+    /**
+     * Asynchronous counterpart of {@link #getInUseLimits(RealTimeSnapshotReceiver)}.
+     *
+     * @param receiver streaming receiver for real-time limits
+     * @return future completed once the response has been handled, or exceptionally with the
+     * {@link energy.trolie.client.exception.StreamingGetException} also passed to
+     * {@link StreamingResponseReceiver#error}.
+     */
+    CompletableFuture<Void> getInUseLimitsAsync(
+            RealTimeSnapshotReceiver receiver);
+
+    /**
+     * Asynchronous counterpart of {@link #getInUseLimits(RealTimeSnapshotReceiver, String)}.
+     *
+     * @param receiver streaming receiver for real-time limits
+     * @param monitoringSet filter for monitoring set name
+     * @return future completed once the response has been handled, or exceptionally with the
+     * {@link energy.trolie.client.exception.StreamingGetException} also passed to
+     * {@link StreamingResponseReceiver#error}.
+     */
+    CompletableFuture<Void> getInUseLimitsAsync(
+            RealTimeSnapshotReceiver receiver,
+            String monitoringSet);
+
+    /**
+     * Asynchronous counterpart of {@link #getInUseLimits(RealTimeSnapshotReceiver, String, String)}.
+     *
+     * @param receiver streaming receiver for real-time limits
+     * @param monitoringSet filter for monitoring set name
+     * @param resourceId resource ID filter
+     * @return future completed once the response has been handled, or exceptionally with the
+     * {@link energy.trolie.client.exception.StreamingGetException} also passed to
+     * {@link StreamingResponseReceiver#error}.
+     */
+    CompletableFuture<Void> getInUseLimitsAsync(
+            RealTimeSnapshotReceiver receiver,
+            String monitoringSet,
+            String resourceId);
     
     /**
      * Create a polling subscription for real-time snapshot data updates
@@ -326,6 +582,27 @@ public interface TrolieClient extends Closeable {
     		String monitoringSet,
     		String resourceId);
 
+    /**
+     * Create a polling subscription for real-time snapshot data updates, published as complete
+     * snapshots through a {@link java.util.concurrent.Flow.Publisher} with bounded demand.
+     * Snapshots not yet requested by a subscriber are conflated, keeping only the newest.
+     * Otherwise equivalent to {@link #subscribeToInUseLimits(RealTimeSnapshotSubscribedReceiver, String)}.
+     *
+     * @param monitoringSet optional filter for monitoring set name
+     * @return publisher, which is also the handle to the subscription
+     */
+    SnapshotPublisher<RealTimeSnapshotEvent> publishInUseLimits(
+            String monitoringSet);
+
+    /**
+     * Create a polling subscription for real-time snapshot data updates, published as complete
+     * snapshots through a {@link java.util.concurrent.Flow.Publisher} with bounded demand.
+     *
+     * @return publisher, which is also the handle to the subscription
+     * @see #publishInUseLimits(String)
+     */
+    SnapshotPublisher<RealTimeSnapshotEvent> publishInUseLimits();
+
     /**
      * Execute a request for the regional real-time limits
      * with a streaming response handler.
@@ -360,6 +637,46 @@ public interface TrolieClient extends Closeable {
             String monitoringSet,
             String resourceId);
 
+
+    /**
+     * Asynchronous counterpart of {@link #getRegionalRealTimeLimits(RealTimeSnapshotReceiver)}.
+     *
+     * @param receiver streaming receiver for real-time limits
+     * @return future completed once the response has been handled, or exceptionally with the
+     * {@link energy.trolie.client.exception.StreamingGetException} also passed to
+     * {@link StreamingResponseReceiver#error}.
+     */
+    CompletableFuture<Void> getRegionalRealTimeLimitsAsync(
+            RealTimeSnapshotReceiver receiver);
+
+    /**
+     * Asynchronous counterpart of {@link #getRegionalRealTimeLimits(RealTimeSnapshotReceiver, String)}.
+     *
+     * @param receiver streaming receiver for real-time limits
+     * @param monitoringSet filter for monitoring set name
+     * @return future completed once the response has been handled, or exceptionally with the
+     * {@link energy.trolie.client.exception.StreamingGetException} also passed to
+     * {@link StreamingResponseReceiver#error}.
+     */
+    CompletableFuture<Void> getRegionalRealTimeLimitsAsync(
+            RealTimeSnapshotReceiver receiver,
+            String monitoringSet);
+
+    /**
+     * Asynchronous counterpart of {@link #getRegionalRealTimeLimits(RealTimeSnapshotReceiver, String, String)}.
+     *
+     * @param receiver streaming receiver for real-time limits
+     * @param monitoringSet filter for monitoring set name
+     * @param resourceId resource ID filter
+     * @return future completed once the response has been handled, or exceptionally with the
+     * {@link energy.trolie.client.exception.StreamingGetException} also passed to
+     * {@link StreamingResponseReceiver#error}.
+     */
+    CompletableFuture<Void> getRegionalRealTimeLimitsAsync(
+            RealTimeSnapshotReceiver receiver,
+            String monitoringSet,
+            String resourceId);
+
     /**
      * Create a polling subscription regional real-time snapshot data updates
      *
@@ -380,6 +697,27 @@ public interface TrolieClient extends Closeable {
             RealTimeSnapshotSubscribedReceiver receiver,
             String monitoringSet);
 
+    /**
+     * Create a polling subscription for regional real-time snapshot data updates, published as complete
+     * snapshots through a {@link java.util.concurrent.Flow.Publisher} with bounded demand.
+     * Snapshots not yet requested by a subscriber are conflated, keeping only the newest.
+     * Otherwise equivalent to {@link #subscribeToRegionalRealTimeLimits(RealTimeSnapshotSubscribedReceiver, String)}.
+     *
+     * @param monitoringSet optional filter for monitoring set name
+     * @return publisher, which is also the handle to the subscription
+     */
+    SnapshotPublisher<RealTimeSnapshotEvent> publishRegionalRealTimeLimits(
+            String monitoringSet);
+
+    /**
+     * Create a polling subscription for regional real-time snapshot data updates, published as complete
+     * snapshots through a {@link java.util.concurrent.Flow.Publisher} with bounded demand.
+     *
+     * @return publisher, which is also the handle to the subscription
+     * @see #publishRegionalRealTimeLimits(String)
+     */
+    SnapshotPublisher<RealTimeSnapshotEvent> publishRegionalRealTimeLimits();
+
     /**
      * Create a real-time proposal update that can stream the update submission to the server
      * 
@@ -387,6 +725,19 @@ public interface TrolieClient extends Closeable {
      */
     RealTimeRatingProposalUpdate createRealTimeRatingProposalStreamingUpdate();
 
+    /**
+     * Create a long-lived publisher sending real-time ratings in batches as they are produced,
+     * rather than as complete proposals.
+     *
+     * @param headers supplies the header of each batch sent.  Must include at least emergency rating
+     *                durations and power system resources.
+     * @param listener receives the outcome of each batch
+     * @return started publisher.  Closed along with this client if still open.
+     * @see RealTimeRatingPublisher
+     */
+    RealTimeRatingPublisher createRealTimeRatingPublisher(Supplier<? extends ProposalHeader> headers,
+                                                          RealTimeRatingPublisher.Listener listener);
+
     /**
      * Execute a synchronous
      * request for the current seasonal limits with a streaming response handler,
@@ -421,6 +772,47 @@ public interface TrolieClient extends Closeable {
             String resourceId
     );
 
+
+    /**
+     * Asynchronous counterpart of {@link #getInUseSeasonalSnapshots(SeasonalSnapshotReceiver)}.
+     *
+     * @param receiver Streaming data receiver for snapshot data
+     * @return future completed once the response has been handled, or exceptionally with the
+     * {@link energy.trolie.client.exception.StreamingGetException} also passed to
+     * {@link StreamingResponseReceiver#error}.
+     */
+    CompletableFuture<Void> getInUseSeasonalSnapshotsAsync(
+            SeasonalSnapshotReceiver receiver);
+
+    /**
+     * Asynchronous counterpart of {@link #getInUseSeasonalSnapshots(SeasonalSnapshotReceiver, String)}.
+     *
+     * @param receiver Streaming data receiver for snapshot data
+     * @param monitoringSet filter for monitoring set name
+     * @return future completed once the response has been handled, or exceptionally with the
+     * {@link energy.trolie.client.exception.StreamingGetException} also passed to
+     * {@link StreamingResponseReceiver#error}.
+     */
+    CompletableFuture<Void> getInUseSeasonalSnapshotsAsync(
+            SeasonalSnapshotReceiver receiver,
+            String monitoringSet);
+
+    /**
+     * Asynchronous counterpart of
+     * {@link #getInUseSeasonalSnapshots(SeasonalSnapshotReceiver, String, String)}.
+     *
+     * @param receiver Streaming data receiver for snapshot data
+     * @param monitoringSet filter for monitoring set name
+     * @param resourceId Only return snapshots for this power system resource
+     * @return future completed once the response has been handled, or exceptionally with the
+     * {@link energy.trolie.client.exception.StreamingGetException} also passed to
+     * {@link StreamingResponseReceiver#error}.
+     */
+    CompletableFuture<Void> getInUseSeasonalSnapshotsAsync(
+            SeasonalSnapshotReceiver receiver,
+            String monitoringSet,
+            String resourceId);
+
     /**
      * Create a polling subscription for seasonal limits data updates
      *
@@ -453,6 +845,21 @@ public interface TrolieClient extends Closeable {
      */
     void unsubscribeAll();
 
+    /**
+     * Metrics for the worker pool shared by this client's subscriptions and updates.
+     *
+     * @return live view of queue depth and worker activity.
+     */
+    ExecutorMetrics getExecutorMetrics();
+
+    /**
+     * Dictionary assigning the dense resource indices handed to receivers, such as
+     * {@link ForecastSnapshotReceiver#beginResource(int, String)}.
+     *
+     * @return dictionary shared by all requests of this client.
+     */
+    ResourceDictionary getResourceDictionary();
+
     /**
      * Initializes a new builder.
      * @param baseUrl URL to the TROLIE service, such as https:&#47;&#47;trolie.example.com.
@@ -1,24 +1,37 @@
 package energy.trolie.client;
 
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import energy.trolie.client.impl.ClientExecutor;
+import energy.trolie.client.impl.FileETagStore;
+import energy.trolie.client.impl.AdaptivePollingPolicy;
+import energy.trolie.client.impl.CompressedMemorySnapshotCache;
+import energy.trolie.client.impl.MappedFileSnapshotCache;
 import energy.trolie.client.impl.MemoryETagStore;
 import energy.trolie.client.impl.TrolieClientImpl;
 import energy.trolie.client.request.monitoringsets.MonitoringSetsSubscribedReceiver;
+import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotReceiver;
 import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotSubscribedReceiver;
 import energy.trolie.client.request.operatingsnapshots.SeasonalSnapshotSubscribedReceiver;
 import energy.trolie.client.request.operatingsnapshots.RealTimeSnapshotSubscribedReceiver;
 import energy.trolie.client.spp.SppApiTokenHeaderProvider;
 import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.reactor.IOReactorStatus;
 
+import java.io.Closeable;
+import java.nio.file.Path;
 import java.time.Clock;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * <p>Builder class used to construct new instances of the TROLIE client.</p>
@@ -47,12 +60,30 @@ public class TrolieClientBuilder {
 	 */
 	public static final int DEFAULT_BUFFER_SIZE = 4096;
 
+	/**
+	 * Default number of worker threads shared by subscriptions and updates.
+	 */
+	public static final int DEFAULT_WORKER_THREADS = 8;
+
 	private final TrolieHost host;
 	private final CloseableHttpClient httpClient;
+	private CloseableHttpAsyncClient asyncHttpClient;
 	private RequestConfig requestConfig;
 	private int bufferSize = DEFAULT_BUFFER_SIZE;
+	private int workerThreads = DEFAULT_WORKER_THREADS;
+	private boolean useVirtualThreads;
 	private ObjectMapper objectMapper;
 	private ETagStore eTagStore;
+	private Path eTagStoreFile;
+	private ResourceDictionary resourceDictionary;
+	private SnapshotCache snapshotCache;
+	private Path snapshotCacheDirectory;
+	private SnapshotCache responseCache;
+	private PollingPolicy pollingPolicy;
+	private boolean coalesceSubscriptions;
+	private ForkJoinPool parsePool;
+	private boolean ownParsePool;
+	private DataFormat dataFormat = DataFormat.JSON;
 	private Map<String, String> httpHeaders = new HashMap<>();
 	private final List<RequestHeaderProvider> providers = new ArrayList<>();
 	private int periodLengthMinutes = 60;
@@ -86,6 +117,23 @@ public class TrolieClientBuilder {
 		this.httpClient = httpClient;
 	}
 
+	/**
+	 * <p>Reads forecast and real-time snapshots, on demand and through subscriptions, with the
+	 * given non-blocking client instead of the blocking client.  Response bytes are parsed as they
+	 * arrive and receiver callbacks are invoked directly on the I/O threads of this client, so many
+	 * large snapshots may be in flight on a handful of threads without holding one per response.
+	 * Receivers used with this transport must therefore not block.</p>
+	 * <p>The async client does not negotiate compression, so responses are transferred
+	 * uncompressed.  Other requests keep using the blocking client.  The client is started
+	 * if needed and closed along with the TROLIE client.</p>
+	 * @param asyncHttpClient a pre-configured Apache async HTTP client
+	 * @return fluent builder
+	 */
+	public TrolieClientBuilder asyncHttpClient(CloseableHttpAsyncClient asyncHttpClient) {
+		this.asyncHttpClient = asyncHttpClient;
+		return this;
+	}
+
 	/**
 	 * Override the HTTP client request config
 	 * @param config overridden config
@@ -98,7 +146,8 @@ public class TrolieClientBuilder {
 
 	/**
 	 * Override the buffer size used in Java BufferedInputStreams and BufferedOutputStreams
-	 * to optimize performance.  Defaults to {@link #DEFAULT_BUFFER_SIZE}.
+	 * to optimize performance.  Response buffers of this size are pooled and shared by all requests.
+	 * Defaults to {@link #DEFAULT_BUFFER_SIZE}.
 	 * @param bufferSize new buffer size
 	 * @return fluent builder.
 	 */
@@ -108,7 +157,34 @@ public class TrolieClientBuilder {
 	}
 
 	/**
-	 * Overrides configuration of the Jackson object mapper using for JSON parsing and serialization
+	 * Sets the size of the worker pool shared by all subscriptions and streaming updates
+	 * of the client.  Each poll in progress and each open streaming update occupies one
+	 * worker; idle subscriptions occupy none.  Defaults to {@link #DEFAULT_WORKER_THREADS}.
+	 * @param workerThreads maximum number of concurrently running tasks
+	 * @return fluent builder
+	 */
+	public TrolieClientBuilder workerThreads(int workerThreads) {
+		this.workerThreads = workerThreads;
+		return this;
+	}
+
+	/**
+	 * <p>Runs subscription polls, response handling and streaming update transmission on
+	 * virtual threads, one per task, instead of the bounded platform worker pool.  This keeps the
+	 * OS thread count flat when subscribing to many monitoring sets.</p>
+	 * <p>Virtual threads require Java 21 or later.  On older runtimes the client logs a warning
+	 * and uses the platform pool sized by {@link #workerThreads(int)}.</p>
+	 * @return fluent builder
+	 */
+	public TrolieClientBuilder useVirtualThreads() {
+		this.useVirtualThreads = true;
+		return this;
+	}
+
+	/**
+	 * Overrides configuration of the Jackson object mapper using for JSON parsing and serialization.
+	 * Its {@link JsonFactory} is shared by all requests, so its buffer recycling should suit the
+	 * worker threads of the client, see {@link JsonRecyclerPools}.
 	 * @param objectMapper new object mapper
 	 * @return fluent builder
 	 */
@@ -124,9 +200,85 @@ public class TrolieClientBuilder {
 	 */
 	public TrolieClientBuilder etagStore(ETagStore eTagStore) {
 		this.eTagStore = eTagStore;
+		this.eTagStoreFile = null;
+		return this;
+	}
+
+	/**
+	 * Persist ETags in a journal file, so subscriptions resume conditional GETs after a restart.
+	 * A persisted ETag is only sent once the snapshot it stands for has been replayed into the receiver,
+	 * so configure a {@link #snapshotCache(SnapshotCache) snapshot cache} as well to skip the first
+	 * download.  The store is opened by {@link #build()} and closed with the client.  See {@link FileETagStore}.
+	 * @param file journal file, loaded if it exists.  Its directory must exist.
+	 * @return fluent builder.
+	 */
+	public TrolieClientBuilder etagStoreFile(Path file) {
+		this.eTagStore = null;
+		this.eTagStoreFile = file;
+		return this;
+	}
+
+	/**
+	 * Overrides the dictionary assigning indices to resource IDs.  Sharing one dictionary
+	 * between clients, or seeding it before building the client, keeps the indices handed to
+	 * receivers consistent with the caller's own arrays.
+	 * @param resourceDictionary new dictionary
+	 * @return fluent builder.
+	 */
+	public TrolieClientBuilder resourceDictionary(ResourceDictionary resourceDictionary) {
+		this.resourceDictionary = resourceDictionary;
+		return this;
+	}
+
+	/**
+	 * Persist the last response received by each subscription, so that after a restart the
+	 * subscription replays it into its receiver and resumes conditional GETs, rather than
+	 * downloading a full snapshot.  Disabled by default.
+	 * @param snapshotCache new cache, or null to disable
+	 * @return fluent builder.
+	 */
+	public TrolieClientBuilder snapshotCache(SnapshotCache snapshotCache) {
+		this.snapshotCache = snapshotCache;
+		this.snapshotCacheDirectory = null;
+		return this;
+	}
+
+	/**
+	 * Persist the last response received by each subscription in memory-mapped files in the given
+	 * directory.  See {@link #snapshotCache(SnapshotCache)}.
+	 * @param directory directory dedicated to the cache, created if missing
+	 * @return fluent builder.
+	 */
+	public TrolieClientBuilder snapshotCacheDirectory(Path directory) {
+		this.snapshotCache = null;
+		this.snapshotCacheDirectory = directory;
+		return this;
+	}
+
+	/**
+	 * Keep the last response body of each on-demand request, such as
+	 * {@link TrolieClient#getInUseLimitForecasts}, along with its ETag.  Repeated requests are then
+	 * sent as conditional GETs, and when the server answers 304 Not Modified the cached body is
+	 * replayed into the receiver instead of being downloaded again.  Disabled by default.
+	 * Subscriptions use the {@link #snapshotCache(SnapshotCache)} instead.
+	 * @param responseCache new cache, or null to disable
+	 * @return fluent builder.
+	 */
+	public TrolieClientBuilder responseCache(SnapshotCache responseCache) {
+		this.responseCache = responseCache;
 		return this;
 	}
 
+	/**
+	 * Keep the last response body of each on-demand request gzip-compressed in memory, evicting the
+	 * least recently used bodies beyond the given compressed size.  See {@link #responseCache(SnapshotCache)}.
+	 * @param maxBytes bound on the total compressed size of the cached bodies
+	 * @return fluent builder.
+	 */
+	public TrolieClientBuilder responseCacheMaxBytes(long maxBytes) {
+		return responseCache(new CompressedMemorySnapshotCache(maxBytes));
+	}
+
 	/**
 	 * Allows for additional headers to be passed with every request.
 	 * @param httpHeaders Key value pairs of additional header set to be passed with
@@ -234,6 +386,84 @@ public class TrolieClientBuilder {
 		return this;
 	}
 
+	/**
+	 * Schedule subscription polls with the given policy instead of at the fixed poll rates.  The poll
+	 * rates remain the base the policy adapts from.  Defaults to polling at the fixed rates.
+	 * @param pollingPolicy new policy, or null to poll at the fixed rates
+	 * @return fluent builder
+	 */
+	public TrolieClientBuilder pollingPolicy(PollingPolicy pollingPolicy) {
+		this.pollingPolicy = pollingPolicy;
+		return this;
+	}
+
+	/**
+	 * Schedule subscription polls with an {@link AdaptivePollingPolicy} using its default settings, which
+	 * backs off while responses are unchanged or failing and honors {@code Retry-After} and
+	 * {@code Cache-Control} headers.  See {@link #pollingPolicy(PollingPolicy)}.
+	 * @return fluent builder
+	 */
+	public TrolieClientBuilder adaptivePolling() {
+		return pollingPolicy(new AdaptivePollingPolicy());
+	}
+
+	/**
+	 * Share one polling request between all subscriptions of the client to the same endpoint and query,
+	 * such as two calls to {@link TrolieClient#subscribeToInUseLimits(RealTimeSnapshotSubscribedReceiver, String)}
+	 * with the same monitoring set.  Each response is then transferred and parsed once and handed to every
+	 * receiver.  Applies to real-time and forecast limit subscriptions, except with primitive forecast
+	 * receivers.  Receivers of a shared request are called one after another on the same thread, so slow
+	 * callbacks of one delay the others, and a subscription joining later causes a full GET.  Disabled by default.
+	 * @param coalesceSubscriptions true to share requests, false to give every subscription its own request
+	 * @return fluent builder
+	 */
+	public TrolieClientBuilder coalesceSubscriptions(boolean coalesceSubscriptions) {
+		this.coalesceSubscriptions = coalesceSubscriptions;
+		return this;
+	}
+
+	/**
+	 * Parse large forecast snapshots on the given pool.  The body of each response is buffered, in a
+	 * memory-mapped temporary file if large, split between resources into chunks, and the chunks parsed in
+	 * parallel.  Receivers are still handed resources in the order of the response on the request thread,
+	 * unless they declare themselves {@link ForecastSnapshotReceiver#isThreadSafe() thread safe}.  Trades
+	 * memory for the time to parse snapshots of hundreds of megabytes.  Disabled by default.
+	 * The pool remains owned by the caller: the client never shuts it down.
+	 * @param parsePool pool to parse on, or null to parse each response on its request thread
+	 * @return fluent builder
+	 */
+	public TrolieClientBuilder parallelParsing(ForkJoinPool parsePool) {
+		this.parsePool = parsePool;
+		this.ownParsePool = false;
+		return this;
+	}
+
+	/**
+	 * Parse large forecast snapshots on a fork-join pool of the client, with as many threads as processors,
+	 * shut down when the client is closed.  Unlike the common pool, it is not shared with parallel streams
+	 * and other work of the application.  See {@link #parallelParsing(ForkJoinPool)}.
+	 * @return fluent builder
+	 */
+	public TrolieClientBuilder parallelParsing() {
+		this.parsePool = null;
+		this.ownParsePool = true;
+		return this;
+	}
+
+	/**
+	 * Exchange snapshots and proposals in the given data format, such as {@link DataFormat#smile()}.
+	 * Requests accept the format ahead of JSON, so servers that do not support it answer in JSON, and
+	 * proposals are sent in the format.  Values are read and written with the modules and configuration of
+	 * the {@link #objectMapper(ObjectMapper) object mapper}.  Requests in a binary format use the blocking
+	 * client even if an async client is configured.  Defaults to {@link DataFormat#JSON}.
+	 * @param dataFormat format to prefer
+	 * @return fluent builder
+	 */
+	public TrolieClientBuilder dataFormat(DataFormat dataFormat) {
+		this.dataFormat = dataFormat == null ? DataFormat.JSON : dataFormat;
+		return this;
+	}
+
 	/**
 	 * Configures this client to authenticate with an SPP system
 	 * using the SPP Two-Factor Authentication (TFA) protocol.
@@ -260,21 +490,62 @@ public class TrolieClientBuilder {
     	}
     	
     	if (objectMapper == null) {
-    		objectMapper = new ObjectMapper();
+			//one factory serves every request of the client.  Its buffers are recycled through a pool
+			//shared by all threads, as the default thread-local recycling never reuses buffers on
+			//virtual threads.
+    		objectMapper = new ObjectMapper(JsonFactory.builder()
+					.recyclerPool(JsonRecyclerPools.newConcurrentDequePool())
+					.build());
 			objectMapper.registerModule(new JavaTimeModule());
     	}
 
+		//resources opened here are closed with the client, those passed in are left to the caller
+		List<Closeable> ownedResources = new ArrayList<>();
+		ETagStore eTagStore = this.eTagStore;
+		if (eTagStore == null && eTagStoreFile != null) {
+			FileETagStore fileStore = new FileETagStore(eTagStoreFile);
+			ownedResources.add(fileStore);
+			eTagStore = fileStore;
+		}
     	if (eTagStore == null) {
     		eTagStore = new MemoryETagStore();
     	}
 
+		SnapshotCache snapshotCache = this.snapshotCache;
+		if (snapshotCache == null && snapshotCacheDirectory != null) {
+			//holds no open files between calls, mappings are released with their buffers
+			snapshotCache = new MappedFileSnapshotCache(snapshotCacheDirectory);
+		}
+
+		ForkJoinPool parsePool = this.parsePool;
+		if (parsePool == null && ownParsePool) {
+			ForkJoinPool pool = new ForkJoinPool();
+			ownedResources.add(pool::shutdown);
+			parsePool = pool;
+		}
+
+		if (resourceDictionary == null) {
+			resourceDictionary = new ResourceDictionary();
+		}
+
 		if (httpHeaders == null) {
 			httpHeaders = new HashMap<>();
 		}
 
-    	return new TrolieClientImpl(httpClient, host, requestConfig, bufferSize,
-				objectMapper, eTagStore, httpHeaders, providers, periodLengthMinutes,
-				realTimeRatingsPollMs,
-				forecastRatingsPollMs, monitoringSetPollMs, seasonalRatingsPollMs);
+		if (asyncHttpClient != null && asyncHttpClient.getStatus() == IOReactorStatus.INACTIVE) {
+			asyncHttpClient.start();
+		}
+
+    	return new TrolieClientImpl(httpClient, asyncHttpClient, host, requestConfig, bufferSize,
+				objectMapper,
+				new ClientExecutor(workerThreads, useVirtualThreads),
+				eTagStore, resourceDictionary,
+				snapshotCache, responseCache, pollingPolicy, coalesceSubscriptions,
+				parsePool,
+				dataFormat.withObjectMapper(objectMapper),
+				ownedResources,
+				httpHeaders, providers,
+				periodLengthMinutes,
+				realTimeRatingsPollMs, forecastRatingsPollMs, monitoringSetPollMs, seasonalRatingsPollMs);
     }
 }
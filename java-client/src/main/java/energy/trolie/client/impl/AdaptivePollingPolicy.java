@@ -0,0 +1,178 @@
+package energy.trolie.client.impl;
+
+import energy.trolie.client.PollingPolicy;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>{@link PollingPolicy} that polls less often while nothing changes, and more often when
+ * changes are expected.</p>
+ * <ul>
+ *     <li>After a number of 304 Not Modified responses in a row, the delay grows geometrically
+ *     from the configured poll rate up to a multiple of it, and drops back to the poll rate
+ *     as soon as a response carries new data.</li>
+ *     <li>Failed polls back off geometrically as well, up to a larger multiple, with some
+ *     jitter so that clients restarted together do not keep retrying in lockstep.</li>
+ *     <li>If the server publishes on a schedule, for example every five minutes, a publish
+ *     schedule makes polls never skip the start of a publish window, and poll at a faster
+ *     rate inside the window.</li>
+ *     <li>The {@code Retry-After} and {@code Cache-Control: max-age} headers of the server
+ *     take precedence over all of the above, so the next poll is never earlier than they allow.</li>
+ * </ul>
+ * <p>Instances are configured before being passed to the client and hold no per-subscription
+ * state, so a single instance may be shared.</p>
+ */
+public class AdaptivePollingPolicy implements PollingPolicy {
+
+	private int notModifiedThreshold = 3;
+	private double backoffMultiplier = 2;
+	private double maxBackoffFactor = 8;
+	private double maxErrorBackoffFactor = 16;
+	private double jitter = 0.1;
+
+	private long publishIntervalMillis;
+	private long publishOffsetMillis;
+	private long publishLeadMillis;
+	private long publishWindowMillis;
+	private long publishPollMillis;
+
+	/**
+	 * Number of 304 responses in a row polled at the configured rate before backing off.  Defaults to 3.
+	 * @param notModifiedThreshold 304 responses tolerated before backing off
+	 * @return this policy
+	 */
+	public AdaptivePollingPolicy notModifiedThreshold(int notModifiedThreshold) {
+		if (notModifiedThreshold < 0) {
+			throw new IllegalArgumentException("Threshold must not be negative");
+		}
+		this.notModifiedThreshold = notModifiedThreshold;
+		return this;
+	}
+
+	/**
+	 * Factor the delay grows by with every further 304 or failed poll.  Defaults to 2.
+	 * @param backoffMultiplier growth of the delay, at least 1
+	 * @return this policy
+	 */
+	public AdaptivePollingPolicy backoffMultiplier(double backoffMultiplier) {
+		if (backoffMultiplier < 1) {
+			throw new IllegalArgumentException("Backoff multiplier must be at least 1");
+		}
+		this.backoffMultiplier = backoffMultiplier;
+		return this;
+	}
+
+	/**
+	 * Bound on the delay while responses are unchanged, as a multiple of the configured
+	 * poll rate.  Defaults to 8.
+	 * @param maxBackoffFactor bound on the delay, at least 1
+	 * @return this policy
+	 */
+	public AdaptivePollingPolicy maxBackoffFactor(double maxBackoffFactor) {
+		if (maxBackoffFactor < 1) {
+			throw new IllegalArgumentException("Backoff factor must be at least 1");
+		}
+		this.maxBackoffFactor = maxBackoffFactor;
+		return this;
+	}
+
+	/**
+	 * Bound on the delay while polls fail, as a multiple of the configured poll rate.  Defaults to 16.
+	 * @param maxErrorBackoffFactor bound on the delay, at least 1
+	 * @return this policy
+	 */
+	public AdaptivePollingPolicy maxErrorBackoffFactor(double maxErrorBackoffFactor) {
+		if (maxErrorBackoffFactor < 1) {
+			throw new IllegalArgumentException("Backoff factor must be at least 1");
+		}
+		this.maxErrorBackoffFactor = maxErrorBackoffFactor;
+		return this;
+	}
+
+	/**
+	 * Fraction by which the delay after a failed poll is randomly shortened or lengthened.  Defaults to 0.1.
+	 * @param jitter fraction between 0 and 1
+	 * @return this policy
+	 */
+	public AdaptivePollingPolicy jitter(double jitter) {
+		if (jitter < 0 || jitter > 1) {
+			throw new IllegalArgumentException("Jitter must be between 0 and 1");
+		}
+		this.jitter = jitter;
+		return this;
+	}
+
+	/**
+	 * Declare when the server is expected to publish new data.  Publishes are expected at every
+	 * multiple of the interval since the epoch, shifted by the offset, so an interval of five
+	 * minutes with no offset expects them at 10:00, 10:05 and so on.  Polls from the lead before a
+	 * publish until the end of the window after it are made at the given rate, and polls outside
+	 * windows are never delayed past the start of the next one.
+	 * @param intervalMillis time between publishes, or 0 to disable
+	 * @param offsetMillis shift of the publishes from multiples of the interval
+	 * @param leadMillis start of the window before each publish
+	 * @param windowMillis end of the window after each publish
+	 * @param pollMillis delay between polls inside a window
+	 * @return this policy
+	 */
+	public AdaptivePollingPolicy publishSchedule(long intervalMillis, long offsetMillis,
+												 long leadMillis, long windowMillis, long pollMillis) {
+		if (intervalMillis < 0 || leadMillis < 0 || windowMillis < 0 || pollMillis < 0) {
+			throw new IllegalArgumentException("Publish schedule must not be negative");
+		}
+		if (intervalMillis > 0 && leadMillis + windowMillis >= intervalMillis) {
+			throw new IllegalArgumentException("Publish window must be shorter than the interval");
+		}
+		this.publishIntervalMillis = intervalMillis;
+		this.publishOffsetMillis = intervalMillis == 0 ? 0 : Math.floorMod(offsetMillis, intervalMillis);
+		this.publishLeadMillis = leadMillis;
+		this.publishWindowMillis = windowMillis;
+		this.publishPollMillis = pollMillis;
+		return this;
+	}
+
+	@Override
+	public long nextPollDelayMillis(PollOutcome outcome) {
+		long rate = outcome.getPollingRateMillis();
+		long delay;
+		switch (outcome.getResult()) {
+			case ERROR -> {
+				delay = backoff(rate, outcome.getConsecutiveErrors() - 1, maxErrorBackoffFactor);
+				if (jitter > 0) {
+					delay = Math.round(delay * (1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter)));
+				}
+			}
+			case NOT_MODIFIED -> delay = backoff(rate,
+					outcome.getConsecutiveNotModified() - notModifiedThreshold, maxBackoffFactor);
+			default -> delay = rate;
+		}
+		if (publishIntervalMillis > 0 && outcome.getResult() != PollResult.ERROR) {
+			delay = alignWithPublishes(delay, outcome.getCompletedAtMillis());
+		}
+		//the server knows best when there can be new data
+		if (outcome.getResult() != PollResult.ERROR) {
+			delay = Math.max(delay, outcome.getMaxAgeMillis());
+		}
+		return Math.max(delay, outcome.getRetryAfterMillis());
+	}
+
+	private long backoff(long rate, int steps, double maxFactor) {
+		if (steps <= 0) {
+			return rate;
+		}
+		double factor = Math.min(Math.pow(backoffMultiplier, steps), maxFactor);
+		return Math.round(rate * factor);
+	}
+
+	/**
+	 * Poll at the window rate inside a publish window, and no later than the start of the next window outside
+	 */
+	private long alignWithPublishes(long delay, long now) {
+		long sincePublish = Math.floorMod(now - publishOffsetMillis, publishIntervalMillis);
+		long untilPublish = publishIntervalMillis - sincePublish;
+		if (sincePublish < publishWindowMillis || untilPublish <= publishLeadMillis) {
+			return Math.min(delay, publishPollMillis);
+		}
+		return Math.min(delay, untilPublish - publishLeadMillis);
+	}
+}
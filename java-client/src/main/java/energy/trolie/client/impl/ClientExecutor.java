@@ -0,0 +1,275 @@
+package energy.trolie.client.impl;
+
+import energy.trolie.client.ExecutorMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Bounded execution service shared by every request, subscription and update
+ * created by a single client.</p>
+ * <p>Work runs on a fixed-size pool of worker threads, or on one virtual thread per task
+ * when virtual threads are requested and the runtime supports them.  Delayed work, such as
+ * the next poll of a subscription, is timed by a single {@link HashedWheelTimer} thread that
+ * only hands the task to the workers once it is due, so idle subscriptions do not hold a
+ * worker and the thread count does not grow with the number of subscriptions.</p>
+ */
+public class ClientExecutor implements Executor, ExecutorMetrics {
+
+	private static final Logger logger = LoggerFactory.getLogger(ClientExecutor.class);
+
+	private static final long TIMER_TICK_MS = 10;
+	//covers about five seconds per revolution, longer delays wrap around the wheel
+	private static final int TIMER_WHEEL_SIZE = 512;
+
+	//executor whose pool runs the current thread, if any
+	private static final ThreadLocal<ClientExecutor> WORKER_OF = new ThreadLocal<>();
+
+	private final ExecutorService workers;
+	//null when running on virtual threads
+	private final ThreadPoolExecutor pool;
+	private final HashedWheelTimer timer;
+	private final ThreadFactory dedicatedThreads;
+
+	//maintained only for virtual threads, the pool tracks its own
+	private final AtomicInteger running = new AtomicInteger();
+	private final AtomicLong completed = new AtomicLong();
+
+	/**
+	 * Create a new executor backed by platform threads
+	 * @param workerThreads maximum number of concurrently running tasks
+	 */
+	public ClientExecutor(int workerThreads) {
+		this(workerThreads, false);
+	}
+
+	/**
+	 * Create a new executor
+	 * @param workerThreads maximum number of concurrently running tasks on platform threads
+	 * @param useVirtualThreads run each task on its own virtual thread if the runtime supports it.
+	 *                          Falls back to platform threads otherwise.
+	 */
+	public ClientExecutor(int workerThreads, boolean useVirtualThreads) {
+		if (workerThreads < 1) {
+			throw new IllegalArgumentException("Worker thread count must be positive");
+		}
+		ExecutorService virtualWorkers = useVirtualThreads ? createVirtualWorkers() : null;
+		if (virtualWorkers != null) {
+			this.workers = virtualWorkers;
+			this.pool = null;
+		} else {
+			if (useVirtualThreads) {
+				logger.warn("Virtual threads require Java 21 or later, using {} platform worker threads",
+						workerThreads);
+			}
+			this.pool = new ThreadPoolExecutor(workerThreads, workerThreads, 60,
+					TimeUnit.SECONDS, new LinkedBlockingQueue<>(), workerThreadFactory());
+			this.pool.allowCoreThreadTimeOut(true);
+			this.workers = pool;
+		}
+		this.timer = new HashedWheelTimer(TIMER_TICK_MS, TIMER_WHEEL_SIZE, new NamedThreadFactory("trolie-timer-"));
+		ThreadFactory platformThreads = new NamedThreadFactory("trolie-dedicated-");
+		this.dedicatedThreads = virtualWorkers != null ? VirtualThreads.factory("trolie-dedicated-") : task -> {
+			Thread thread = platformThreads.newThread(task);
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	private ThreadFactory workerThreadFactory() {
+		ThreadFactory threads = new NamedThreadFactory("trolie-worker-");
+		return task -> threads.newThread(() -> {
+			WORKER_OF.set(this);
+			task.run();
+		});
+	}
+
+	private static ExecutorService createVirtualWorkers() {
+		ThreadFactory factory = VirtualThreads.factory("trolie-virtual-");
+		if (factory == null) {
+			return null;
+		}
+		try {
+			return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+					.invoke(null, factory);
+		} catch (ReflectiveOperationException e) {
+			logger.debug("Unable to create virtual thread executor", e);
+			return null;
+		}
+	}
+
+	/**
+	 *
+	 * @return true if tasks run on virtual threads.
+	 */
+	@Override
+	public boolean isVirtual() {
+		return pool == null;
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		workers.execute(isVirtual() ? track(task) : task);
+	}
+
+	/**
+	 * Run a task that may wait for other work of this executor, such as a request waiting for its body.
+	 * From a worker of the bounded pool, the task is given a dedicated thread, as queued behind the
+	 * caller it could wait forever for a worker the caller never releases.  Otherwise it runs on the workers.
+	 * @param task task to run
+	 */
+	public void executeWaiting(Runnable task) {
+		if (!isVirtual() && WORKER_OF.get() == this) {
+			if (workers.isShutdown()) {
+				throw new RejectedExecutionException("Executor has been shut down");
+			}
+			dedicatedThreads.newThread(task).start();
+		} else {
+			execute(task);
+		}
+	}
+
+	/**
+	 * Create a thread for long-lived work that waits most of its life, such as the sender of a publisher.
+	 * On the bounded pool it would hold a worker for as long as it lives.  The thread is virtual when the
+	 * workers are.
+	 * @param task task the thread runs once started
+	 * @return new unstarted thread
+	 */
+	public Thread newDedicatedThread(Runnable task) {
+		return dedicatedThreads.newThread(task);
+	}
+
+	/**
+	 * Submit a task to the worker pool
+	 * @param task task to run
+	 * @return future for the task result
+	 * @param <V> result type
+	 */
+	public <V> Future<V> submit(Callable<V> task) {
+		if (!isVirtual()) {
+			return workers.submit(task);
+		}
+		FutureTask<V> future = new FutureTask<>(task);
+		workers.execute(track(future));
+		return future;
+	}
+
+	private Runnable track(Runnable task) {
+		return () -> {
+			running.incrementAndGet();
+			try {
+				task.run();
+			} finally {
+				running.decrementAndGet();
+				completed.incrementAndGet();
+			}
+		};
+	}
+
+	/**
+	 * Run a task on the worker pool once the given delay has elapsed.
+	 * @param task task to run
+	 * @param delayMillis delay before the task is handed to a worker
+	 * @return handle that may be used to cancel the task before it is due
+	 */
+	public HashedWheelTimer.Timeout schedule(Runnable task, long delayMillis) {
+		return timer.newTimeout(() -> {
+			try {
+				execute(task);
+			} catch (RejectedExecutionException e) {
+				//due while the executor shuts down, the workers no longer take tasks
+				logger.debug("Dropping scheduled task after shutdown");
+			}
+		}, delayMillis);
+	}
+
+	/**
+	 * Run a task on the timer thread once the given delay has elapsed.  Intended for
+	 * time-critical bookkeeping that decides what to hand to the workers.
+	 * @param task task to run.  Must not block.
+	 * @param delayMillis delay before the task runs
+	 * @return handle that may be used to cancel the task before it is due
+	 */
+	public HashedWheelTimer.Timeout newTimeout(Runnable task, long delayMillis) {
+		return timer.newTimeout(task, delayMillis);
+	}
+
+	/**
+	 * Stop accepting work and wait a bounded time for running tasks to finish.  The timer is stopped
+	 * last, so running tasks may still schedule work while they finish.
+	 * @param timeoutMillis how long to wait for running tasks
+	 */
+	public void shutdown(long timeoutMillis) {
+		workers.shutdown();
+		try {
+			if (!workers.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+				logger.warn("Worker pool did not terminate within {} ms, interrupting", timeoutMillis);
+				workers.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			workers.shutdownNow();
+			Thread.currentThread().interrupt();
+		} finally {
+			timer.stop();
+		}
+	}
+
+	@Override
+	public int getPendingTimers() {
+		return timer.getPendingCount();
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return isVirtual() ? 0 : pool.getQueue().size();
+	}
+
+	@Override
+	public int getActiveWorkers() {
+		return isVirtual() ? running.get() : pool.getActiveCount();
+	}
+
+	@Override
+	public int getPoolSize() {
+		return isVirtual() ? running.get() : pool.getPoolSize();
+	}
+
+	@Override
+	public int getMaxWorkers() {
+		return isVirtual() ? Integer.MAX_VALUE : pool.getMaximumPoolSize();
+	}
+
+	@Override
+	public long getCompletedTasks() {
+		return isVirtual() ? completed.get() : pool.getCompletedTaskCount();
+	}
+
+	private static class NamedThreadFactory implements ThreadFactory {
+
+		private final String prefix;
+		private final AtomicInteger counter = new AtomicInteger();
+
+		NamedThreadFactory(String prefix) {
+			this.prefix = prefix;
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			return new Thread(r, prefix + counter.incrementAndGet());
+		}
+	}
+}
@@ -0,0 +1,204 @@
+package energy.trolie.client.impl;
+
+import energy.trolie.client.SnapshotCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>{@link SnapshotCache} keeping gzip-compressed response bodies in memory, evicting the least
+ * recently used entries once their total compressed size exceeds a bound.</p>
+ * <p>Snapshot bodies are highly repetitive JSON and typically compress by an order of magnitude,
+ * so many more responses can be kept than as uncompressed bytes or parsed objects.  Bodies are
+ * compressed with the fastest deflate level as they are received, and decompressed as they are
+ * replayed, without ever holding the uncompressed body in memory.</p>
+ */
+public class CompressedMemorySnapshotCache implements SnapshotCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(CompressedMemorySnapshotCache.class);
+
+	private static final int STREAM_BUFFER_SIZE = 8192;
+
+	private final long maxBytes;
+	//guarded by itself, ordered from least to most recently used
+	private final LinkedHashMap<String, CompressedEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long totalBytes;
+
+	/**
+	 * Create a cache
+	 * @param maxBytes bound on the total compressed size of all entries.  A single body
+	 *                 compressing to more than this is not cached.
+	 */
+	public CompressedMemorySnapshotCache(long maxBytes) {
+		if (maxBytes < 1) {
+			throw new IllegalArgumentException("Cache size must be positive");
+		}
+		this.maxBytes = maxBytes;
+	}
+
+	@Override
+	public Entry get(String key) {
+		synchronized (entries) {
+			return entries.get(key);
+		}
+	}
+
+	@Override
+	public Writer newWriter(String key) {
+		return new CompressingWriter(key);
+	}
+
+	/**
+	 *
+	 * @return total compressed size of the cached bodies in bytes
+	 */
+	public long getTotalBytes() {
+		synchronized (entries) {
+			return totalBytes;
+		}
+	}
+
+	/**
+	 *
+	 * @return number of cached bodies
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	private void put(String key, CompressedEntry entry) {
+		synchronized (entries) {
+			CompressedEntry replaced = entries.put(key, entry);
+			totalBytes += entry.compressed.length - (replaced == null ? 0 : replaced.compressed.length);
+			Iterator<CompressedEntry> eldest = entries.values().iterator();
+			while (totalBytes > maxBytes && eldest.hasNext()) {
+				totalBytes -= eldest.next().compressed.length;
+				eldest.remove();
+			}
+		}
+	}
+
+	private record CompressedEntry(String eTag, byte[] compressed) implements Entry {
+
+		@Override
+		public String getETag() {
+			return eTag;
+		}
+
+		@Override
+		public ByteBuffer getContent() {
+			try (InputStream in = openContent()) {
+				return ByteBuffer.wrap(in.readAllBytes()).asReadOnlyBuffer();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public InputStream openContent() throws IOException {
+			return new GZIPInputStream(new ByteArrayInputStream(compressed), STREAM_BUFFER_SIZE);
+		}
+	}
+
+	private class CompressingWriter implements Writer {
+
+		private final String key;
+		private final ByteArrayOutputStream compressed = new ByteArrayOutputStream(STREAM_BUFFER_SIZE);
+		private GZIPOutputStream out;
+		private byte[] chunk;
+
+		CompressingWriter(String key) {
+			this.key = key;
+			try {
+				this.out = new FastGZIPOutputStream(compressed);
+			} catch (IOException e) {
+				//not thrown by in-memory streams
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public void write(ByteBuffer content) {
+			if (out == null) {
+				return;
+			}
+			try {
+				if (content.hasArray()) {
+					out.write(content.array(), content.arrayOffset() + content.position(), content.remaining());
+				} else {
+					ByteBuffer src = content.duplicate();
+					if (chunk == null) {
+						chunk = new byte[STREAM_BUFFER_SIZE];
+					}
+					while (src.hasRemaining()) {
+						int length = Math.min(src.remaining(), chunk.length);
+						src.get(chunk, 0, length);
+						out.write(chunk, 0, length);
+					}
+				}
+				if (compressed.size() > maxBytes) {
+					logger.debug("Response for {} exceeds the cache size, not caching it", key);
+					abort();
+				}
+			} catch (IOException e) {
+				logger.warn("Unable to record response for {}", key, e);
+				abort();
+			}
+		}
+
+		@Override
+		public void commit(String eTag) {
+			if (out == null) {
+				return;
+			}
+			try {
+				out.close();
+				out = null;
+				//the deflater holds back part of the body until closed
+				if (compressed.size() > maxBytes) {
+					logger.debug("Response for {} exceeds the cache size, not caching it", key);
+					return;
+				}
+				put(key, new CompressedEntry(eTag, compressed.toByteArray()));
+			} catch (IOException e) {
+				logger.warn("Unable to record response for {}", key, e);
+				abort();
+			}
+		}
+
+		@Override
+		public void abort() {
+			if (out == null) {
+				return;
+			}
+			try {
+				//releases the native deflater
+				out.close();
+			} catch (IOException e) {
+				logger.debug("Unable to close compressor for {}", key, e);
+			}
+			out = null;
+		}
+	}
+
+	private static class FastGZIPOutputStream extends GZIPOutputStream {
+
+		FastGZIPOutputStream(ByteArrayOutputStream out) throws IOException {
+			super(out, STREAM_BUFFER_SIZE);
+			def.setLevel(Deflater.BEST_SPEED);
+		}
+	}
+}
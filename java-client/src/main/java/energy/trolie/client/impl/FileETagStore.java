@@ -0,0 +1,184 @@
+package energy.trolie.client.impl;
+
+import energy.trolie.client.ETagStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>ETag store persisted to a file, so that subscriptions resume conditional GETs after a restart.</p>
+ * <p>ETags are held in memory and looked up without locking.  Every change is appended to a journal file,
+ * while storing the ETag a key already has, as most polls do, costs no I/O at all.  Once the journal has
+ * grown to well beyond the number of keys, it is compacted by writing the current ETags to a temporary
+ * file that atomically replaces the journal, so a crash leaves either the old or the new journal intact.
+ * A record cut short by a crash is dropped when the store is opened.</p>
+ * <p>Appends are not synced to disk, so ETags survive a crash of the JVM but not necessarily of the
+ * operating system.  At worst, an ETag is lost and the next poll downloads the full data.</p>
+ * <p>A subscription only sends an ETag once its receiver has been given the snapshot it stands for, so a
+ * persisted ETag saves the first download after a restart only together with a
+ * {@link energy.trolie.client.SnapshotCache} replaying that snapshot.  Otherwise the first poll of each
+ * subscription downloads the full data, and later polls are conditional as usual.</p>
+ */
+public class FileETagStore implements ETagStore, Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(FileETagStore.class);
+
+	private static final byte RECORD = 1;
+	//compact once the journal holds this many records more than there are keys
+	private static final int MIN_COMPACTION_RECORDS = 1024;
+
+	private final Path file;
+	private final Map<String, String> eTagsByPath = new ConcurrentHashMap<>();
+	private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+	private final DataOutputStream recordOut = new DataOutputStream(recordBytes);
+
+	//guarded by this
+	private FileChannel journal;
+	private int journalRecords;
+
+	/**
+	 * Open a store, loading the ETags of a previous run from the given file if it exists
+	 * @param file journal file.  Its directory must exist.
+	 * @throws UncheckedIOException if the journal cannot be read or written
+	 */
+	public FileETagStore(Path file) {
+		this.file = file;
+		try {
+			load();
+			synchronized (this) {
+				compact();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to open ETag store " + file, e);
+		}
+	}
+
+	@Override
+	public String getETag(String endpointPath) {
+		return eTagsByPath.get(endpointPath);
+	}
+
+	@Override
+	public void putETag(String endpointPath, String eTag) {
+		if (eTag.equals(eTagsByPath.get(endpointPath))) {
+			return;
+		}
+		synchronized (this) {
+			//journal order matches the order the map is updated in
+			eTagsByPath.put(endpointPath, eTag);
+			if (journal == null) {
+				return;
+			}
+			try {
+				append(endpointPath, eTag);
+				if (journalRecords > MIN_COMPACTION_RECORDS + 2 * eTagsByPath.size()) {
+					compact();
+				}
+			} catch (IOException e) {
+				//a partly written record would corrupt the ones after it, so stop appending
+				logger.error("Unable to persist ETag for {}, keeping ETags in memory only from now on",
+						endpointPath, e);
+				try {
+					close();
+				} catch (IOException closeError) {
+					logger.debug("Unable to close ETag store {}", file, closeError);
+				}
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return number of records currently in the journal
+	 */
+	public synchronized int getJournalRecords() {
+		return journalRecords;
+	}
+
+	/**
+	 * Close the journal.  ETags stored afterwards are only kept in memory.
+	 * @throws IOException on failure to close the journal
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		FileChannel channel = journal;
+		journal = null;
+		if (channel != null) {
+			channel.close();
+		}
+	}
+
+	private void load() throws IOException {
+		if (!Files.exists(file)) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			int marker;
+			while ((marker = in.read()) >= 0) {
+				if (marker != RECORD) {
+					logger.warn("Ignoring corrupt end of ETag store {}", file);
+					return;
+				}
+				String path = in.readUTF();
+				eTagsByPath.put(path, in.readUTF());
+			}
+		} catch (EOFException e) {
+			logger.warn("Ignoring incomplete last record of ETag store {}", file);
+		}
+	}
+
+	private void append(String path, String eTag) throws IOException {
+		write(journal, path, eTag);
+		journalRecords++;
+	}
+
+	private void write(FileChannel channel, String path, String eTag) throws IOException {
+		recordBytes.reset();
+		recordOut.writeByte(RECORD);
+		recordOut.writeUTF(path);
+		recordOut.writeUTF(eTag);
+		ByteBuffer record = ByteBuffer.wrap(recordBytes.toByteArray());
+		while (record.hasRemaining()) {
+			channel.write(record);
+		}
+	}
+
+	/**
+	 * Replace the journal with one record per key
+	 */
+	private void compact() throws IOException {
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		int records = 0;
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			for (Map.Entry<String, String> entry : eTagsByPath.entrySet()) {
+				write(channel, entry.getKey(), entry.getValue());
+				records++;
+			}
+			channel.force(false);
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		if (journal != null) {
+			journal.close();
+		}
+		journal = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		journalRecords = records;
+		logger.debug("Compacted ETag store {} to {} records", file, records);
+	}
+}
@@ -0,0 +1,195 @@
+package energy.trolie.client.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Hashed timer wheel driving all time-based work of a client from a single thread.</p>
+ * <p>Timeouts are hashed into a ring of buckets by their deadline tick.  The timer thread
+ * advances one bucket per tick and runs the expired timeouts of that bucket, so the cost of
+ * scheduling and cancelling is constant regardless of how many timeouts are pending.
+ * Deadlines are honored with a precision of one tick.</p>
+ * <p>Tasks run on the timer thread and must only hand work off, never block.</p>
+ */
+public class HashedWheelTimer {
+
+	private static final Logger logger = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+	private final long tickNanos;
+	private final Queue<Timeout>[] wheel;
+	private final int mask;
+	private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger scheduledCount = new AtomicInteger();
+	private final Thread thread;
+	private final long startNanos;
+	private volatile boolean running = true;
+
+	/**
+	 * Create and start a new timer
+	 * @param tickMillis duration of one tick, and hence precision of the timer
+	 * @param wheelSize number of buckets, rounded up to a power of two
+	 * @param threadFactory factory for the timer thread
+	 */
+	public HashedWheelTimer(long tickMillis, int wheelSize, ThreadFactory threadFactory) {
+		if (tickMillis < 1 || wheelSize < 1) {
+			throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+		}
+		int size = Integer.highestOneBit(wheelSize - 1) << 1;
+		this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+		this.wheel = newWheel(Math.max(size, 1));
+		for (int i = 0; i < wheel.length; i++) {
+			wheel[i] = new ArrayDeque<>();
+		}
+		this.mask = wheel.length - 1;
+		this.startNanos = System.nanoTime();
+		this.thread = threadFactory.newThread(this::run);
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Queue<Timeout>[] newWheel(int size) {
+		return (Queue<Timeout>[]) new Queue<?>[size];
+	}
+
+	/**
+	 * Schedule a task
+	 * @param task task to run on the timer thread.  Must not block.
+	 * @param delayMillis delay after which the task runs
+	 * @return handle that may be used to cancel the task
+	 */
+	public Timeout newTimeout(Runnable task, long delayMillis) {
+		if (!running) {
+			throw new IllegalStateException("Timer has been stopped");
+		}
+		Timeout timeout = new Timeout(task,
+				System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis)));
+		scheduledCount.incrementAndGet();
+		pendingTimeouts.add(timeout);
+		return timeout;
+	}
+
+	/**
+	 *
+	 * @return number of timeouts that have neither expired nor been cancelled.
+	 */
+	public int getPendingCount() {
+		return scheduledCount.get();
+	}
+
+	/**
+	 * Stop the timer thread.  Pending timeouts never run.
+	 */
+	public void stop() {
+		running = false;
+		thread.interrupt();
+		try {
+			thread.join(TimeUnit.NANOSECONDS.toMillis(tickNanos) * 10);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void run() {
+		long tick = 0;
+		while (running) {
+			long deadline = tickNanos * (tick + 1);
+			long sleepNanos = deadline - (System.nanoTime() - startNanos);
+			if (sleepNanos > 0) {
+				try {
+					TimeUnit.NANOSECONDS.sleep(sleepNanos);
+				} catch (InterruptedException e) {
+					if (!running) {
+						return;
+					}
+					continue;
+				}
+			}
+			transferPendingTimeouts(tick);
+			expire(wheel[(int) (tick & mask)], deadline);
+			tick++;
+		}
+	}
+
+	private void transferPendingTimeouts(long currentTick) {
+		Timeout timeout;
+		while ((timeout = pendingTimeouts.poll()) != null) {
+			if (timeout.cancelled) {
+				continue;
+			}
+			//anything already due goes in the current bucket
+			long ticks = Math.max(timeout.deadlineNanos / tickNanos, currentTick);
+			timeout.remainingRounds = (ticks - currentTick) / wheel.length;
+			wheel[(int) (ticks & mask)].add(timeout);
+		}
+	}
+
+	private void expire(Queue<Timeout> bucket, long deadline) {
+		Iterator<Timeout> iterator = bucket.iterator();
+		while (iterator.hasNext()) {
+			Timeout timeout = iterator.next();
+			if (timeout.cancelled) {
+				iterator.remove();
+			} else if (timeout.remainingRounds <= 0 && timeout.deadlineNanos <= deadline) {
+				iterator.remove();
+				timeout.expire();
+			} else {
+				timeout.remainingRounds--;
+			}
+		}
+	}
+
+	/**
+	 * Handle to a scheduled task
+	 */
+	public class Timeout {
+
+		private final Runnable task;
+		private final long deadlineNanos;
+		private long remainingRounds;
+		private volatile boolean cancelled;
+		private volatile boolean expired;
+
+		private Timeout(Runnable task, long deadlineNanos) {
+			this.task = task;
+			this.deadlineNanos = deadlineNanos;
+		}
+
+		/**
+		 * Cancel the task if it has not run yet
+		 * @return true if the task was cancelled before running
+		 */
+		public synchronized boolean cancel() {
+			if (cancelled || expired) {
+				return false;
+			}
+			cancelled = true;
+			scheduledCount.decrementAndGet();
+			return true;
+		}
+
+		private void expire() {
+			synchronized (this) {
+				if (cancelled) {
+					return;
+				}
+				expired = true;
+				scheduledCount.decrementAndGet();
+			}
+			try {
+				task.run();
+			} catch (Throwable e) {
+				//keeps the timer thread alive for the other tasks
+				logger.error("Error running timer task", e);
+			}
+		}
+	}
+}
@@ -0,0 +1,230 @@
+package energy.trolie.client.impl;
+
+import energy.trolie.client.SnapshotCache;
+import energy.trolie.client.impl.request.ByteBufferInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * <p>{@link SnapshotCache} keeping one file per key in a directory.</p>
+ * <p>Bodies are streamed into a temporary file while the response is parsed, and only moved
+ * over the previous file once the response has been handled, so a crash never leaves a
+ * partially written entry visible.  Entries are read by memory-mapping the file, so replaying
+ * a large snapshot is not held back by copying it onto the heap first.</p>
+ * <p>Each file holds the body followed by a trailer with the ETag, the key and the lengths of
+ * all three, so the body can be written before its size is known.  Files that are truncated,
+ * or that belong to another key, are ignored.</p>
+ * <p>The body is kept as received, so replaying it parses the whole response again.  Replay then runs at
+ * the speed of the parser, about 500 MiB per second and core: a forecast of 5,000 resources with 240 periods,
+ * 320 MiB of JSON, replays in about 0.65 s through either kind of receiver once the JVM is warmed up, and
+ * somewhat slower on the first replay after a start.  See <code>SnapshotCacheReplayBenchmark</code>.</p>
+ * <p>The directory should be dedicated to a single cache, as leftover temporary files are
+ * deleted when the cache is created.</p>
+ */
+public class MappedFileSnapshotCache implements SnapshotCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(MappedFileSnapshotCache.class);
+
+	private static final int MAGIC = 0x54534331;
+	//eTag length, key length, content length, magic
+	private static final int FOOTER_LENGTH = 4 + 4 + 8 + 4;
+	private static final String SUFFIX = ".snapshot";
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	private final Path directory;
+
+	/**
+	 * Create a cache in the given directory, creating the directory if needed
+	 * @param directory directory holding the cache files
+	 * @throws UncheckedIOException if the directory cannot be created
+	 */
+	public MappedFileSnapshotCache(Path directory) {
+		this.directory = directory;
+		try {
+			Files.createDirectories(directory);
+			try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, "*" + TEMP_SUFFIX)) {
+				for (Path leftover : leftovers) {
+					Files.deleteIfExists(leftover);
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to open snapshot cache in " + directory, e);
+		}
+	}
+
+	@Override
+	public Entry get(String key) {
+		Path file = fileFor(key);
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < FOOTER_LENGTH || size > Integer.MAX_VALUE) {
+				logger.warn("Ignoring snapshot cache file {} of unexpected size {}", file, size);
+				return null;
+			}
+			//the mapping stays valid once the channel is closed
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			int footer = (int) size - FOOTER_LENGTH;
+			int eTagLength = mapped.getInt(footer);
+			int keyLength = mapped.getInt(footer + 4);
+			long contentLength = mapped.getLong(footer + 8);
+			if (mapped.getInt(footer + 16) != MAGIC || eTagLength < 0 || keyLength < 0 || contentLength < 0
+					|| contentLength + eTagLength + keyLength != footer) {
+				logger.warn("Ignoring corrupt snapshot cache file {}", file);
+				return null;
+			}
+			int content = (int) contentLength;
+			String storedKey = decode(mapped, content + eTagLength, keyLength);
+			if (!key.equals(storedKey)) {
+				return null;
+			}
+			String eTag = decode(mapped, content, eTagLength);
+			return new MappedEntry(eTag, mapped.slice(0, content).asReadOnlyBuffer());
+		} catch (IOException e) {
+			logger.warn("Unable to read snapshot cache file {}", file, e);
+			return null;
+		}
+	}
+
+	@Override
+	public Writer newWriter(String key) {
+		Path file = fileFor(key);
+		try {
+			Path temp = Files.createTempFile(directory, file.getFileName().toString(), TEMP_SUFFIX);
+			return new FileWriter(key, file, temp,
+					FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+		} catch (IOException e) {
+			logger.warn("Unable to record snapshot for {}", key, e);
+			return null;
+		}
+	}
+
+	private Path fileFor(String key) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+			return directory.resolve(HexFormat.of().formatHex(digest) + SUFFIX);
+		} catch (NoSuchAlgorithmException e) {
+			//every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String decode(ByteBuffer buffer, int offset, int length) {
+		byte[] bytes = new byte[length];
+		buffer.get(offset, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private record MappedEntry(String eTag, ByteBuffer content) implements Entry {
+
+		@Override
+		public String getETag() {
+			return eTag;
+		}
+
+		@Override
+		public ByteBuffer getContent() {
+			//independent position for every reader
+			return content.duplicate();
+		}
+
+		@Override
+		public InputStream openContent() {
+			return new ByteBufferInputStream(getContent());
+		}
+	}
+
+	private static class FileWriter implements Writer {
+
+		private final String key;
+		private final Path file;
+		private final Path temp;
+		private final FileChannel channel;
+		private long contentLength;
+		private boolean closed;
+
+		FileWriter(String key, Path file, Path temp, FileChannel channel) {
+			this.key = key;
+			this.file = file;
+			this.temp = temp;
+			this.channel = channel;
+		}
+
+		@Override
+		public void write(ByteBuffer content) {
+			if (closed) {
+				return;
+			}
+			ByteBuffer src = content.duplicate();
+			try {
+				while (src.hasRemaining()) {
+					contentLength += channel.write(src);
+				}
+			} catch (IOException e) {
+				logger.warn("Unable to record snapshot for {}", key, e);
+				abort();
+			}
+		}
+
+		@Override
+		public void commit(String eTag) {
+			if (closed) {
+				return;
+			}
+			byte[] eTagBytes = eTag.getBytes(StandardCharsets.UTF_8);
+			byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+			ByteBuffer trailer = ByteBuffer.allocate(eTagBytes.length + keyBytes.length + FOOTER_LENGTH)
+					.put(eTagBytes)
+					.put(keyBytes)
+					.putInt(eTagBytes.length)
+					.putInt(keyBytes.length)
+					.putLong(contentLength)
+					.putInt(MAGIC)
+					.flip();
+			try {
+				while (trailer.hasRemaining()) {
+					channel.write(trailer);
+				}
+				closed = true;
+				channel.close();
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				logger.warn("Unable to store snapshot for {}", key, e);
+				closed = false;
+				abort();
+			}
+		}
+
+		@Override
+		public void abort() {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			try {
+				channel.close();
+				Files.deleteIfExists(temp);
+			} catch (IOException e) {
+				logger.debug("Unable to delete {}", temp, e);
+			}
+		}
+	}
+}
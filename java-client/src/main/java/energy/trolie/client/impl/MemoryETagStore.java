@@ -2,14 +2,16 @@ package energy.trolie.client.impl;
 
 import energy.trolie.client.ETagStore;
 
-import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Default ETag store that exists only in memory
+ * Default ETag store that exists only in memory.  Safe for use by subscriptions
+ * polling concurrently on the worker threads of a client, and lookups do not lock.
  */
 public class MemoryETagStore implements ETagStore {
 
-	HashMap<String,String> eTagsByPath = new HashMap<>();
+	Map<String,String> eTagsByPath = new ConcurrentHashMap<>();
 	
 	@Override
 	public String getETag(String endpointPath) {
@@ -18,7 +20,10 @@ public class MemoryETagStore implements ETagStore {
 
 	@Override
 	public void putETag(String endpointPath, String eTag) {
-		eTagsByPath.put(endpointPath, eTag);
+		//most polls store the ETag a path already has, which then needs no write
+		if (!eTag.equals(eTagsByPath.get(endpointPath))) {
+			eTagsByPath.put(endpointPath, eTag);
+		}
 	}
 	
 }
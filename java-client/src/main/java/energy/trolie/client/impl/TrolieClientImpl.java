@@ -1,18 +1,35 @@
 package energy.trolie.client.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import energy.trolie.client.DataFormat;
 import energy.trolie.client.ETagStore;
+import energy.trolie.client.ExecutorMetrics;
+import energy.trolie.client.PollingPolicy;
 import energy.trolie.client.RequestHeaderProvider;
 import energy.trolie.client.RequestSubscription;
+import energy.trolie.client.ResourceDictionary;
+import energy.trolie.client.SnapshotCache;
+import energy.trolie.client.StreamingSubscribedResponseReceiver;
+import energy.trolie.client.TrolieApiConstants;
 import energy.trolie.client.TrolieClient;
 import energy.trolie.client.TrolieHost;
+import energy.trolie.client.exception.TrolieException;
+import energy.trolie.client.impl.request.AbstractStreamingGet;
+import energy.trolie.client.impl.request.AbstractStreamingSubscribedGet;
+import energy.trolie.client.impl.request.BufferPool;
 import energy.trolie.client.impl.request.RequestSubscriptionInternal;
+import energy.trolie.client.impl.request.SubscriptionCoalescer;
 import energy.trolie.client.impl.request.monitoringsets.DefaultMonitoringSetRequest;
 import energy.trolie.client.impl.request.monitoringsets.DefaultMonitoringSetSubscribedRequest;
 import energy.trolie.client.impl.request.monitoringsets.MonitoringSetsRequest;
 import energy.trolie.client.impl.request.monitoringsets.MonitoringSetsSubscribedRequest;
+import energy.trolie.client.impl.request.operatingsnapshots.ConflatingSnapshotPublisher;
+import energy.trolie.client.impl.request.operatingsnapshots.ForecastSnapshotEventCollector;
+import energy.trolie.client.impl.request.operatingsnapshots.ForecastSnapshotFanOut;
 import energy.trolie.client.impl.request.operatingsnapshots.ForecastSnapshotRequest;
 import energy.trolie.client.impl.request.operatingsnapshots.ForecastSnapshotSubscribedRequest;
+import energy.trolie.client.impl.request.operatingsnapshots.RealTimeSnapshotEventCollector;
+import energy.trolie.client.impl.request.operatingsnapshots.RealTimeSnapshotFanOut;
 import energy.trolie.client.impl.request.operatingsnapshots.RealTimeSnapshotRequest;
 import energy.trolie.client.impl.request.operatingsnapshots.RealTimeSnapshotSubscribedRequest;
 import energy.trolie.client.impl.request.operatingsnapshots.RegionalForecastSnapshotRequest;
@@ -21,40 +38,75 @@ import energy.trolie.client.impl.request.operatingsnapshots.RegionalRealTimeSnap
 import energy.trolie.client.impl.request.operatingsnapshots.RegionalRealTimeSnapshotSubscribedRequest;
 import energy.trolie.client.impl.request.operatingsnapshots.SeasonalSnapshotRequest;
 import energy.trolie.client.impl.request.operatingsnapshots.SeasonalSnapshotSubscribedRequest;
+import energy.trolie.client.model.ratingproposals.ProposalHeader;
 import energy.trolie.client.request.monitoringsets.MonitoringSetsReceiver;
 import energy.trolie.client.request.monitoringsets.MonitoringSetsSubscribedReceiver;
+import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotEvent;
 import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotReceiver;
 import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotSubscribedReceiver;
+import energy.trolie.client.request.operatingsnapshots.PrimitiveForecastSnapshotReceiver;
+import energy.trolie.client.request.operatingsnapshots.RealTimeSnapshotEvent;
 import energy.trolie.client.request.operatingsnapshots.RealTimeSnapshotReceiver;
 import energy.trolie.client.request.operatingsnapshots.RealTimeSnapshotSubscribedReceiver;
 import energy.trolie.client.request.operatingsnapshots.SeasonalSnapshotReceiver;
 import energy.trolie.client.request.operatingsnapshots.SeasonalSnapshotSubscribedReceiver;
+import energy.trolie.client.request.operatingsnapshots.SnapshotPublisher;
 import energy.trolie.client.request.ratingproposals.ForecastRatingProposalUpdate;
 import energy.trolie.client.request.ratingproposals.RealTimeRatingProposalUpdate;
+import energy.trolie.client.request.ratingproposals.RealTimeRatingPublisher;
+import energy.trolie.client.request.ratingproposals.ShardedForecastProposalUpdate;
 import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.Timeout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 
 public class TrolieClientImpl implements TrolieClient {
 
 	private static final Logger logger = LoggerFactory.getLogger(TrolieClientImpl.class);
 
+	private static final long EXECUTOR_SHUTDOWN_TIMEOUT_MS = 5000;
+	//idle response buffers kept for reuse, enough for a fully busy default worker pool
+	private static final int MAX_POOLED_BUFFERS = 64;
+	//time an update waits to start when the request config sets no connection request timeout
+	private static final long DEFAULT_UPDATE_START_TIMEOUT_MS = 30000;
+
 	CloseableHttpClient httpClient;
+	CloseableHttpAsyncClient asyncHttpClient;
 	TrolieHost host;
 	RequestConfig requestConfig;
 	int bufferSize;
+	BufferPool bufferPool;
 	ObjectMapper objectMapper;
+	ClientExecutor executor;
 	ETagStore eTagStore;
+	ResourceDictionary resourceDictionary;
+	SnapshotCache snapshotCache;
+	SnapshotCache responseCache;
+	PollingPolicy pollingPolicy;
+	SubscriptionCoalescer coalescer;
+	ForkJoinPool parsePool;
+	DataFormat dataFormat;
+	//opened by the builder for this client
+	List<Closeable> ownedResources;
 	Map<String, String> httpHeaders;
 	List<RequestHeaderProvider> providers;
 	private final int defaultIntervalMinutes;
@@ -63,8 +115,14 @@ public class TrolieClientImpl implements TrolieClient {
 	private final int monitoringSetPollMs;
 	private final int seasonalRatingsPollMs;
 
-	public TrolieClientImpl(CloseableHttpClient httpClient, TrolieHost host, RequestConfig requestConfig, int bufferSize,
-							ObjectMapper objectMapper, ETagStore eTagStore, Map<String, String> httpHeaders, List<RequestHeaderProvider> providers,
+	public TrolieClientImpl(CloseableHttpClient httpClient, CloseableHttpAsyncClient asyncHttpClient,
+							TrolieHost host, RequestConfig requestConfig, int bufferSize,
+							ObjectMapper objectMapper, ClientExecutor executor, ETagStore eTagStore,
+							ResourceDictionary resourceDictionary, SnapshotCache snapshotCache,
+							SnapshotCache responseCache, PollingPolicy pollingPolicy,
+							boolean coalesceSubscriptions, ForkJoinPool parsePool, DataFormat dataFormat,
+							List<Closeable> ownedResources,
+							Map<String, String> httpHeaders, List<RequestHeaderProvider> providers,
 							int defaultIntervalMinutes,
 							int realTimeRatingsPollMs,
 							int forecastRatingsPollMs,
@@ -72,11 +130,22 @@ public class TrolieClientImpl implements TrolieClient {
 							int seasonalRatingsPollMs) {
 		super();
 		this.httpClient = httpClient;
+		this.asyncHttpClient = asyncHttpClient;
 		this.host = host;
 		this.requestConfig = requestConfig;
 		this.bufferSize = bufferSize;
+		this.bufferPool = new BufferPool(bufferSize, MAX_POOLED_BUFFERS);
 		this.objectMapper = objectMapper;
+		this.executor = executor;
 		this.eTagStore = eTagStore;
+		this.resourceDictionary = resourceDictionary;
+		this.snapshotCache = snapshotCache;
+		this.responseCache = responseCache;
+		this.pollingPolicy = pollingPolicy;
+		this.coalescer = coalesceSubscriptions ? new SubscriptionCoalescer() : null;
+		this.parsePool = parsePool;
+		this.dataFormat = dataFormat;
+		this.ownedResources = ownedResources;
 		this.httpHeaders = httpHeaders;
 		this.providers = providers;
 		this.defaultIntervalMinutes = defaultIntervalMinutes;
@@ -88,6 +157,54 @@ public class TrolieClientImpl implements TrolieClient {
 
 	final Set<RequestSubscriptionInternal> activeSubscriptions = new HashSet<>();
 
+	final Set<RealTimeRatingPublisher> activePublishers = new HashSet<>();
+
+	/**
+	 * Route the request over the async transport, if configured, and share the response buffers
+	 * and resource dictionary of this client, negotiating its data format.  Subscriptions also share its
+	 * snapshot cache and polling policy, and on-demand requests its response cache.
+	 * Requests that do not support the async transport keep using the blocking client.
+	 */
+	private <R extends AbstractStreamingGet<?>> R withTransport(R request) {
+		request.setAsyncHttpClient(asyncHttpClient);
+		request.setBufferPool(bufferPool);
+		request.setResourceDictionary(resourceDictionary);
+		request.setDataFormat(dataFormat);
+		if (request instanceof AbstractStreamingSubscribedGet<?> subscription) {
+			subscription.setSnapshotCache(snapshotCache);
+			subscription.setPollingPolicy(pollingPolicy);
+		} else {
+			request.setResponseCache(responseCache);
+		}
+		if (request instanceof ForecastSnapshotRequest forecast) {
+			forecast.setParallelParsing(parsePool);
+		} else if (request instanceof ForecastSnapshotSubscribedRequest forecast) {
+			forecast.setParallelParsing(parsePool);
+		}
+		return request;
+	}
+
+	/**
+	 * Start the request on the worker pool, so the caller is never blocked even when the
+	 * blocking transport is in use.
+	 */
+	private CompletableFuture<Void> executeAsync(AbstractStreamingGet<?> request) {
+		try {
+			return CompletableFuture.supplyAsync(request::executeRequestAsync, executor)
+					.thenCompose(Function.identity());
+		} catch (RejectedExecutionException e) {
+			return CompletableFuture.failedFuture(new TrolieException("Client has been closed", e));
+		}
+	}
+
+	/**
+	 * Whether a subscription shares its request with other subscriptions to the same endpoint.
+	 * Primitive receivers are given their own request, as shared forecast periods are parsed into objects.
+	 */
+	private boolean isCoalesced(StreamingSubscribedResponseReceiver receiver) {
+		return coalescer != null && !(receiver instanceof PrimitiveForecastSnapshotReceiver);
+	}
+
 	protected void addSubscription(RequestSubscriptionInternal subscription) {
 		synchronized (activeSubscriptions) {
 			activeSubscriptions.add(subscription);
@@ -117,50 +234,113 @@ public class TrolieClientImpl implements TrolieClient {
 			String resourceId,
 			Instant periodStart,
 			Instant periodEnd) {
+		newInUseLimitForecastsRequest(receiver, monitoringSet, resourceId, periodStart, periodEnd).executeRequest();
+	}
+
+	@Override
+	public CompletableFuture<Void> getInUseLimitForecastsAsync(ForecastSnapshotReceiver receiver) {
+		return getInUseLimitForecastsAsync(receiver, null, null, null, null);
+	}
+
+	@Override
+	public CompletableFuture<Void> getInUseLimitForecastsAsync(ForecastSnapshotReceiver receiver,
+																String monitoringSet) {
+		return getInUseLimitForecastsAsync(receiver, monitoringSet, null, null, null);
+	}
+
+	@Override
+	public CompletableFuture<Void> getInUseLimitForecastsAsync(ForecastSnapshotReceiver receiver,
+																Instant periodStart, Instant periodEnd) {
+		return getInUseLimitForecastsAsync(receiver, null, null, periodStart, periodEnd);
+	}
+
+	@Override
+	public CompletableFuture<Void> getInUseLimitForecastsAsync(
+			ForecastSnapshotReceiver receiver,
+			String monitoringSet,
+			String resourceId,
+			Instant periodStart,
+			Instant periodEnd) {
+		return executeAsync(newInUseLimitForecastsRequest(
+				receiver, monitoringSet, resourceId, periodStart, periodEnd));
+	}
+
+	private ForecastSnapshotRequest newInUseLimitForecastsRequest(
+			ForecastSnapshotReceiver receiver,
+			String monitoringSet,
+			String resourceId,
+			Instant periodStart,
+			Instant periodEnd) {
 		
-		new ForecastSnapshotRequest(
+		return withTransport(new ForecastSnapshotRequest(
 				httpClient, 
 				host, 
 				requestConfig, 
 				bufferSize, 
 				objectMapper,
+				executor,
 				httpHeaders,
 				providers,
 				receiver,
 				monitoringSet,
 				resourceId,
 				periodStart,
-				periodEnd).executeRequest();
-		
+				periodEnd));
 	}
 
 	@Override
-	public ForecastSnapshotSubscribedRequest subscribeToInUseLimitForecastUpdates(
+	public RequestSubscription subscribeToInUseLimitForecastUpdates(
 			ForecastSnapshotSubscribedReceiver receiver) {
 		return subscribeToInUseLimitForecastUpdates(receiver, null);
 	}
 
 	@Override
-	public ForecastSnapshotSubscribedRequest subscribeToInUseLimitForecastUpdates(
+	public RequestSubscription subscribeToInUseLimitForecastUpdates(
 			ForecastSnapshotSubscribedReceiver receiver,
 			String monitoringSet) {
 		
-		ForecastSnapshotSubscribedRequest subscription = new ForecastSnapshotSubscribedRequest(
+		RequestSubscriptionInternal subscription = isCoalesced(receiver)
+				? coalescer.subscribe(SubscriptionCoalescer.key(TrolieApiConstants.PATH_FORECAST_SNAPSHOT,
+								TrolieApiConstants.CONTENT_TYPE_FORECAST_SNAPSHOT,
+								TrolieApiConstants.PARAM_MONITORING_SET, monitoringSet),
+						receiver, ForecastSnapshotFanOut::new,
+						fanOut -> newInUseLimitForecastsSubscription(fanOut, monitoringSet))
+				: newInUseLimitForecastsSubscription(receiver, monitoringSet);
+		addSubscription(subscription);
+		return subscription;
+	}
+
+	@Override
+	public SnapshotPublisher<ForecastSnapshotEvent> publishInUseLimitForecasts() {
+		return publishInUseLimitForecasts(null);
+	}
+
+	@Override
+	public SnapshotPublisher<ForecastSnapshotEvent> publishInUseLimitForecasts(String monitoringSet) {
+		ConflatingSnapshotPublisher<ForecastSnapshotEvent> publisher = new ConflatingSnapshotPublisher<>(executor);
+		publisher.setRequest(newInUseLimitForecastsSubscription(
+				new ForecastSnapshotEventCollector(publisher::publish), monitoringSet));
+		addSubscription(publisher);
+		return publisher;
+	}
+
+	private ForecastSnapshotSubscribedRequest newInUseLimitForecastsSubscription(
+			ForecastSnapshotSubscribedReceiver receiver,
+			String monitoringSet) {
+
+		return withTransport(new ForecastSnapshotSubscribedRequest(
 				httpClient, 
 				host, 
 				requestConfig, 
 				bufferSize, 
 				objectMapper,
+				executor,
 				httpHeaders,
 				providers,
 				forecastRatingsPollMs,
 				receiver,
 				eTagStore,
-				monitoringSet);
-		
-		addSubscription(subscription);
-		return subscription;
-		
+				monitoringSet));
 	}
 
 	@Override
@@ -185,95 +365,241 @@ public class TrolieClientImpl implements TrolieClient {
 			String resourceId,
 			Instant periodStart,
 			Instant periodEnd) {
+		newRegionalLimitsForecastRequest(receiver, monitoringSet, resourceId, periodStart, periodEnd).executeRequest();
+	}
+
+	@Override
+	public CompletableFuture<Void> getRegionalLimitsForecastAsync(ForecastSnapshotReceiver receiver) {
+		return getRegionalLimitsForecastAsync(receiver, null, null, null, null);
+	}
+
+	@Override
+	public CompletableFuture<Void> getRegionalLimitsForecastAsync(ForecastSnapshotReceiver receiver,
+																   String monitoringSet) {
+		return getRegionalLimitsForecastAsync(receiver, monitoringSet, null, null, null);
+	}
+
+	@Override
+	public CompletableFuture<Void> getRegionalLimitsForecastAsync(ForecastSnapshotReceiver receiver,
+																   Instant periodStart, Instant periodEnd) {
+		return getRegionalLimitsForecastAsync(receiver, null, null, periodStart, periodEnd);
+	}
 
-		new RegionalForecastSnapshotRequest(
+	@Override
+	public CompletableFuture<Void> getRegionalLimitsForecastAsync(
+			ForecastSnapshotReceiver receiver,
+			String monitoringSet,
+			String resourceId,
+			Instant periodStart,
+			Instant periodEnd) {
+		return executeAsync(newRegionalLimitsForecastRequest(
+				receiver, monitoringSet, resourceId, periodStart, periodEnd));
+	}
+
+	private RegionalForecastSnapshotRequest newRegionalLimitsForecastRequest(
+			ForecastSnapshotReceiver receiver,
+			String monitoringSet,
+			String resourceId,
+			Instant periodStart,
+			Instant periodEnd) {
+
+		return withTransport(new RegionalForecastSnapshotRequest(
 				httpClient,
 				host,
 				requestConfig,
 				bufferSize,
 				objectMapper,
+				executor,
 				httpHeaders,
 				providers,
 				receiver,
 				monitoringSet,
 				resourceId,
 				periodStart,
-				periodEnd).executeRequest();
-
+				periodEnd));
 	}
 
 	@Override
-	public RegionalForecastSubscribedSnapshotRequest subscribeToRegionalLimitsForecast(
+	public RequestSubscription subscribeToRegionalLimitsForecast(
 			ForecastSnapshotSubscribedReceiver receiver) {
 
 		return subscribeToRegionalLimitsForecast(receiver, null);
 	}
 
 	@Override
-	public RegionalForecastSubscribedSnapshotRequest subscribeToRegionalLimitsForecast(
+	public RequestSubscription subscribeToRegionalLimitsForecast(
+			ForecastSnapshotSubscribedReceiver receiver,
+			String monitoringSet) {
+
+		RequestSubscriptionInternal subscription = isCoalesced(receiver)
+				? coalescer.subscribe(SubscriptionCoalescer.key(TrolieApiConstants.PATH_REGIONAL_FORECAST_SNAPSHOT,
+								TrolieApiConstants.CONTENT_TYPE_FORECAST_SNAPSHOT,
+								TrolieApiConstants.PARAM_MONITORING_SET, monitoringSet),
+						receiver, ForecastSnapshotFanOut::new,
+						fanOut -> newRegionalLimitsForecastSubscription(fanOut, monitoringSet))
+				: newRegionalLimitsForecastSubscription(receiver, monitoringSet);
+		addSubscription(subscription);
+		return subscription;
+	}
+
+	@Override
+	public SnapshotPublisher<ForecastSnapshotEvent> publishRegionalLimitsForecast() {
+		return publishRegionalLimitsForecast(null);
+	}
+
+	@Override
+	public SnapshotPublisher<ForecastSnapshotEvent> publishRegionalLimitsForecast(String monitoringSet) {
+		ConflatingSnapshotPublisher<ForecastSnapshotEvent> publisher = new ConflatingSnapshotPublisher<>(executor);
+		publisher.setRequest(newRegionalLimitsForecastSubscription(
+				new ForecastSnapshotEventCollector(publisher::publish), monitoringSet));
+		addSubscription(publisher);
+		return publisher;
+	}
+
+	private RegionalForecastSubscribedSnapshotRequest newRegionalLimitsForecastSubscription(
 			ForecastSnapshotSubscribedReceiver receiver,
 			String monitoringSet) {
 
-		RegionalForecastSubscribedSnapshotRequest subscription = new RegionalForecastSubscribedSnapshotRequest(
+		return withTransport(new RegionalForecastSubscribedSnapshotRequest(
 				httpClient,
 				host,
 				requestConfig,
 				bufferSize,
 				objectMapper,
+				executor,
 				httpHeaders,
 				providers,
 				forecastRatingsPollMs,
 				receiver,
 				eTagStore,
-				monitoringSet);
+				monitoringSet));
+	}
 
-		addSubscription(subscription);
-		return subscription;
+	/**
+	 * Time an update waits for a worker and a connection before failing, rather than wait forever for
+	 * workers held by other updates
+	 */
+	private long getUpdateStartTimeoutMillis() {
+		Timeout startTimeout = requestConfig.getConnectionRequestTimeout();
+		return startTimeout == null || startTimeout.isDisabled()
+				? DEFAULT_UPDATE_START_TIMEOUT_MS : startTimeout.toMilliseconds();
 	}
 
 	@Override
 	public ForecastRatingProposalUpdate createForecastRatingProposalStreamingUpdate() {
-		return new ForecastRatingProposalUpdate(httpClient, host, requestConfig, bufferSize,
-				objectMapper, httpHeaders, providers, defaultIntervalMinutes);
+		ForecastRatingProposalUpdate update = new ForecastRatingProposalUpdate(httpClient, host, requestConfig, bufferSize,
+				objectMapper, executor, httpHeaders, providers, defaultIntervalMinutes);
+		update.setDataFormat(dataFormat);
+		update.setStartTimeoutMillis(getUpdateStartTimeoutMillis());
+		return update;
+	}
+
+	@Override
+	public ShardedForecastProposalUpdate createShardedForecastRatingProposalStreamingUpdate(int shards) {
+		if (shards < 1) {
+			throw new IllegalArgumentException("At least one shard is required");
+		}
+		//each shard holds a worker until completed.  At least one worker is left to subscription polls,
+		//and shards that cannot start because other updates hold the workers fail rather than wait forever.
+		int spareWorkers = executor.getMaxWorkers() - 1;
+		if (spareWorkers < 1) {
+			//no worker to spare, the proposal is sent over one request that does not take a worker
+			ForecastRatingProposalUpdate update = createForecastRatingProposalStreamingUpdate();
+			update.setDedicatedThread(true);
+			return new ShardedForecastProposalUpdate(List.of(update));
+		}
+		int count = Math.min(shards, spareWorkers);
+		List<ForecastRatingProposalUpdate> updates = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			updates.add(createForecastRatingProposalStreamingUpdate());
+		}
+		return new ShardedForecastProposalUpdate(updates);
 	}
 
 	@Override
-	public RealTimeSnapshotSubscribedRequest subscribeToInUseLimits(RealTimeSnapshotSubscribedReceiver receiver) {
+	public RequestSubscription subscribeToInUseLimits(RealTimeSnapshotSubscribedReceiver receiver) {
 		return subscribeToInUseLimits(receiver, null, null);
 	}
 
 	@Override
-	public RealTimeSnapshotSubscribedRequest subscribeToInUseLimits(RealTimeSnapshotSubscribedReceiver receiver,
+	public RequestSubscription subscribeToInUseLimits(RealTimeSnapshotSubscribedReceiver receiver,
 			String monitoringSet) {
 		return subscribeToInUseLimits(receiver, monitoringSet, null);
 	}
 	
 	@Override
-	public RealTimeSnapshotSubscribedRequest subscribeToInUseLimits(RealTimeSnapshotSubscribedReceiver receiver,
+	public RequestSubscription subscribeToInUseLimits(RealTimeSnapshotSubscribedReceiver receiver,
+			String monitoringSet, String resourceId) {
+
+		RequestSubscriptionInternal subscription = isCoalesced(receiver)
+				? coalescer.subscribe(SubscriptionCoalescer.key(TrolieApiConstants.PATH_REALTIME_SNAPSHOT,
+								TrolieApiConstants.CONTENT_TYPE_REALTIME_SNAPSHOT,
+								TrolieApiConstants.PARAM_MONITORING_SET, monitoringSet,
+								TrolieApiConstants.PARAM_RESOURCE_ID, resourceId),
+						receiver, RealTimeSnapshotFanOut::new,
+						fanOut -> newInUseLimitsSubscription(fanOut, monitoringSet, resourceId))
+				: newInUseLimitsSubscription(receiver, monitoringSet, resourceId);
+		addSubscription(subscription);
+		return subscription;
+	}
+
+	@Override
+	public SnapshotPublisher<RealTimeSnapshotEvent> publishInUseLimits() {
+		return publishInUseLimits(null);
+	}
+
+	@Override
+	public SnapshotPublisher<RealTimeSnapshotEvent> publishInUseLimits(String monitoringSet) {
+		ConflatingSnapshotPublisher<RealTimeSnapshotEvent> publisher = new ConflatingSnapshotPublisher<>(executor);
+		publisher.setRequest(newInUseLimitsSubscription(
+				new RealTimeSnapshotEventCollector(publisher::publish), monitoringSet, null));
+		addSubscription(publisher);
+		return publisher;
+	}
+
+	private RealTimeSnapshotSubscribedRequest newInUseLimitsSubscription(RealTimeSnapshotSubscribedReceiver receiver,
 			String monitoringSet, String resourceId) {
 
-		RealTimeSnapshotSubscribedRequest subscription = new RealTimeSnapshotSubscribedRequest(
+		return withTransport(new RealTimeSnapshotSubscribedRequest(
 				httpClient, 
 				host, 
 				requestConfig, 
 				bufferSize, 
 				objectMapper,
+				executor,
 				httpHeaders,
 				providers,
 				realTimeRatingsPollMs,
 				receiver,
 				eTagStore,
 				monitoringSet,
-				resourceId);
-		
-		addSubscription(subscription);
-		return subscription;
+				resourceId));
 	}
 
 	@Override
 	public RealTimeRatingProposalUpdate createRealTimeRatingProposalStreamingUpdate() {
-		return new RealTimeRatingProposalUpdate(httpClient, host, requestConfig, bufferSize,
-				objectMapper, httpHeaders, providers);
+		RealTimeRatingProposalUpdate update = new RealTimeRatingProposalUpdate(httpClient, host, requestConfig, bufferSize,
+				objectMapper, executor, httpHeaders, providers);
+		update.setDataFormat(dataFormat);
+		update.setStartTimeoutMillis(getUpdateStartTimeoutMillis());
+		return update;
+	}
+
+	@Override
+	public RealTimeRatingPublisher createRealTimeRatingPublisher(Supplier<? extends ProposalHeader> headers,
+																 RealTimeRatingPublisher.Listener listener) {
+		RealTimeRatingPublisher publisher = new RealTimeRatingPublisher(this::createRealTimeRatingProposalStreamingUpdate,
+				headers, listener, this::removePublisher, executor::newDedicatedThread);
+		synchronized (activePublishers) {
+			activePublishers.add(publisher);
+		}
+		return publisher;
+	}
+
+	private void removePublisher(RealTimeRatingPublisher publisher) {
+		synchronized (activePublishers) {
+			activePublishers.remove(publisher);
+		}
 	}
 
 	@Override
@@ -288,19 +614,40 @@ public class TrolieClientImpl implements TrolieClient {
 	
 	@Override
 	public void getInUseLimits(RealTimeSnapshotReceiver receiver, String monitoringSet, String resourceId) {
+		newInUseLimitsRequest(receiver, monitoringSet, resourceId).executeRequest();
+	}
+
+	@Override
+	public CompletableFuture<Void> getInUseLimitsAsync(RealTimeSnapshotReceiver receiver) {
+		return getInUseLimitsAsync(receiver, null, null);
+	}
+
+	@Override
+	public CompletableFuture<Void> getInUseLimitsAsync(RealTimeSnapshotReceiver receiver, String monitoringSet) {
+		return getInUseLimitsAsync(receiver, monitoringSet, null);
+	}
+
+	@Override
+	public CompletableFuture<Void> getInUseLimitsAsync(RealTimeSnapshotReceiver receiver, String monitoringSet,
+													   String resourceId) {
+		return executeAsync(newInUseLimitsRequest(receiver, monitoringSet, resourceId));
+	}
+
+	private RealTimeSnapshotRequest newInUseLimitsRequest(RealTimeSnapshotReceiver receiver, String monitoringSet,
+														  String resourceId) {
 		
-		new RealTimeSnapshotRequest(
+		return withTransport(new RealTimeSnapshotRequest(
 				httpClient, 
 				host, 
 				requestConfig, 
 				bufferSize,
 				objectMapper,
+				executor,
 				httpHeaders,
 				providers,
 				receiver,
 				monitoringSet,
-				resourceId).executeRequest();
-		
+				resourceId));
 	}
 
 	@Override
@@ -315,79 +662,145 @@ public class TrolieClientImpl implements TrolieClient {
 
 	@Override
 	public void getRegionalRealTimeLimits(RealTimeSnapshotReceiver receiver, String monitoringSet, String resourceId) {
+		newRegionalRealTimeLimitsRequest(receiver, monitoringSet, resourceId).executeRequest();
+	}
 
-		new RegionalRealTimeSnapshotRequest(
+	@Override
+	public CompletableFuture<Void> getRegionalRealTimeLimitsAsync(RealTimeSnapshotReceiver receiver) {
+		return getRegionalRealTimeLimitsAsync(receiver, null, null);
+	}
+
+	@Override
+	public CompletableFuture<Void> getRegionalRealTimeLimitsAsync(RealTimeSnapshotReceiver receiver,
+																   String monitoringSet) {
+		return getRegionalRealTimeLimitsAsync(receiver, monitoringSet, null);
+	}
+
+	@Override
+	public CompletableFuture<Void> getRegionalRealTimeLimitsAsync(RealTimeSnapshotReceiver receiver,
+																   String monitoringSet, String resourceId) {
+		return executeAsync(newRegionalRealTimeLimitsRequest(receiver, monitoringSet, resourceId));
+	}
+
+	private RegionalRealTimeSnapshotRequest newRegionalRealTimeLimitsRequest(RealTimeSnapshotReceiver receiver,
+																			 String monitoringSet, String resourceId) {
+
+		return withTransport(new RegionalRealTimeSnapshotRequest(
 				httpClient,
 				host,
 				requestConfig,
 				bufferSize,
 				objectMapper,
+				executor,
 				httpHeaders,
 				providers,
 				receiver,
 				monitoringSet,
-				resourceId).executeRequest();
+				resourceId));
 	}
 
 	@Override
-	public RegionalRealTimeSnapshotSubscribedRequest subscribeToRegionalRealTimeLimits(
+	public RequestSubscription subscribeToRegionalRealTimeLimits(
 			RealTimeSnapshotSubscribedReceiver receiver) {
 		return subscribeToRegionalRealTimeLimits(receiver, null);
 	}
 
 	@Override
-	public RegionalRealTimeSnapshotSubscribedRequest subscribeToRegionalRealTimeLimits(
+	public RequestSubscription subscribeToRegionalRealTimeLimits(
 			RealTimeSnapshotSubscribedReceiver receiver,
 			String monitoringSet) {
 
-		RegionalRealTimeSnapshotSubscribedRequest subscription = new RegionalRealTimeSnapshotSubscribedRequest(
+		RequestSubscriptionInternal subscription = isCoalesced(receiver)
+				? coalescer.subscribe(SubscriptionCoalescer.key(TrolieApiConstants.PATH_REGIONAL_REALTIME_SNAPSHOT,
+								TrolieApiConstants.CONTENT_TYPE_REALTIME_SNAPSHOT,
+								TrolieApiConstants.PARAM_MONITORING_SET, monitoringSet),
+						receiver, RealTimeSnapshotFanOut::new,
+						fanOut -> newRegionalRealTimeLimitsSubscription(fanOut, monitoringSet))
+				: newRegionalRealTimeLimitsSubscription(receiver, monitoringSet);
+		addSubscription(subscription);
+		return subscription;
+	}
+
+	@Override
+	public SnapshotPublisher<RealTimeSnapshotEvent> publishRegionalRealTimeLimits() {
+		return publishRegionalRealTimeLimits(null);
+	}
+
+	@Override
+	public SnapshotPublisher<RealTimeSnapshotEvent> publishRegionalRealTimeLimits(String monitoringSet) {
+		ConflatingSnapshotPublisher<RealTimeSnapshotEvent> publisher = new ConflatingSnapshotPublisher<>(executor);
+		publisher.setRequest(newRegionalRealTimeLimitsSubscription(
+				new RealTimeSnapshotEventCollector(publisher::publish), monitoringSet));
+		addSubscription(publisher);
+		return publisher;
+	}
+
+	private RegionalRealTimeSnapshotSubscribedRequest newRegionalRealTimeLimitsSubscription(
+			RealTimeSnapshotSubscribedReceiver receiver,
+			String monitoringSet) {
+
+		return withTransport(new RegionalRealTimeSnapshotSubscribedRequest(
 				httpClient,
 				host,
 				requestConfig,
 				bufferSize,
 				objectMapper,
+				executor,
 				httpHeaders,
 				providers,
 				realTimeRatingsPollMs,
 				receiver,
 				eTagStore,
-				monitoringSet);
-
-		addSubscription(subscription);
-		return subscription;
+				monitoringSet));
 	}
 
 	@Override
 	public void getMonitoringSet(MonitoringSetsReceiver receiver, String monitoringSet) {
-		new MonitoringSetsRequest(
-				httpClient, host, requestConfig, bufferSize, objectMapper, httpHeaders, providers,
-				receiver, monitoringSet).executeRequest();
+		newMonitoringSetRequest(receiver, monitoringSet).executeRequest();
+	}
 
+	@Override
+	public CompletableFuture<Void> getMonitoringSetAsync(MonitoringSetsReceiver receiver, String monitoringSet) {
+		return executeAsync(newMonitoringSetRequest(receiver, monitoringSet));
+	}
+
+	private MonitoringSetsRequest newMonitoringSetRequest(MonitoringSetsReceiver receiver, String monitoringSet) {
+		return withTransport(new MonitoringSetsRequest(
+				httpClient, host, requestConfig, bufferSize, objectMapper, executor, httpHeaders, providers,
+				receiver, monitoringSet));
 	}
 
 	@Override
 	public MonitoringSetsSubscribedRequest subscribeToMonitoringSetUpdates(MonitoringSetsSubscribedReceiver receiver,
                                                                            String monitoringSet) {
-		MonitoringSetsSubscribedRequest subscription = new MonitoringSetsSubscribedRequest(
-				httpClient, host, requestConfig, monitoringSetPollMs, objectMapper, httpHeaders, providers,
-				monitoringSetPollMs, receiver, eTagStore, monitoringSet);
+		MonitoringSetsSubscribedRequest subscription = withTransport(new MonitoringSetsSubscribedRequest(
+				httpClient, host, requestConfig, bufferSize, objectMapper, executor, httpHeaders, providers,
+				monitoringSetPollMs, receiver, eTagStore, monitoringSet));
 		addSubscription(subscription);
 		return subscription;
 	}
 
 	@Override
 	public void getDefaultMonitoringSet(MonitoringSetsReceiver receiver) {
-		new DefaultMonitoringSetRequest(
-				httpClient, host, requestConfig, bufferSize, objectMapper, httpHeaders, providers, receiver)
-				.executeRequest();
+		newDefaultMonitoringSetRequest(receiver).executeRequest();
+	}
+
+	@Override
+	public CompletableFuture<Void> getDefaultMonitoringSetAsync(MonitoringSetsReceiver receiver) {
+		return executeAsync(newDefaultMonitoringSetRequest(receiver));
+	}
+
+	private DefaultMonitoringSetRequest newDefaultMonitoringSetRequest(MonitoringSetsReceiver receiver) {
+		return withTransport(new DefaultMonitoringSetRequest(
+				httpClient, host, requestConfig, bufferSize, objectMapper, executor, httpHeaders, providers, receiver));
 	}
 
 	@Override
 	public DefaultMonitoringSetSubscribedRequest subscribeToDefaultMonitoringSetUpdates(
 			MonitoringSetsSubscribedReceiver receiver) {
-		var subscription = new DefaultMonitoringSetSubscribedRequest(
-				httpClient, host, requestConfig, monitoringSetPollMs, objectMapper, httpHeaders, providers,
-				monitoringSetPollMs, receiver, eTagStore);
+		var subscription = withTransport(new DefaultMonitoringSetSubscribedRequest(
+				httpClient, host, requestConfig, bufferSize, objectMapper, executor, httpHeaders, providers,
+				monitoringSetPollMs, receiver, eTagStore));
 		addSubscription(subscription);
 		return subscription;
 	}
@@ -407,18 +820,45 @@ public class TrolieClientImpl implements TrolieClient {
 			SeasonalSnapshotReceiver receiver,
 			String monitoringSet,
 			String resourceId) {
+		newInUseSeasonalSnapshotsRequest(receiver, monitoringSet, resourceId).executeRequest();
+	}
+
+	@Override
+	public CompletableFuture<Void> getInUseSeasonalSnapshotsAsync(SeasonalSnapshotReceiver receiver) {
+		return getInUseSeasonalSnapshotsAsync(receiver, null, null);
+	}
 
-		new SeasonalSnapshotRequest(
+	@Override
+	public CompletableFuture<Void> getInUseSeasonalSnapshotsAsync(SeasonalSnapshotReceiver receiver,
+																   String monitoringSet) {
+		return getInUseSeasonalSnapshotsAsync(receiver, monitoringSet, null);
+	}
+
+	@Override
+	public CompletableFuture<Void> getInUseSeasonalSnapshotsAsync(
+			SeasonalSnapshotReceiver receiver,
+			String monitoringSet,
+			String resourceId) {
+		return executeAsync(newInUseSeasonalSnapshotsRequest(receiver, monitoringSet, resourceId));
+	}
+
+	private SeasonalSnapshotRequest newInUseSeasonalSnapshotsRequest(
+			SeasonalSnapshotReceiver receiver,
+			String monitoringSet,
+			String resourceId) {
+
+		return withTransport(new SeasonalSnapshotRequest(
 				httpClient,
 				host,
 				requestConfig,
 				bufferSize,
 				objectMapper,
+				executor,
 				httpHeaders,
 				providers,
 				receiver,
 				monitoringSet,
-				resourceId).executeRequest();
+				resourceId));
 	}
 
 	@Override
@@ -432,18 +872,19 @@ public class TrolieClientImpl implements TrolieClient {
 			SeasonalSnapshotSubscribedReceiver receiver,
 			String monitoringSet) {
 
-		SeasonalSnapshotSubscribedRequest subscription = new SeasonalSnapshotSubscribedRequest(
+		SeasonalSnapshotSubscribedRequest subscription = withTransport(new SeasonalSnapshotSubscribedRequest(
 				httpClient,
 				host,
 				requestConfig,
 				bufferSize,
 				objectMapper,
+				executor,
 				httpHeaders,
 				providers,
 				seasonalRatingsPollMs,
 				receiver,
 				eTagStore,
-				monitoringSet);
+				monitoringSet));
 
 		addSubscription(subscription);
 		return subscription;
@@ -453,12 +894,34 @@ public class TrolieClientImpl implements TrolieClient {
 
 	@Override
 	public void close() throws IOException {
+		logger.info("Closing all rating publishers");
+		List<RealTimeRatingPublisher> publishers;
+		synchronized (activePublishers) {
+			publishers = new ArrayList<>(activePublishers);
+		}
+		//sends the ratings already published while the workers and HTTP client are still available
+		publishers.forEach(RealTimeRatingPublisher::close);
+
 		logger.info("Closing all subscriptions");
 		unsubscribeAll();
 
+		logger.debug("Shutting down worker pool");
+		executor.shutdown(EXECUTOR_SHUTDOWN_TIMEOUT_MS);
+
 		logger.debug("Closing HTTP Client");
 		httpClient.close();
+		if (asyncHttpClient != null) {
+			//subscriptions have stopped, so only idle keep-alive connections remain
+			asyncHttpClient.close(CloseMode.IMMEDIATE);
+		}
 
+		for (Closeable resource : ownedResources) {
+			try {
+				resource.close();
+			} catch (IOException e) {
+				logger.error("Error closing {}", resource, e);
+			}
+		}
 	}
 
 	@Override
@@ -478,4 +941,14 @@ public class TrolieClientImpl implements TrolieClient {
 		activeSubscriptions.forEach(this::unsubscribe);
 	}
 
+	@Override
+	public ExecutorMetrics getExecutorMetrics() {
+		return executor;
+	}
+
+	@Override
+	public ResourceDictionary getResourceDictionary() {
+		return resourceDictionary;
+	}
+
 }
@@ -0,0 +1,41 @@
+package energy.trolie.client.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <p>Access to virtual threads without requiring a Java 21 compile target.</p>
+ * <p>The SDK is built for Java 17, so the virtual thread builder API is looked up
+ * reflectively.  On runtimes without virtual threads the lookup yields null
+ * and callers fall back to platform threads.</p>
+ */
+final class VirtualThreads {
+
+	private static final Logger logger = LoggerFactory.getLogger(VirtualThreads.class);
+
+	private VirtualThreads() {
+	}
+
+	/**
+	 * Create a factory for named virtual threads.
+	 * @param prefix thread name prefix, followed by a sequence number
+	 * @return virtual thread factory, or null if the runtime does not support virtual threads.
+	 */
+	static ThreadFactory factory(String prefix) {
+		try {
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+			return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+		} catch (ClassNotFoundException | NoSuchMethodException e) {
+			logger.debug("Virtual threads not available on Java {}", Runtime.version());
+		} catch (InvocationTargetException | IllegalAccessException e) {
+			//Java 19 and 20 expose the API, but only with preview features enabled
+			logger.debug("Virtual threads not enabled on Java {}", Runtime.version(), e);
+		}
+		return null;
+	}
+}
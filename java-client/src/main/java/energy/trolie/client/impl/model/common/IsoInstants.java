@@ -0,0 +1,135 @@
+package energy.trolie.client.impl.model.common;
+
+import java.time.Instant;
+
+/**
+ * Allocation-free parsing of ISO-8601 timestamps as used by TROLIE, such as
+ * {@code 2025-07-12T05:00:00-05:00} or {@code 2025-07-12T10:00:00.000Z}.
+ * Anything outside that shape is handed to {@link Instant#parse(CharSequence)}.
+ */
+public final class IsoInstants {
+
+    private static final int SECONDS_PER_DAY = 86400;
+    //returned by parseSeconds for text outside the shape handled without allocation
+    private static final long UNHANDLED = Long.MIN_VALUE;
+
+    private IsoInstants() {
+    }
+
+    /**
+     * Parse a timestamp with offset
+     * @param text characters holding the timestamp
+     * @param offset start of the timestamp
+     * @param length length of the timestamp
+     * @return seconds since the epoch.  Fractions of a second are truncated.
+     * @throws java.time.format.DateTimeParseException if the text is not a valid timestamp
+     */
+    public static long parseEpochSeconds(char[] text, int offset, int length) {
+        long seconds = parseSeconds(text, offset, length);
+        return seconds != UNHANDLED ? seconds : parse(text, offset, length).getEpochSecond();
+    }
+
+    /**
+     * Parse a timestamp with offset, keeping fractions of a second
+     * @param text characters holding the timestamp
+     * @param offset start of the timestamp
+     * @param length length of the timestamp
+     * @return the instant
+     * @throws java.time.format.DateTimeParseException if the text is not a valid timestamp
+     */
+    public static Instant parseInstant(char[] text, int offset, int length) {
+        long seconds = parseSeconds(text, offset, length);
+        if (seconds == UNHANDLED) {
+            return parse(text, offset, length);
+        }
+        int nanos = 0;
+        if (text[offset + 19] == '.') {
+            int scale = 100_000_000;
+            for (int i = offset + 20; scale > 0 && text[i] >= '0' && text[i] <= '9'; i++) {
+                nanos += (text[i] - '0') * scale;
+                scale /= 10;
+            }
+        }
+        return Instant.ofEpochSecond(seconds, nanos);
+    }
+
+    private static long parseSeconds(char[] text, int offset, int length) {
+        int end = offset + length;
+        //yyyy-MM-ddTHH:mm:ssZ is the shortest form handled here
+        if (length < 20 || text[offset + 4] != '-' || text[offset + 7] != '-' || text[offset + 13] != ':'
+                || text[offset + 16] != ':' || (text[offset + 10] != 'T' && text[offset + 10] != 't')) {
+            return UNHANDLED;
+        }
+        int year = digits(text, offset, 4);
+        int month = digits(text, offset + 5, 2);
+        int day = digits(text, offset + 8, 2);
+        int hour = digits(text, offset + 11, 2);
+        int minute = digits(text, offset + 14, 2);
+        int second = digits(text, offset + 17, 2);
+        int i = offset + 19;
+        if (text[i] == '.') {
+            i++;
+            while (i < end && text[i] >= '0' && text[i] <= '9') {
+                i++;
+            }
+        }
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 59 || i >= end) {
+            return UNHANDLED;
+        }
+
+        int offsetSeconds;
+        char zone = text[i];
+        if ((zone == 'Z' || zone == 'z') && i + 1 == end) {
+            offsetSeconds = 0;
+        } else if ((zone == '+' || zone == '-') && i + 6 == end && text[i + 3] == ':') {
+            int offsetHours = digits(text, i + 1, 2);
+            int offsetMinutes = digits(text, i + 4, 2);
+            if (offsetHours < 0 || offsetHours > 18 || offsetMinutes < 0 || offsetMinutes > 59) {
+                return UNHANDLED;
+            }
+            offsetSeconds = (offsetHours * 3600 + offsetMinutes * 60) * (zone == '-' ? -1 : 1);
+        } else {
+            return UNHANDLED;
+        }
+        if (day > 28 && day > lengthOfMonth(year, month)) {
+            return UNHANDLED;
+        }
+        return epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second - offsetSeconds;
+    }
+
+    //returns -1 on anything but ASCII digits
+    private static int digits(char[] text, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = text[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            return leap ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    //days since 1970-01-01 in the proleptic Gregorian calendar, for years 0001 to 9999
+    private static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = y / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    private static Instant parse(char[] text, int offset, int length) {
+        return Instant.parse(new String(text, offset, length));
+    }
+}
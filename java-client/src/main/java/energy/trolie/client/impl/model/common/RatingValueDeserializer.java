@@ -1,18 +1,22 @@
 package energy.trolie.client.impl.model.common;
 
 import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import energy.trolie.client.model.common.RatingUnits;
 import energy.trolie.client.model.common.RatingValue;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Allows for naive Jackson Deserialization of
- * {@link RatingValue}
+ * Token-level Jackson deserialization of {@link RatingValue}.
+ * Values in the units known to the SDK are read straight into primitive floats,
+ * anything else falls back to the raw JSON map.
  */
 public class RatingValueDeserializer extends StdDeserializer<RatingValue> {
 
@@ -25,9 +29,114 @@ public class RatingValueDeserializer extends StdDeserializer<RatingValue> {
     public RatingValue deserialize(JsonParser jsonParser,
                                    DeserializationContext deserializationContext) throws IOException, JacksonException {
 
-        Map<String, Float> marshalledJson =
-                jsonParser.readValueAs(new TypeReference<Map<String, Float>>() {});
-        if(marshalledJson == null) return null;
-        return RatingValue.ofMappedJson(marshalledJson);
+        JsonToken token = jsonParser.currentToken();
+        if (token != JsonToken.VALUE_NULL && token != JsonToken.START_OBJECT
+                && token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+            return (RatingValue) deserializationContext.handleUnexpectedToken(RatingValue.class, jsonParser);
+        }
+        return read(jsonParser);
+    }
+
+    /**
+     * Read a rating value without a deserialization context, as done by the streaming decoders.
+     * @param jsonParser parser positioned on the START_OBJECT of the value, or a null
+     * @return the rating value, or null for a JSON null
+     * @throws IOException on malformed content
+     */
+    public static RatingValue read(JsonParser jsonParser) throws IOException {
+        JsonToken token = jsonParser.currentToken();
+        String field;
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        } else if (token == JsonToken.START_OBJECT) {
+            field = jsonParser.nextFieldName();
+        } else if (token == JsonToken.FIELD_NAME || token == JsonToken.END_OBJECT) {
+            field = jsonParser.currentName();
+        } else {
+            throw new JsonParseException(jsonParser, "Expected a rating value object but found " + token);
+        }
+
+        float mva = Float.NaN;
+        float amps = Float.NaN;
+        float mw = Float.NaN;
+        float pf = Float.NaN;
+        // Bit per known field seen, so duplicates and odd combinations can be told apart.
+        int seen = 0;
+        // Only allocated for content that does not fit the primitive representation.
+        Map<String, Float> other = null;
+
+        for (; field != null; field = jsonParser.nextFieldName()) {
+            jsonParser.nextToken();
+            if (jsonParser.currentToken() == JsonToken.VALUE_NULL) {
+                if (other == null) {
+                    other = new HashMap<>();
+                }
+                other.put(field, null);
+                continue;
+            }
+            float value = readFloat(jsonParser);
+            int bit = switch (field) {
+                case "mva" -> 1;
+                case "amps" -> 2;
+                case "mw" -> 4;
+                case "pf" -> 8;
+                default -> 0;
+            };
+            if (bit == 0 || (seen & bit) != 0) {
+                if (other == null) {
+                    other = new HashMap<>();
+                }
+                other.put(field, value);
+                continue;
+            }
+            seen |= bit;
+            switch (bit) {
+                case 1 -> mva = value;
+                case 2 -> amps = value;
+                case 4 -> mw = value;
+                default -> pf = value;
+            }
+        }
+
+        if (other == null) {
+            switch (seen) {
+                case 1:
+                    return RatingValue.fromMva(mva);
+                case 2:
+                    return RatingValue.fromAmps(amps);
+                case 4 | 8:
+                    return RatingValue.fromMwAndPf(mw, pf);
+                default:
+                    other = new HashMap<>();
+            }
+        }
+        putIfSeen(other, seen, 1, RatingUnits.MVA, mva);
+        putIfSeen(other, seen, 2, RatingUnits.AMPS, amps);
+        putIfSeen(other, seen, 4, RatingUnits.MW, mw);
+        putIfSeen(other, seen, 8, RatingUnits.PF, pf);
+        return RatingValue.ofMappedJson(other);
+    }
+
+    private static float readFloat(JsonParser jsonParser) throws IOException {
+        JsonToken token = jsonParser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT) {
+            return jsonParser.getFloatValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            // Some implementations quote their numbers.
+            String text = jsonParser.getText().trim();
+            try {
+                return Float.parseFloat(text);
+            } catch (NumberFormatException e) {
+                throw new JsonParseException(jsonParser, "Not a valid rating value: " + text);
+            }
+        }
+        throw new JsonParseException(jsonParser, "Expected a number for a rating value but found " + token);
+    }
+
+    private static void putIfSeen(Map<String, Float> values, int seen, int bit, RatingUnits units, float value) {
+        if ((seen & bit) != 0) {
+            values.putIfAbsent(units.getJsonValue(), value);
+        }
     }
 }
@@ -3,12 +3,14 @@ package energy.trolie.client.impl.model.common;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import energy.trolie.client.model.common.RatingUnits;
 import energy.trolie.client.model.common.RatingValue;
 
 import java.io.IOException;
+import java.util.Map;
 
 /**
- * Allows naive Jackson Serialization of rating values.
+ * Token-level Jackson serialization of rating values.
  * {@link RatingValue}
  */
 public class RatingValueSerializer extends StdSerializer<RatingValue> {
@@ -20,7 +22,25 @@ public class RatingValueSerializer extends StdSerializer<RatingValue> {
     public void serialize(RatingValue ratingValue,
                           JsonGenerator jsonGenerator,
                           SerializerProvider serializerProvider) throws IOException {
-        // We just serialize the map.
-        jsonGenerator.writeObject(ratingValue.getValues());
+        jsonGenerator.writeStartObject(ratingValue);
+        if (ratingValue.isCompact()) {
+            RatingUnits units = ratingValue.getUnits();
+            if (units == RatingUnits.MWandPF) {
+                jsonGenerator.writeNumberField(RatingUnits.MW.getJsonValue(), ratingValue.getValue());
+                jsonGenerator.writeNumberField(RatingUnits.PF.getJsonValue(), ratingValue.getPowerFactor());
+            } else {
+                jsonGenerator.writeNumberField(units.getJsonValue(), ratingValue.getValue());
+            }
+        } else {
+            // Content outside the known units is written as given.
+            for (Map.Entry<String, Float> entry : ratingValue.getValues().entrySet()) {
+                if (entry.getValue() == null) {
+                    jsonGenerator.writeNullField(entry.getKey());
+                } else {
+                    jsonGenerator.writeNumberField(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        jsonGenerator.writeEndObject();
     }
 }
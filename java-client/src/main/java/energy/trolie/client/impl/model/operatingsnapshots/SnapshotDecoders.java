@@ -0,0 +1,211 @@
+package energy.trolie.client.impl.model.operatingsnapshots;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import energy.trolie.client.ResourceDictionary;
+import energy.trolie.client.impl.model.common.IsoInstants;
+import energy.trolie.client.impl.model.common.RatingValueDeserializer;
+import energy.trolie.client.model.common.EmergencyRatingValue;
+import energy.trolie.client.model.common.RatingValue;
+import energy.trolie.client.model.operatingsnapshots.ForecastPeriodSnapshot;
+import energy.trolie.client.model.operatingsnapshots.RealTimeLimit;
+import energy.trolie.client.model.operatingsnapshots.SeasonalPeriodSnapshot;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Hand-written streaming decoders for the objects repeated throughout snapshot responses.</p>
+ * <p>Binding periods and limits through {@code readValueAs} goes through the bean deserializer,
+ * with a property lookup, no-args construction and a reflective setter per field.  These decoders
+ * switch on the field names canonicalized by the parser instead and construct the model through
+ * its all-args constructor.  Unknown fields are skipped.</p>
+ */
+public final class SnapshotDecoders {
+
+    private SnapshotDecoders() {
+    }
+
+    /**
+     * Decode a forecast period
+     * @param parser parser positioned on the START_OBJECT of the period.  Left on its END_OBJECT.
+     * @return the period
+     * @throws IOException on malformed content
+     */
+    public static ForecastPeriodSnapshot forecastPeriod(JsonParser parser) throws IOException {
+        expectObject(parser);
+        Instant periodStart = null;
+        Instant periodEnd = null;
+        RatingValue continuousOperatingLimit = null;
+        List<EmergencyRatingValue> emergencyOperatingLimits = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "period-start" -> periodStart = instant(parser);
+                case "period-end" -> periodEnd = instant(parser);
+                case "continuous-operating-limit" -> continuousOperatingLimit = RatingValueDeserializer.read(parser);
+                case "emergency-operating-limits" -> emergencyOperatingLimits = emergencyLimits(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        return new ForecastPeriodSnapshot(periodStart, periodEnd, continuousOperatingLimit, emergencyOperatingLimits);
+    }
+
+    /**
+     * Decode a seasonal period
+     * @param parser parser positioned on the START_OBJECT of the period.  Left on its END_OBJECT.
+     * @return the period
+     * @throws IOException on malformed content
+     */
+    public static SeasonalPeriodSnapshot seasonalPeriod(JsonParser parser) throws IOException {
+        expectObject(parser);
+        Instant periodStart = null;
+        Instant periodEnd = null;
+        String seasonName = null;
+        RatingValue continuousOperatingLimit = null;
+        List<EmergencyRatingValue> emergencyOperatingLimits = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "period-start" -> periodStart = instant(parser);
+                case "period-end" -> periodEnd = instant(parser);
+                case "season-name" -> seasonName = text(parser);
+                case "continuous-operating-limit" -> continuousOperatingLimit = RatingValueDeserializer.read(parser);
+                case "emergency-operating-limits" -> emergencyOperatingLimits = emergencyLimits(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        return new SeasonalPeriodSnapshot(periodStart, periodEnd, seasonName, continuousOperatingLimit,
+                emergencyOperatingLimits);
+    }
+
+    /**
+     * Decode a real-time limit
+     * @param parser parser positioned on the START_OBJECT of the limit.  Left on its END_OBJECT.
+     * @return the limit
+     * @throws IOException on malformed content
+     */
+    public static RealTimeLimit realTimeLimit(JsonParser parser) throws IOException {
+        return realTimeLimit(parser, null);
+    }
+
+    /**
+     * Decode a real-time limit, taking its resource ID from a dictionary
+     * @param parser parser positioned on the START_OBJECT of the limit.  Left on its END_OBJECT.
+     * @param resourceDictionary dictionary interning the resource ID, or null to decode it as a new string
+     * @return the limit
+     * @throws IOException on malformed content
+     */
+    public static RealTimeLimit realTimeLimit(JsonParser parser, ResourceDictionary resourceDictionary)
+            throws IOException {
+        expectObject(parser);
+        String resourceId = null;
+        RatingValue continuousOperatingLimit = null;
+        List<EmergencyRatingValue> emergencyOperatingLimits = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "resource-id" -> resourceId = resourceDictionary == null ? text(parser) :
+                        resourceId(parser, resourceDictionary);
+                case "continuous-operating-limit" -> continuousOperatingLimit = RatingValueDeserializer.read(parser);
+                case "emergency-operating-limits" -> emergencyOperatingLimits = emergencyLimits(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        return new RealTimeLimit(resourceId, continuousOperatingLimit, emergencyOperatingLimits);
+    }
+
+    /**
+     * Resolve the resource ID at the current token through a dictionary.  A known ID is matched
+     * against the parser's text buffer without creating a string.
+     * @param parser parser positioned on the resource ID
+     * @param resourceDictionary dictionary of the client
+     * @return index of the resource, or -1 for a null ID
+     * @throws IOException on malformed content
+     */
+    public static int resourceIndex(JsonParser parser, ResourceDictionary resourceDictionary) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_STRING) {
+            return resourceDictionary.indexOf(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        }
+        String resourceId = text(parser);
+        return resourceId == null ? -1 : resourceDictionary.indexOf(resourceId);
+    }
+
+    private static String resourceId(JsonParser parser, ResourceDictionary resourceDictionary) throws IOException {
+        int index = resourceIndex(parser, resourceDictionary);
+        return index < 0 ? null : resourceDictionary.getResourceId(index);
+    }
+
+    private static List<EmergencyRatingValue> emergencyLimits(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        } else if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Expected emergency limits array but found " + parser.currentToken());
+        }
+        List<EmergencyRatingValue> limits = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.VALUE_NULL) {
+                limits.add(null);
+                continue;
+            }
+            expectObject(parser);
+            String durationName = null;
+            RatingValue limit = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "duration-name" -> durationName = text(parser);
+                    case "limit" -> limit = RatingValueDeserializer.read(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+            limits.add(EmergencyRatingValue.of(durationName, limit));
+        }
+        return limits;
+    }
+
+    private static Instant instant(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_STRING:
+                return IsoInstants.parseInstant(parser.getTextCharacters(), parser.getTextOffset(),
+                        parser.getTextLength());
+            case VALUE_NUMBER_INT:
+                return Instant.ofEpochSecond(parser.getLongValue());
+            case VALUE_NUMBER_FLOAT:
+                // Seconds with a fraction, as accepted by the databind path.
+                BigDecimal seconds = parser.getDecimalValue();
+                return Instant.ofEpochSecond(seconds.longValue(),
+                        seconds.remainder(BigDecimal.ONE).movePointRight(9).intValue());
+            case VALUE_NULL:
+                return null;
+            default:
+                throw new JsonParseException(parser, "Expected a timestamp but found " + parser.currentToken());
+        }
+    }
+
+    private static String text(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        } else if (!token.isScalarValue()) {
+            throw new JsonParseException(parser, "Expected a string but found " + token);
+        }
+        return parser.getValueAsString();
+    }
+
+    private static void expectObject(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected an object but found " + parser.currentToken());
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package energy.trolie.client.impl.request;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import energy.trolie.client.exception.StreamingGetConnectionException;
+import energy.trolie.client.exception.StreamingGetException;
+import energy.trolie.client.exception.StreamingGetHandlingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * <p>Base for push-style parsers of response bodies received on the async transport.</p>
+ * <p>Response bytes are fed to Jackson's non-blocking parser as they arrive, and every complete
+ * token is handed to {@link #handleToken(JsonToken)}.  Objects mapped to model classes, such as
+ * headers and periods, are collected into a {@link TokenBuffer} until complete and only then
+ * bound, so a body never needs to be fully buffered.</p>
+ * <p>Errors are reported in the same way as the blocking parsers.
+ * Once an error has been reported the remaining input is ignored.</p>
+ */
+public abstract class AbstractAsyncResponseParser {
+
+	private static final Logger logger = LoggerFactory.getLogger(AbstractAsyncResponseParser.class);
+
+	protected final JsonParser parser;
+	private final ByteArrayFeeder feeder;
+	private final ObjectCodec codec;
+	private final Consumer<StreamingGetException> errorHandler;
+	private final int bufferSize;
+	//only needed for direct buffers, which the client does not normally use
+	private byte[] chunk;
+
+	private TokenBuffer capture;
+	private int captureDepth;
+	private CaptureHandler captureHandler;
+	private boolean failed;
+	private boolean complete;
+
+	protected AbstractAsyncResponseParser(JsonFactory jsonFactory, Consumer<StreamingGetException> errorHandler,
+										  int bufferSize) throws IOException {
+		this.parser = jsonFactory.createNonBlockingByteArrayParser();
+		//non-blocking parsers cannot bind values themselves, so buffered values are bound with this codec
+		this.codec = jsonFactory.getCodec();
+		this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+		this.errorHandler = errorHandler;
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Handle the next token outside any value being read through {@link #readValue(Class, Consumer)}
+	 * or skipped through {@link #skipValue()}.
+	 * @param token current token of {@link #parser}
+	 * @throws IOException on malformed content
+	 */
+	protected abstract void handleToken(JsonToken token) throws IOException;
+
+	/**
+	 * Feed the next part of the response body.  All of the buffer is consumed.
+	 * @param src response bytes
+	 * @return false if parsing has failed and the error has been reported
+	 */
+	public boolean feed(ByteBuffer src) {
+		if (failed) {
+			src.position(src.limit());
+			return false;
+		}
+		try {
+			if (src.hasArray()) {
+				//the parser reads straight from the I/O buffer, which is safe as every
+				//token is consumed before returning
+				int offset = src.arrayOffset() + src.position();
+				feeder.feedInput(src.array(), offset, offset + src.remaining());
+				src.position(src.limit());
+				drain();
+			} else {
+				if (chunk == null) {
+					chunk = new byte[bufferSize];
+				}
+				while (src.hasRemaining()) {
+					int length = Math.min(src.remaining(), chunk.length);
+					src.get(chunk, 0, length);
+					feeder.feedInput(chunk, 0, length);
+					drain();
+				}
+			}
+		} catch (Exception e) {
+			fail(e);
+		}
+		return !failed;
+	}
+
+	/**
+	 * Signal the end of the response body.
+	 * @return true if a complete document was parsed and handled without error
+	 */
+	public boolean endOfInput() {
+		if (failed) {
+			return false;
+		}
+		try {
+			feeder.endOfInput();
+			drain();
+			parser.close();
+			if (!complete) {
+				throw new StreamingGetHandlingException("Response ended before the document was complete");
+			}
+		} catch (Exception e) {
+			fail(e);
+		}
+		return !failed;
+	}
+
+	/**
+	 * Read the object starting at the current START_OBJECT token as the given type once
+	 * all of its tokens have arrived.
+	 * @param type model class
+	 * @param handler receives the bound value
+	 * @param <V> model type
+	 * @throws IOException on failure to buffer the current token
+	 */
+	protected <V> void readValue(Class<V> type, Consumer<V> handler) throws IOException {
+		beginCapture(p -> handler.accept(p.readValueAs(type)));
+	}
+
+	/**
+	 * Hand the object starting at the current START_OBJECT token to the handler once all of its
+	 * tokens have arrived, for subclasses reading values without binding them to a model class.
+	 * @param handler receives a parser over the buffered tokens, positioned on the START_OBJECT
+	 * @throws IOException on failure to buffer the current token
+	 */
+	protected void readBuffered(CaptureHandler handler) throws IOException {
+		beginCapture(handler);
+	}
+
+	/**
+	 * Ignore the value starting at the current token, including any nested content.
+	 * @throws IOException on failure to buffer the current token
+	 */
+	protected void skipValue() throws IOException {
+		if (parser.currentToken().isStructStart()) {
+			beginCapture(null);
+		}
+	}
+
+	/**
+	 * Marks the document as fully handled.  Called by subclasses on the closing token of the root.
+	 */
+	protected void complete() {
+		complete = true;
+	}
+
+	private void beginCapture(CaptureHandler handler) throws IOException {
+		captureHandler = handler;
+		captureDepth = 1;
+		if (handler != null) {
+			capture = new TokenBuffer(parser, null);
+			capture.copyCurrentEvent(parser);
+		}
+	}
+
+	private void drain() throws IOException {
+		JsonToken token;
+		while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+			if (captureDepth > 0) {
+				continueCapture(token);
+			} else {
+				handleToken(token);
+			}
+		}
+	}
+
+	private void continueCapture(JsonToken token) throws IOException {
+		if (capture != null) {
+			capture.copyCurrentEvent(parser);
+		}
+		if (token.isStructStart()) {
+			captureDepth++;
+		} else if (token.isStructEnd()) {
+			captureDepth--;
+		}
+		if (captureDepth == 0 && captureHandler != null) {
+			CaptureHandler handler = captureHandler;
+			try (JsonParser buffered = capture.asParser(codec)) {
+				buffered.nextToken();
+				capture = null;
+				captureHandler = null;
+				handler.handle(buffered);
+			}
+		}
+	}
+
+	private void fail(Exception e) {
+		failed = true;
+		if (e instanceof StreamingGetHandlingException) {
+			logger.error("Error handling response data", e);
+			errorHandler.accept((StreamingGetHandlingException) e);
+		} else if (e instanceof IOException) {
+			logger.error("I/O error handling response", e);
+			errorHandler.accept(new StreamingGetConnectionException(e));
+		} else {
+			logger.error("Error handling response data", e);
+			errorHandler.accept(new StreamingGetHandlingException(e));
+		}
+	}
+
+	/**
+	 * Receiver of a value buffered through {@link #readBuffered(CaptureHandler)}
+	 */
+	protected interface CaptureHandler {
+		/**
+		 * Handle the buffered value
+		 * @param buffered parser over the buffered tokens
+		 * @throws IOException on malformed content
+		 */
+		void handle(JsonParser buffered) throws IOException;
+	}
+}
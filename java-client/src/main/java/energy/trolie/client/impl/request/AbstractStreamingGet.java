@@ -2,7 +2,10 @@ package energy.trolie.client.impl.request;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import energy.trolie.client.DataFormat;
 import energy.trolie.client.RequestHeaderProvider;
+import energy.trolie.client.ResourceDictionary;
+import energy.trolie.client.SnapshotCache;
 import energy.trolie.client.StreamingResponseReceiver;
 import energy.trolie.client.StreamingSubscribedResponseReceiver;
 import energy.trolie.client.TrolieHost;
@@ -11,27 +14,44 @@ import energy.trolie.client.exception.StreamingGetConnectionException;
 import energy.trolie.client.exception.StreamingGetException;
 import energy.trolie.client.exception.StreamingGetResponseException;
 import energy.trolie.client.exception.SubscriberInternalException;
+import energy.trolie.client.impl.ClientExecutor;
+import org.apache.hc.client5.http.async.methods.AbstractBinResponseConsumer;
 import org.apache.hc.client5.http.classic.HttpClient;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
 import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
 import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.NameValuePair;
 import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+import org.apache.hc.core5.http.nio.support.BasicRequestProducer;
+import org.apache.hc.core5.net.URIBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.Callable;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 /**
  * <p>Abstract base for all GET requests.</p>
@@ -44,21 +64,46 @@ public abstract class AbstractStreamingGet<T extends StreamingResponseReceiver>
 	Logger logger = LoggerFactory.getLogger(AbstractStreamingGet.class);
 	
 	HttpClient httpClient;
+	CloseableHttpAsyncClient asyncHttpClient;
 	TrolieHost host;
 	RequestConfig requestConfig;
-	int bufferSize;
-	ThreadPoolExecutor threadPoolExecutor;
+	protected int bufferSize;
+	protected ClientExecutor executor;
 	Map<String, String> httpHeaders;
 	List<RequestHeaderProvider> providers;
-	protected boolean lastRequestFailed = false;
+	//written by the I/O thread when using the async transport
+	protected volatile boolean lastRequestFailed = false;
+	private volatile StreamingGetException lastError;
 
+	//factory of the response being handled, in the format the server answered with
 	protected JsonFactory jsonFactory;
+	private JsonFactory textFactory;
+	private JsonFactory formatFactory;
+	private DataFormat dataFormat = DataFormat.JSON;
+	//shared instances of the client, or created on first use by requests running without one
+	private BufferPool bufferPool;
+	private ResourceDictionary resourceDictionary;
 	protected T receiver;
+	//on-demand requests only, subscriptions keep their ETags in the ETag store
+	protected SnapshotCache responseCache;
+	private SnapshotCache.Entry cachedResponse;
+	private volatile SnapshotCache.Writer recording;
+	private volatile String requestKey;
 
 	protected boolean didLastRequestFail() {
 		return lastRequestFailed;
 	}
 
+	/**
+	 * Report an error to the receiver and mark the current request as failed.
+	 * @param e error to report
+	 */
+	protected void reportError(StreamingGetException e) {
+		lastRequestFailed = true;
+		lastError = e;
+		receiver.error(e);
+	}
+
 	protected abstract String getPath();
 	protected abstract String getContentType();
 	
@@ -70,6 +115,26 @@ public abstract class AbstractStreamingGet<T extends StreamingResponseReceiver>
 	 * @param inputStream uncompressed HTTP response body
 	 */
 	protected abstract Boolean handleResponseContent(InputStream inputStream);
+
+	/**
+	 * Create a push-style parser for the response body, used when the request is executed on the
+	 * async transport.  Requests without an incremental parser return null and always use the
+	 * blocking client.
+	 * @return new parser for a single response, or null if not supported
+	 * @throws IOException on failure to create the parser
+	 */
+	protected AbstractAsyncResponseParser createAsyncParser() throws IOException {
+		return null;
+	}
+
+	/**
+	 * Cache receiving the body of every 200 response, or null to not record bodies.
+	 * By default, the cache of on-demand responses set through {@link #setResponseCache(SnapshotCache)}.
+	 * @return cache for response bodies
+	 */
+	protected SnapshotCache getRecordingCache() {
+		return responseCache;
+	}
 	
 	protected AbstractStreamingGet(
 			HttpClient httpClient, 
@@ -77,6 +142,7 @@ public abstract class AbstractStreamingGet<T extends StreamingResponseReceiver>
 			RequestConfig requestConfig,
 			int bufferSize, 
 			ObjectMapper objectMapper,
+			ClientExecutor executor,
 			Map<String, String> httpHeaders,
 			List<RequestHeaderProvider> providers,
 			T receiver) {
@@ -85,14 +151,127 @@ public abstract class AbstractStreamingGet<T extends StreamingResponseReceiver>
 		this.host = host;
 		this.requestConfig = requestConfig;
 		this.bufferSize = bufferSize;
-		this.jsonFactory = new JsonFactory(objectMapper);
+		//shared by all requests of the client, so symbol tables and recycled buffers are reused
+		this.jsonFactory = objectMapper.getFactory();
+		this.textFactory = jsonFactory;
+		this.formatFactory = jsonFactory;
 		this.receiver = receiver;
-		this.threadPoolExecutor = new ThreadPoolExecutor(2,2,10,
-				TimeUnit.SECONDS, new LinkedBlockingDeque<>());
+		this.executor = executor;
 		this.httpHeaders = httpHeaders;
 		this.providers = providers;
 	}
 	
+	/**
+	 * Execute this request on the given non-blocking client where supported.  Response bodies are then
+	 * parsed incrementally on the I/O threads of that client, so receivers must not block.
+	 * @param asyncHttpClient started async client, or null to use the blocking client
+	 */
+	public void setAsyncHttpClient(CloseableHttpAsyncClient asyncHttpClient) {
+		this.asyncHttpClient = asyncHttpClient;
+	}
+
+	/**
+	 * Take response buffers from the given pool instead of allocating them for every response
+	 * @param bufferPool pool shared by the requests of a client
+	 */
+	public void setBufferPool(BufferPool bufferPool) {
+		this.bufferPool = bufferPool;
+	}
+
+	/**
+	 * Resolve resource IDs through the given dictionary, so their indices are shared with other requests
+	 * @param resourceDictionary dictionary of the client
+	 */
+	public void setResourceDictionary(ResourceDictionary resourceDictionary) {
+		this.resourceDictionary = resourceDictionary;
+	}
+
+	/**
+	 *
+	 * @return pool of response buffers, a pool of this request if none was set
+	 */
+	protected BufferPool getBufferPool() {
+		if (bufferPool == null) {
+			bufferPool = new BufferPool(bufferSize, 0);
+		}
+		return bufferPool;
+	}
+
+	/**
+	 *
+	 * @return dictionary resolving resource IDs, a dictionary of this request if none was set
+	 */
+	protected ResourceDictionary getResourceDictionary() {
+		if (resourceDictionary == null) {
+			resourceDictionary = new ResourceDictionary();
+		}
+		return resourceDictionary;
+	}
+
+	/**
+	 * Accept the given format ahead of JSON.  Responses are parsed in the format of their Content-Type, and
+	 * only responses in the given format are recorded in caches.  Requests in a binary format always use
+	 * the blocking client, as not every format can be parsed incrementally.
+	 * @param dataFormat format bound to the object mapper of the client
+	 */
+	public void setDataFormat(DataFormat dataFormat) {
+		this.dataFormat = dataFormat;
+		this.formatFactory = dataFormat.isJson() ? textFactory : dataFormat.getFactory();
+		this.jsonFactory = formatFactory;
+		this.requestKey = null;
+	}
+
+	/**
+	 * Send the ETag of the last response to this request kept in the given cache, and replay the
+	 * cached body into the receiver when the server responds that it has not changed
+	 * @param responseCache cache of on-demand responses, or null to disable
+	 */
+	public void setResponseCache(SnapshotCache responseCache) {
+		this.responseCache = responseCache;
+	}
+
+	/**
+	 *
+	 * @return key of this request in the ETag store and response caches.  Built from the normalized
+	 * request URI, including query parameters, and media type, so requests to the same endpoint
+	 * with different parameters keep separate ETags.
+	 */
+	protected String getRequestKey() {
+		String key = requestKey;
+		if (key == null) {
+			try {
+				key = requestKey(host.getHost(), createRequest());
+			} catch (URISyntaxException e) {
+				key = getContentType() + " " + getFullPath();
+			}
+			requestKey = key;
+		}
+		return key;
+	}
+
+	/**
+	 * Build the key of a request in the ETag store.  Scheme and host are lower-cased, dot segments
+	 * are removed from the path and query parameters are sorted, so equivalent requests share a key.
+	 * @param host host the request is sent to, unless the request names its own
+	 * @param request request to build a key for
+	 * @return accepted media type, followed by the normalized request URI
+	 * @throws URISyntaxException if the request URI is malformed
+	 */
+	static String requestKey(HttpHost host, HttpRequest request) throws URISyntaxException {
+		String origin = request.getAuthority() != null
+				? request.getScheme() + "://" + request.getAuthority()
+				: host.toURI();
+		URIBuilder uri = new URIBuilder(request.getPath());
+		List<NameValuePair> parameters = new ArrayList<>(uri.getQueryParams());
+		parameters.sort(Comparator.comparing(NameValuePair::getName)
+				.thenComparing(NameValuePair::getValue, Comparator.nullsFirst(Comparator.naturalOrder())));
+		uri.setParameters(parameters);
+		uri.setPath(URI.create(uri.getPath() == null ? "/" : uri.getPath()).normalize().getPath());
+		Header accept = request.getFirstHeader(HttpHeaders.ACCEPT);
+		return (accept == null ? "" : accept.getValue().trim().toLowerCase(Locale.ROOT)) + " "
+				+ origin.toLowerCase(Locale.ROOT) + uri.build().toASCIIString();
+	}
+
 	protected HttpClientResponseHandler<Void> createResponseHandler() {
 		return response -> {
 			handleResponse(response);
@@ -107,32 +286,114 @@ public abstract class AbstractStreamingGet<T extends StreamingResponseReceiver>
 	 */
 	protected boolean handleResponse(ClassicHttpResponse response) {
 		if (response.getCode() == HttpStatus.SC_OK) {
-			//create a new thread to consume the response stream to 
-			//allow for a buffer between HTTP I/O and whatever is handling the data
-			try {
-				return threadPoolExecutor.submit(new HandlerExecutor(response.getEntity().getContent())).get();
+			//consume the response on the thread executing the request.  Handing the stream to another
+			//thread bought no extra buffering, and nested submits can starve a shared bounded pool.
+			boolean handled = false;
+			Header contentType = response.getFirstHeader(HttpHeaders.CONTENT_TYPE);
+			boolean preferred = dataFormat.isJson() || dataFormat.matches(contentType == null ? null : contentType.getValue());
+			jsonFactory = preferred ? formatFactory : textFactory;
+			try (InputStream bufferedIn = getBufferPool().newInputStream(preferred
+					? recordBody(response, response.getEntity().getContent())
+					: response.getEntity().getContent())) {
+				handled = Boolean.TRUE.equals(handleResponseContent(bufferedIn));
+				return handled;
 			} catch (IOException e) {
-				lastRequestFailed = true;
-				logger.error("I/O error initiating request",e);
-				receiver.error(new StreamingGetConnectionException(e));
+				logger.error("I/O error reading response",e);
+				reportError(new StreamingGetConnectionException(e));
 			} catch (Exception e) {
-				lastRequestFailed = true;
 				logger.error("Internal error handling response",e);
-				receiver.error(new SubscriberInternalException(e));
+				reportError(new SubscriberInternalException(e));
+			} finally {
+				finishRecording(response, handled);
 			}
 		} else if (response.getCode() == HttpStatus.SC_NOT_MODIFIED) {
 			logger.trace("Server responded with status code 304. The requested resource has not changed.");
-			return true;
+			return replayCachedResponse();
 		} else {
 			String s = "Server responded with status code " + response.getCode();
-			lastRequestFailed = true;
 			logger.error(s);
-			receiver.error(new StreamingGetResponseException(s, response.getCode()));
+			reportError(new StreamingGetResponseException(s, response.getCode()));
 		}
 
 		return false;
 	}
 
+	private InputStream recordBody(HttpResponse response, InputStream content) {
+		SnapshotCache.Writer recorder = openBodyRecorder();
+		return recorder == null ? content : new RecordingInputStream(content, recorder);
+	}
+
+	/**
+	 * Start recording a 200 response body into the recording cache, if any
+	 */
+	private SnapshotCache.Writer openBodyRecorder() {
+		SnapshotCache cache = getRecordingCache();
+		if (cache == null) {
+			return null;
+		}
+		discardRecording();
+		recording = cache.newWriter(getRequestKey());
+		return recording;
+	}
+
+	/**
+	 * Keep the recorded body if the response was handled and carries an ETag, otherwise discard it
+	 */
+	private void finishRecording(HttpResponse response, boolean handled) {
+		SnapshotCache.Writer writer = recording;
+		recording = null;
+		if (writer == null) {
+			return;
+		}
+		Header eTag = handled ? response.getFirstHeader(HttpHeaders.ETAG) : null;
+		if (eTag != null) {
+			writer.commit(eTag.getValue());
+		} else {
+			writer.abort();
+		}
+	}
+
+	private void discardRecording() {
+		SnapshotCache.Writer writer = recording;
+		recording = null;
+		if (writer != null) {
+			writer.abort();
+		}
+	}
+
+	/**
+	 * Hand a body recorded in a cache to {@link #handleResponseContent(InputStream)}.  Only responses in the
+	 * preferred format are recorded, so they are parsed in that format.
+	 * @param inputStream cached body
+	 * @return result of {@link #handleResponseContent(InputStream)}
+	 */
+	protected Boolean handleCachedContent(InputStream inputStream) {
+		jsonFactory = formatFactory;
+		return handleResponseContent(inputStream);
+	}
+
+	/**
+	 * Hand the cached body of an on-demand request to the receiver after a 304
+	 * @return true if there was no cached body, or it was handled successfully
+	 */
+	private boolean replayCachedResponse() {
+		SnapshotCache.Entry entry = cachedResponse;
+		cachedResponse = null;
+		if (entry == null) {
+			return true;
+		}
+		try (InputStream in = entry.openContent()) {
+			return Boolean.TRUE.equals(handleCachedContent(in));
+		} catch (IOException e) {
+			logger.error("I/O error reading cached response",e);
+			reportError(new StreamingGetConnectionException(e));
+		} catch (Exception e) {
+			logger.error("Internal error handling cached response",e);
+			reportError(new SubscriberInternalException(e));
+		}
+		return false;
+	}
+
 	/**
 	 * Applies headers from all registered providers to the given GET request.
 	 * <p>
@@ -159,7 +420,7 @@ public abstract class AbstractStreamingGet<T extends StreamingResponseReceiver>
 	
 	protected HttpGet createRequest() throws URISyntaxException {
 		HttpGet get = new HttpGet(getFullPath());
-		get.addHeader(HttpHeaders.ACCEPT, getContentType());
+		get.addHeader(HttpHeaders.ACCEPT, dataFormat.accept(getContentType()));
 		if (httpHeaders !=  null && !httpHeaders.isEmpty()) {
 			httpHeaders.forEach(get::addHeader);
 		}
@@ -168,47 +429,238 @@ public abstract class AbstractStreamingGet<T extends StreamingResponseReceiver>
 		return get;
 	}
 	
+	/**
+	 * Create the request to execute, with the headers of all registered providers applied.
+	 * @return request ready for execution
+	 * @throws URISyntaxException if the request URI cannot be built
+	 */
+	protected HttpGet buildRequest() throws URISyntaxException {
+		HttpGet get = createRequest();
+		if (providers != null && !providers.isEmpty()) {
+			applyRequestHeaderProviders(get);
+		}
+		if (responseCache != null) {
+			cachedResponse = responseCache.get(getRequestKey());
+			if (cachedResponse != null) {
+				get.addHeader(HttpHeaders.IF_NONE_MATCH, cachedResponse.getETag());
+			}
+		}
+		return get;
+	}
+
 	public void executeRequest() {
 		try {
-			lastRequestFailed = false;
-			HttpGet get = createRequest();
-			if (providers != null && !providers.isEmpty()) {
-				applyRequestHeaderProviders(get);
+			executeRequestAsync().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			//already reported to the receiver
+		}
+	}
+
+	/**
+	 * Execute the request without blocking the calling thread if the async transport is configured
+	 * and this request supports it.  Otherwise, the request is executed on the calling thread.
+	 * @return future completed once the response has been handled.  If handling failed, the future
+	 * completes exceptionally with the {@link StreamingGetException} also reported to the receiver.
+	 */
+	public CompletableFuture<Void> executeRequestAsync() {
+		CompletableFuture<Void> done = new CompletableFuture<>();
+		lastRequestFailed = false;
+		lastError = null;
+		AbstractAsyncResponseParser asyncParser = null;
+		if (asyncHttpClient != null && dataFormat.isJson()) {
+			try {
+				asyncParser = createAsyncParser();
+			} catch (IOException e) {
+				logger.error("I/O error initiating request",e);
+				reportError(new StreamingGetConnectionException(e));
+				complete(done);
+				return done;
 			}
+		}
+		if (asyncParser == null) {
+			executeBlocking();
+			complete(done);
+			return done;
+		}
+
+		try {
+			HttpGet get = buildRequest();
+			asyncHttpClient.execute(host.getHost(), new BasicRequestProducer(get, null),
+					new AsyncResponseConsumer(asyncParser), null, null, new FutureCallback<>() {
+						@Override
+						public void completed(Boolean result) {
+							complete(done);
+						}
+
+						@Override
+						public void failed(Exception e) {
+							logger.error("I/O error executing request",e);
+							reportError(new StreamingGetConnectionException(e));
+							complete(done);
+						}
+
+						@Override
+						public void cancelled() {
+							reportError(new StreamingGetConnectionException(
+									new CancellationException("Request cancelled")));
+							complete(done);
+						}
+					});
+		} catch (Exception e) {
+			reportError(new SubscriberInternalException(e));
+			complete(done);
+		}
+		return done;
+	}
+
+	private void complete(CompletableFuture<Void> done) {
+		//a body recorded by a request that failed before it was handled
+		discardRecording();
+		cachedResponse = null;
+		StreamingGetException error = lastError;
+		if (error != null) {
+			done.completeExceptionally(error);
+		} else {
+			done.complete(null);
+		}
+	}
+
+	private void executeBlocking() {
+		try {
+			HttpGet get = buildRequest();
 			httpClient.execute(host.getHost(), get, createResponseHandler());
 		
 		} catch (IOException e) {
-			lastRequestFailed = true;
 			logger.error("I/O error initiating request",e);
-			receiver.error(new StreamingGetConnectionException(e));
+			reportError(new StreamingGetConnectionException(e));
 		} catch (Exception e) {
-			lastRequestFailed = true;
-			receiver.error(new SubscriberInternalException(e));
+			reportError(new SubscriberInternalException(e));
+		}
+	}
+
+	/**
+	 * Hand off the outcome of a response received on the async transport, whose body has already
+	 * been passed through the parser.
+	 * @param response response head
+	 * @param contentHandled true if the body of a 200 response was parsed and handled without error
+	 * @return Returns true if the response was handled successfully, or if a 304 was returned.
+	 */
+	protected boolean handleAsyncResponse(HttpResponse response, boolean contentHandled) {
+		if (response.getCode() == HttpStatus.SC_OK) {
+			//the parser has already reported the cause of any failure
+			finishRecording(response, contentHandled);
+			return contentHandled;
+		} else if (response.getCode() == HttpStatus.SC_NOT_MODIFIED) {
+			logger.trace("Server responded with status code 304. The requested resource has not changed.");
+			return replayCachedResponse();
+		} else {
+			String s = "Server responded with status code " + response.getCode();
+			logger.error(s);
+			reportError(new StreamingGetResponseException(s, response.getCode()));
+		}
+		return false;
+	}
+
+	/**
+	 * Feeds the body of a 200 response to the parser as it arrives on the I/O thread.
+	 * Any other response body is discarded.
+	 */
+	private class AsyncResponseConsumer extends AbstractBinResponseConsumer<Boolean> {
+
+		private final AbstractAsyncResponseParser asyncParser;
+		private HttpResponse response;
+		private SnapshotCache.Writer recorder;
+		private boolean contentHandled;
+
+		AsyncResponseConsumer(AbstractAsyncResponseParser asyncParser) {
+			this.asyncParser = asyncParser;
+		}
+
+		@Override
+		protected void start(HttpResponse response, ContentType contentType) throws HttpException, IOException {
+			this.response = response;
+			Header encoding = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+			if (response.getCode() == HttpStatus.SC_OK && encoding != null
+					&& !"identity".equalsIgnoreCase(encoding.getValue())) {
+				//the async client does not negotiate compression, so the server should not have applied any
+				throw new HttpException("Unsupported content encoding " + encoding.getValue());
+			}
+			if (response.getCode() == HttpStatus.SC_OK) {
+				recorder = openBodyRecorder();
+			}
+		}
+
+		@Override
+		protected int capacityIncrement() {
+			//every chunk is parsed before returning, so there is no backlog to throttle the server for
+			return Integer.MAX_VALUE;
+		}
+
+		@Override
+		protected void data(ByteBuffer src, boolean endOfStream) {
+			if (response.getCode() != HttpStatus.SC_OK) {
+				src.position(src.limit());
+				return;
+			}
+			if (recorder != null) {
+				recorder.write(src);
+			}
+			asyncParser.feed(src);
+			if (endOfStream) {
+				contentHandled = asyncParser.endOfInput();
+			}
+		}
+
+		@Override
+		protected Boolean buildResult() {
+			return handleAsyncResponse(response, contentHandled);
+		}
+
+		@Override
+		public void releaseResources() {
+			//nothing held beyond the parser, which is closed at the end of input
 		}
 	}
 	
-	private class HandlerExecutor implements Callable<Boolean> {
+	/**
+	 * Copies every byte read from the response body to a recorder
+	 */
+	private static class RecordingInputStream extends FilterInputStream {
 
-		InputStream inputStream;
-		
-		public HandlerExecutor(InputStream inputStream) {
-			super();
-			this.inputStream = inputStream;
+		private final SnapshotCache.Writer recorder;
+
+		RecordingInputStream(InputStream in, SnapshotCache.Writer recorder) {
+			super(in);
+			this.recorder = recorder;
 		}
 
 		@Override
-		public Boolean call() throws Exception {
-			try (BufferedInputStream bufferedIn = new BufferedInputStream(inputStream, bufferSize)) {
-				return handleResponseContent(bufferedIn);
-			} catch (IOException e) {
-				receiver.error(new StreamingGetConnectionException(e));
-			} catch (Exception e) {
-				receiver.error(new SubscriberInternalException(e));
+		public int read() throws IOException {
+			int b = in.read();
+			if (b >= 0) {
+				recorder.write(ByteBuffer.wrap(new byte[] {(byte) b}));
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = in.read(b, off, len);
+			if (n > 0) {
+				recorder.write(ByteBuffer.wrap(b, off, n));
 			}
+			return n;
+		}
 
-			return false;
+		@Override
+		public long skip(long n) throws IOException {
+			//skipped bytes would be missing from the copy, so read them instead
+			byte[] discard = new byte[(int) Math.min(n, 8192)];
+			int read = read(discard, 0, discard.length);
+			return Math.max(read, 0);
 		}
-		
 	}
 
 	/**
@@ -2,32 +2,50 @@ package energy.trolie.client.impl.request;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import energy.trolie.client.ETagStore;
+import energy.trolie.client.PollingPolicy;
 import energy.trolie.client.RequestHeaderProvider;
+import energy.trolie.client.SnapshotCache;
 import energy.trolie.client.StreamingSubscribedResponseReceiver;
 import energy.trolie.client.TrolieHost;
 import energy.trolie.client.exception.StreamingGetHandlingException;
+import energy.trolie.client.impl.ClientExecutor;
+import energy.trolie.client.impl.HashedWheelTimer;
 import org.apache.hc.client5.http.classic.HttpClient;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.utils.DateUtils;
 import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HeaderElement;
 import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
 import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.MessageHeaders;
 import org.apache.hc.core5.http.ProtocolException;
+import org.apache.hc.core5.http.message.MessageSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
+import java.time.Instant;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>Abstract base for a polling subscriber to a GET endpoint with conditional
- * GET semantics and compressed response body.
- *
- *
+ * GET semantics and compressed response body.</p>
+ * <p>Polls are fired at a fixed rate by the timer of the client's shared {@link ClientExecutor}
+ * and run as tasks on its workers, so idle subscriptions hold no thread and the poll cadence
+ * does not drift with response times.  A poll that is due while the previous one is still
+ * running is skipped rather than run concurrently.</p>
+ * <p>When a {@link PollingPolicy} is set, the cadence is no longer fixed.  The next poll is instead
+ * scheduled once the previous one has completed, at the delay the policy computes from its outcome.</p>
  * 
  * @param <T>
  */
@@ -39,10 +57,29 @@ public abstract class AbstractStreamingSubscribedGet<T extends StreamingSubscrib
 	
 	int pollingRateMillis;
 	ETagStore eTagStore;
+	SnapshotCache snapshotCache;
+	PollingPolicy pollingPolicy;
+	//only touched by the poll in progress, of which there is at most one
+	private boolean replayed;
+	private int statusCode;
+	private long maxAgeMillis;
+	private long retryAfterMillis;
+	private int consecutiveNotModified;
+	private int consecutiveErrors;
+	//whether the receiver holds the snapshot the stored ETag stands for, written by the I/O thread when async
+	private volatile boolean delivered;
 
-	private final AtomicBoolean active = new AtomicBoolean();
-
-	Future<Void> requestExecutorFuture;
+	private final Object lock = new Object();
+	private boolean active;
+	private boolean polling;
+	private long nextPollNanos;
+	private long skippedPolls;
+	private long pollStartNanos;
+	//whether a poll is scheduled, so that a poll completing after a restart does not schedule another
+	private boolean armed;
+	private volatile long pollIntervalMillis;
+	private HashedWheelTimer.Timeout nextPoll;
+	private CompletableFuture<Void> stopped = CompletableFuture.completedFuture(null);
 	
 	protected AbstractStreamingSubscribedGet(
 			HttpClient httpClient, 
@@ -50,40 +87,292 @@ public abstract class AbstractStreamingSubscribedGet<T extends StreamingSubscrib
 			RequestConfig requestConfig,
 			int bufferSize, 
 			ObjectMapper objectMapper,
+			ClientExecutor executor,
 			Map<String, String> httpHeaders,
 			List<RequestHeaderProvider> providers,
 			int pollingRateMillis,
 			T receiver,
 			ETagStore eTagStore) {
-		super(httpClient, host, requestConfig, bufferSize, objectMapper, httpHeaders, providers, receiver);
+		super(httpClient, host, requestConfig, bufferSize, objectMapper, executor, httpHeaders, providers, receiver);
 		this.pollingRateMillis = pollingRateMillis;
 		this.eTagStore = eTagStore;
+		this.pollIntervalMillis = pollingRateMillis;
 	}
 	
+	/**
+	 * Record the body of every handled response in the given cache, and replay the cached
+	 * body into the receiver on the first poll
+	 * @param snapshotCache cache of the client, or null to disable
+	 */
+	public void setSnapshotCache(SnapshotCache snapshotCache) {
+		this.snapshotCache = snapshotCache;
+	}
+
+	/**
+	 * Schedule every poll at the delay computed by the given policy, rather than at the fixed rate
+	 * @param pollingPolicy policy of the client, or null to poll at the fixed rate
+	 */
+	public void setPollingPolicy(PollingPolicy pollingPolicy) {
+		this.pollingPolicy = pollingPolicy;
+	}
+
 	public void start() {
-		if (active.get()) {
-			return;
+		synchronized (lock) {
+			if (active) {
+				return;
+			}
+			logger.info("Starting request subscription for {}", getPath());
+			active = true;
+			//a stop still waiting on an in-flight poll is superseded by this restart
+			stopped.complete(null);
+			stopped = new CompletableFuture<>();
+			receiver.setSubscription(this);
+			nextPollNanos = System.nanoTime();
+			armed = true;
+			nextPoll = executor.newTimeout(this::firePoll, 0);
 		}
-		logger.info("Starting request subscription for {}", getPath());
-		active.set(true);
-		requestExecutorFuture = threadPoolExecutor.submit(new RequestExecutor());
-		receiver.setSubscription(this);
+		logger.info("Subscribed to {}", getPath());
 	}
 	
 	public Future<Void> stop() {
-		if (!active.get()) {
-			return requestExecutorFuture;
-		}
-		logger.info("Stopping request subscription for {}", getPath());
-		synchronized (active) {
-			active.set(false);
-			active.notifyAll();
+		synchronized (lock) {
+			if (!active) {
+				return stopped;
+			}
+			logger.info("Stopping request subscription for {}", getPath());
+			active = false;
+			nextPoll.cancel();
+			//a poll in progress completes the stop once it finishes
+			if (!polling) {
+				finish();
+			}
 		}
-		return requestExecutorFuture;
+		return stopped;
 	}
 	
 	public boolean isActive() {
-		return active.get();
+		synchronized (lock) {
+			return active;
+		}
+	}
+
+	/**
+	 *
+	 * @return number of polls skipped because the previous poll was still running when they were due.
+	 */
+	public long getSkippedPolls() {
+		synchronized (lock) {
+			return skippedPolls;
+		}
+	}
+
+	@Override
+	public long getPollIntervalMillis() {
+		return pollIntervalMillis;
+	}
+
+	/**
+	 * Runs on the timer thread.  Hands the poll to a worker and re-arms the timer
+	 * relative to the previous deadline rather than the current time, so the cadence
+	 * stays fixed.  With a polling policy, the timer is only re-armed once the poll completes.
+	 */
+	private void firePoll() {
+		synchronized (lock) {
+			if (!active) {
+				return;
+			}
+			if (polling) {
+				skippedPolls++;
+				logger.debug("Previous poll of {} still running, skipping", getPath());
+			} else {
+				polling = true;
+				pollStartNanos = System.nanoTime();
+				executor.execute(this::poll);
+			}
+			if (pollingPolicy != null) {
+				armed = false;
+				return;
+			}
+
+			long periodNanos = TimeUnit.MILLISECONDS.toNanos(pollingRateMillis);
+			long now = System.nanoTime();
+			nextPollNanos += periodNanos;
+			if (nextPollNanos <= now) {
+				//fell more than a period behind, for example after a pause of the JVM.  Realign
+				//with the original cadence instead of firing the missed polls in a burst.
+				long behind = now - nextPollNanos;
+				nextPollNanos += (behind / periodNanos + 1) * periodNanos;
+			}
+			nextPoll = executor.newTimeout(this::firePoll,
+					TimeUnit.NANOSECONDS.toMillis(nextPollNanos - now));
+		}
+	}
+
+	private void poll() {
+		CompletableFuture<Void> done;
+		statusCode = 0;
+		maxAgeMillis = -1;
+		retryAfterMillis = -1;
+		try {
+			if (snapshotCache != null && !replayed) {
+				replayed = true;
+				replayCachedSnapshot();
+			}
+			logger.debug("Polling for update on {}", getPath());
+			//on the async transport, the poll completes on an I/O thread without holding the worker
+			done = executeRequestAsync();
+		} catch (RuntimeException e) {
+			logger.error("Error polling {}", getPath(), e);
+			done = CompletableFuture.completedFuture(null);
+		}
+		done.whenComplete((result, e) -> pollFinished());
+	}
+
+	/**
+	 * Hand the cached body to the receiver as if it had just been received, and adopt its ETag
+	 * so the following poll only transfers data if it has changed since.
+	 */
+	private void replayCachedSnapshot() {
+		SnapshotCache.Entry entry = snapshotCache.get(getRequestKey());
+		if (entry == null) {
+			return;
+		}
+		long start = System.nanoTime();
+		boolean handled;
+		try (InputStream in = entry.openContent()) {
+			handled = Boolean.TRUE.equals(handleCachedContent(in));
+		} catch (IOException | RuntimeException e) {
+			logger.error("Error replaying cached snapshot of {}", getPath(), e);
+			handled = false;
+		}
+		if (handled) {
+			delivered = true;
+			eTagStore.putETag(getRequestKey(), entry.getETag());
+			logger.info("Replayed cached snapshot of {} in {} ms", getPath(),
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		} else {
+			logger.warn("Unable to replay cached snapshot of {}, requesting it in full", getPath());
+		}
+	}
+
+	@Override
+	protected SnapshotCache getRecordingCache() {
+		return snapshotCache;
+	}
+
+	private void pollFinished() {
+		long delay = pollingPolicy == null ? -1 : nextPollDelay();
+		synchronized (lock) {
+			polling = false;
+			if (!active) {
+				finish();
+			} else if (delay >= 0 && !armed) {
+				long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pollStartNanos);
+				armed = true;
+				nextPoll = executor.newTimeout(this::firePoll, Math.max(0, delay - elapsed));
+			}
+		}
+	}
+
+	/**
+	 * Ask the polling policy for the delay to the next poll, from the start of the one just completed
+	 */
+	private long nextPollDelay() {
+		PollingPolicy.PollResult result;
+		if (didLastRequestFail()) {
+			result = PollingPolicy.PollResult.ERROR;
+			consecutiveErrors++;
+			consecutiveNotModified = 0;
+		} else if (statusCode == HttpStatus.SC_NOT_MODIFIED) {
+			result = PollingPolicy.PollResult.NOT_MODIFIED;
+			consecutiveErrors = 0;
+			consecutiveNotModified++;
+		} else {
+			result = PollingPolicy.PollResult.CHANGED;
+			consecutiveErrors = 0;
+			consecutiveNotModified = 0;
+		}
+		long delay = pollingRateMillis;
+		try {
+			delay = Math.max(0, pollingPolicy.nextPollDelayMillis(new PollingPolicy.PollOutcome(
+					pollingRateMillis, result, statusCode, consecutiveNotModified, consecutiveErrors,
+					maxAgeMillis, retryAfterMillis, System.currentTimeMillis())));
+		} catch (RuntimeException e) {
+			logger.error("Polling policy failed for {}, polling at the configured rate", getPath(), e);
+		}
+		if (delay != pollIntervalMillis) {
+			logger.debug("Polling {} every {} ms after {}", getPath(), delay, result);
+			pollIntervalMillis = delay;
+		}
+		return delay;
+	}
+
+	/**
+	 * Keep the status and caching directives of the response for the polling policy
+	 */
+	private void recordResponse(HttpResponse response) {
+		if (pollingPolicy == null) {
+			return;
+		}
+		statusCode = response.getCode();
+		Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+		if (retryAfter != null) {
+			retryAfterMillis = parseRetryAfter(retryAfter.getValue());
+		}
+		if (response.containsHeader(HttpHeaders.CACHE_CONTROL)) {
+			long maxAge = parseMaxAge(response);
+			if (maxAge > 0) {
+				Header age = response.getFirstHeader(HttpHeaders.AGE);
+				maxAge = Math.max(0, maxAge - (age == null ? 0 : parseSeconds(age.getValue())));
+			}
+			maxAgeMillis = maxAge < 0 ? -1 : TimeUnit.SECONDS.toMillis(maxAge);
+		}
+	}
+
+	/**
+	 * @return max-age in seconds, 0 on no-cache or no-store, or -1 if neither is present
+	 */
+	static long parseMaxAge(MessageHeaders response) {
+		long maxAge = -1;
+		Iterator<HeaderElement> elements = MessageSupport.iterate(response, HttpHeaders.CACHE_CONTROL);
+		while (elements.hasNext()) {
+			HeaderElement element = elements.next();
+			String name = element.getName();
+			if ("no-cache".equalsIgnoreCase(name) || "no-store".equalsIgnoreCase(name)) {
+				return 0;
+			} else if ("max-age".equalsIgnoreCase(name) && element.getValue() != null) {
+				long seconds = parseSeconds(element.getValue());
+				if (seconds >= 0) {
+					maxAge = seconds;
+				}
+			}
+		}
+		return maxAge;
+	}
+
+	/**
+	 * @return delay in milliseconds given as either seconds or an HTTP date, or -1 if malformed
+	 */
+	static long parseRetryAfter(String value) {
+		long seconds = parseSeconds(value);
+		if (seconds >= 0) {
+			return TimeUnit.SECONDS.toMillis(seconds);
+		}
+		Instant date = DateUtils.parseStandardDate(value.trim());
+		return date == null ? -1 : Math.max(0, date.toEpochMilli() - System.currentTimeMillis());
+	}
+
+	private static long parseSeconds(String value) {
+		try {
+			return Math.max(0, Long.parseLong(value.trim()));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private void finish() {
+		logger.info("Unsubscribed from {}", getPath());
+		stopped.complete(null);
 	}
 
 	@Override
@@ -93,15 +382,25 @@ public abstract class AbstractStreamingSubscribedGet<T extends StreamingSubscrib
 
 	@Override
 	protected boolean handleResponse(ClassicHttpResponse response) {
-		boolean success = super.handleResponse(response);
+		recordResponse(response);
+		return storeETag(response, super.handleResponse(response));
+	}
+
+	@Override
+	protected boolean handleAsyncResponse(HttpResponse response, boolean contentHandled) {
+		recordResponse(response);
+		return storeETag(response, super.handleAsyncResponse(response, contentHandled));
+	}
+
+	private boolean storeETag(HttpResponse response, boolean success) {
 		// Cache the ETAG if the response was handled successfully and the status is OK
 		if (Boolean.TRUE.equals(success) && response.getCode() == HttpStatus.SC_OK) {
+			delivered = true;
 			try {
-				eTagStore.putETag(getPath(), response.getHeader(HttpHeaders.ETAG).getValue());
+				eTagStore.putETag(getRequestKey(), response.getHeader(HttpHeaders.ETAG).getValue());
 			} catch (ProtocolException e) {
-				lastRequestFailed = true;
 				logger.error("Error handling server response",e);
-				receiver.error(new StreamingGetHandlingException(e));
+				reportError(new StreamingGetHandlingException(e));
 				return false;
 			}	
 		}
@@ -110,12 +409,21 @@ public abstract class AbstractStreamingSubscribedGet<T extends StreamingSubscrib
 	}
 
 	@Override
-	protected HttpGet createRequest() throws URISyntaxException {
+	protected HttpGet buildRequest() throws URISyntaxException {
 
-		HttpGet request = super.createRequest();
+		HttpGet request = super.buildRequest();
 		
+		//a receiver that joined a shared subscription needs the full response, even if unchanged
+		if (receiver instanceof SubscriptionFanOut<?> fanOut && fanOut.isAwaitingSnapshot()) {
+			return request;
+		}
+		//an ETag persisted by an earlier process stands for a snapshot this receiver has never been
+		//given, so it is only sent once a snapshot has been delivered or replayed
+		if (!delivered) {
+			return request;
+		}
 		//supply our stored ETAG value if we have one
-		String etag = eTagStore.getETag(getPath());					
+		String etag = eTagStore.getETag(getRequestKey());
 		if (etag != null) {
 			request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
 		}
@@ -123,33 +431,11 @@ public abstract class AbstractStreamingSubscribedGet<T extends StreamingSubscrib
 		return request;
 	}
 	
-	private class RequestExecutor implements Callable<Void> {
-
-		@Override
-		public Void call() throws Exception {
-			
-			logger.info("Subscribed to {}", getPath());
-			
-			while (active.get()) {
-				
-				logger.debug("Polling for update on {}", getPath());
-				executeRequest();
-				
-				synchronized (active) {
-					active.wait(pollingRateMillis);
-				}
-			}
-			
-			logger.info("Unsubscribed from {}", getPath());
-			
-			return null;
-		}
-		
-	}
-
 	@Override
 	public boolean isSubscribed() {
-		return active.get() && requestExecutorFuture != null && !requestExecutorFuture.isDone();
+		synchronized (lock) {
+			return active && !stopped.isDone();
+		}
 	}
 	
 	public String toString() {
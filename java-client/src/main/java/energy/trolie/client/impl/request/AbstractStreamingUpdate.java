@@ -1,31 +1,29 @@
 package energy.trolie.client.impl.request;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import energy.trolie.client.DataFormat;
 import energy.trolie.client.RequestHeaderProvider;
 import energy.trolie.client.StreamingUpdate;
 import energy.trolie.client.TrolieHost;
 import energy.trolie.client.TrolieRequestContext;
 import energy.trolie.client.exception.TrolieException;
 import energy.trolie.client.exception.TrolieServerException;
+import energy.trolie.client.impl.ClientExecutor;
 import lombok.AllArgsConstructor;
 import org.apache.hc.client5.http.HttpResponseException;
 import org.apache.hc.client5.http.classic.HttpClient;
 import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
 import org.apache.hc.client5.http.config.RequestConfig;
-import org.apache.hc.client5.http.entity.GzipCompressingEntity;
 import org.apache.hc.client5.http.impl.classic.AbstractHttpClientResponseHandler;
 import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpEntity;
 import org.apache.hc.core5.http.HttpHeaders;
-import org.apache.hc.core5.http.io.entity.InputStreamEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
 import java.net.URISyntaxException;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -33,9 +31,8 @@ import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Function;
 
 /**
@@ -49,25 +46,32 @@ public abstract class AbstractStreamingUpdate<T> implements StreamingUpdate<T> {
 	HttpClient httpClient;
 	TrolieHost host;
 	RequestConfig requestConfig;
-	ThreadPoolExecutor threadPoolExecutor;
+	ClientExecutor executor;
 	int bufferSize;
+	//writes the request body in the data format of the client
 	protected ObjectMapper objectMapper;
-	PipedOutputStream outputStream;
+	private ObjectMapper jsonMapper;
+	private DataFormat dataFormat = DataFormat.JSON;
+	private long startTimeoutMillis;
+	private boolean dedicatedThread;
+	OutputStream outputStream;
+	DirectStreamingEntity requestEntity;
 	Future<T> responseFuture;
 
 	Map<String, String> httpHeaders;
 	List<RequestHeaderProvider> providers;
 
 	protected AbstractStreamingUpdate(HttpClient httpClient, TrolieHost host, RequestConfig requestConfig,
-                                      int bufferSize, ObjectMapper objectMapper, Map<String, String> httpHeaders, List<RequestHeaderProvider> providers) {
+                                      int bufferSize, ObjectMapper objectMapper, ClientExecutor executor,
+                                      Map<String, String> httpHeaders, List<RequestHeaderProvider> providers) {
 		super();
 		this.httpClient = httpClient;
 		this.host = host;
 		this.requestConfig = requestConfig;
-		this.threadPoolExecutor = new ThreadPoolExecutor(1, 1, 1,
-				TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+		this.executor = executor;
 		this.bufferSize = bufferSize;
 		this.objectMapper = objectMapper;
+		this.jsonMapper = objectMapper;
 		this.httpHeaders = httpHeaders;
 		this.providers = providers;
 	}
@@ -78,6 +82,51 @@ public abstract class AbstractStreamingUpdate<T> implements StreamingUpdate<T> {
 	 */
 	protected abstract ContentType getContentType();
 
+	/**
+	 * Send the request body in the given format, and accept the response in that format ahead of JSON
+	 * @param dataFormat format bound to the object mapper of the client
+	 */
+	public void setDataFormat(DataFormat dataFormat) {
+		this.dataFormat = dataFormat;
+		this.objectMapper = dataFormat.isJson() ? jsonMapper : dataFormat.getObjectMapper();
+	}
+
+	/**
+	 * Fail the first write rather than wait indefinitely when the request cannot get a worker and a
+	 * connection in time, such as when they are all held by other updates
+	 * @param startTimeoutMillis time to wait, or 0 to wait indefinitely
+	 */
+	public void setStartTimeoutMillis(long startTimeoutMillis) {
+		this.startTimeoutMillis = startTimeoutMillis;
+	}
+
+	/**
+	 * Send the request from a thread of its own rather than a worker of the client, for updates that
+	 * would otherwise take a worker subscriptions cannot spare until completed
+	 * @param dedicatedThread true to send from a dedicated thread
+	 */
+	public void setDedicatedThread(boolean dedicatedThread) {
+		this.dedicatedThread = dedicatedThread;
+	}
+
+	/**
+	 *
+	 * @return content type of the request body, in the data format of this update
+	 */
+	protected ContentType getRequestContentType() {
+		return dataFormat.isJson() ? getContentType()
+				: ContentType.create(dataFormat.mediaType(getContentType().getMimeType()));
+	}
+
+	/**
+	 * Object mapper reading a response body, in the format the server answered with
+	 * @param entity response entity
+	 * @return mapper of the data format of this update, or the JSON mapper
+	 */
+	protected ObjectMapper responseMapper(HttpEntity entity) {
+		return dataFormat.isJson() || !dataFormat.matches(entity.getContentType()) ? jsonMapper : objectMapper;
+	}
+
 	/**
 	 *
 	 * @return HTTP path associated with this update
@@ -127,7 +176,8 @@ public abstract class AbstractStreamingUpdate<T> implements StreamingUpdate<T> {
 	}
 	
 	/**
-	 * initiate the request and pipe an output stream to the request entity
+	 * initiate the request and return a stream writing the request entity straight to the connection.
+	 * The request runs on a worker, which waits while the body is written from the calling thread.
 	 * 
 	 * @return
 	 * @throws IOException URISyntaxException
@@ -136,7 +186,10 @@ public abstract class AbstractStreamingUpdate<T> implements StreamingUpdate<T> {
 
 		//they probably already set these parameters, but may as well make sure
 		HttpUriRequestBase request = getRequest();
-		request.addHeader(HttpHeaders.CONTENT_TYPE, getContentType());
+		request.addHeader(HttpHeaders.CONTENT_TYPE, getRequestContentType());
+		if (!dataFormat.isJson()) {
+			request.addHeader(HttpHeaders.ACCEPT, dataFormat.accept(getContentType().getMimeType()));
+		}
 		if (this.httpHeaders != null && !this.httpHeaders.isEmpty()) {
 			httpHeaders.forEach(request::addHeader);
 		}
@@ -149,17 +202,31 @@ public abstract class AbstractStreamingUpdate<T> implements StreamingUpdate<T> {
 		}
 
 		//create a request entity we can write into from a stream
-		PipedOutputStream pipedOutputStream = new PipedOutputStream();
-		PipedInputStream pipedInputStream = new PipedInputStream(pipedOutputStream, bufferSize);
-		if (this.requestConfig.isContentCompressionEnabled()) {
-			request.setEntity(new GzipCompressingEntity(new InputStreamEntity(pipedInputStream, getContentType())));
-		}else {
-			request.setEntity(new InputStreamEntity(pipedInputStream, getContentType()));
-		}
-		this.outputStream = pipedOutputStream;
+		DirectStreamingEntity entity = new DirectStreamingEntity(getRequestContentType(),
+				this.requestConfig.isContentCompressionEnabled(), bufferSize, startTimeoutMillis);
+		request.setEntity(entity);
+		this.requestEntity = entity;
+		this.outputStream = entity.getOutputStream();
 
-		//kick of the thread that will consume our stream and send it to the server
-		responseFuture = threadPoolExecutor.submit(new RequestExecutor(request));
+		//hand the request to a worker that will send it to the server once we start writing.  Updates opened
+		//from a worker, such as in a subscription callback, are sent from a thread of their own.
+		FutureTask<T> task = new FutureTask<>(new RequestExecutor(request)) {
+			@Override
+			protected void done() {
+				//if the request terminated before taking the body, the writer must not wait for it
+				entity.abort(new IOException("Request terminated before the request body was sent"));
+			}
+		};
+		try {
+			if (dedicatedThread) {
+				executor.newDedicatedThread(task).start();
+			} else {
+				executor.executeWaiting(task);
+			}
+		} catch (RejectedExecutionException e) {
+			throw new TrolieException("Client has been closed", e);
+		}
+		responseFuture = task;
 
 		return outputStream;
 	}
@@ -168,7 +235,7 @@ public abstract class AbstractStreamingUpdate<T> implements StreamingUpdate<T> {
 	 * Determines the Content-Type for the request context.
 	 * <p>
 	 * This method prioritizes any existing Content-Type header already set on the request.
-	 * If none is found, it falls back to the {@link #getContentType()} provided by this instance.
+	 * If none is found, it falls back to the {@link #getRequestContentType()} provided by this instance.
 	 *
 	 * @param request the current HTTP request
 	 * @return the Content-Type as a string, or {@code null} if none is defined
@@ -179,7 +246,7 @@ public abstract class AbstractStreamingUpdate<T> implements StreamingUpdate<T> {
 			return header.getValue();
 		}
 
-		return getContentType() != null ? getContentType().toString() : null;
+		return getContentType() != null ? getRequestContentType().toString() : null;
 	}
 
 	/**
@@ -219,7 +286,10 @@ public abstract class AbstractStreamingUpdate<T> implements StreamingUpdate<T> {
 		try {
 			outputStream.close();
 		} catch (IOException e) {
-			throw new TrolieException("Error writing request data", e);
+			if (!responseFuture.isDone()) {
+				throw new TrolieException("Error writing request data", e);
+			}
+			//otherwise the request failed, and its error is reported below
 		}
 		try {
 			return responseFuture.get();
@@ -241,6 +311,10 @@ public abstract class AbstractStreamingUpdate<T> implements StreamingUpdate<T> {
 	 */
 	@Override
 	public void close() {
+		if (requestEntity != null) {
+			//a body closed before completion must not be sent as if it were complete
+			requestEntity.abort(new IOException("Request closed before completion"));
+		}
 		if (outputStream != null) {
 			try {
 				outputStream.close();
@@ -260,14 +334,7 @@ public abstract class AbstractStreamingUpdate<T> implements StreamingUpdate<T> {
 		
 		@Override
 		public T call() throws Exception {
-			try {
-				return httpClient.execute(host.getHost(), request, new ResponseHandler());
-			} finally {
-				//this should already have been closed by the user by this point. If it hasn't, 
-				//then we had a request I/O error and the easiest way to bubble that to the
-				//other thread is to break the pipe it is writing to. 
-				outputStream.close();
-			}
+			return httpClient.execute(host.getHost(), request, new ResponseHandler());
 		}
 	}
 
@@ -0,0 +1,157 @@
+package energy.trolie.client.impl.request;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Pool of equally sized I/O buffers shared by all requests of a client.</p>
+ * <p>Buffers are not tied to a thread, so they are reused regardless of which worker,
+ * platform or virtual, executes the next poll.  At most a bounded number of idle buffers
+ * is retained; demand beyond that is served by plain allocation.</p>
+ */
+public class BufferPool {
+
+	private final int bufferSize;
+	private final int maxRetained;
+	private final Queue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger retained = new AtomicInteger();
+
+	/**
+	 * Create a new pool
+	 * @param bufferSize size of each buffer
+	 * @param maxRetained maximum number of idle buffers kept for reuse
+	 */
+	public BufferPool(int bufferSize, int maxRetained) {
+		if (bufferSize < 1) {
+			throw new IllegalArgumentException("Buffer size must be positive");
+		}
+		this.bufferSize = bufferSize;
+		this.maxRetained = maxRetained;
+	}
+
+	/**
+	 *
+	 * @return size of the buffers in this pool
+	 */
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * Take a buffer from the pool, allocating one if none is idle
+	 * @return buffer of {@link #getBufferSize()} bytes
+	 */
+	public byte[] acquire() {
+		byte[] buffer = buffers.poll();
+		if (buffer == null) {
+			return new byte[bufferSize];
+		}
+		retained.decrementAndGet();
+		return buffer;
+	}
+
+	/**
+	 * Return a buffer to the pool.  The buffer must no longer be used by the caller.
+	 * @param buffer buffer obtained from {@link #acquire()}
+	 */
+	public void release(byte[] buffer) {
+		if (buffer.length != bufferSize) {
+			return;
+		}
+		if (retained.incrementAndGet() <= maxRetained) {
+			buffers.offer(buffer);
+		} else {
+			retained.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Wrap a stream with a buffer from this pool, which is returned once the stream is closed.
+	 * @param in stream to buffer
+	 * @return buffered stream
+	 */
+	public InputStream newInputStream(InputStream in) {
+		return new PooledInputStream(in, acquire());
+	}
+
+	private class PooledInputStream extends InputStream {
+
+		private final InputStream in;
+		private byte[] buffer;
+		private int position;
+		private int limit;
+
+		PooledInputStream(InputStream in, byte[] buffer) {
+			this.in = in;
+			this.buffer = buffer;
+		}
+
+		private boolean fill() throws IOException {
+			if (buffer == null) {
+				throw new IOException("Stream closed");
+			}
+			int read = in.read(buffer, 0, buffer.length);
+			position = 0;
+			limit = Math.max(read, 0);
+			return read > 0;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (position >= limit && !fill()) {
+				return -1;
+			}
+			return buffer[position++] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			int available = limit - position;
+			if (available <= 0) {
+				//large reads bypass the buffer rather than copy through it
+				if (len >= bufferSize) {
+					if (buffer == null) {
+						throw new IOException("Stream closed");
+					}
+					return in.read(b, off, len);
+				}
+				if (!fill()) {
+					return -1;
+				}
+				available = limit;
+			}
+			int count = Math.min(available, len);
+			System.arraycopy(buffer, position, b, off, count);
+			position += count;
+			return count;
+		}
+
+		@Override
+		public int available() throws IOException {
+			if (buffer == null) {
+				throw new IOException("Stream closed");
+			}
+			return (limit - position) + in.available();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (buffer == null) {
+				return;
+			}
+			byte[] released = buffer;
+			buffer = null;
+			try {
+				in.close();
+			} finally {
+				release(released);
+			}
+		}
+	}
+}
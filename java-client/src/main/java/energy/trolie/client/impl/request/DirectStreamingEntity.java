@@ -0,0 +1,206 @@
+package energy.trolie.client.impl.request;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.AbstractHttpEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>Request entity whose body is written by another thread straight into the connection.</p>
+ * <p>When the HTTP client asks the entity to write itself, the output stream of the connection is
+ * handed over once to the thread writing through {@link #getOutputStream()}.  From then on the writer
+ * writes to the connection directly, without any intermediate buffer or per-write synchronization
+ * with the thread executing the request, which waits until the writer closes the stream.</p>
+ */
+class DirectStreamingEntity extends AbstractHttpEntity {
+
+	private static final String GZIP = "gzip";
+
+	private final CompletableFuture<OutputStream> connection = new CompletableFuture<>();
+	private final CompletableFuture<Void> bodyComplete = new CompletableFuture<>();
+	private final WriterStream writerStream = new WriterStream();
+	private final boolean compress;
+	private final int bufferSize;
+	private final long startTimeoutMillis;
+
+	/**
+	 * Create a new entity whose writer waits for the connection as long as it takes
+	 * @param contentType content type of the body
+	 * @param compress gzip the body while writing
+	 * @param bufferSize buffer size of the compressor
+	 */
+	DirectStreamingEntity(ContentType contentType, boolean compress, int bufferSize) {
+		this(contentType, compress, bufferSize, 0);
+	}
+
+	/**
+	 * Create a new entity
+	 * @param contentType content type of the body
+	 * @param compress gzip the body while writing
+	 * @param bufferSize buffer size of the compressor
+	 * @param startTimeoutMillis time the first write waits for the request to be sent, or 0 to wait
+	 *                           indefinitely.  The body is abandoned when it elapses.
+	 */
+	DirectStreamingEntity(ContentType contentType, boolean compress, int bufferSize, long startTimeoutMillis) {
+		super(contentType, compress ? GZIP : null, true);
+		this.compress = compress;
+		this.bufferSize = bufferSize;
+		this.startTimeoutMillis = startTimeoutMillis;
+	}
+
+	/**
+	 *
+	 * @return stream for the writing thread.  The first write blocks until the connection is ready to
+	 * receive the body.  Closing the stream completes the body.
+	 */
+	OutputStream getOutputStream() {
+		return writerStream;
+	}
+
+	/**
+	 * Abandon the body.  The request thread fails with the given cause if still sending the body,
+	 * and the writer fails on its next write.  Has no effect once the body is complete.
+	 * @param cause reason for abandoning the body
+	 */
+	void abort(IOException cause) {
+		connection.completeExceptionally(cause);
+		bodyComplete.completeExceptionally(cause);
+	}
+
+	@Override
+	public void writeTo(OutputStream outStream) throws IOException {
+		if (!connection.complete(outStream)) {
+			throw new IOException("Request body is not repeatable or has been abandoned");
+		}
+		await(bodyComplete);
+	}
+
+	@Override
+	public boolean isRepeatable() {
+		return false;
+	}
+
+	@Override
+	public long getContentLength() {
+		return -1;
+	}
+
+	@Override
+	public InputStream getContent() {
+		throw new UnsupportedOperationException("Request body can only be written to the connection");
+	}
+
+	@Override
+	public boolean isStreaming() {
+		return true;
+	}
+
+	@Override
+	public void close() {
+	}
+
+	private static <V> V await(CompletableFuture<V> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted streaming request body");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException ioException) {
+				throw ioException;
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Wait for the request to take the body.  The request first waits for a worker and a connection,
+	 * either of which may be held by other requests.
+	 */
+	private OutputStream awaitConnection() throws IOException {
+		if (startTimeoutMillis <= 0) {
+			return await(connection);
+		}
+		try {
+			return await(connection.orTimeout(startTimeoutMillis, TimeUnit.MILLISECONDS));
+		} catch (IOException e) {
+			if (e.getCause() instanceof TimeoutException) {
+				IOException timeout = new IOException("Request did not start within " + startTimeoutMillis + " ms", e.getCause());
+				abort(timeout);
+				throw timeout;
+			}
+			throw e;
+		}
+	}
+
+	private class WriterStream extends OutputStream {
+
+		private OutputStream target;
+		private GZIPOutputStream gzip;
+		private boolean closed;
+
+		private OutputStream target() throws IOException {
+			if (closed) {
+				throw new IOException("Stream closed");
+			}
+			if (bodyComplete.isCompletedExceptionally()) {
+				await(bodyComplete);
+			}
+			if (target == null) {
+				OutputStream out = awaitConnection();
+				//finished rather than closed on completion, the connection is closed by the client
+				target = compress ? gzip = new GZIPOutputStream(out, bufferSize) : out;
+			}
+			return target;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			target().write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			target().write(b, off, len);
+		}
+
+		/**
+		 * Intermediate flushes are ignored, as the generator flushes after every value written as an
+		 * object and each flush would otherwise send a separate chunk.  The body is flushed on close.
+		 */
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed || bodyComplete.isDone()) {
+				closed = true;
+				return;
+			}
+			try {
+				//an empty body still needs a valid gzip stream
+				OutputStream out = target();
+				if (gzip != null) {
+					gzip.finish();
+				}
+				out.flush();
+				bodyComplete.complete(null);
+			} catch (IOException e) {
+				//release the request thread, which would otherwise wait for the body forever
+				abort(e);
+				throw e;
+			} finally {
+				closed = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,201 @@
+package energy.trolie.client.impl.request;
+
+import energy.trolie.client.StreamingSubscribedResponseReceiver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * <p>Shares one polling request between all subscriptions of a client to the same endpoint and
+ * query, so that each response is transferred and parsed once and then fanned out to every
+ * receiver.  Subscriptions are matched by a {@link #key(String, String, String...) key} built from
+ * path, query and media type, so that a request is only built for the first subscriber.</p>
+ * <p>Each receiver is handed its own subscription handle.  The shared request starts with the
+ * first handle and stops once the last one has been stopped.  A receiver joining a request that
+ * is already running would only see data once it changes, so until every receiver has been handed
+ * a complete snapshot, the request asks for the full response instead of sending its ETag.</p>
+ */
+public class SubscriptionCoalescer {
+
+	private static final Logger logger = LoggerFactory.getLogger(SubscriptionCoalescer.class);
+
+	//guarded by itself
+	private final Map<String, SharedRequest<?>> shared = new HashMap<>();
+
+	/**
+	 * Create a subscription that shares its request with other subscriptions to the same endpoint
+	 * @param key key of the endpoint, see {@link #key(String, String, String...)}
+	 * @param receiver receiver of the subscription
+	 * @param fanOuts creates the fan-out receiver of a new shared request
+	 * @param requests creates a request for the endpoint, delivering to the given fan-out.  Only called
+	 *                 when the subscription starts and no matching request is shared yet.
+	 * @return handle of the subscription, to be started by the caller
+	 * @param <R> type of receiver
+	 * @param <F> type of fan-out
+	 */
+	public <R extends StreamingSubscribedResponseReceiver, F extends SubscriptionFanOut<R>>
+			RequestSubscriptionInternal subscribe(String key, R receiver, Supplier<F> fanOuts,
+												  Function<F, ? extends AbstractStreamingSubscribedGet<?>> requests) {
+		return new CoalescedSubscription<>(key, receiver, () -> {
+			F fanOut = fanOuts.get();
+			return new SharedRequest<>(key, fanOut, requests.apply(fanOut));
+		});
+	}
+
+	/**
+	 * Build the key subscriptions of one client are matched by.  Host, data format and headers are the
+	 * same for every request of a client, so path, query parameters and media type identify the request.
+	 * @param path path of the endpoint
+	 * @param contentType media type requested from the endpoint
+	 * @param parameters query parameters as name and value pairs.  Parameters without a value are skipped.
+	 * @return key of the subscription, independent of parameter order
+	 */
+	public static String key(String path, String contentType, String... parameters) {
+		Map<String, String> query = new TreeMap<>();
+		for (int i = 0; i + 1 < parameters.length; i += 2) {
+			if (parameters[i + 1] != null) {
+				query.put(parameters[i], parameters[i + 1]);
+			}
+		}
+		return contentType + " " + path + (query.isEmpty() ? "" : "?" + query);
+	}
+
+	/**
+	 *
+	 * @return number of shared requests currently running
+	 */
+	public int getSharedRequests() {
+		synchronized (shared) {
+			return shared.size();
+		}
+	}
+
+	private static class SharedRequest<R extends StreamingSubscribedResponseReceiver> {
+
+		final String key;
+		final SubscriptionFanOut<R> fanOut;
+		final AbstractStreamingSubscribedGet<?> request;
+		int references;
+
+		SharedRequest(String key, SubscriptionFanOut<R> fanOut, AbstractStreamingSubscribedGet<?> request) {
+			this.key = key;
+			this.fanOut = fanOut;
+			this.request = request;
+		}
+	}
+
+	/**
+	 * Handle of one receiver on a shared request
+	 */
+	private class CoalescedSubscription<R extends StreamingSubscribedResponseReceiver>
+			implements RequestSubscriptionInternal {
+
+		private final String key;
+		private final R receiver;
+		private final Supplier<SharedRequest<R>> requests;
+		//request built for this receiver, only if no matching one was shared when it started
+		private SharedRequest<R> candidate;
+		//guarded by the shared map
+		private SharedRequest<R> attached;
+
+		CoalescedSubscription(String key, R receiver, Supplier<SharedRequest<R>> requests) {
+			this.key = key;
+			this.receiver = receiver;
+			this.requests = requests;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public void start() {
+			receiver.setSubscription(this);
+			synchronized (shared) {
+				if (attached != null) {
+					return;
+				}
+				//the key covers path and media type, so a matching request delivers to the same receiver type
+				SharedRequest<R> request = (SharedRequest<R>) shared.get(key);
+				boolean first = request == null;
+				if (first) {
+					request = candidate();
+					shared.put(key, request);
+				}
+				request.fanOut.add(receiver);
+				request.references++;
+				attached = request;
+				if (first) {
+					request.request.start();
+				} else {
+					logger.info("Sharing subscription to {} with {} other receivers",
+							request.request, request.references - 1);
+				}
+			}
+		}
+
+		@Override
+		public Future<Void> stop() {
+			synchronized (shared) {
+				SharedRequest<R> request = attached;
+				if (request == null) {
+					return CompletableFuture.completedFuture(null);
+				}
+				attached = null;
+				request.fanOut.remove(receiver);
+				if (--request.references == 0) {
+					shared.remove(request.key);
+					return request.request.stop();
+				}
+				return CompletableFuture.completedFuture(null);
+			}
+		}
+
+		//guarded by the shared map
+		private SharedRequest<R> candidate() {
+			if (candidate == null) {
+				candidate = requests.get();
+			}
+			return candidate;
+		}
+
+		private AbstractStreamingSubscribedGet<?> request() {
+			synchronized (shared) {
+				return attached == null ? candidate().request : attached.request;
+			}
+		}
+
+		@Override
+		public boolean isActive() {
+			synchronized (shared) {
+				return attached != null && attached.request.isActive();
+			}
+		}
+
+		@Override
+		public boolean isSubscribed() {
+			synchronized (shared) {
+				return attached != null && attached.request.isSubscribed();
+			}
+		}
+
+		@Override
+		public boolean isHealthy() {
+			return request().isHealthy();
+		}
+
+		@Override
+		public long getPollIntervalMillis() {
+			return request().getPollIntervalMillis();
+		}
+
+		@Override
+		public String toString() {
+			return key;
+		}
+	}
+}
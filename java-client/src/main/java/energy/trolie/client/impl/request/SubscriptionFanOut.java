@@ -0,0 +1,132 @@
+package energy.trolie.client.impl.request;
+
+import energy.trolie.client.RequestSubscription;
+import energy.trolie.client.StreamingSubscribedResponseReceiver;
+import energy.trolie.client.exception.StreamingGetException;
+import energy.trolie.client.exception.SubscriberInternalException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * <p>Receiver of a subscription shared by several receivers, handing every callback of the
+ * response stream on to each of them.  See {@link SubscriptionCoalescer}.</p>
+ * <p>Receivers added or removed while a snapshot is streaming only take effect from the next
+ * snapshot, so every receiver sees complete snapshots.  A receiver that throws is reported the
+ * failure and skipped for the rest of the snapshot, without affecting the others.</p>
+ * @param <R> type of receiver fanned out to
+ */
+public abstract class SubscriptionFanOut<R extends StreamingSubscribedResponseReceiver>
+		implements StreamingSubscribedResponseReceiver {
+
+	private static final Logger logger = LoggerFactory.getLogger(SubscriptionFanOut.class);
+
+	private final List<Member<R>> members = new CopyOnWriteArrayList<>();
+
+	//receivers of the snapshot in progress, only touched by the request handling thread
+	private List<Member<R>> receiving = List.of();
+
+	void add(R receiver) {
+		members.add(new Member<>(receiver));
+	}
+
+	void remove(R receiver) {
+		members.removeIf(member -> member.receiver == receiver);
+	}
+
+	/**
+	 *
+	 * @return true if a receiver has not yet been handed a complete snapshot, so the next poll
+	 * must ask for the full response even if it has not changed
+	 */
+	public boolean isAwaitingSnapshot() {
+		for (Member<R> member : members) {
+			if (!member.complete) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The shared request hands itself to the fan-out, but each receiver is given its own handle
+	 * @param subscription shared request
+	 */
+	@Override
+	public void setSubscription(RequestSubscription subscription) {
+		//handles are set when receivers are added
+	}
+
+	/**
+	 * Fix the receivers of the snapshot about to stream.  Called on the first callback of a snapshot.
+	 */
+	protected void beginFanOut() {
+		receiving = List.copyOf(members);
+		for (Member<R> member : receiving) {
+			member.failed = false;
+		}
+	}
+
+	/**
+	 * Record that the receivers that did not fail have been handed a complete snapshot.
+	 * Called after the last callback of a snapshot.
+	 */
+	protected void endFanOut() {
+		for (Member<R> member : receiving) {
+			if (!member.failed) {
+				member.complete = true;
+			}
+		}
+		receiving = List.of();
+	}
+
+	/**
+	 * Hand a callback to every receiver of the snapshot in progress that has not failed during it
+	 * @param callback callback to invoke on each receiver
+	 */
+	protected void fanOut(Consumer<R> callback) {
+		List<Member<R>> receivers = receiving;
+		for (int i = 0; i < receivers.size(); i++) {
+			Member<R> member = receivers.get(i);
+			if (member.failed) {
+				continue;
+			}
+			try {
+				callback.accept(member.receiver);
+			} catch (RuntimeException e) {
+				logger.error("Receiver {} failed handling shared subscription", member.receiver, e);
+				member.failed = true;
+				member.receiver.error(new SubscriberInternalException(e));
+			}
+		}
+	}
+
+	@Override
+	public void error(StreamingGetException t) {
+		//failures may occur before any snapshot began, so report to every current receiver
+		for (Member<R> member : members) {
+			try {
+				member.receiver.error(t);
+			} catch (RuntimeException e) {
+				logger.error("Receiver {} failed handling error", member.receiver, e);
+			}
+		}
+		receiving = List.of();
+	}
+
+	private static class Member<R> {
+
+		final R receiver;
+		//only touched by the request handling thread
+		boolean failed;
+		//read when building the next request
+		volatile boolean complete;
+
+		Member(R receiver) {
+			this.receiver = receiver;
+		}
+	}
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import energy.trolie.client.RequestHeaderProvider;
 import energy.trolie.client.TrolieApiConstants;
 import energy.trolie.client.TrolieHost;
+import energy.trolie.client.impl.ClientExecutor;
 import energy.trolie.client.impl.request.AbstractStreamingGet;
 import energy.trolie.client.request.monitoringsets.MonitoringSetsReceiver;
 import org.apache.hc.client5.http.classic.HttpClient;
@@ -25,11 +26,12 @@ public class DefaultMonitoringSetRequest extends AbstractStreamingGet<Monitoring
 			RequestConfig requestConfig,
 			int bufferSize, 
 			ObjectMapper objectMapper,
+			ClientExecutor executor,
 			Map<String, String> httpHeaders,
 			List<RequestHeaderProvider> providers,
 			MonitoringSetsReceiver receiver) {
 		
-		super(httpClient, host, requestConfig, bufferSize, objectMapper, httpHeaders, providers, receiver);
+		super(httpClient, host, requestConfig, bufferSize, objectMapper, executor, httpHeaders, providers, receiver);
 	}
 
 	@Override
@@ -44,7 +46,7 @@ public class DefaultMonitoringSetRequest extends AbstractStreamingGet<Monitoring
 
 	@Override
 	protected Boolean handleResponseContent(InputStream inputStream) {
-		return new MonitoringSetsResponseParser(receiver).parseResponse(inputStream, jsonFactory);
+		return new MonitoringSetsResponseParser(receiver, this::reportError, getResourceDictionary()).parseResponse(inputStream, jsonFactory);
 	}
 
 	
@@ -5,6 +5,7 @@ import energy.trolie.client.ETagStore;
 import energy.trolie.client.RequestHeaderProvider;
 import energy.trolie.client.TrolieApiConstants;
 import energy.trolie.client.TrolieHost;
+import energy.trolie.client.impl.ClientExecutor;
 import energy.trolie.client.impl.request.AbstractStreamingSubscribedGet;
 import energy.trolie.client.request.monitoringsets.MonitoringSetsSubscribedReceiver;
 import org.apache.hc.client5.http.classic.HttpClient;
@@ -26,12 +27,13 @@ public class DefaultMonitoringSetSubscribedRequest extends AbstractStreamingSubs
 			RequestConfig requestConfig,
 			int bufferSize, 
 			ObjectMapper objectMapper,
+			ClientExecutor executor,
 			Map<String, String> httpHeaders,
 			List<RequestHeaderProvider> providers,
 			int pollingRateMillis,
 			MonitoringSetsSubscribedReceiver receiver,
 			ETagStore eTagStore) {
-		super(httpClient, host, requestConfig, bufferSize, objectMapper, httpHeaders, providers, pollingRateMillis,
+		super(httpClient, host, requestConfig, bufferSize, objectMapper, executor, httpHeaders, providers, pollingRateMillis,
 				receiver, eTagStore);
 	}
 
@@ -47,6 +49,6 @@ public class DefaultMonitoringSetSubscribedRequest extends AbstractStreamingSubs
 	
 	@Override
 	protected Boolean handleResponseContent(InputStream inputStream) {
-		return new MonitoringSetsResponseParser(receiver).parseResponse(inputStream, jsonFactory);
+		return new MonitoringSetsResponseParser(receiver, this::reportError, getResourceDictionary()).parseResponse(inputStream, jsonFactory);
 	}
 }
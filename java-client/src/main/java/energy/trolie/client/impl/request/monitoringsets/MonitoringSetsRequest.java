@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import energy.trolie.client.RequestHeaderProvider;
 import energy.trolie.client.TrolieApiConstants;
 import energy.trolie.client.TrolieHost;
+import energy.trolie.client.impl.ClientExecutor;
 import energy.trolie.client.impl.request.AbstractStreamingGet;
 import energy.trolie.client.request.monitoringsets.MonitoringSetsReceiver;
 import org.apache.hc.client5.http.classic.HttpClient;
@@ -29,12 +30,13 @@ public class MonitoringSetsRequest extends AbstractStreamingGet<MonitoringSetsRe
 			RequestConfig requestConfig,
 			int bufferSize, 
 			ObjectMapper objectMapper,
+			ClientExecutor executor,
 			Map<String, String> httpHeaders,
 			List<RequestHeaderProvider> providers,
 			MonitoringSetsReceiver receiver,
 			String monitoringSet) {
 		
-		super(httpClient, host, requestConfig, bufferSize, objectMapper, httpHeaders, providers, receiver);
+		super(httpClient, host, requestConfig, bufferSize, objectMapper, executor, httpHeaders, providers, receiver);
 
 		if (monitoringSet == null || monitoringSet.isBlank()) {
 			throw new IllegalArgumentException("Monitoring set name cannot be null or blank");
@@ -64,7 +66,7 @@ public class MonitoringSetsRequest extends AbstractStreamingGet<MonitoringSetsRe
 
 	@Override
 	protected Boolean handleResponseContent(InputStream inputStream) {
-		return new MonitoringSetsResponseParser(receiver).parseResponse(inputStream, jsonFactory);
+		return new MonitoringSetsResponseParser(receiver, this::reportError, getResourceDictionary()).parseResponse(inputStream, jsonFactory);
 	}
 
 	
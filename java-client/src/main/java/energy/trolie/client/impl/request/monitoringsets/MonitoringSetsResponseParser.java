@@ -2,7 +2,9 @@ package energy.trolie.client.impl.request.monitoringsets;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
+import energy.trolie.client.ResourceDictionary;
 import energy.trolie.client.exception.StreamingGetConnectionException;
+import energy.trolie.client.exception.StreamingGetException;
 import energy.trolie.client.exception.StreamingGetHandlingException;
 import energy.trolie.client.model.monitoringsets.MonitoringSet;
 import energy.trolie.client.request.monitoringsets.MonitoringSetsReceiver;
@@ -13,6 +15,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.function.Consumer;
 
 /**
  * Implementation for parsing a monitoring set response shared between subscribed and on-demand requests
@@ -24,19 +27,26 @@ public class MonitoringSetsResponseParser {
 	private static final Logger logger = LoggerFactory.getLogger(MonitoringSetsResponseParser.class);
 	
 	MonitoringSetsReceiver receiver;
+	//reports errors to the receiver on behalf of the request
+	Consumer<StreamingGetException> errorHandler;
+	//seeded with the resources of every monitoring set received
+	ResourceDictionary resourceDictionary;
 
 	public Boolean parseResponse(InputStream inputStream, JsonFactory jsonFactory) {
 
 		try (JsonParser parser = jsonFactory.createParser(inputStream)) {
 			MonitoringSet monitoringSet = parser.readValueAs(MonitoringSet.class);
+			if (monitoringSet != null) {
+				resourceDictionary.seed(monitoringSet);
+			}
 			receiver.monitoringSet(monitoringSet);
 			return true;
 		} catch (IOException e) {
 			logger.error("I/O error handling response",e);
-			receiver.error(new StreamingGetConnectionException(e));
+			errorHandler.accept(new StreamingGetConnectionException(e));
 		} catch (Exception e) {
 			logger.error("Error handling response data",e);
-			receiver.error(new StreamingGetHandlingException(e));
+			errorHandler.accept(new StreamingGetHandlingException(e));
 		}
 
 		return false;
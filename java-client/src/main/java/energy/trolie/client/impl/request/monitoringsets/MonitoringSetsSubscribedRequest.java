@@ -5,6 +5,7 @@ import energy.trolie.client.ETagStore;
 import energy.trolie.client.RequestHeaderProvider;
 import energy.trolie.client.TrolieApiConstants;
 import energy.trolie.client.TrolieHost;
+import energy.trolie.client.impl.ClientExecutor;
 import energy.trolie.client.impl.request.AbstractStreamingSubscribedGet;
 import energy.trolie.client.request.monitoringsets.MonitoringSetsSubscribedReceiver;
 import org.apache.hc.client5.http.classic.HttpClient;
@@ -30,6 +31,7 @@ public class MonitoringSetsSubscribedRequest extends AbstractStreamingSubscribed
 			RequestConfig requestConfig,
 			int bufferSize, 
 			ObjectMapper objectMapper,
+			ClientExecutor executor,
 			Map<String, String> httpHeaders,
 			List<RequestHeaderProvider> providers,
 			int pollingRateMillis,
@@ -37,7 +39,7 @@ public class MonitoringSetsSubscribedRequest extends AbstractStreamingSubscribed
 			ETagStore eTagStore,
 			String monitoringSet) {
 		
-		super(httpClient, host, requestConfig, bufferSize, objectMapper, httpHeaders, providers, pollingRateMillis,
+		super(httpClient, host, requestConfig, bufferSize, objectMapper, executor, httpHeaders, providers, pollingRateMillis,
 				receiver, eTagStore);
 
 		if (monitoringSet == null || monitoringSet.isBlank()) {
@@ -69,7 +71,7 @@ public class MonitoringSetsSubscribedRequest extends AbstractStreamingSubscribed
 	@Override
 	protected Boolean handleResponseContent(InputStream inputStream) {
 		
-		return new MonitoringSetsResponseParser(receiver).parseResponse(inputStream, jsonFactory);
+		return new MonitoringSetsResponseParser(receiver, this::reportError, getResourceDictionary()).parseResponse(inputStream, jsonFactory);
 		
 	}
 	
@@ -0,0 +1,226 @@
+package energy.trolie.client.impl.request.operatingsnapshots;
+
+import energy.trolie.client.impl.request.RequestSubscriptionInternal;
+import energy.trolie.client.request.operatingsnapshots.SnapshotEvent;
+import energy.trolie.client.request.operatingsnapshots.SnapshotPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link SnapshotPublisher} fed by the receiver of a subscribed request.
+ * Keeps a single pending snapshot per subscriber, which is replaced by each newer snapshot
+ * until the subscriber signals demand.
+ *
+ * @param <T> snapshot type
+ */
+public class ConflatingSnapshotPublisher<T extends SnapshotEvent>
+		implements SnapshotPublisher<T>, RequestSubscriptionInternal {
+
+	private static final Logger logger = LoggerFactory.getLogger(ConflatingSnapshotPublisher.class);
+
+	private final Executor executor;
+	private final List<ConflatingSubscription> subscriptions = new CopyOnWriteArrayList<>();
+	private final AtomicLong conflated = new AtomicLong();
+	private final Object lock = new Object();
+	private RequestSubscriptionInternal request;
+	//most recent snapshot, offered to new subscribers
+	private T latest;
+	private boolean completed;
+
+	/**
+	 * Create a new publisher
+	 * @param executor executor delivering signals to subscribers
+	 */
+	public ConflatingSnapshotPublisher(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Set the request feeding this publisher.  Must be called before the publisher is started.
+	 * @param request subscribed request
+	 */
+	public void setRequest(RequestSubscriptionInternal request) {
+		this.request = request;
+	}
+
+	/**
+	 * Publish a complete snapshot to all subscribers
+	 * @param snapshot newest snapshot
+	 */
+	public void publish(T snapshot) {
+		synchronized (lock) {
+			if (completed) {
+				return;
+			}
+			latest = snapshot;
+			subscriptions.forEach(s -> s.offer(snapshot));
+		}
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		ConflatingSubscription subscription = new ConflatingSubscription(subscriber);
+		subscriber.onSubscribe(subscription);
+		synchronized (lock) {
+			if (latest != null) {
+				subscription.offer(latest);
+			}
+			if (completed) {
+				subscription.complete();
+			} else {
+				subscriptions.add(subscription);
+			}
+		}
+	}
+
+	@Override
+	public long getConflatedSnapshots() {
+		return conflated.get();
+	}
+
+	@Override
+	public void start() {
+		synchronized (lock) {
+			completed = false;
+		}
+		request.start();
+	}
+
+	@Override
+	public Future<Void> stop() {
+		Future<Void> stopped = request.stop();
+		synchronized (lock) {
+			completed = true;
+			subscriptions.forEach(ConflatingSubscription::complete);
+			subscriptions.clear();
+		}
+		return stopped;
+	}
+
+	@Override
+	public boolean isActive() {
+		return request.isActive();
+	}
+
+	@Override
+	public boolean isSubscribed() {
+		return request.isSubscribed();
+	}
+
+	@Override
+	public boolean isHealthy() {
+		return request.isHealthy();
+	}
+
+	@Override
+	public long getPollIntervalMillis() {
+		return request.getPollIntervalMillis();
+	}
+
+	@Override
+	public String toString() {
+		return "ConflatingSnapshotPublisher [request=" + request + "]";
+	}
+
+	private class ConflatingSubscription implements Flow.Subscription {
+
+		private final Flow.Subscriber<? super T> subscriber;
+		private final AtomicReference<T> pending = new AtomicReference<>();
+		private final AtomicLong demand = new AtomicLong();
+		//number of outstanding drain requests, only the thread raising it from zero drains
+		private final AtomicInteger wip = new AtomicInteger();
+		private volatile boolean cancelled;
+		private volatile boolean done;
+		private volatile Throwable error;
+		private boolean terminated;
+
+		ConflatingSubscription(Flow.Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		void offer(T snapshot) {
+			if (pending.getAndSet(snapshot) != null) {
+				conflated.incrementAndGet();
+			}
+			schedule();
+		}
+
+		void complete() {
+			done = true;
+			schedule();
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				error = new IllegalArgumentException("Non-positive request " + n);
+			} else {
+				demand.accumulateAndGet(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+			}
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			subscriptions.remove(this);
+		}
+
+		private void schedule() {
+			if (wip.getAndIncrement() == 0) {
+				try {
+					executor.execute(this::drain);
+				} catch (RejectedExecutionException e) {
+					logger.debug("Client closed, dropping signals to {}", subscriber);
+				}
+			}
+		}
+
+		private void drain() {
+			int missed = 1;
+			do {
+				while (!cancelled && !terminated) {
+					if (error != null) {
+						terminate();
+						subscriber.onError(error);
+					} else if (demand.get() > 0 && pending.get() != null) {
+						T snapshot = pending.getAndSet(null);
+						demand.decrementAndGet();
+						deliver(snapshot);
+					} else if (done && pending.get() == null) {
+						terminate();
+						subscriber.onComplete();
+					} else {
+						break;
+					}
+				}
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void deliver(T snapshot) {
+			try {
+				subscriber.onNext(snapshot);
+			} catch (Exception e) {
+				//a throwing subscriber violates the protocol and is dropped
+				logger.error("Error in snapshot subscriber {}", subscriber, e);
+				cancel();
+			}
+		}
+
+		private void terminate() {
+			terminated = true;
+			subscriptions.remove(this);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package energy.trolie.client.impl.request.operatingsnapshots;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonToken;
+import energy.trolie.client.ResourceDictionary;
+import energy.trolie.client.exception.StreamingGetException;
+import energy.trolie.client.impl.model.operatingsnapshots.SnapshotDecoders;
+import energy.trolie.client.impl.request.AbstractAsyncResponseParser;
+import energy.trolie.client.model.operatingsnapshots.ForecastSnapshotHeader;
+import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotReceiver;
+import energy.trolie.client.request.operatingsnapshots.PrimitiveForecastSnapshotReceiver;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Push-style counterpart of {@link ForecastSnapshotResponseParser} for the async transport,
+ * invoking the receiver as soon as each header, resource and period has arrived.
+ */
+public class ForecastSnapshotAsyncResponseParser extends AbstractAsyncResponseParser {
+
+	private enum State { ROOT, SNAPSHOT, RATINGS, RESOURCE, PERIODS }
+
+	private final ForecastSnapshotReceiver receiver;
+	private final ResourceDictionary resourceDictionary;
+	private final CaptureHandler periodHandler;
+	private State state = State.ROOT;
+	private int resourceIndex = -1;
+
+	public ForecastSnapshotAsyncResponseParser(ForecastSnapshotReceiver receiver,
+											   Consumer<StreamingGetException> errorHandler, JsonFactory jsonFactory,
+											   int bufferSize) throws IOException {
+		this(receiver, errorHandler, jsonFactory, bufferSize, new ResourceDictionary());
+	}
+
+	public ForecastSnapshotAsyncResponseParser(ForecastSnapshotReceiver receiver,
+											   Consumer<StreamingGetException> errorHandler, JsonFactory jsonFactory,
+											   int bufferSize, ResourceDictionary resourceDictionary) throws IOException {
+		super(jsonFactory, errorHandler, bufferSize);
+		this.receiver = receiver;
+		this.resourceDictionary = resourceDictionary;
+		if (receiver instanceof PrimitiveForecastSnapshotReceiver primitive) {
+			PrimitivePeriodReader periodReader = new PrimitivePeriodReader(primitive);
+			//the resource cannot change while a period is being buffered
+			this.periodHandler = buffered -> periodReader.readPeriod(buffered, resourceIndex);
+		} else {
+			this.periodHandler = buffered -> receiver.period(SnapshotDecoders.forecastPeriod(buffered));
+		}
+	}
+
+	@Override
+	protected void handleToken(JsonToken token) throws IOException {
+		switch (state) {
+			case ROOT:
+				//START_OBJECT forecast
+				receiver.beginSnapshot();
+				state = State.SNAPSHOT;
+				break;
+			case SNAPSHOT:
+				if (token == JsonToken.END_OBJECT) {
+					receiver.endSnapshot();
+					complete();
+				} else if (token != JsonToken.FIELD_NAME) {
+					if ("snapshot-header".equals(parser.currentName())) {
+						readValue(ForecastSnapshotHeader.class, header -> {
+							resourceDictionary.seed(header);
+							receiver.header(header);
+						});
+					} else if (token == JsonToken.START_ARRAY) {
+						//like the blocking parser, accept the ratings array by position rather than name
+						state = State.RATINGS;
+					} else {
+						skipValue();
+					}
+				}
+				break;
+			case RATINGS:
+				//START_OBJECT rating | END_ARRAY ratings
+				state = token == JsonToken.START_OBJECT ? State.RESOURCE : State.SNAPSHOT;
+				break;
+			case RESOURCE:
+				if (token == JsonToken.END_OBJECT) {
+					receiver.endResource();
+					state = State.RATINGS;
+				} else if (token != JsonToken.FIELD_NAME) {
+					String field = parser.currentName();
+					if ("resource-id".equals(field)) {
+						resourceIndex = SnapshotDecoders.resourceIndex(parser, resourceDictionary);
+						receiver.beginResource(resourceIndex,
+								resourceIndex < 0 ? null : resourceDictionary.getResourceId(resourceIndex));
+					} else if ("periods".equals(field)) {
+						state = State.PERIODS;
+					} else {
+						skipValue();
+					}
+				}
+				break;
+			case PERIODS:
+				if (token == JsonToken.START_OBJECT) {
+					readBuffered(periodHandler);
+				} else {
+					//END_ARRAY periods
+					state = State.RESOURCE;
+				}
+				break;
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package energy.trolie.client.impl.request.operatingsnapshots;
+
+import energy.trolie.client.model.operatingsnapshots.ForecastPeriodSnapshot;
+import energy.trolie.client.model.operatingsnapshots.ForecastSnapshotHeader;
+import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotEvent;
+import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotSubscribedReceiver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Receiver assembling streamed forecast snapshots into {@link ForecastSnapshotEvent}s.
+ * Incomplete snapshots, cut short by an error, are discarded.
+ */
+public class ForecastSnapshotEventCollector implements ForecastSnapshotSubscribedReceiver {
+
+	private final Consumer<ForecastSnapshotEvent> consumer;
+	private ForecastSnapshotHeader header;
+	private Map<String, List<ForecastPeriodSnapshot>> periods;
+	private List<ForecastPeriodSnapshot> resourcePeriods;
+
+	public ForecastSnapshotEventCollector(Consumer<ForecastSnapshotEvent> consumer) {
+		this.consumer = consumer;
+	}
+
+	@Override
+	public void beginSnapshot() {
+		header = null;
+		periods = new LinkedHashMap<>();
+	}
+
+	@Override
+	public void header(ForecastSnapshotHeader header) {
+		this.header = header;
+	}
+
+	@Override
+	public void beginResource(String resourceId) {
+		resourcePeriods = new ArrayList<>();
+		periods.put(resourceId, resourcePeriods);
+	}
+
+	@Override
+	public void period(ForecastPeriodSnapshot period) {
+		resourcePeriods.add(period);
+	}
+
+	@Override
+	public void endResource() {
+		resourcePeriods = null;
+	}
+
+	@Override
+	public void endSnapshot() {
+		consumer.accept(new ForecastSnapshotEvent(header, Collections.unmodifiableMap(periods)));
+		periods = null;
+	}
+}
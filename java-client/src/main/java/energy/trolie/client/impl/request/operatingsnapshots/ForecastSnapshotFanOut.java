@@ -0,0 +1,51 @@
+package energy.trolie.client.impl.request.operatingsnapshots;
+
+import energy.trolie.client.impl.request.SubscriptionFanOut;
+import energy.trolie.client.model.operatingsnapshots.ForecastPeriodSnapshot;
+import energy.trolie.client.model.operatingsnapshots.ForecastSnapshotHeader;
+import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotSubscribedReceiver;
+
+/**
+ * Hands each streamed forecast snapshot to all receivers sharing a subscription.  Periods are
+ * parsed into objects once and shared, so primitive receivers are not fanned out to.
+ */
+public class ForecastSnapshotFanOut extends SubscriptionFanOut<ForecastSnapshotSubscribedReceiver>
+		implements ForecastSnapshotSubscribedReceiver {
+
+	@Override
+	public void beginSnapshot() {
+		beginFanOut();
+		fanOut(ForecastSnapshotSubscribedReceiver::beginSnapshot);
+	}
+
+	@Override
+	public void header(ForecastSnapshotHeader header) {
+		fanOut(receiver -> receiver.header(header));
+	}
+
+	@Override
+	public void beginResource(String resourceId) {
+		fanOut(receiver -> receiver.beginResource(resourceId));
+	}
+
+	@Override
+	public void beginResource(int resourceIndex, String resourceId) {
+		fanOut(receiver -> receiver.beginResource(resourceIndex, resourceId));
+	}
+
+	@Override
+	public void period(ForecastPeriodSnapshot period) {
+		fanOut(receiver -> receiver.period(period));
+	}
+
+	@Override
+	public void endResource() {
+		fanOut(ForecastSnapshotSubscribedReceiver::endResource);
+	}
+
+	@Override
+	public void endSnapshot() {
+		fanOut(ForecastSnapshotSubscribedReceiver::endSnapshot);
+		endFanOut();
+	}
+}
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import energy.trolie.client.RequestHeaderProvider;
 import energy.trolie.client.TrolieApiConstants;
 import energy.trolie.client.TrolieHost;
+import energy.trolie.client.impl.ClientExecutor;
+import energy.trolie.client.impl.request.AbstractAsyncResponseParser;
 import energy.trolie.client.impl.request.AbstractStreamingGet;
 import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotReceiver;
 import org.apache.hc.client5.http.classic.HttpClient;
@@ -11,11 +13,13 @@ import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.core5.net.URIBuilder;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * On-demand GET request for forecast limits with no ETAG usage
@@ -27,12 +31,16 @@ public class ForecastSnapshotRequest extends AbstractStreamingGet<ForecastSnapsh
 	Instant periodEnd;
 	String resourceId;
 	
+	//pool parsing large responses in parallel, or null to parse on the request thread
+	ForkJoinPool parsePool;
+
 	public ForecastSnapshotRequest(
 			HttpClient httpClient, 
 			TrolieHost host,
 			RequestConfig requestConfig,
 			int bufferSize, 
 			ObjectMapper objectMapper,
+			ClientExecutor executor,
 			Map<String, String> httpHeaders,
 			List<RequestHeaderProvider> providers,
 			ForecastSnapshotReceiver receiver,
@@ -41,13 +49,21 @@ public class ForecastSnapshotRequest extends AbstractStreamingGet<ForecastSnapsh
 			Instant offsetPeriodStart,
 			Instant periodEnd) {
 		
-		super(httpClient, host, requestConfig, bufferSize, objectMapper, httpHeaders, providers, receiver);
+		super(httpClient, host, requestConfig, bufferSize, objectMapper, executor, httpHeaders, providers, receiver);
 		this.monitoringSet = monitoringSet;
 		this.resourceId = resourceId;
 		this.offsetPeriodStart = offsetPeriodStart;
 		this.periodEnd = periodEnd;
 	}
 
+	/**
+	 * Parse responses on the given pool, see {@link ParallelForecastSnapshotParser}
+	 * @param parsePool pool to parse on, or null to parse on the request thread
+	 */
+	public void setParallelParsing(ForkJoinPool parsePool) {
+		this.parsePool = parsePool;
+	}
+
 	@Override
 	protected String getPath() {
 		return TrolieApiConstants.PATH_FORECAST_SNAPSHOT;
@@ -93,8 +109,21 @@ public class ForecastSnapshotRequest extends AbstractStreamingGet<ForecastSnapsh
 
 	@Override
 	protected Boolean handleResponseContent(InputStream inputStream) {
-		return new ForecastSnapshotResponseParser(receiver).parseResponse(inputStream, jsonFactory);
+		if (parsePool != null) {
+			return new ParallelForecastSnapshotParser(receiver, this::reportError, getResourceDictionary(), parsePool)
+					.parseResponse(inputStream, jsonFactory);
+		}
+		return new ForecastSnapshotResponseParser(receiver, this::reportError, getResourceDictionary()).parseResponse(inputStream, jsonFactory);
+	}
+
+	@Override
+	protected AbstractAsyncResponseParser createAsyncParser() throws IOException {
+		if (parsePool != null) {
+			//the body is buffered whole to be split, so gains nothing from incremental parsing
+			return null;
+		}
+		return new ForecastSnapshotAsyncResponseParser(receiver, this::reportError, jsonFactory, bufferSize,
+				getResourceDictionary());
 	}
 
-	
 }
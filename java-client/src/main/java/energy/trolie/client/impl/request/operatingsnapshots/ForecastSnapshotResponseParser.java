@@ -3,17 +3,22 @@ package energy.trolie.client.impl.request.operatingsnapshots;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
+import energy.trolie.client.ResourceDictionary;
 import energy.trolie.client.exception.StreamingGetConnectionException;
+import energy.trolie.client.exception.StreamingGetException;
 import energy.trolie.client.exception.StreamingGetHandlingException;
+import energy.trolie.client.impl.model.operatingsnapshots.SnapshotDecoders;
 import energy.trolie.client.model.operatingsnapshots.ForecastPeriodSnapshot;
 import energy.trolie.client.model.operatingsnapshots.ForecastSnapshotHeader;
 import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotReceiver;
+import energy.trolie.client.request.operatingsnapshots.PrimitiveForecastSnapshotReceiver;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.function.Consumer;
 
 /**
  * Implementation for parsing a real-time snapshot response shared between subscribed and on-demand requests
@@ -24,11 +29,23 @@ public class ForecastSnapshotResponseParser {
 	private static final Logger logger = LoggerFactory.getLogger(ForecastSnapshotResponseParser.class);
 	
 	ForecastSnapshotReceiver receiver;
+	//reports errors to the receiver on behalf of the request
+	Consumer<StreamingGetException> errorHandler;
+	//resolves resource IDs to the indices handed to the receiver
+	ResourceDictionary resourceDictionary;
+
+	public ForecastSnapshotResponseParser(ForecastSnapshotReceiver receiver, Consumer<StreamingGetException> errorHandler) {
+		this(receiver, errorHandler, new ResourceDictionary());
+	}
 
 	public Boolean parseResponse(InputStream inputStream, JsonFactory jsonFactory) {
 		
 		try (JsonParser parser = jsonFactory.createParser(inputStream);) {
 			
+			//primitive receivers get periods without any model objects
+			PrimitivePeriodReader periodReader = receiver instanceof PrimitiveForecastSnapshotReceiver primitive ?
+					new PrimitivePeriodReader(primitive) : null;
+
 			receiver.beginSnapshot();
 			
 			//START_OBJECT forecast
@@ -40,6 +57,7 @@ public class ForecastSnapshotResponseParser {
 			
 			//read header
 			ForecastSnapshotHeader header = parser.readValueAs(ForecastSnapshotHeader.class);
+			resourceDictionary.seed(header);
 			receiver.header(header);
 			
 			//FIELD_NAME ratings
@@ -47,50 +65,70 @@ public class ForecastSnapshotResponseParser {
 			//START_ARRAY
 			parser.nextToken();
 			
-			//for each rating
-			while (parser.nextToken() == JsonToken.START_OBJECT ) {
-				
-				//FIELD_NAME resource-id
-				parser.nextToken();
-				//resource-id
-				parser.nextToken();
-				
-				String id = parser.getValueAsString();
-				receiver.beginResource(id);
-
-				//FIELD_NAME periods
-				parser.nextToken();
-				//START_ARRAY
-				parser.nextToken();
-				
-				//for each period
-				while (parser.nextToken() == JsonToken.START_OBJECT ) {
-					ForecastPeriodSnapshot period = parser.readValueAs(ForecastPeriodSnapshot.class);
-					receiver.period(period);
-				}
-				//exit loop on END_ARRAY periods
-				
-				//END_OBJECT rating
-				parser.nextToken();
-				receiver.endResource();
-				
-				//next token will be START_OBJECT | END_ARRAY ratings
-				
-			}
-			//exit loop on END_ARRAY ratings
+			readRatings(parser, receiver, periodReader, resourceDictionary);
 			
 			receiver.endSnapshot();
 			return true;
 
 		} catch (IOException e) {
 			logger.error("I/O error handling response",e);
-			receiver.error(new StreamingGetConnectionException(e));
+			errorHandler.accept(new StreamingGetConnectionException(e));
 		} catch (Exception e) {
 			logger.error("Error handling response data",e);
-			receiver.error(new StreamingGetHandlingException(e));
+			errorHandler.accept(new StreamingGetHandlingException(e));
 		}
 
 		return false;
 	}
-	
+
+	/**
+	 * Hand the resources of a ratings array to a receiver, from the token after its START_ARRAY
+	 * up to and including its END_ARRAY.  Shared with {@link ParallelForecastSnapshotParser},
+	 * which reads each chunk of the array this way.
+	 * @param parser parser positioned just inside the array
+	 * @param receiver receiver of the resources
+	 * @param periodReader reader handing periods to a primitive receiver, or null to hand them as objects
+	 * @param resourceDictionary dictionary resolving resource IDs
+	 * @throws IOException on malformed content
+	 */
+	static void readRatings(JsonParser parser, ForecastSnapshotReceiver receiver, PrimitivePeriodReader periodReader,
+							ResourceDictionary resourceDictionary) throws IOException {
+		//for each rating
+		while (parser.nextToken() == JsonToken.START_OBJECT ) {
+			
+			//FIELD_NAME resource-id
+			parser.nextToken();
+			//resource-id
+			parser.nextToken();
+			
+			int resourceIndex = SnapshotDecoders.resourceIndex(parser, resourceDictionary);
+			receiver.beginResource(resourceIndex,
+					resourceIndex < 0 ? null : resourceDictionary.getResourceId(resourceIndex));
+
+			//FIELD_NAME periods
+			parser.nextToken();
+			//START_ARRAY
+			parser.nextToken();
+			
+			//for each period
+			while (parser.nextToken() == JsonToken.START_OBJECT ) {
+				if (periodReader != null) {
+					periodReader.readPeriod(parser, resourceIndex);
+				} else {
+					ForecastPeriodSnapshot period = SnapshotDecoders.forecastPeriod(parser);
+					receiver.period(period);
+				}
+			}
+			//exit loop on END_ARRAY periods
+			
+			//END_OBJECT rating
+			parser.nextToken();
+			receiver.endResource();
+			
+			//next token will be START_OBJECT | END_ARRAY ratings
+			
+		}
+		//exit loop on END_ARRAY ratings
+	}
+
 }
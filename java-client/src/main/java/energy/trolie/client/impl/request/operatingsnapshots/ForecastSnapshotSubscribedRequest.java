@@ -5,6 +5,8 @@ import energy.trolie.client.ETagStore;
 import energy.trolie.client.RequestHeaderProvider;
 import energy.trolie.client.TrolieApiConstants;
 import energy.trolie.client.TrolieHost;
+import energy.trolie.client.impl.ClientExecutor;
+import energy.trolie.client.impl.request.AbstractAsyncResponseParser;
 import energy.trolie.client.impl.request.AbstractStreamingSubscribedGet;
 import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotSubscribedReceiver;
 import org.apache.hc.client5.http.classic.HttpClient;
@@ -12,10 +14,12 @@ import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.core5.net.URIBuilder;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * subscription for forecast rating snapshots 
@@ -24,12 +28,16 @@ public class ForecastSnapshotSubscribedRequest extends AbstractStreamingSubscrib
 
 	String monitoringSet;
 	
+	//pool parsing large responses in parallel, or null to parse on the request thread
+	ForkJoinPool parsePool;
+
 	public ForecastSnapshotSubscribedRequest(
 			HttpClient httpClient, 
 			TrolieHost host,
 			RequestConfig requestConfig,
 			int bufferSize, 
 			ObjectMapper objectMapper,
+			ClientExecutor executor,
 			Map<String, String> httpHeaders,
 			List<RequestHeaderProvider> providers,
 			int pollingRateMillis,
@@ -37,11 +45,19 @@ public class ForecastSnapshotSubscribedRequest extends AbstractStreamingSubscrib
 			ETagStore eTagStore,
 			String monitoringSet) {
 		
-		super(httpClient, host, requestConfig, bufferSize, objectMapper, httpHeaders, providers, pollingRateMillis,
+		super(httpClient, host, requestConfig, bufferSize, objectMapper, executor, httpHeaders, providers, pollingRateMillis,
 				receiver, eTagStore);
 		this.monitoringSet = monitoringSet;
 	}
 
+	/**
+	 * Parse responses on the given pool, see {@link ParallelForecastSnapshotParser}
+	 * @param parsePool pool to parse on, or null to parse on the request thread
+	 */
+	public void setParallelParsing(ForkJoinPool parsePool) {
+		this.parsePool = parsePool;
+	}
+
 	@Override
 	protected String getPath() {
 		return TrolieApiConstants.PATH_FORECAST_SNAPSHOT;
@@ -70,9 +86,22 @@ public class ForecastSnapshotSubscribedRequest extends AbstractStreamingSubscrib
 	
 	@Override
 	protected Boolean handleResponseContent(InputStream inputStream) {
-		
-		return new ForecastSnapshotResponseParser(receiver).parseResponse(inputStream, jsonFactory);
+		if (parsePool != null) {
+			return new ParallelForecastSnapshotParser(receiver, this::reportError, getResourceDictionary(), parsePool)
+					.parseResponse(inputStream, jsonFactory);
+		}
+		return new ForecastSnapshotResponseParser(receiver, this::reportError, getResourceDictionary()).parseResponse(inputStream, jsonFactory);
 		
 	}
-	
+
+	@Override
+	protected AbstractAsyncResponseParser createAsyncParser() throws IOException {
+		if (parsePool != null) {
+			//the body is buffered whole to be split, so gains nothing from incremental parsing
+			return null;
+		}
+		return new ForecastSnapshotAsyncResponseParser(receiver, this::reportError, jsonFactory, bufferSize,
+				getResourceDictionary());
+	}
+
 }
@@ -0,0 +1,485 @@
+package energy.trolie.client.impl.request.operatingsnapshots;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import energy.trolie.client.ResourceDictionary;
+import energy.trolie.client.exception.StreamingGetConnectionException;
+import energy.trolie.client.exception.StreamingGetException;
+import energy.trolie.client.exception.StreamingGetHandlingException;
+import energy.trolie.client.impl.request.ByteBufferInputStream;
+import energy.trolie.client.model.operatingsnapshots.ForecastPeriodSnapshot;
+import energy.trolie.client.model.operatingsnapshots.ForecastSnapshotHeader;
+import energy.trolie.client.request.operatingsnapshots.EmergencyLimitsAccessor;
+import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotReceiver;
+import energy.trolie.client.request.operatingsnapshots.PrimitiveForecastSnapshotReceiver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * <p>Parses forecast snapshot responses on a {@link ForkJoinPool}, for snapshots so large that parsing
+ * them on the request thread would dominate.</p>
+ * <p>The body is buffered first, on the heap or, beyond {@link #SPILL_BYTES}, in a memory-mapped temporary
+ * file.  Bodies replayed from a snapshot cache are used where they are.  After the header has been read
+ * as usual, a scan that only tracks nesting and strings splits the ratings array between resources into
+ * chunks, each of which is parsed on the pool while the scan goes on.</p>
+ * <p>Each chunk is parsed into a buffer, and the buffers are replayed to the receiver on the request
+ * thread in the order of the response, so the receiver sees the same callbacks as with
+ * {@link ForecastSnapshotResponseParser}.  Receivers declared
+ * {@link ForecastSnapshotReceiver#isThreadSafe() thread safe} are instead handed the resources straight
+ * from the pool.  Bodies too small to be worth splitting, and formats other than JSON, are parsed
+ * sequentially.</p>
+ */
+public class ParallelForecastSnapshotParser {
+
+	private static final Logger logger = LoggerFactory.getLogger(ParallelForecastSnapshotParser.class);
+
+	/**
+	 * Bodies up to this size are buffered on the heap, larger ones in a temporary file
+	 */
+	public static final int SPILL_BYTES = 64 << 20;
+
+	/**
+	 * Default minimum size of each chunk, keeping the overhead of a chunk small next to parsing it
+	 */
+	public static final int MIN_CHUNK_BYTES = 1 << 20;
+
+	private static final byte[] OPEN_ARRAY = {'['};
+	private static final byte[] CLOSE_ARRAY = {']'};
+
+	private final ForecastSnapshotReceiver receiver;
+	//reports errors to the receiver on behalf of the request
+	private final Consumer<StreamingGetException> errorHandler;
+	//resolves resource IDs to the indices handed to the receiver
+	private final ResourceDictionary resourceDictionary;
+	private final ForkJoinPool pool;
+	private final int minChunkBytes;
+
+	public ParallelForecastSnapshotParser(ForecastSnapshotReceiver receiver, Consumer<StreamingGetException> errorHandler,
+										  ResourceDictionary resourceDictionary, ForkJoinPool pool) {
+		this(receiver, errorHandler, resourceDictionary, pool, MIN_CHUNK_BYTES);
+	}
+
+	ParallelForecastSnapshotParser(ForecastSnapshotReceiver receiver, Consumer<StreamingGetException> errorHandler,
+								   ResourceDictionary resourceDictionary, ForkJoinPool pool, int minChunkBytes) {
+		this.receiver = receiver;
+		this.errorHandler = errorHandler;
+		this.resourceDictionary = resourceDictionary;
+		this.pool = pool;
+		this.minChunkBytes = minChunkBytes;
+	}
+
+	public Boolean parseResponse(InputStream inputStream, JsonFactory jsonFactory) {
+
+		//only JSON can be split by scanning its bytes
+		if (!JsonFactory.FORMAT_NAME_JSON.equals(jsonFactory.getFormatName())) {
+			return sequentialParser().parseResponse(inputStream, jsonFactory);
+		}
+
+		try (Body body = Body.read(inputStream)) {
+
+			if (body.content == null) {
+				//beyond what a single buffer can address
+				return sequentialParser().parseResponse(Channels.newInputStream(body.channel.position(0)), jsonFactory);
+			}
+			if (body.content.remaining() < 2 * minChunkBytes) {
+				return sequentialParser().parseResponse(new ByteBufferInputStream(body.content), jsonFactory);
+			}
+			return parse(body.content.slice(), jsonFactory);
+
+		} catch (IOException e) {
+			logger.error("I/O error handling response",e);
+			errorHandler.accept(new StreamingGetConnectionException(e));
+		} catch (Exception e) {
+			logger.error("Error handling response data",e);
+			errorHandler.accept(new StreamingGetHandlingException(e));
+		}
+
+		return false;
+	}
+
+	private ForecastSnapshotResponseParser sequentialParser() {
+		return new ForecastSnapshotResponseParser(receiver, errorHandler, resourceDictionary);
+	}
+
+	private Boolean parse(ByteBuffer data, JsonFactory jsonFactory) throws IOException {
+
+		ForecastSnapshotHeader header;
+		long ratingsOffset;
+		try (JsonParser parser = jsonFactory.createParser(new ByteBufferInputStream(data.duplicate()))) {
+
+			//START_OBJECT forecast
+			parser.nextToken();
+			//FIELD_NAME snapshot-header
+			parser.nextToken();
+			//START_OBJECT header
+			parser.nextToken();
+
+			//read header
+			header = parser.readValueAs(ForecastSnapshotHeader.class);
+
+			//FIELD_NAME ratings
+			parser.nextToken();
+			//START_ARRAY
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				throw new JsonParseException(parser, "Expected the ratings array after the snapshot header");
+			}
+			ratingsOffset = parser.currentTokenLocation().getByteOffset();
+		}
+
+		if (ratingsOffset < 0) {
+			//parsers decoding characters do not track byte offsets
+			return sequentialParser().parseResponse(new ByteBufferInputStream(data), jsonFactory);
+		}
+
+		receiver.beginSnapshot();
+		resourceDictionary.seed(header);
+		receiver.header(header);
+
+		boolean primitive = receiver instanceof PrimitiveForecastSnapshotReceiver;
+		boolean threadSafe = receiver.isThreadSafe();
+		//bounds the buffered chunks while keeping every worker busy
+		int window = Math.max(2, 2 * pool.getParallelism());
+		Deque<ForkJoinTask<ChunkBuffer>> pending = new ArrayDeque<>();
+		try {
+			int from = (int) ratingsOffset + 1;
+			int end;
+			do {
+				end = chunkEnd(data, from);
+				ByteBuffer chunk = data.slice(from, end - from);
+				pending.add(pool.submit(() -> parseChunk(chunk, jsonFactory, primitive, threadSafe)));
+				if (pending.size() >= window) {
+					deliver(pending.remove());
+				}
+				from = end + 1;
+			} while (data.get(end) == ',');
+
+			while (!pending.isEmpty()) {
+				deliver(pending.remove());
+			}
+		} finally {
+			//after a failure, make sure no chunk is still handing resources to the receiver
+			for (ForkJoinTask<ChunkBuffer> task : pending) {
+				task.cancel(false);
+			}
+			for (ForkJoinTask<ChunkBuffer> task : pending) {
+				task.quietlyJoin();
+			}
+		}
+
+		receiver.endSnapshot();
+		return true;
+	}
+
+	/**
+	 * Find the end of the chunk of the ratings array starting at the given index.  Nesting is only
+	 * tracked from the start of the chunk, which always lies between resources.
+	 * @return index of the first comma between resources at least the minimum chunk size on,
+	 * or of the closing bracket of the array
+	 */
+	private int chunkEnd(ByteBuffer data, int from) throws IOException {
+		int depth = 0;
+		boolean inString = false;
+		for (int i = from, limit = data.limit(); i < limit; i++) {
+			byte b = data.get(i);
+			if (inString) {
+				if (b == '\\') {
+					//skip the escaped character, which may be a quote
+					i++;
+				} else if (b == '"') {
+					inString = false;
+				}
+			} else if (b == '"') {
+				inString = true;
+			} else if (b == '{' || b == '[') {
+				depth++;
+			} else if (b == '}' || b == ']') {
+				if (depth == 0) {
+					return i;
+				}
+				depth--;
+			} else if (b == ',' && depth == 0 && i - from >= minChunkBytes) {
+				return i;
+			}
+		}
+		throw new JsonParseException((JsonParser) null, "Unexpected end of the ratings array");
+	}
+
+	/**
+	 * Parse the resources of a chunk, either into a buffer or straight to a thread safe receiver
+	 * @return buffer to replay, or null if handed to the receiver
+	 */
+	private ChunkBuffer parseChunk(ByteBuffer chunk, JsonFactory jsonFactory, boolean primitive, boolean threadSafe)
+			throws IOException {
+		ChunkBuffer buffer = threadSafe ? null : new ChunkBuffer();
+		ForecastSnapshotReceiver target = threadSafe ? receiver : buffer;
+		//the buffer takes periods the way the receiver does
+		PrimitivePeriodReader periodReader = primitive ?
+				new PrimitivePeriodReader((PrimitiveForecastSnapshotReceiver) target) : null;
+
+		InputStream in = new SequenceInputStream(Collections.enumeration(List.of(
+				new ByteArrayInputStream(OPEN_ARRAY),
+				new ByteBufferInputStream(chunk),
+				new ByteArrayInputStream(CLOSE_ARRAY))));
+		try (JsonParser parser = jsonFactory.createParser(in)) {
+			//START_ARRAY
+			parser.nextToken();
+			ForecastSnapshotResponseParser.readRatings(parser, target, periodReader, resourceDictionary);
+		}
+		return buffer;
+	}
+
+	private void deliver(ForkJoinTask<ChunkBuffer> task) throws IOException {
+		ChunkBuffer buffer;
+		try {
+			buffer = task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted parsing forecast snapshot");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException io) {
+				throw io;
+			}
+			if (e.getCause() instanceof RuntimeException re) {
+				throw re;
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+		if (buffer != null) {
+			buffer.replay(receiver);
+		}
+	}
+
+	/**
+	 * Response body, buffered on the heap or mapped from a temporary file deleted on close
+	 */
+	private static final class Body implements Closeable {
+
+		//null if the body is too large to map as one buffer
+		final ByteBuffer content;
+		final FileChannel channel;
+
+		Body(ByteBuffer content, FileChannel channel) {
+			this.content = content;
+			this.channel = channel;
+		}
+
+		static Body read(InputStream in) throws IOException {
+			if (in instanceof ByteBufferInputStream buffered) {
+				//already in memory, such as a body replayed from a cache
+				return new Body(buffered.remaining(), null);
+			}
+			byte[] bytes = new byte[64 << 10];
+			int size = 0;
+			int n;
+			while ((n = in.read(bytes, size, bytes.length - size)) >= 0) {
+				size += n;
+				if (size == bytes.length) {
+					if (size >= SPILL_BYTES) {
+						return spill(bytes, size, in);
+					}
+					bytes = Arrays.copyOf(bytes, size * 2);
+				}
+			}
+			return new Body(ByteBuffer.wrap(bytes, 0, size), null);
+		}
+
+		private static Body spill(byte[] bytes, int size, InputStream in) throws IOException {
+			FileChannel channel = FileChannel.open(Files.createTempFile("trolie-forecast", ".json"),
+					StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+			try {
+				ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, size);
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				int n;
+				while ((n = in.read(bytes)) >= 0) {
+					buffer = ByteBuffer.wrap(bytes, 0, n);
+					while (buffer.hasRemaining()) {
+						channel.write(buffer);
+					}
+				}
+				long length = channel.size();
+				ByteBuffer content = length > Integer.MAX_VALUE ? null :
+						channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+				return new Body(content, channel);
+			} catch (IOException | RuntimeException e) {
+				channel.close();
+				throw e;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			//the mapping stays valid until collected, but no chunk outlives the parse
+			if (channel != null) {
+				channel.close();
+			}
+		}
+	}
+
+	/**
+	 * Resources of one chunk, recorded as the receiver would be handed them, and the flyweight
+	 * emergency limits of the period being replayed
+	 */
+	private static final class ChunkBuffer implements PrimitiveForecastSnapshotReceiver, EmergencyLimitsAccessor {
+
+		//resources, with the end of their periods
+		private int[] resourceIndices = new int[16];
+		private String[] resourceIds = new String[16];
+		private int[] resourceEnds = new int[16];
+		private int resources;
+
+		//periods handed as primitives, with the end of their emergency limits
+		private long[] periodStarts = new long[64];
+		private long[] periodEnds = new long[64];
+		private float[] continuousLimits = new float[64];
+		private int[] limitEnds = new int[64];
+		//periods handed as objects
+		private final List<ForecastPeriodSnapshot> periodObjects = new ArrayList<>();
+		private int periods;
+
+		private String[] durationNames = new String[128];
+		private float[] limits = new float[128];
+		private int limitCount;
+
+		//emergency limits of the period being replayed
+		private int replayFrom;
+		private int replayTo;
+
+		@Override
+		public void beginSnapshot() {
+		}
+
+		@Override
+		public void header(ForecastSnapshotHeader header) {
+		}
+
+		@Override
+		public void beginResource(String resourceId) {
+			beginResource(-1, resourceId);
+		}
+
+		@Override
+		public void beginResource(int resourceIndex, String resourceId) {
+			if (resources == resourceIndices.length) {
+				int grown = resources * 2;
+				resourceIndices = Arrays.copyOf(resourceIndices, grown);
+				resourceIds = Arrays.copyOf(resourceIds, grown);
+				resourceEnds = Arrays.copyOf(resourceEnds, grown);
+			}
+			resourceIndices[resources] = resourceIndex;
+			resourceIds[resources] = resourceId;
+		}
+
+		@Override
+		public void period(int resourceIndex, long periodStart, long periodEnd, float continuousLimit,
+						   EmergencyLimitsAccessor emergencyLimits) {
+			if (periods == periodStarts.length) {
+				int grown = periods * 2;
+				periodStarts = Arrays.copyOf(periodStarts, grown);
+				periodEnds = Arrays.copyOf(periodEnds, grown);
+				continuousLimits = Arrays.copyOf(continuousLimits, grown);
+				limitEnds = Arrays.copyOf(limitEnds, grown);
+			}
+			int size = emergencyLimits.size();
+			if (limitCount + size > limits.length) {
+				int grown = Math.max(limits.length * 2, limitCount + size);
+				durationNames = Arrays.copyOf(durationNames, grown);
+				limits = Arrays.copyOf(limits, grown);
+			}
+			for (int i = 0; i < size; i++) {
+				durationNames[limitCount] = emergencyLimits.getDurationName(i);
+				limits[limitCount] = emergencyLimits.getLimit(i);
+				limitCount++;
+			}
+			periodStarts[periods] = periodStart;
+			periodEnds[periods] = periodEnd;
+			continuousLimits[periods] = continuousLimit;
+			limitEnds[periods] = limitCount;
+			periods++;
+		}
+
+		@Override
+		public void period(ForecastPeriodSnapshot period) {
+			periodObjects.add(period);
+			periods++;
+		}
+
+		@Override
+		public void endResource() {
+			resourceEnds[resources++] = periods;
+		}
+
+		@Override
+		public void endSnapshot() {
+		}
+
+		void replay(ForecastSnapshotReceiver receiver) {
+			PrimitiveForecastSnapshotReceiver primitive = receiver instanceof PrimitiveForecastSnapshotReceiver p ?
+					p : null;
+			int period = 0;
+			for (int r = 0; r < resources; r++) {
+				int resourceIndex = resourceIndices[r];
+				receiver.beginResource(resourceIndex, resourceIds[r]);
+				for (; period < resourceEnds[r]; period++) {
+					if (primitive != null) {
+						replayFrom = period == 0 ? 0 : limitEnds[period - 1];
+						replayTo = limitEnds[period];
+						primitive.period(resourceIndex, periodStarts[period], periodEnds[period],
+								continuousLimits[period], this);
+					} else {
+						receiver.period(periodObjects.get(period));
+					}
+				}
+				receiver.endResource();
+			}
+		}
+
+		@Override
+		public int size() {
+			return replayTo - replayFrom;
+		}
+
+		@Override
+		public String getDurationName(int index) {
+			checkIndex(index);
+			return durationNames[replayFrom + index];
+		}
+
+		@Override
+		public float getLimit(int index) {
+			checkIndex(index);
+			return limits[replayFrom + index];
+		}
+
+		private void checkIndex(int index) {
+			if (index < 0 || index >= size()) {
+				throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+			}
+		}
+	}
+}
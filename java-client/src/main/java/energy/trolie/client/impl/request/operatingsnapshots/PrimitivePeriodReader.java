@@ -0,0 +1,197 @@
+package energy.trolie.client.impl.request.operatingsnapshots;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import energy.trolie.client.impl.model.common.IsoInstants;
+import energy.trolie.client.request.operatingsnapshots.EmergencyLimitsAccessor;
+import energy.trolie.client.request.operatingsnapshots.PrimitiveForecastSnapshotReceiver;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * <p>Reads forecast periods straight into primitives for a {@link PrimitiveForecastSnapshotReceiver}.</p>
+ * <p>One instance serves every period of a response and doubles as the flyweight
+ * {@link EmergencyLimitsAccessor}.  Field names are canonicalized by the JSON parser, timestamps are
+ * parsed from its character buffer, and duration names are matched against the ones already seen,
+ * so reading a period from a streaming parser allocates nothing.</p>
+ */
+class PrimitivePeriodReader implements EmergencyLimitsAccessor {
+
+	//duration names beyond this many distinct values are no longer cached
+	private static final int MAX_DURATION_NAMES = 32;
+
+	private final PrimitiveForecastSnapshotReceiver receiver;
+
+	private String[] durationNames = new String[4];
+	private float[] limits = new float[4];
+	private int size;
+
+	private final String[] knownDurationNames = new String[MAX_DURATION_NAMES];
+	private int knownDurationNameCount;
+
+	PrimitivePeriodReader(PrimitiveForecastSnapshotReceiver receiver) {
+		this.receiver = receiver;
+	}
+
+	/**
+	 * Read the period starting at the current START_OBJECT token and hand it to the receiver.
+	 * Leaves the parser on the matching END_OBJECT.
+	 * @param parser parser positioned on the START_OBJECT of a period
+	 * @param resourceIndex index of the current resource
+	 * @throws IOException on malformed content
+	 */
+	void readPeriod(JsonParser parser, int resourceIndex) throws IOException {
+		long periodStart = Long.MIN_VALUE;
+		long periodEnd = Long.MIN_VALUE;
+		float continuousLimit = Float.NaN;
+		size = 0;
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.currentName();
+			parser.nextToken();
+			switch (field) {
+				case "period-start":
+					periodStart = readEpochSeconds(parser);
+					break;
+				case "period-end":
+					periodEnd = readEpochSeconds(parser);
+					break;
+				case "continuous-operating-limit":
+					continuousLimit = readRating(parser);
+					break;
+				case "emergency-operating-limits":
+					readEmergencyLimits(parser);
+					break;
+				default:
+					parser.skipChildren();
+			}
+		}
+		receiver.period(resourceIndex, periodStart, periodEnd, continuousLimit, this);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public String getDurationName(int index) {
+		checkIndex(index);
+		return durationNames[index];
+	}
+
+	@Override
+	public float getLimit(int index) {
+		checkIndex(index);
+		return limits[index];
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+		}
+	}
+
+	private static long readEpochSeconds(JsonParser parser) throws IOException {
+		switch (parser.currentToken()) {
+			case VALUE_STRING:
+				return IsoInstants.parseEpochSeconds(parser.getTextCharacters(), parser.getTextOffset(),
+						parser.getTextLength());
+			case VALUE_NUMBER_INT:
+				return parser.getLongValue();
+			case VALUE_NUMBER_FLOAT:
+				return (long) Math.floor(parser.getDoubleValue());
+			default:
+				parser.skipChildren();
+				return Long.MIN_VALUE;
+		}
+	}
+
+	//takes the first of mva, amps or mw, the power factor accompanying mw is not needed
+	private static float readRating(JsonParser parser) throws IOException {
+		if (parser.currentToken() != JsonToken.START_OBJECT) {
+			parser.skipChildren();
+			return Float.NaN;
+		}
+		float value = Float.NaN;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.currentName();
+			JsonToken token = parser.nextToken();
+			if (Float.isNaN(value) && ("mva".equals(field) || "amps".equals(field) || "mw".equals(field))) {
+				value = readFloat(parser, token);
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return value;
+	}
+
+	private static float readFloat(JsonParser parser, JsonToken token) throws IOException {
+		if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT) {
+			return parser.getFloatValue();
+		} else if (token == JsonToken.VALUE_STRING) {
+			//some implementations quote their numbers
+			return Float.parseFloat(parser.getText().trim());
+		}
+		parser.skipChildren();
+		return Float.NaN;
+	}
+
+	private void readEmergencyLimits(JsonParser parser) throws IOException {
+		if (parser.currentToken() != JsonToken.START_ARRAY) {
+			parser.skipChildren();
+			return;
+		}
+		while (parser.nextToken() == JsonToken.START_OBJECT) {
+			String durationName = null;
+			float limit = Float.NaN;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.currentName();
+				JsonToken token = parser.nextToken();
+				if ("duration-name".equals(field) && token == JsonToken.VALUE_STRING) {
+					durationName = readDurationName(parser);
+				} else if ("limit".equals(field)) {
+					limit = readRating(parser);
+				} else {
+					parser.skipChildren();
+				}
+			}
+			if (size == limits.length) {
+				durationNames = Arrays.copyOf(durationNames, size * 2);
+				limits = Arrays.copyOf(limits, size * 2);
+			}
+			durationNames[size] = durationName;
+			limits[size] = limit;
+			size++;
+		}
+	}
+
+	private String readDurationName(JsonParser parser) throws IOException {
+		char[] text = parser.getTextCharacters();
+		int offset = parser.getTextOffset();
+		int length = parser.getTextLength();
+		for (int i = 0; i < knownDurationNameCount; i++) {
+			if (matches(knownDurationNames[i], text, offset, length)) {
+				return knownDurationNames[i];
+			}
+		}
+		String name = new String(text, offset, length);
+		if (knownDurationNameCount < MAX_DURATION_NAMES) {
+			knownDurationNames[knownDurationNameCount++] = name;
+		}
+		return name;
+	}
+
+	private static boolean matches(String name, char[] text, int offset, int length) {
+		if (name.length() != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (name.charAt(i) != text[offset + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,84 @@
+package energy.trolie.client.impl.request.operatingsnapshots;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonToken;
+import energy.trolie.client.ResourceDictionary;
+import energy.trolie.client.exception.StreamingGetException;
+import energy.trolie.client.impl.model.operatingsnapshots.SnapshotDecoders;
+import energy.trolie.client.impl.request.AbstractAsyncResponseParser;
+import energy.trolie.client.model.operatingsnapshots.RealTimeLimit;
+import energy.trolie.client.model.operatingsnapshots.RealTimeSnapshotHeader;
+import energy.trolie.client.request.operatingsnapshots.RealTimeSnapshotReceiver;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Push-style counterpart of {@link RealTimeSnapshotResponseParser} for the async transport,
+ * invoking the receiver as soon as the header and each limit have arrived.
+ */
+public class RealTimeSnapshotAsyncResponseParser extends AbstractAsyncResponseParser {
+
+	private enum State { ROOT, SNAPSHOT, LIMITS }
+
+	private final RealTimeSnapshotReceiver receiver;
+	private final ResourceDictionary resourceDictionary;
+	private final CaptureHandler limitHandler;
+	private State state = State.ROOT;
+
+	public RealTimeSnapshotAsyncResponseParser(RealTimeSnapshotReceiver receiver,
+											   Consumer<StreamingGetException> errorHandler, JsonFactory jsonFactory,
+											   int bufferSize) throws IOException {
+		this(receiver, errorHandler, jsonFactory, bufferSize, new ResourceDictionary());
+	}
+
+	public RealTimeSnapshotAsyncResponseParser(RealTimeSnapshotReceiver receiver,
+											   Consumer<StreamingGetException> errorHandler, JsonFactory jsonFactory,
+											   int bufferSize, ResourceDictionary resourceDictionary) throws IOException {
+		super(jsonFactory, errorHandler, bufferSize);
+		this.receiver = receiver;
+		this.resourceDictionary = resourceDictionary;
+		this.limitHandler = buffered -> {
+			RealTimeLimit limit = SnapshotDecoders.realTimeLimit(buffered, resourceDictionary);
+			receiver.limit(limit.getResourceId() == null ? -1 : resourceDictionary.indexOf(limit.getResourceId()),
+					limit);
+		};
+	}
+
+	@Override
+	protected void handleToken(JsonToken token) throws IOException {
+		switch (state) {
+			case ROOT:
+				//START_OBJECT snapshot
+				receiver.beginSnapshot();
+				state = State.SNAPSHOT;
+				break;
+			case SNAPSHOT:
+				if (token == JsonToken.END_OBJECT) {
+					receiver.endSnapshot();
+					complete();
+				} else if (token != JsonToken.FIELD_NAME) {
+					if ("snapshot-header".equals(parser.currentName())) {
+						readValue(RealTimeSnapshotHeader.class, header -> {
+							resourceDictionary.seed(header);
+							receiver.header(header);
+						});
+					} else if (token == JsonToken.START_ARRAY) {
+						//like the blocking parser, accept the limits array by position rather than name
+						state = State.LIMITS;
+					} else {
+						skipValue();
+					}
+				}
+				break;
+			case LIMITS:
+				if (token == JsonToken.START_OBJECT) {
+					readBuffered(limitHandler);
+				} else {
+					//END_ARRAY limits
+					state = State.SNAPSHOT;
+				}
+				break;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package energy.trolie.client.impl.request.operatingsnapshots;
+
+import energy.trolie.client.model.operatingsnapshots.RealTimeLimit;
+import energy.trolie.client.model.operatingsnapshots.RealTimeSnapshotHeader;
+import energy.trolie.client.request.operatingsnapshots.RealTimeSnapshotEvent;
+import energy.trolie.client.request.operatingsnapshots.RealTimeSnapshotSubscribedReceiver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Receiver assembling streamed real-time snapshots into {@link RealTimeSnapshotEvent}s.
+ * Incomplete snapshots, cut short by an error, are discarded.
+ */
+public class RealTimeSnapshotEventCollector implements RealTimeSnapshotSubscribedReceiver {
+
+	private final Consumer<RealTimeSnapshotEvent> consumer;
+	private RealTimeSnapshotHeader header;
+	private List<RealTimeLimit> limits;
+
+	public RealTimeSnapshotEventCollector(Consumer<RealTimeSnapshotEvent> consumer) {
+		this.consumer = consumer;
+	}
+
+	@Override
+	public void beginSnapshot() {
+		header = null;
+		limits = new ArrayList<>();
+	}
+
+	@Override
+	public void header(RealTimeSnapshotHeader header) {
+		this.header = header;
+	}
+
+	@Override
+	public void limit(RealTimeLimit limit) {
+		limits.add(limit);
+	}
+
+	@Override
+	public void endSnapshot() {
+		consumer.accept(new RealTimeSnapshotEvent(header, Collections.unmodifiableList(limits)));
+		limits = null;
+	}
+}
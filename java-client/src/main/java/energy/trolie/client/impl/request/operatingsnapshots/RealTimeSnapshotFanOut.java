@@ -0,0 +1,40 @@
+package energy.trolie.client.impl.request.operatingsnapshots;
+
+import energy.trolie.client.impl.request.SubscriptionFanOut;
+import energy.trolie.client.model.operatingsnapshots.RealTimeLimit;
+import energy.trolie.client.model.operatingsnapshots.RealTimeSnapshotHeader;
+import energy.trolie.client.request.operatingsnapshots.RealTimeSnapshotSubscribedReceiver;
+
+/**
+ * Hands each streamed real-time snapshot to all receivers sharing a subscription
+ */
+public class RealTimeSnapshotFanOut extends SubscriptionFanOut<RealTimeSnapshotSubscribedReceiver>
+		implements RealTimeSnapshotSubscribedReceiver {
+
+	@Override
+	public void beginSnapshot() {
+		beginFanOut();
+		fanOut(RealTimeSnapshotSubscribedReceiver::beginSnapshot);
+	}
+
+	@Override
+	public void header(RealTimeSnapshotHeader header) {
+		fanOut(receiver -> receiver.header(header));
+	}
+
+	@Override
+	public void limit(RealTimeLimit limit) {
+		fanOut(receiver -> receiver.limit(limit));
+	}
+
+	@Override
+	public void limit(int resourceIndex, RealTimeLimit limit) {
+		fanOut(receiver -> receiver.limit(resourceIndex, limit));
+	}
+
+	@Override
+	public void endSnapshot() {
+		fanOut(RealTimeSnapshotSubscribedReceiver::endSnapshot);
+		endFanOut();
+	}
+}
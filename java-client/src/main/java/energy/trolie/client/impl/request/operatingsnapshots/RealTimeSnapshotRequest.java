@@ -4,6 +4,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import energy.trolie.client.RequestHeaderProvider;
 import energy.trolie.client.TrolieApiConstants;
 import energy.trolie.client.TrolieHost;
+import energy.trolie.client.impl.ClientExecutor;
+import energy.trolie.client.impl.request.AbstractAsyncResponseParser;
 import energy.trolie.client.impl.request.AbstractStreamingGet;
 import energy.trolie.client.request.operatingsnapshots.RealTimeSnapshotReceiver;
 import org.apache.hc.client5.http.classic.HttpClient;
@@ -11,6 +13,7 @@ import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.core5.net.URIBuilder;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -30,13 +33,14 @@ public class RealTimeSnapshotRequest extends AbstractStreamingGet<RealTimeSnapsh
 			RequestConfig requestConfig,
 			int bufferSize, 
 			ObjectMapper objectMapper,
+			ClientExecutor executor,
 			Map<String, String> httpHeaders,
 			List<RequestHeaderProvider> providers,
 			RealTimeSnapshotReceiver receiver,
 			String monitoringSet,
 			String resourceId) {
 		
-		super(httpClient, host, requestConfig, bufferSize, objectMapper, httpHeaders, providers, receiver);
+		super(httpClient, host, requestConfig, bufferSize, objectMapper, executor, httpHeaders, providers, receiver);
 		this.monitoringSet = monitoringSet;
 		this.resourceId = resourceId;
 	}
@@ -77,8 +81,13 @@ public class RealTimeSnapshotRequest extends AbstractStreamingGet<RealTimeSnapsh
 
 	@Override
 	protected Boolean handleResponseContent(InputStream inputStream) {
-		return new RealTimeSnapshotResponseParser(receiver).parseResponse(inputStream, jsonFactory);
+		return new RealTimeSnapshotResponseParser(receiver, this::reportError, getResourceDictionary()).parseResponse(inputStream, jsonFactory);
+	}
+
+	@Override
+	protected AbstractAsyncResponseParser createAsyncParser() throws IOException {
+		return new RealTimeSnapshotAsyncResponseParser(receiver, this::reportError, jsonFactory, bufferSize,
+				getResourceDictionary());
 	}
 
-	
 }
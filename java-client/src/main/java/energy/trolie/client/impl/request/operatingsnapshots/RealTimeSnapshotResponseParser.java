@@ -3,8 +3,11 @@ package energy.trolie.client.impl.request.operatingsnapshots;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
+import energy.trolie.client.ResourceDictionary;
 import energy.trolie.client.exception.StreamingGetConnectionException;
+import energy.trolie.client.exception.StreamingGetException;
 import energy.trolie.client.exception.StreamingGetHandlingException;
+import energy.trolie.client.impl.model.operatingsnapshots.SnapshotDecoders;
 import energy.trolie.client.model.operatingsnapshots.RealTimeLimit;
 import energy.trolie.client.model.operatingsnapshots.RealTimeSnapshotHeader;
 import energy.trolie.client.request.operatingsnapshots.RealTimeSnapshotReceiver;
@@ -14,6 +17,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.function.Consumer;
 
 /**
  * Implementation for parsing a real-time snapshot response shared between subscribed and on-demand requests
@@ -24,6 +28,14 @@ public class RealTimeSnapshotResponseParser {
 	private static final Logger logger = LoggerFactory.getLogger(RealTimeSnapshotResponseParser.class);
 	
 	RealTimeSnapshotReceiver receiver;
+	//reports errors to the receiver on behalf of the request
+	Consumer<StreamingGetException> errorHandler;
+	//resolves resource IDs to the indices handed to the receiver
+	ResourceDictionary resourceDictionary;
+
+	public RealTimeSnapshotResponseParser(RealTimeSnapshotReceiver receiver, Consumer<StreamingGetException> errorHandler) {
+		this(receiver, errorHandler, new ResourceDictionary());
+	}
 
 	public Boolean parseResponse(InputStream inputStream, JsonFactory jsonFactory) {
 		
@@ -40,6 +52,7 @@ public class RealTimeSnapshotResponseParser {
 			
 			//read header
 			RealTimeSnapshotHeader header = parser.readValueAs(RealTimeSnapshotHeader.class);
+			resourceDictionary.seed(header);
 			receiver.header(header);
 			
 			//FIELD_NAME ratings
@@ -50,8 +63,10 @@ public class RealTimeSnapshotResponseParser {
 			//for each limit
 			while (parser.nextToken() == JsonToken.START_OBJECT ) {
 				
-				RealTimeLimit limit = parser.readValueAs(RealTimeLimit.class);
-				receiver.limit(limit);
+				RealTimeLimit limit = SnapshotDecoders.realTimeLimit(parser, resourceDictionary);
+				//the ID is the dictionary's own instance, so this lookup does not compare characters
+				receiver.limit(limit.getResourceId() == null ? -1 : resourceDictionary.indexOf(limit.getResourceId()),
+						limit);
 				
 			}
 			//exit loop on END_ARRAY limits
@@ -61,10 +76,10 @@ public class RealTimeSnapshotResponseParser {
 			
 		} catch (IOException e) {
 			logger.error("I/O error handling response",e);
-			receiver.error(new StreamingGetConnectionException(e));
+			errorHandler.accept(new StreamingGetConnectionException(e));
 		} catch (Exception e) {
 			logger.error("Error handling response data",e);
-			receiver.error(new StreamingGetHandlingException(e));
+			errorHandler.accept(new StreamingGetHandlingException(e));
 		}
 
 		return false;
@@ -5,6 +5,8 @@ import energy.trolie.client.ETagStore;
 import energy.trolie.client.RequestHeaderProvider;
 import energy.trolie.client.TrolieApiConstants;
 import energy.trolie.client.TrolieHost;
+import energy.trolie.client.impl.ClientExecutor;
+import energy.trolie.client.impl.request.AbstractAsyncResponseParser;
 import energy.trolie.client.impl.request.AbstractStreamingSubscribedGet;
 import energy.trolie.client.request.operatingsnapshots.RealTimeSnapshotSubscribedReceiver;
 import org.apache.hc.client5.http.classic.HttpClient;
@@ -12,6 +14,7 @@ import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.core5.net.URIBuilder;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -31,6 +34,7 @@ public class RealTimeSnapshotSubscribedRequest extends AbstractStreamingSubscrib
 			RequestConfig requestConfig,
 			int bufferSize, 
 			ObjectMapper objectMapper,
+			ClientExecutor executor,
 			Map<String, String> httpHeaders,
 			List<RequestHeaderProvider> providers,
 			int pollingRateMillis,
@@ -39,7 +43,7 @@ public class RealTimeSnapshotSubscribedRequest extends AbstractStreamingSubscrib
 			String monitoringSet,
 			String resourceId) {
 		
-		super(httpClient, host, requestConfig, bufferSize, objectMapper, httpHeaders, providers,
+		super(httpClient, host, requestConfig, bufferSize, objectMapper, executor, httpHeaders, providers,
 				pollingRateMillis, receiver, eTagStore);
 		this.monitoringSet = monitoringSet;
 		this.resourceId = resourceId;
@@ -82,8 +86,14 @@ public class RealTimeSnapshotSubscribedRequest extends AbstractStreamingSubscrib
 	@Override
 	protected Boolean handleResponseContent(InputStream inputStream) {
 		
-		return new RealTimeSnapshotResponseParser(receiver).parseResponse(inputStream, jsonFactory);
+		return new RealTimeSnapshotResponseParser(receiver, this::reportError, getResourceDictionary()).parseResponse(inputStream, jsonFactory);
 		
 	}
-	
+
+	@Override
+	protected AbstractAsyncResponseParser createAsyncParser() throws IOException {
+		return new RealTimeSnapshotAsyncResponseParser(receiver, this::reportError, jsonFactory, bufferSize,
+				getResourceDictionary());
+	}
+
 }
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import energy.trolie.client.RequestHeaderProvider;
 import energy.trolie.client.TrolieApiConstants;
 import energy.trolie.client.TrolieHost;
+import energy.trolie.client.impl.ClientExecutor;
 import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotReceiver;
 import org.apache.hc.client5.http.classic.HttpClient;
 import org.apache.hc.client5.http.config.RequestConfig;
@@ -23,6 +24,7 @@ public class RegionalForecastSnapshotRequest extends ForecastSnapshotRequest {
 			RequestConfig requestConfig,
 			int bufferSize, 
 			ObjectMapper objectMapper,
+			ClientExecutor executor,
 			Map<String, String> httpHeaders,
 			List<RequestHeaderProvider> providers,
 			ForecastSnapshotReceiver receiver,
@@ -31,7 +33,7 @@ public class RegionalForecastSnapshotRequest extends ForecastSnapshotRequest {
 			Instant offsetPeriodStart,
 			Instant periodEnd) {
 		
-		super(httpClient, host, requestConfig, bufferSize, objectMapper, httpHeaders, providers, receiver,
+		super(httpClient, host, requestConfig, bufferSize, objectMapper, executor, httpHeaders, providers, receiver,
 				monitoringSet, resourceId, offsetPeriodStart, periodEnd);
 	}
 
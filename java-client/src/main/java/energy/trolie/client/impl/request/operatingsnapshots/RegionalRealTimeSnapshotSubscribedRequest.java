@@ -5,6 +5,7 @@ import energy.trolie.client.ETagStore;
 import energy.trolie.client.RequestHeaderProvider;
 import energy.trolie.client.TrolieApiConstants;
 import energy.trolie.client.TrolieHost;
+import energy.trolie.client.impl.ClientExecutor;
 import energy.trolie.client.request.operatingsnapshots.RealTimeSnapshotSubscribedReceiver;
 import org.apache.hc.client5.http.classic.HttpClient;
 import org.apache.hc.client5.http.config.RequestConfig;
@@ -23,6 +24,7 @@ public class RegionalRealTimeSnapshotSubscribedRequest extends RealTimeSnapshotS
             RequestConfig requestConfig,
             int bufferSize,
             ObjectMapper objectMapper,
+            ClientExecutor executor,
             Map<String, String> httpHeaders,
             List<RequestHeaderProvider> providers,
             int pollingRateMillis,
@@ -30,7 +32,7 @@ public class RegionalRealTimeSnapshotSubscribedRequest extends RealTimeSnapshotS
             ETagStore eTagStore,
             String monitoringSet) {
 
-        super(httpClient, host, requestConfig, bufferSize, objectMapper, httpHeaders, providers, pollingRateMillis, receiver,
+        super(httpClient, host, requestConfig, bufferSize, objectMapper, executor, httpHeaders, providers, pollingRateMillis, receiver,
                 eTagStore, monitoringSet, null);
     }
 
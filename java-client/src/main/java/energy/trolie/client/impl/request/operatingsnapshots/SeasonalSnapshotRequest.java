@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import energy.trolie.client.RequestHeaderProvider;
 import energy.trolie.client.TrolieApiConstants;
 import energy.trolie.client.TrolieHost;
+import energy.trolie.client.impl.ClientExecutor;
 import energy.trolie.client.impl.request.AbstractStreamingGet;
 import energy.trolie.client.request.operatingsnapshots.SeasonalSnapshotReceiver;
 import org.apache.hc.client5.http.classic.HttpClient;
@@ -30,13 +31,14 @@ public class SeasonalSnapshotRequest extends AbstractStreamingGet<SeasonalSnapsh
 			RequestConfig requestConfig,
 			int bufferSize, 
 			ObjectMapper objectMapper,
+			ClientExecutor executor,
 			Map<String, String> httpHeaders,
 			List<RequestHeaderProvider> providers,
 			SeasonalSnapshotReceiver receiver, // seasonal
 			String monitoringSet,
 			String resourceId) {
 		
-		super(httpClient, host, requestConfig, bufferSize, objectMapper, httpHeaders, providers, receiver);
+		super(httpClient, host, requestConfig, bufferSize, objectMapper, executor, httpHeaders, providers, receiver);
 		this.monitoringSet = monitoringSet;
 		this.resourceId = resourceId;
 	}
@@ -74,7 +76,7 @@ public class SeasonalSnapshotRequest extends AbstractStreamingGet<SeasonalSnapsh
 
 	@Override
 	protected Boolean handleResponseContent(InputStream inputStream) {
-		return new SeasonalSnapshotResponseParser(receiver).parseResponse(inputStream, jsonFactory);
+		return new SeasonalSnapshotResponseParser(receiver, this::reportError, getResourceDictionary()).parseResponse(inputStream, jsonFactory);
 	}
 
 	
@@ -3,8 +3,11 @@ package energy.trolie.client.impl.request.operatingsnapshots;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
+import energy.trolie.client.ResourceDictionary;
 import energy.trolie.client.exception.StreamingGetConnectionException;
+import energy.trolie.client.exception.StreamingGetException;
 import energy.trolie.client.exception.StreamingGetHandlingException;
+import energy.trolie.client.impl.model.operatingsnapshots.SnapshotDecoders;
 import energy.trolie.client.model.operatingsnapshots.SeasonalPeriodSnapshot;
 import energy.trolie.client.model.operatingsnapshots.SeasonalSnapshotHeader;
 import energy.trolie.client.request.operatingsnapshots.SeasonalSnapshotReceiver;
@@ -14,6 +17,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.function.Consumer;
 
 /**
  * Implementation for parsing a seasonal snapshot response shared between subscribed and on-demand requests
@@ -24,6 +28,14 @@ public class SeasonalSnapshotResponseParser {
 	private static final Logger logger = LoggerFactory.getLogger(SeasonalSnapshotResponseParser.class);
 	
 	SeasonalSnapshotReceiver receiver;
+	//reports errors to the receiver on behalf of the request
+	Consumer<StreamingGetException> errorHandler;
+	//resolves resource IDs to the indices handed to the receiver
+	ResourceDictionary resourceDictionary;
+
+	public SeasonalSnapshotResponseParser(SeasonalSnapshotReceiver receiver, Consumer<StreamingGetException> errorHandler) {
+		this(receiver, errorHandler, new ResourceDictionary());
+	}
 
 	public Boolean parseResponse(InputStream inputStream, JsonFactory jsonFactory) {
 		
@@ -40,6 +52,7 @@ public class SeasonalSnapshotResponseParser {
 			
 			//read header
 			SeasonalSnapshotHeader header = parser.readValueAs(SeasonalSnapshotHeader.class);
+			resourceDictionary.seed(header);
 			receiver.header(header);
 			
 			//FIELD_NAME ratings
@@ -55,8 +68,9 @@ public class SeasonalSnapshotResponseParser {
 				//resource-id
 				parser.nextToken();
 				
-				String id = parser.getValueAsString();
-				receiver.beginResource(id);
+				int resourceIndex = SnapshotDecoders.resourceIndex(parser, resourceDictionary);
+				receiver.beginResource(resourceIndex,
+						resourceIndex < 0 ? null : resourceDictionary.getResourceId(resourceIndex));
 
 				//FIELD_NAME periods
 				parser.nextToken();
@@ -65,7 +79,7 @@ public class SeasonalSnapshotResponseParser {
 				
 				//for each period
 				while (parser.nextToken() == JsonToken.START_OBJECT ) {
-					SeasonalPeriodSnapshot period = parser.readValueAs(SeasonalPeriodSnapshot.class);
+					SeasonalPeriodSnapshot period = SnapshotDecoders.seasonalPeriod(parser);
 					receiver.period(period);
 				}
 				//exit loop on END_ARRAY periods
@@ -84,10 +98,10 @@ public class SeasonalSnapshotResponseParser {
 
 		} catch (IOException e) {
 			logger.error("I/O error handling response",e);
-			receiver.error(new StreamingGetConnectionException(e));
+			errorHandler.accept(new StreamingGetConnectionException(e));
 		} catch (Exception e) {
 			logger.error("Error handling response data",e);
-			receiver.error(new StreamingGetHandlingException(e));
+			errorHandler.accept(new StreamingGetHandlingException(e));
 		}
 
 		return false;
@@ -5,6 +5,7 @@ import energy.trolie.client.ETagStore;
 import energy.trolie.client.RequestHeaderProvider;
 import energy.trolie.client.TrolieApiConstants;
 import energy.trolie.client.TrolieHost;
+import energy.trolie.client.impl.ClientExecutor;
 import energy.trolie.client.impl.request.AbstractStreamingSubscribedGet;
 import energy.trolie.client.request.operatingsnapshots.SeasonalSnapshotSubscribedReceiver;
 import org.apache.hc.client5.http.classic.HttpClient;
@@ -30,6 +31,7 @@ public class SeasonalSnapshotSubscribedRequest extends AbstractStreamingSubscrib
 			RequestConfig requestConfig,
 			int bufferSize, 
 			ObjectMapper objectMapper,
+			ClientExecutor executor,
 			Map<String, String> httpHeaders,
 			List<RequestHeaderProvider> providers,
 			int pollingRateMillis,
@@ -37,7 +39,7 @@ public class SeasonalSnapshotSubscribedRequest extends AbstractStreamingSubscrib
 			ETagStore eTagStore,
 			String monitoringSet) {
 		
-		super(httpClient, host, requestConfig, bufferSize, objectMapper, httpHeaders, providers, pollingRateMillis,
+		super(httpClient, host, requestConfig, bufferSize, objectMapper, executor, httpHeaders, providers, pollingRateMillis,
 				receiver, eTagStore);
 		this.monitoringSet = monitoringSet;
 	}
@@ -71,7 +73,7 @@ public class SeasonalSnapshotSubscribedRequest extends AbstractStreamingSubscrib
 	@Override
 	protected Boolean handleResponseContent(InputStream inputStream) {
 		
-		return new SeasonalSnapshotResponseParser(receiver).parseResponse(inputStream, jsonFactory);
+		return new SeasonalSnapshotResponseParser(receiver, this::reportError, getResourceDictionary()).parseResponse(inputStream, jsonFactory);
 		
 	}
 	
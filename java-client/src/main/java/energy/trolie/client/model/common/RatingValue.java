@@ -5,11 +5,11 @@ import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import energy.trolie.client.impl.model.common.RatingValueDeserializer;
 import energy.trolie.client.impl.model.common.RatingValueSerializer;
 import lombok.EqualsAndHashCode;
-import lombok.Getter;
 import lombok.ToString;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -21,21 +21,52 @@ import java.util.Map;
  * However, if this is not the case, the rating units are introspectable.
  * Clients may wish to write defensive code as appropriate to the actual units
  * of a given exchange.  </p>
+ * <p>Values in one of the units known to the SDK are held as primitive floats tagged with their
+ * {@link RatingUnits}, so snapshots with many periods do not allocate a map per value.
+ * {@link #getValue()} and {@link #getPowerFactor()} read them without boxing.</p>
  */
 @JsonSerialize(using = RatingValueSerializer.class)
 @JsonDeserialize(using = RatingValueDeserializer.class)
-@ToString
-@EqualsAndHashCode
-@Getter
+@ToString(exclude = "values")
+@EqualsAndHashCode(exclude = "values")
 public class RatingValue {
 
     /**
-     * Gets the raw value of the rating as would be marshalled to JSON.
+     * Units of {@link #value}, or null if the value is only held as {@link #mappedJson}
+     */
+    private final RatingUnits units;
+
+    /**
+     * Rating in MVA, amps or MW, depending on the units
+     */
+    private final float value;
+
+    /**
+     * Power factor accompanying a MW rating
+     */
+    private final float powerFactor;
+
+    /**
+     * Raw JSON content that does not match any of the known units
      */
-    private final Map<String,Float> values;
+    private final Map<String,Float> mappedJson;
 
-    private RatingValue(Map<String,Float> values) {
-        this.values = values;
+    //lazily built view of the raw JSON, immutable and thus safe to publish racily
+    private Map<String,Float> values;
+
+    private RatingValue(RatingUnits units, float value, float powerFactor) {
+        this.units = units;
+        this.value = value;
+        this.powerFactor = powerFactor;
+        this.mappedJson = null;
+    }
+
+    private RatingValue(Map<String,Float> mappedJson) {
+        this.units = null;
+        this.value = Float.NaN;
+        this.powerFactor = Float.NaN;
+        //copied so later changes to the caller's map cannot reach this value
+        this.mappedJson = Collections.unmodifiableMap(new LinkedHashMap<>(mappedJson));
     }
 
     // Constructors.
@@ -46,6 +77,22 @@ public class RatingValue {
      * @return new instance
      */
     public static RatingValue ofMappedJson(Map<String,Float> values) {
+        if (values.size() == 1) {
+            Float mva = values.get(RatingUnits.MVA.getJsonValue());
+            if (mva != null) {
+                return fromMva(mva);
+            }
+            Float amps = values.get(RatingUnits.AMPS.getJsonValue());
+            if (amps != null) {
+                return fromAmps(amps);
+            }
+        } else if (values.size() == 2) {
+            Float mw = values.get(RatingUnits.MW.getJsonValue());
+            Float pf = values.get(RatingUnits.PF.getJsonValue());
+            if (mw != null && pf != null) {
+                return fromMwAndPf(mw, pf);
+            }
+        }
         return new RatingValue(values);
     }
 
@@ -55,9 +102,7 @@ public class RatingValue {
      * @return new instance
      */
     public static RatingValue fromMva(float mva) {
-        return new RatingValue(Collections.singletonMap(
-                RatingUnits.MVA.getJsonValue(), mva)
-        );
+        return new RatingValue(RatingUnits.MVA, mva, Float.NaN);
     }
 
     /**
@@ -66,9 +111,7 @@ public class RatingValue {
      * @return new instance
      */
     public static RatingValue fromAmps(float amps) {
-        return new RatingValue(Collections.singletonMap(
-                RatingUnits.AMPS.getJsonValue(), amps)
-        );
+        return new RatingValue(RatingUnits.AMPS, amps, Float.NaN);
     }
 
     /**
@@ -78,10 +121,34 @@ public class RatingValue {
      * @return new instance
      */
     public static RatingValue fromMwAndPf(float mw, float pf) {
-        return new RatingValue(Map.of(
-                RatingUnits.MW.getJsonValue(), mw,
-                RatingUnits.PF.getJsonValue(), pf
-        ));
+        return new RatingValue(RatingUnits.MWandPF, mw, pf);
+    }
+
+    /**
+     * Gets the raw value of the rating as would be marshalled to JSON.
+     * @return unmodifiable map from JSON field names to values
+     */
+    public Map<String,Float> getValues() {
+        Map<String,Float> view = values;
+        if (view == null) {
+            view = units == null ? mappedJson : switch (units) {
+                case MVA, AMPS -> Collections.singletonMap(units.getJsonValue(), value);
+                default -> Map.of(
+                        RatingUnits.MW.getJsonValue(), value,
+                        RatingUnits.PF.getJsonValue(), powerFactor);
+            };
+            values = view;
+        }
+        return view;
+    }
+
+    /**
+     * Whether this value is held as primitive floats
+     * @return true if the value has exactly the fields of one of the known {@link RatingUnits},
+     * false if it is only available as raw JSON through {@link #getValues()}.
+     */
+    public boolean isCompact() {
+        return units != null;
     }
 
     /**
@@ -90,24 +157,61 @@ public class RatingValue {
      * Will return null if the units are unknown to the SDK.
      */
     public RatingUnits getUnits() {
-        if(values.containsKey(RatingUnits.MVA.getJsonValue())) {
+        if (units != null) {
+            return units;
+        }
+        if(mappedJson.containsKey(RatingUnits.MVA.getJsonValue())) {
             return RatingUnits.MVA;
-        } else if (values.containsKey(RatingUnits.AMPS.getJsonValue())) {
+        } else if (mappedJson.containsKey(RatingUnits.AMPS.getJsonValue())) {
             return RatingUnits.AMPS;
-        } else if (values.containsKey(RatingUnits.PF.getJsonValue()) &&
-                   values.containsKey(RatingUnits.MW.getJsonValue())) {
+        } else if (mappedJson.containsKey(RatingUnits.PF.getJsonValue()) &&
+                   mappedJson.containsKey(RatingUnits.MW.getJsonValue())) {
             return RatingUnits.MWandPF;
         }
         return null;
     }
 
+    /**
+     * Gets the rating without boxing
+     * @return the rating in MVA, amps or MW, as given by {@link #getUnits()}.
+     * Returns NaN if the units are unknown to the SDK.
+     */
+    public float getValue() {
+        if (units != null) {
+            return value;
+        }
+        RatingUnits mappedUnits = getUnits();
+        if (mappedUnits == null) {
+            return Float.NaN;
+        }
+        Float mapped = mappedJson.get(mappedUnits == RatingUnits.MWandPF ?
+                RatingUnits.MW.getJsonValue() : mappedUnits.getJsonValue());
+        return mapped == null ? Float.NaN : mapped;
+    }
+
+    /**
+     * Gets the power factor without boxing
+     * @return the power factor if the units are {@link RatingUnits#MWandPF}.
+     * Otherwise, returns NaN.
+     */
+    public float getPowerFactor() {
+        if (units != null || getUnits() != RatingUnits.MWandPF) {
+            return powerFactor;
+        }
+        Float pf = mappedJson.get(RatingUnits.PF.getJsonValue());
+        return pf == null ? Float.NaN : pf;
+    }
+
     /**
      * Gets the rating in MVA
      * @return returns the rating in MVA if that is the units.
      * Otherwise, returns null.
      */
     public Float getMVA() {
-        return values.get(RatingUnits.MVA.getJsonValue());
+        if (units != null) {
+            return units == RatingUnits.MVA ? value : null;
+        }
+        return mappedJson.get(RatingUnits.MVA.getJsonValue());
     }
 
     /**
@@ -116,7 +220,10 @@ public class RatingValue {
      * Otherwise, returns null.
      */
     public Float getAMPS() {
-        return values.get(RatingUnits.AMPS.getJsonValue());
+        if (units != null) {
+            return units == RatingUnits.AMPS ? value : null;
+        }
+        return mappedJson.get(RatingUnits.AMPS.getJsonValue());
     }
 
     /**
@@ -125,8 +232,11 @@ public class RatingValue {
      * Otherwise, returns null.
      */
     public Pair<Float,Float> getMWAndPF() {
-        var mw = values.get(RatingUnits.MW.getJsonValue());
-        var pf = values.get(RatingUnits.PF.getJsonValue());
+        if (units != null) {
+            return units == RatingUnits.MWandPF ? Pair.of(value, powerFactor) : null;
+        }
+        var mw = mappedJson.get(RatingUnits.MW.getJsonValue());
+        var pf = mappedJson.get(RatingUnits.PF.getJsonValue());
         if(mw == null || pf == null) {
             return null;
         } else {
@@ -0,0 +1,58 @@
+package energy.trolie.client.request.operatingsnapshots;
+
+import energy.trolie.client.StreamingSubscribedResponseReceiver;
+import energy.trolie.client.exception.StreamingGetException;
+import energy.trolie.client.model.operatingsnapshots.ForecastSnapshotHeader;
+
+/**
+ * <p>Receiver of the differences between consecutive forecast snapshots, rather than their full content.</p>
+ * <p>Subscribe a {@link ForecastSnapshotDeltaTracker} wrapping this receiver.  Periods are identified by their
+ * resource index in the client's {@link energy.trolie.client.ResourceDictionary} and their start.  The first
+ * snapshot reports every period as added.  Periods whose limits are unchanged are not reported at all.</p>
+ * <p>The current request handling can be terminated in any of these methods by throwing an exception.
+ * Errors originating from the subscriber thread will be sent to {@link #error(StreamingGetException)}</p>
+ */
+public interface DeltaForecastSnapshotReceiver extends StreamingSubscribedResponseReceiver {
+
+    /**
+     * Invoked when a new snapshot has been received, before any of its differences
+     * @param header header of the new snapshot
+     */
+    void beginDelta(ForecastSnapshotHeader header);
+
+    /**
+     * Invoked for a period that was not in the previous snapshot
+     * @param resourceIndex index of the resource in the client's {@link energy.trolie.client.ResourceDictionary}
+     * @param periodStart start of the period in seconds since the epoch
+     * @param periodEnd end of the period in seconds since the epoch
+     * @param continuousLimit continuous operating limit
+     * @param emergencyLimits emergency operating limits of the period.  Only valid during this call.
+     */
+    void added(int resourceIndex, long periodStart, long periodEnd, float continuousLimit,
+               EmergencyLimitsAccessor emergencyLimits);
+
+    /**
+     * Invoked for a period whose end or limits differ from the previous snapshot
+     * @param resourceIndex index of the resource in the client's {@link energy.trolie.client.ResourceDictionary}
+     * @param periodStart start of the period in seconds since the epoch
+     * @param periodEnd end of the period in seconds since the epoch
+     * @param continuousLimit new continuous operating limit
+     * @param emergencyLimits new emergency operating limits of the period.  Only valid during this call.
+     */
+    void changed(int resourceIndex, long periodStart, long periodEnd, float continuousLimit,
+                 EmergencyLimitsAccessor emergencyLimits);
+
+    /**
+     * Invoked for a period of the previous snapshot that is missing from the new one
+     * @param resourceIndex index of the resource in the client's {@link energy.trolie.client.ResourceDictionary}
+     * @param periodStart start of the period in seconds since the epoch
+     * @param periodEnd end of the period in seconds since the epoch
+     */
+    void removed(int resourceIndex, long periodStart, long periodEnd);
+
+    /**
+     * Invoked once all differences of the snapshot have been reported.
+     */
+    void endDelta();
+
+}
@@ -0,0 +1,51 @@
+package energy.trolie.client.request.operatingsnapshots;
+
+import energy.trolie.client.StreamingSubscribedResponseReceiver;
+import energy.trolie.client.exception.StreamingGetException;
+import energy.trolie.client.model.operatingsnapshots.RealTimeLimit;
+import energy.trolie.client.model.operatingsnapshots.RealTimeSnapshotHeader;
+
+/**
+ * <p>Receiver of the differences between consecutive real-time snapshots, rather than their full content.</p>
+ * <p>Subscribe a {@link RealTimeSnapshotDeltaTracker} wrapping this receiver.  Limits are identified by the
+ * index of their resource in the client's {@link energy.trolie.client.ResourceDictionary}.  The first
+ * snapshot reports every limit as added.  Limits that are unchanged are not reported at all.</p>
+ * <p>The current request handling can be terminated in any of these methods by throwing an exception.
+ * Errors originating from the subscriber thread will be sent to {@link #error(StreamingGetException)}</p>
+ */
+public interface DeltaRealTimeSnapshotReceiver extends StreamingSubscribedResponseReceiver {
+
+    /**
+     * Invoked when a new snapshot has been received, before any of its differences
+     * @param header header of the new snapshot
+     */
+    void beginDelta(RealTimeSnapshotHeader header);
+
+    /**
+     * Invoked for a resource that had no limits in the previous snapshot
+     * @param resourceIndex index of the resource in the client's {@link energy.trolie.client.ResourceDictionary}
+     * @param limit new limits
+     */
+    void added(int resourceIndex, RealTimeLimit limit);
+
+    /**
+     * Invoked for a resource whose limits differ from the previous snapshot
+     * @param resourceIndex index of the resource in the client's {@link energy.trolie.client.ResourceDictionary}
+     * @param previous limits of the previous snapshot
+     * @param limit new limits
+     */
+    void changed(int resourceIndex, RealTimeLimit previous, RealTimeLimit limit);
+
+    /**
+     * Invoked for a resource of the previous snapshot that is missing from the new one
+     * @param resourceIndex index of the resource in the client's {@link energy.trolie.client.ResourceDictionary}
+     * @param previous limits of the previous snapshot
+     */
+    void removed(int resourceIndex, RealTimeLimit previous);
+
+    /**
+     * Invoked once all differences of the snapshot have been reported.
+     */
+    void endDelta();
+
+}
@@ -0,0 +1,30 @@
+package energy.trolie.client.request.operatingsnapshots;
+
+/**
+ * Flyweight view of the emergency limits of one forecast period, handed to
+ * {@link PrimitiveForecastSnapshotReceiver#period(int, long, long, float, EmergencyLimitsAccessor)}.
+ * The same instance is reused for every period, so its content is only valid for the duration of that call.
+ */
+public interface EmergencyLimitsAccessor {
+
+    /**
+     *
+     * @return number of emergency limits in the current period
+     */
+    int size();
+
+    /**
+     *
+     * @param index index of the limit, from zero to {@link #size()} exclusive
+     * @return name of the duration of the limit, such as "lte".  Instances are shared between periods.
+     */
+    String getDurationName(int index);
+
+    /**
+     *
+     * @param index index of the limit, from zero to {@link #size()} exclusive
+     * @return the limit in the units used by the exchange, or NaN if it was not given
+     */
+    float getLimit(int index);
+
+}
@@ -0,0 +1,304 @@
+package energy.trolie.client.request.operatingsnapshots;
+
+import energy.trolie.client.RequestSubscription;
+import energy.trolie.client.exception.StreamingGetException;
+import energy.trolie.client.model.operatingsnapshots.ForecastSnapshotHeader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Receiver comparing each forecast snapshot with the previous one while it streams, and only
+ * reporting the periods that were added, changed or removed to a {@link DeltaForecastSnapshotReceiver}.</p>
+ * <p>The previous snapshot is kept as primitive arrays per resource, indexed by the resource index in the
+ * client's {@link energy.trolie.client.ResourceDictionary}.  Resources whose periods are unchanged keep their
+ * arrays, so a snapshot that changes little allocates little.  Periods are matched by their start, and are
+ * expected, though not required, to arrive in the same order in every snapshot.</p>
+ * <p>The state of a resource is updated as soon as its differences have been reported.  If a snapshot fails,
+ * the differences already reported are kept, and resources missing from the incomplete snapshot are not
+ * reported as removed.  Use with
+ * {@link energy.trolie.client.TrolieClient#subscribeToInUseLimitForecastUpdates(ForecastSnapshotSubscribedReceiver)}.</p>
+ */
+public class ForecastSnapshotDeltaTracker implements PrimitiveForecastSnapshotSubscribedReceiver {
+
+	private final DeltaForecastSnapshotReceiver delta;
+	//duration names of all snapshots, emergency limits are stored by their index in this list
+	private final List<String> durationNames = new ArrayList<>();
+
+	private Periods[] previous = new Periods[16];
+	private int[] seenInGeneration = new int[16];
+	private int generation;
+	private boolean receiving;
+
+	//resource being compared, only touched by the request handling thread
+	private int resourceIndex = -1;
+	private Periods old;
+	private boolean[] matched = new boolean[16];
+	private int cursor;
+	private boolean modified;
+	private final PeriodsBuilder current = new PeriodsBuilder();
+
+	/**
+	 * Create a tracker
+	 * @param delta receiver of the differences
+	 */
+	public ForecastSnapshotDeltaTracker(DeltaForecastSnapshotReceiver delta) {
+		this.delta = delta;
+	}
+
+	@Override
+	public void setSubscription(RequestSubscription subscription) {
+		delta.setSubscription(subscription);
+	}
+
+	@Override
+	public void beginSnapshot() {
+		generation++;
+		receiving = false;
+		resourceIndex = -1;
+	}
+
+	@Override
+	public void header(ForecastSnapshotHeader header) {
+		receiving = true;
+		delta.beginDelta(header);
+	}
+
+	@Override
+	public void beginResource(String resourceId) {
+		//resources are tracked by the index given to beginResource(int, String)
+	}
+
+	@Override
+	public void beginResource(int resourceIndex, String resourceId) {
+		if (!receiving || resourceIndex < 0) {
+			this.resourceIndex = -1;
+			return;
+		}
+		ensureCapacity(resourceIndex + 1);
+		this.resourceIndex = resourceIndex;
+		seenInGeneration[resourceIndex] = generation;
+		old = previous[resourceIndex];
+		if (old != null) {
+			if (matched.length < old.size) {
+				matched = new boolean[Math.max(old.size, matched.length * 2)];
+			}
+			Arrays.fill(matched, 0, old.size, false);
+		}
+		cursor = 0;
+		modified = false;
+		current.reset();
+	}
+
+	@Override
+	public void period(int resourceIndex, long periodStart, long periodEnd, float continuousLimit,
+					   EmergencyLimitsAccessor emergencyLimits) {
+		if (this.resourceIndex < 0 || resourceIndex != this.resourceIndex) {
+			return;
+		}
+		int added = current.add(periodStart, periodEnd, continuousLimit, emergencyLimits);
+		int match = old == null ? -1 : find(periodStart);
+		if (match < 0) {
+			modified = true;
+			delta.added(resourceIndex, periodStart, periodEnd, continuousLimit, emergencyLimits);
+		} else {
+			matched[match] = true;
+			cursor = match + 1;
+			if (!old.samePeriod(match, current, added)) {
+				modified = true;
+				delta.changed(resourceIndex, periodStart, periodEnd, continuousLimit, emergencyLimits);
+			}
+		}
+	}
+
+	@Override
+	public void endResource() {
+		if (resourceIndex < 0) {
+			return;
+		}
+		if (old != null) {
+			for (int i = 0; i < old.size; i++) {
+				if (!matched[i]) {
+					modified = true;
+					delta.removed(resourceIndex, old.starts[i], old.ends[i]);
+				}
+			}
+		}
+		if (modified) {
+			previous[resourceIndex] = current.build();
+		}
+		resourceIndex = -1;
+		old = null;
+	}
+
+	@Override
+	public void endSnapshot() {
+		if (!receiving) {
+			return;
+		}
+		for (int i = 0; i < previous.length; i++) {
+			Periods periods = previous[i];
+			if (periods != null && seenInGeneration[i] != generation) {
+				for (int p = 0; p < periods.size; p++) {
+					delta.removed(i, periods.starts[p], periods.ends[p]);
+				}
+				previous[i] = null;
+			}
+		}
+		receiving = false;
+		delta.endDelta();
+	}
+
+	@Override
+	public void error(StreamingGetException t) {
+		receiving = false;
+		resourceIndex = -1;
+		old = null;
+		delta.error(t);
+	}
+
+	/**
+	 * Find the unmatched period of the previous snapshot with the given start, looking
+	 * after the last match first as periods usually arrive in the same order.
+	 */
+	private int find(long periodStart) {
+		for (int i = cursor; i < old.size; i++) {
+			if (old.starts[i] == periodStart && !matched[i]) {
+				return i;
+			}
+		}
+		for (int i = 0; i < cursor && i < old.size; i++) {
+			if (old.starts[i] == periodStart && !matched[i]) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > previous.length) {
+			int grown = Math.max(capacity, previous.length + (previous.length >> 1));
+			previous = Arrays.copyOf(previous, grown);
+			seenInGeneration = Arrays.copyOf(seenInGeneration, grown);
+		}
+	}
+
+	private int durationId(String name) {
+		//names are shared by the parser, so identity usually matches first
+		for (int i = 0; i < durationNames.size(); i++) {
+			if (durationNames.get(i) == name) {
+				return i;
+			}
+		}
+		int id = durationNames.indexOf(name);
+		if (id < 0) {
+			id = durationNames.size();
+			durationNames.add(name);
+		}
+		return id;
+	}
+
+	/**
+	 * Periods of one resource.  Emergency limits of period {@code i} are stored from
+	 * {@code emergencyEnds[i - 1]}, or zero, to {@code emergencyEnds[i]}.
+	 */
+	private static class Periods {
+
+		int size;
+		long[] starts;
+		long[] ends;
+		float[] continuous;
+		int[] emergencyEnds;
+		int[] durationIds;
+		float[] emergency;
+
+		int emergencyStart(int period) {
+			return period == 0 ? 0 : emergencyEnds[period - 1];
+		}
+
+		/**
+		 * Compare a period with one of another set of periods with the same start
+		 */
+		boolean samePeriod(int period, Periods other, int otherPeriod) {
+			if (ends[period] != other.ends[otherPeriod]
+					|| Float.floatToIntBits(continuous[period]) != Float.floatToIntBits(other.continuous[otherPeriod])) {
+				return false;
+			}
+			int from = emergencyStart(period);
+			int otherFrom = other.emergencyStart(otherPeriod);
+			int count = emergencyEnds[period] - from;
+			if (count != other.emergencyEnds[otherPeriod] - otherFrom) {
+				return false;
+			}
+			for (int i = 0; i < count; i++) {
+				if (durationIds[from + i] != other.durationIds[otherFrom + i]
+						|| Float.floatToIntBits(emergency[from + i])
+						!= Float.floatToIntBits(other.emergency[otherFrom + i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Reusable buffer collecting the periods of the current resource
+	 */
+	private class PeriodsBuilder extends Periods {
+
+		int emergencySize;
+
+		PeriodsBuilder() {
+			starts = new long[32];
+			ends = new long[32];
+			continuous = new float[32];
+			emergencyEnds = new int[32];
+			durationIds = new int[64];
+			emergency = new float[64];
+		}
+
+		void reset() {
+			size = 0;
+			emergencySize = 0;
+		}
+
+		int add(long start, long end, float continuousLimit, EmergencyLimitsAccessor emergencyLimits) {
+			if (size == starts.length) {
+				int grown = size * 2;
+				starts = Arrays.copyOf(starts, grown);
+				ends = Arrays.copyOf(ends, grown);
+				continuous = Arrays.copyOf(continuous, grown);
+				emergencyEnds = Arrays.copyOf(emergencyEnds, grown);
+			}
+			int count = emergencyLimits.size();
+			if (emergencySize + count > emergency.length) {
+				int grown = Math.max(emergencySize + count, emergency.length * 2);
+				durationIds = Arrays.copyOf(durationIds, grown);
+				emergency = Arrays.copyOf(emergency, grown);
+			}
+			for (int i = 0; i < count; i++) {
+				durationIds[emergencySize] = durationId(emergencyLimits.getDurationName(i));
+				emergency[emergencySize] = emergencyLimits.getLimit(i);
+				emergencySize++;
+			}
+			starts[size] = start;
+			ends[size] = end;
+			continuous[size] = continuousLimit;
+			emergencyEnds[size] = emergencySize;
+			return size++;
+		}
+
+		Periods build() {
+			Periods periods = new Periods();
+			periods.size = size;
+			periods.starts = Arrays.copyOf(starts, size);
+			periods.ends = Arrays.copyOf(ends, size);
+			periods.continuous = Arrays.copyOf(continuous, size);
+			periods.emergencyEnds = Arrays.copyOf(emergencyEnds, size);
+			periods.durationIds = Arrays.copyOf(durationIds, emergencySize);
+			periods.emergency = Arrays.copyOf(emergency, emergencySize);
+			return periods;
+		}
+	}
+}
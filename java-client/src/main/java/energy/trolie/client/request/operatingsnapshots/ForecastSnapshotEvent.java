@@ -0,0 +1,27 @@
+package energy.trolie.client.request.operatingsnapshots;
+
+import energy.trolie.client.model.operatingsnapshots.ForecastPeriodSnapshot;
+import energy.trolie.client.model.operatingsnapshots.ForecastSnapshotHeader;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Complete forecast limits snapshot
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class ForecastSnapshotEvent implements SnapshotEvent {
+
+	private final ForecastSnapshotHeader header;
+
+	/**
+	 * Forecast periods keyed by resource ID, in the order received
+	 */
+	private final Map<String, List<ForecastPeriodSnapshot>> periods;
+
+}
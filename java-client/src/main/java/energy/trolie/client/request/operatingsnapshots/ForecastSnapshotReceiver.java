@@ -3,12 +3,15 @@ package energy.trolie.client.request.operatingsnapshots;
 import energy.trolie.client.exception.StreamingGetException;
 import energy.trolie.client.model.operatingsnapshots.ForecastPeriodSnapshot;
 import energy.trolie.client.model.operatingsnapshots.ForecastSnapshotHeader;
+import energy.trolie.client.ResourceDictionary;
 import energy.trolie.client.StreamingResponseReceiver;
 
 /**
  * Streaming receiver for updated forecast snapshot data and errors from subscriber.
  * The current request handling can be terminated in any of these methods by throwing an exception.
- * Errors originating from the subscriber thread will be sent to {@link #error(StreamingGetException)}
+ * Errors originating from the subscriber thread will be sent to {@link #error(StreamingGetException)}.
+ * Receivers that copy limits into their own structures may implement {@link PrimitiveForecastSnapshotReceiver}
+ * instead to be handed periods without intermediate objects.
  */
 public interface ForecastSnapshotReceiver extends StreamingResponseReceiver {
 
@@ -33,6 +36,17 @@ public interface ForecastSnapshotReceiver extends StreamingResponseReceiver {
      */
     void beginResource(String resourceId);
 
+    /**
+     * Invoked to indicate that a new resource has been found while parsing, along with its index
+     * in the client's {@link ResourceDictionary}.  Receivers keeping resources in arrays may
+     * override this instead of {@link #beginResource(String)}, which it calls by default.
+     * @param resourceIndex index of the resource, stable across snapshots
+     * @param resourceId the next resource Id, shared with the dictionary
+     */
+    default void beginResource(int resourceIndex, String resourceId) {
+        beginResource(resourceId);
+    }
+
     /**
      * Invoked as a new rating value set is encountered in the stream
      * @param period rating data for a given period.  The resource ID
@@ -52,6 +66,22 @@ public interface ForecastSnapshotReceiver extends StreamingResponseReceiver {
      */
     void endSnapshot();
 
+    /**
+     * Whether this receiver may be handed resources on several threads at once.  Only consulted
+     * when the client parses forecast snapshots in parallel, see
+     * {@link energy.trolie.client.TrolieClientBuilder#parallelParsing(java.util.concurrent.ForkJoinPool)}.
+     * Otherwise, or if false, resources are handed over one at a time in the order of the response.
+     * <p>A thread-safe receiver is still handed {@link #beginSnapshot()} and {@link #header(ForecastSnapshotHeader)}
+     * before any resource, and {@link #endSnapshot()} after all of them.  The callbacks of each resource,
+     * from {@link #beginResource(int, String)} to {@link #endResource()}, are made on one thread without
+     * other resources in between, so the current resource may be tracked per thread.  The order of
+     * resources is not defined.</p>
+     * @return true to be handed resources concurrently
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
 }
 	
 	
@@ -0,0 +1,73 @@
+package energy.trolie.client.request.operatingsnapshots;
+
+import energy.trolie.client.model.common.EmergencyRatingValue;
+import energy.trolie.client.model.common.RatingValue;
+import energy.trolie.client.model.operatingsnapshots.ForecastPeriodSnapshot;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * <p>Streaming receiver for forecast snapshots that is handed each period as primitives
+ * rather than as a {@link ForecastPeriodSnapshot}.</p>
+ * <p>When a receiver implements this interface, periods are parsed straight into
+ * {@link #period(int, long, long, float, EmergencyLimitsAccessor)} without creating instants,
+ * rating values or lists, so clients copying limits into their own arrays do not pay for
+ * intermediate objects.  The client never invokes {@link #period(ForecastPeriodSnapshot)}, but
+ * periods handed to it by other code are converted and passed on to the primitive callback.</p>
+ * <p>Limits are given in the units used by the exchange: MVA, amps, or MW for ratings
+ * expressed in MW and power factor.  Limits missing from the response are NaN.</p>
+ */
+public interface PrimitiveForecastSnapshotReceiver extends ForecastSnapshotReceiver {
+
+    /**
+     * Invoked as a new rating value set is encountered in the stream
+     * @param resourceIndex index of the current resource in the client's
+     *                      {@link energy.trolie.client.ResourceDictionary}, as given to
+     *                      {@link #beginResource(int, String)}.  Stable across snapshots.
+     *                      -1 for periods converted by {@link #period(ForecastPeriodSnapshot)}.
+     * @param periodStart start of the period in seconds since the epoch, or {@link Long#MIN_VALUE} if missing
+     * @param periodEnd end of the period in seconds since the epoch, or {@link Long#MIN_VALUE} if missing
+     * @param continuousLimit continuous operating limit
+     * @param emergencyLimits emergency operating limits of the period.  Only valid during this call.
+     */
+    void period(int resourceIndex, long periodStart, long periodEnd, float continuousLimit,
+                EmergencyLimitsAccessor emergencyLimits);
+
+    /**
+     * Converts the period to primitives and passes it on to
+     * {@link #period(int, long, long, float, EmergencyLimitsAccessor)} with a resource index of -1,
+     * as the index of the resource is not known here.  The client itself never invokes this.
+     * @param period period of the current resource
+     */
+    @Override
+    default void period(ForecastPeriodSnapshot period) {
+        List<EmergencyRatingValue> emergencyLimits = period.getEmergencyOperatingLimits();
+        period(-1, epochSeconds(period.getPeriodStart()), epochSeconds(period.getPeriodEnd()),
+                limit(period.getContinuousOperatingLimit()), new EmergencyLimitsAccessor() {
+                    @Override
+                    public int size() {
+                        return emergencyLimits == null ? 0 : emergencyLimits.size();
+                    }
+
+                    @Override
+                    public String getDurationName(int index) {
+                        return emergencyLimits.get(index).getDurationName();
+                    }
+
+                    @Override
+                    public float getLimit(int index) {
+                        return limit(emergencyLimits.get(index).getLimit());
+                    }
+                });
+    }
+
+    private static long epochSeconds(Instant instant) {
+        return instant == null ? Long.MIN_VALUE : instant.getEpochSecond();
+    }
+
+    private static float limit(RatingValue value) {
+        return value == null ? Float.NaN : value.getValue();
+    }
+
+}
@@ -0,0 +1,13 @@
+package energy.trolie.client.request.operatingsnapshots;
+
+import energy.trolie.client.exception.StreamingGetException;
+
+/**
+ * Subscription counterpart of {@link PrimitiveForecastSnapshotReceiver}.
+ * The current request handling can be terminated in any of these methods by throwing an exception.
+ * Errors originating from the subscriber thread will be sent to {@link #error(StreamingGetException)}
+ */
+public interface PrimitiveForecastSnapshotSubscribedReceiver
+        extends ForecastSnapshotSubscribedReceiver, PrimitiveForecastSnapshotReceiver {
+
+}
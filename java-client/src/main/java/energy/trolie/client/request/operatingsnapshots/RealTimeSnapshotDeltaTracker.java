@@ -0,0 +1,103 @@
+package energy.trolie.client.request.operatingsnapshots;
+
+import energy.trolie.client.RequestSubscription;
+import energy.trolie.client.exception.StreamingGetException;
+import energy.trolie.client.model.operatingsnapshots.RealTimeLimit;
+import energy.trolie.client.model.operatingsnapshots.RealTimeSnapshotHeader;
+
+import java.util.Arrays;
+
+/**
+ * <p>Receiver comparing each real-time snapshot with the previous one while it streams, and only
+ * reporting the limits that were added, changed or removed to a {@link DeltaRealTimeSnapshotReceiver}.</p>
+ * <p>The limits of the previous snapshot are kept in an array indexed by the resource index in the
+ * client's {@link energy.trolie.client.ResourceDictionary}.  Limits without a resource ID cannot be
+ * matched between snapshots and are ignored.</p>
+ * <p>The state of a resource is updated as soon as its difference has been reported.  If a snapshot fails,
+ * the differences already reported are kept, and resources missing from the incomplete snapshot are not
+ * reported as removed.  Use with
+ * {@link energy.trolie.client.TrolieClient#subscribeToInUseLimits(RealTimeSnapshotSubscribedReceiver)}.</p>
+ */
+public class RealTimeSnapshotDeltaTracker implements RealTimeSnapshotSubscribedReceiver {
+
+	private final DeltaRealTimeSnapshotReceiver delta;
+
+	private RealTimeLimit[] previous = new RealTimeLimit[16];
+	private int[] seenInGeneration = new int[16];
+	private int generation;
+	private boolean receiving;
+
+	/**
+	 * Create a tracker
+	 * @param delta receiver of the differences
+	 */
+	public RealTimeSnapshotDeltaTracker(DeltaRealTimeSnapshotReceiver delta) {
+		this.delta = delta;
+	}
+
+	@Override
+	public void setSubscription(RequestSubscription subscription) {
+		delta.setSubscription(subscription);
+	}
+
+	@Override
+	public void beginSnapshot() {
+		generation++;
+		receiving = false;
+	}
+
+	@Override
+	public void header(RealTimeSnapshotHeader header) {
+		receiving = true;
+		delta.beginDelta(header);
+	}
+
+	@Override
+	public void limit(RealTimeLimit limit) {
+		//limits are tracked by the index given to limit(int, RealTimeLimit)
+	}
+
+	@Override
+	public void limit(int resourceIndex, RealTimeLimit limit) {
+		if (!receiving || resourceIndex < 0) {
+			return;
+		}
+		if (resourceIndex >= previous.length) {
+			int grown = Math.max(resourceIndex + 1, previous.length + (previous.length >> 1));
+			previous = Arrays.copyOf(previous, grown);
+			seenInGeneration = Arrays.copyOf(seenInGeneration, grown);
+		}
+		seenInGeneration[resourceIndex] = generation;
+		RealTimeLimit old = previous[resourceIndex];
+		if (old == null) {
+			delta.added(resourceIndex, limit);
+		} else if (!old.equals(limit)) {
+			delta.changed(resourceIndex, old, limit);
+		} else {
+			return;
+		}
+		previous[resourceIndex] = limit;
+	}
+
+	@Override
+	public void endSnapshot() {
+		if (!receiving) {
+			return;
+		}
+		for (int i = 0; i < previous.length; i++) {
+			RealTimeLimit old = previous[i];
+			if (old != null && seenInGeneration[i] != generation) {
+				delta.removed(i, old);
+				previous[i] = null;
+			}
+		}
+		receiving = false;
+		delta.endDelta();
+	}
+
+	@Override
+	public void error(StreamingGetException t) {
+		receiving = false;
+		delta.error(t);
+	}
+}
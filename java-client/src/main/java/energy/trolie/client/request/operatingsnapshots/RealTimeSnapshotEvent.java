@@ -0,0 +1,23 @@
+package energy.trolie.client.request.operatingsnapshots;
+
+import energy.trolie.client.model.operatingsnapshots.RealTimeLimit;
+import energy.trolie.client.model.operatingsnapshots.RealTimeSnapshotHeader;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Complete real-time limits snapshot
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class RealTimeSnapshotEvent implements SnapshotEvent {
+
+	private final RealTimeSnapshotHeader header;
+
+	private final List<RealTimeLimit> limits;
+
+}
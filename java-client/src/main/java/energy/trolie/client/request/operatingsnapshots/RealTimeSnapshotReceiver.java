@@ -3,6 +3,7 @@ package energy.trolie.client.request.operatingsnapshots;
 import energy.trolie.client.exception.StreamingGetException;
 import energy.trolie.client.model.operatingsnapshots.RealTimeLimit;
 import energy.trolie.client.model.operatingsnapshots.RealTimeSnapshotHeader;
+import energy.trolie.client.ResourceDictionary;
 import energy.trolie.client.StreamingResponseReceiver;
 
 /**
@@ -30,6 +31,17 @@ public interface RealTimeSnapshotReceiver extends StreamingResponseReceiver {
 	 */
 	void limit(RealTimeLimit limit);
 
+	/**
+	 * Invoked with each resource limit set as it is parsed, along with the index of its resource
+	 * in the client's {@link ResourceDictionary}.  Receivers keeping resources in arrays may
+	 * override this instead of {@link #limit(RealTimeLimit)}, which it calls by default.
+	 * @param resourceIndex index of the resource, stable across snapshots.  -1 if the limit has no resource ID.
+	 * @param limit the parsed limit set
+	 */
+	default void limit(int resourceIndex, RealTimeLimit limit) {
+		limit(limit);
+	}
+
 	/**
 	 * Invoked when the snapshot has reached its end.
 	 */
@@ -1,5 +1,6 @@
 package energy.trolie.client.request.operatingsnapshots;
 
+import energy.trolie.client.ResourceDictionary;
 import energy.trolie.client.StreamingResponseReceiver;
 import energy.trolie.client.exception.StreamingGetException;
 import energy.trolie.client.model.operatingsnapshots.ForecastPeriodSnapshot;
@@ -35,6 +36,17 @@ public interface SeasonalSnapshotReceiver extends StreamingResponseReceiver {
      */
     void beginResource(String resourceId);
 
+    /**
+     * Invoked to indicate that a new resource has been found while parsing, along with its index
+     * in the client's {@link ResourceDictionary}.  Receivers keeping resources in arrays may
+     * override this instead of {@link #beginResource(String)}, which it calls by default.
+     * @param resourceIndex index of the resource, stable across snapshots
+     * @param resourceId the next resource Id, shared with the dictionary
+     */
+    default void beginResource(int resourceIndex, String resourceId) {
+        beginResource(resourceId);
+    }
+
     /**
      * Invoked as a new rating value set is encountered in the stream
      * @param period rating data for a given period.  The resource ID
@@ -0,0 +1,18 @@
+package energy.trolie.client.request.operatingsnapshots;
+
+import energy.trolie.client.model.operatingsnapshots.SnapshotHeader;
+
+/**
+ * A complete snapshot as delivered by a {@link SnapshotPublisher}.
+ * Unlike the streaming receivers, which are invoked while the response is being parsed,
+ * events are only published once the whole snapshot has been received.
+ */
+public interface SnapshotEvent {
+
+	/**
+	 *
+	 * @return header of the snapshot
+	 */
+	SnapshotHeader getHeader();
+
+}
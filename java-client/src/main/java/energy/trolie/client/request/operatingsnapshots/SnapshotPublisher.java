@@ -0,0 +1,30 @@
+package energy.trolie.client.request.operatingsnapshots;
+
+import energy.trolie.client.RequestSubscription;
+
+import java.util.concurrent.Flow;
+
+/**
+ * <p>{@link Flow.Publisher} view of a polling snapshot subscription.</p>
+ * <p>Each complete snapshot is offered to every subscriber according to the demand it has
+ * signalled through {@link Flow.Subscription#request(long)}.  Snapshots are conflated: a subscriber
+ * that falls behind holds at most one pending snapshot, and a newer snapshot replaces any snapshot
+ * it has not requested yet.  Since a snapshot supersedes all earlier ones, the subscriber always
+ * catches up with the latest data, while polling and parsing are never held up by the subscriber.</p>
+ * <p>A subscriber is immediately offered the most recent snapshot, if any, on subscription.
+ * Subscribers are completed once the subscription is stopped.  Errors of individual polls are not
+ * signalled, as polling continues regardless; use {@link #isHealthy()} to monitor them.</p>
+ * <p>Signals are delivered on the worker threads of the client, one at a time per subscriber.</p>
+ *
+ * @param <T> snapshot type
+ */
+public interface SnapshotPublisher<T extends SnapshotEvent> extends Flow.Publisher<T>, RequestSubscription {
+
+	/**
+	 *
+	 * @return number of snapshots replaced by a newer one before a subscriber requested them,
+	 * summed over all subscribers.
+	 */
+	long getConflatedSnapshots();
+
+}
@@ -6,6 +6,7 @@ import energy.trolie.client.RequestHeaderProvider;
 import energy.trolie.client.TrolieApiConstants;
 import energy.trolie.client.TrolieHost;
 import energy.trolie.client.exception.TrolieException;
+import energy.trolie.client.impl.ClientExecutor;
 import energy.trolie.client.impl.model.ratingproposals.ForecastPeriodBuilderImpl;
 import energy.trolie.client.impl.request.AbstractStreamingUpdate;
 import energy.trolie.client.model.ratingproposals.ForecastPeriodBuilder;
@@ -49,14 +50,16 @@ public class ForecastRatingProposalUpdate extends AbstractStreamingUpdate<Foreca
 	 * @param requestConfig HTTP client request config
 	 * @param bufferSize configure buffer size
 	 * @param objectMapper Jackson object mapper
+	 * @param executor shared client executor
 	 * @param httpHeaders passed headers
 	 * @param providers header providers
 	 * @param defaultIntervalMinutes forecast interval minutes
 	 */
 	public ForecastRatingProposalUpdate(HttpClient httpClient, TrolieHost host, RequestConfig requestConfig,
-										int bufferSize, ObjectMapper objectMapper, Map<String, String> httpHeaders,
+										int bufferSize, ObjectMapper objectMapper, ClientExecutor executor,
+										Map<String, String> httpHeaders,
 										List<RequestHeaderProvider> providers, int defaultIntervalMinutes) {
-		super(httpClient, host, requestConfig, bufferSize, objectMapper, httpHeaders, providers);
+		super(httpClient, host, requestConfig, bufferSize, objectMapper, executor, httpHeaders, providers);
 		this.defaultIntervalMinutes = defaultIntervalMinutes;
 	}
 
@@ -93,7 +96,7 @@ public class ForecastRatingProposalUpdate extends AbstractStreamingUpdate<Foreca
 	protected Function<HttpEntity,ForecastRatingProposalStatus> getResponseHandler() {
 		return e -> {
 			try {
-				return objectMapper.readValue(e.getContent(), ForecastRatingProposalStatus.class);
+				return responseMapper(e).readValue(e.getContent(), ForecastRatingProposalStatus.class);
 			} catch (Exception e2) {	
 				throw new TrolieException("Failed to parse response",e2);
 			}
@@ -6,6 +6,7 @@ import energy.trolie.client.RequestHeaderProvider;
 import energy.trolie.client.TrolieApiConstants;
 import energy.trolie.client.TrolieHost;
 import energy.trolie.client.exception.TrolieException;
+import energy.trolie.client.impl.ClientExecutor;
 import energy.trolie.client.impl.request.AbstractStreamingUpdate;
 import energy.trolie.client.model.ratingproposals.ProposalHeader;
 import energy.trolie.client.model.ratingproposals.RealTimeRating;
@@ -43,12 +44,14 @@ public class RealTimeRatingProposalUpdate extends AbstractStreamingUpdate<RealTi
 	 * @param requestConfig client request config
 	 * @param bufferSize internal buffer size
 	 * @param objectMapper Jackson object mapper
+	 * @param executor shared client executor
 	 * @param httpHeader mapped header list
 	 * @param providers header providers
 	 */
 	public RealTimeRatingProposalUpdate(HttpClient httpClient, TrolieHost host, RequestConfig requestConfig,
-                                        int bufferSize, ObjectMapper objectMapper, Map<String, String> httpHeader, List<RequestHeaderProvider> providers) {
-		super(httpClient, host, requestConfig, bufferSize, objectMapper, httpHeader, providers);
+                                        int bufferSize, ObjectMapper objectMapper, ClientExecutor executor,
+                                        Map<String, String> httpHeader, List<RequestHeaderProvider> providers) {
+		super(httpClient, host, requestConfig, bufferSize, objectMapper, executor, httpHeader, providers);
 	}
 
 	private enum Scope {
@@ -81,7 +84,7 @@ public class RealTimeRatingProposalUpdate extends AbstractStreamingUpdate<RealTi
 	protected Function<HttpEntity,RealTimeRatingProposalStatus> getResponseHandler() {
 		return e -> {
 			try {
-				return objectMapper.readValue(e.getContent(), RealTimeRatingProposalStatus.class);
+				return responseMapper(e).readValue(e.getContent(), RealTimeRatingProposalStatus.class);
 			} catch (Exception e2) {	
 				throw new TrolieException("Failed to parse response",e2);
 			}
@@ -0,0 +1,375 @@
+package energy.trolie.client.request.ratingproposals;
+
+import energy.trolie.client.exception.TrolieException;
+import energy.trolie.client.model.ratingproposals.ProposalHeader;
+import energy.trolie.client.model.ratingproposals.RealTimeRating;
+import energy.trolie.client.model.ratingproposals.RealTimeRatingProposalStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * <p>Long-lived publisher of real-time ratings, for rating engines producing ratings continuously
+ * rather than in complete proposals.  Ratings may be published from any number of threads, and are
+ * collected into batches each sent as one real-time proposal, the way a {@link RealTimeRatingProposalUpdate}
+ * would send them.</p>
+ * <p>A batch is sent as soon as it holds {@link #maxBatchRatings(int) enough ratings} or
+ * {@link #maxBatchBytes(long) enough data}, or its oldest rating has waited
+ * {@link #maxLatencyMillis(long) long enough}.  Only the latest rating of each resource in a batch
+ * is sent.  Batches are sent one at a time, in the order ratings were published, from a thread of the
+ * publisher, so a later rating of a resource is never overtaken by an earlier one, and ratings published while a
+ * batch is being sent are collected into the next one.</p>
+ * <p>The sender waits between batches for the next rating or deadline, so it runs on a thread of its own,
+ * virtual when the client uses virtual threads, rather than holding one of the bounded workers of the client
+ * for the life of the publisher.  Each batch is still sent the way other updates are.</p>
+ * <p>Publishing only enqueues the rating without locking.  The outcome of each batch is reported to the
+ * {@link Listener} on the thread of the publisher.  Publishers still open when their client is closed are
+ * closed first, sending the ratings already published.</p>
+ */
+public class RealTimeRatingPublisher implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(RealTimeRatingPublisher.class);
+
+	/**
+	 * Default number of ratings sending a batch
+	 */
+	public static final int DEFAULT_MAX_BATCH_RATINGS = 1000;
+
+	/**
+	 * Default approximate size of a batch sending it, in bytes
+	 */
+	public static final long DEFAULT_MAX_BATCH_BYTES = 1 << 20;
+
+	/**
+	 * Default time the oldest rating of a batch waits before the batch is sent, in milliseconds
+	 */
+	public static final long DEFAULT_MAX_LATENCY_MILLIS = 500;
+
+	/**
+	 * Receives the outcome of each batch
+	 */
+	public interface Listener {
+
+		/**
+		 * Invoked when the server accepted a batch
+		 * @param ratings ratings sent, the latest of each resource
+		 * @param status status returned by the server.  May report validation errors for some of the ratings.
+		 */
+		void sent(List<RealTimeRating> ratings, RealTimeRatingProposalStatus status);
+
+		/**
+		 * Invoked when a batch could not be sent.  The ratings are not retried.
+		 * @param ratings ratings of the batch
+		 * @param error reason for the failure
+		 */
+		void failed(List<RealTimeRating> ratings, TrolieException error);
+	}
+
+	private final Supplier<RealTimeRatingProposalUpdate> updates;
+	private final Supplier<? extends ProposalHeader> headers;
+	private final Listener listener;
+	private final Consumer<RealTimeRatingPublisher> onClose;
+
+	private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger queuedRatings = new AtomicInteger();
+	private final AtomicLong queuedBytes = new AtomicLong();
+	private final Thread sender;
+	private volatile boolean closed;
+	private volatile boolean closedBySender;
+
+	private volatile int maxBatchRatings = DEFAULT_MAX_BATCH_RATINGS;
+	private volatile long maxBatchBytes = DEFAULT_MAX_BATCH_BYTES;
+	private volatile long maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MAX_LATENCY_MILLIS);
+
+	//updated by one sending thread at a time
+	private volatile long sentBatches;
+	private volatile long failedBatches;
+	private volatile long supersededRatings;
+
+	/**
+	 * Constructs and starts a new publisher.  Should not be called by application code.
+	 * @param updates creates the update sending each batch
+	 * @param headers supplies the header of each batch
+	 * @param listener receives the outcome of each batch
+	 */
+	public RealTimeRatingPublisher(Supplier<RealTimeRatingProposalUpdate> updates,
+								   Supplier<? extends ProposalHeader> headers, Listener listener) {
+		this(updates, headers, listener, publisher -> { }, task -> {
+			Thread thread = new Thread(task, "trolie-rating-publisher");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Constructs and starts a new publisher.  Should not be called by application code.
+	 * @param updates creates the update sending each batch
+	 * @param headers supplies the header of each batch
+	 * @param listener receives the outcome of each batch
+	 * @param onClose invoked once the publisher has been closed
+	 * @param senderThreads creates the thread sending the batches
+	 */
+	public RealTimeRatingPublisher(Supplier<RealTimeRatingProposalUpdate> updates,
+								   Supplier<? extends ProposalHeader> headers, Listener listener,
+								   Consumer<RealTimeRatingPublisher> onClose, ThreadFactory senderThreads) {
+		this.updates = updates;
+		this.headers = headers;
+		this.listener = listener;
+		this.onClose = onClose;
+		this.sender = senderThreads.newThread(this::run);
+		this.sender.start();
+	}
+
+	/**
+	 * Number of ratings sending a batch.  Defaults to {@value #DEFAULT_MAX_BATCH_RATINGS}.
+	 * @param maxBatchRatings ratings per batch, counting superseded ratings
+	 * @return this publisher
+	 */
+	public RealTimeRatingPublisher maxBatchRatings(int maxBatchRatings) {
+		if (maxBatchRatings < 1) {
+			throw new IllegalArgumentException("Batch must hold at least one rating");
+		}
+		this.maxBatchRatings = maxBatchRatings;
+		return this;
+	}
+
+	/**
+	 * Approximate size of the ratings sending a batch.  Defaults to {@value #DEFAULT_MAX_BATCH_BYTES}.
+	 * @param maxBatchBytes size in bytes, estimated from the content of each rating
+	 * @return this publisher
+	 */
+	public RealTimeRatingPublisher maxBatchBytes(long maxBatchBytes) {
+		if (maxBatchBytes < 1) {
+			throw new IllegalArgumentException("Batch size must be positive");
+		}
+		this.maxBatchBytes = maxBatchBytes;
+		return this;
+	}
+
+	/**
+	 * Time the oldest rating of a batch waits before the batch is sent.  Defaults to
+	 * {@value #DEFAULT_MAX_LATENCY_MILLIS}.  Ratings may wait longer while a previous batch is being sent.
+	 * @param maxLatencyMillis latency in milliseconds, or 0 to send ratings as soon as possible
+	 * @return this publisher
+	 */
+	public RealTimeRatingPublisher maxLatencyMillis(long maxLatencyMillis) {
+		if (maxLatencyMillis < 0) {
+			throw new IllegalArgumentException("Latency must not be negative");
+		}
+		this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+		LockSupport.unpark(sender);
+		return this;
+	}
+
+	/**
+	 * Publish a rating.  Never blocks.
+	 * @param rating rating to send with the next batch.  Replaces any rating of the same resource
+	 *               not yet sent.
+	 * @throws IllegalStateException if the publisher has been closed
+	 */
+	public void publish(RealTimeRating rating) {
+		if (closed) {
+			throw new IllegalStateException("Publisher has been closed");
+		}
+		long bytes = estimateBytes(rating);
+		Pending pending = new Pending(rating, bytes, System.nanoTime());
+		queue.add(pending);
+		int ratings = queuedRatings.incrementAndGet();
+		long total = queuedBytes.addAndGet(bytes);
+		//closed meanwhile, the last batch may have been sent without this rating
+		if (closed && queue.remove(pending)) {
+			queuedRatings.decrementAndGet();
+			queuedBytes.addAndGet(-bytes);
+			throw new IllegalStateException("Publisher has been closed");
+		}
+		//the sender waits for the first rating, and then for a trigger or the deadline of that rating
+		if (ratings == 1 || ratings >= maxBatchRatings || total >= maxBatchBytes) {
+			LockSupport.unpark(sender);
+		}
+	}
+
+	/**
+	 *
+	 * @return ratings published but not yet taken into a batch
+	 */
+	public int getQueuedRatings() {
+		return queuedRatings.get();
+	}
+
+	/**
+	 *
+	 * @return batches accepted by the server
+	 */
+	public long getSentBatches() {
+		return sentBatches;
+	}
+
+	/**
+	 *
+	 * @return batches that could not be sent
+	 */
+	public long getFailedBatches() {
+		return failedBatches;
+	}
+
+	/**
+	 *
+	 * @return ratings not sent because a later rating of the same resource was published in the same batch
+	 */
+	public long getSupersededRatings() {
+		return supersededRatings;
+	}
+
+	/**
+	 * Send the ratings already published and stop the publisher, waiting for the last batch to complete.
+	 * Called from the {@link Listener}, returns at once and the remaining ratings are sent after it returns.
+	 */
+	@Override
+	public void close() {
+		if (Thread.currentThread() == sender) {
+			//the sender cannot wait for itself, it sends the rest once the listener returns
+			closedBySender = true;
+			closed = true;
+			return;
+		}
+		closeAndWait();
+	}
+
+	private synchronized void closeAndWait() {
+		closed = true;
+		LockSupport.unpark(sender);
+		try {
+			sender.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logger.warn("Interrupted waiting for ratings to be sent");
+			return;
+		}
+		//ratings published while closing
+		while (!queue.isEmpty()) {
+			sendBatch();
+		}
+		onClose.accept(this);
+	}
+
+	private void run() {
+		while (true) {
+			Pending oldest = queue.peek();
+			if (oldest == null) {
+				if (closed) {
+					if (closedBySender) {
+						onClose.accept(this);
+					}
+					return;
+				}
+				LockSupport.park(this);
+				continue;
+			}
+			if (!closed && queuedRatings.get() < maxBatchRatings && queuedBytes.get() < maxBatchBytes) {
+				long wait = oldest.publishedNanos + maxLatencyNanos - System.nanoTime();
+				if (wait > 0) {
+					LockSupport.parkNanos(this, wait);
+					continue;
+				}
+			}
+			sendBatch();
+		}
+	}
+
+	private void sendBatch() {
+		int ratingLimit = maxBatchRatings;
+		long byteLimit = maxBatchBytes;
+
+		//the latest rating of each resource, in the order resources were first published
+		Map<String, RealTimeRating> latest = new LinkedHashMap<>();
+		int drained = 0;
+		long bytes = 0;
+		Pending pending;
+		while (drained < ratingLimit && bytes < byteLimit && (pending = queue.poll()) != null) {
+			drained++;
+			bytes += pending.bytes;
+			latest.put(pending.rating.getResourceId(), pending.rating);
+		}
+		queuedRatings.addAndGet(-drained);
+		queuedBytes.addAndGet(-bytes);
+		if (latest.isEmpty()) {
+			return;
+		}
+		supersededRatings += drained - latest.size();
+
+		List<RealTimeRating> ratings = new ArrayList<>(latest.values());
+		RealTimeRatingProposalStatus status;
+		try (RealTimeRatingProposalUpdate update = updates.get()) {
+			update.begin(headers.get());
+			for (RealTimeRating rating : ratings) {
+				update.rating(rating);
+			}
+			status = update.complete();
+		} catch (RuntimeException e) {
+			failedBatches++;
+			logger.error("Failed to publish {} real-time ratings", ratings.size(), e);
+			TrolieException error = e instanceof TrolieException t ? t :
+					new TrolieException("Failed to publish real-time ratings", e);
+			try {
+				listener.failed(ratings, error);
+			} catch (RuntimeException e2) {
+				logger.error("Listener failed handling failed batch", e2);
+			}
+			return;
+		}
+
+		sentBatches++;
+		try {
+			listener.sent(ratings, status);
+		} catch (RuntimeException e) {
+			logger.error("Listener failed handling sent batch", e);
+		}
+	}
+
+	/**
+	 * Approximate size of a rating once serialized, from the number of values it holds
+	 */
+	private static long estimateBytes(RealTimeRating rating) {
+		long bytes = 64;
+		if (rating.getResourceId() != null) {
+			bytes += rating.getResourceId().length();
+		}
+		if (rating.getContinuousOperatingLimit() != null) {
+			//one or two named numbers
+			bytes += 24;
+		}
+		if (rating.getEmergencyOperatingLimits() != null) {
+			bytes += 48L * rating.getEmergencyOperatingLimits().size();
+		}
+		if (rating.getInputsUsed() != null) {
+			bytes += 64L * rating.getInputsUsed().size();
+		}
+		return bytes;
+	}
+
+	private static final class Pending {
+
+		final RealTimeRating rating;
+		final long bytes;
+		final long publishedNanos;
+
+		Pending(RealTimeRating rating, long bytes, long publishedNanos) {
+			this.rating = rating;
+			this.bytes = bytes;
+			this.publishedNanos = publishedNanos;
+		}
+	}
+}
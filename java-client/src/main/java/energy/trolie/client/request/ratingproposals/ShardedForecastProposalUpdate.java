@@ -0,0 +1,211 @@
+package energy.trolie.client.request.ratingproposals;
+
+import energy.trolie.client.StreamingUpdate;
+import energy.trolie.client.exception.TrolieException;
+import energy.trolie.client.model.common.PowerSystemResource;
+import energy.trolie.client.model.ratingproposals.ForecastPeriodBuilder;
+import energy.trolie.client.model.ratingproposals.ForecastProposalHeader;
+import energy.trolie.client.model.ratingproposals.ForecastRatingPeriod;
+import energy.trolie.client.model.ratingproposals.ForecastRatingProposalStatus;
+import energy.trolie.client.model.ratingproposals.ProposalValidationError;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>Streaming update for forecast rating proposals that spreads the resources of one proposal over
+ * several concurrent PATCH requests, so that large proposals are not limited by a single stream
+ * and may be validated by the server in parallel.  Every request carries the same header, and each
+ * resource is sent in exactly one of them, in turn.</p>
+ * <p>Used exactly like {@link ForecastRatingProposalUpdate}, from a single thread:</p>
+ * <ol>
+ *     <li>{@link #begin(ForecastProposalHeader)} with a completely populated header.</li>
+ *     <li>{@link #beginResource(String)} for each resource.  Then, within that resource,</li>
+ *     <li>{@link #periodBuilder()}  for each period in the forecast window.</li>
+ *     <li>{@link #endResource()} before calling {@link #beginResource(String)} again for a new resource.</li>
+ *     <li>{@link #complete()} to synchronously finish all requests and merge their statuses.</li>
+ * </ol>
+ * <p>Each request holds a worker thread of the client and an HTTP connection until completed, so the
+ * HTTP client must allow as many connections per route as there are shards.  A request that cannot
+ * get both in time fails {@link #begin(ForecastProposalHeader)} rather than wait for other updates.</p>
+ */
+public class ShardedForecastProposalUpdate implements StreamingUpdate<ForecastRatingProposalStatus> {
+
+	private final List<ForecastRatingProposalUpdate> shards;
+	//shard of the resource being written
+	private ForecastRatingProposalUpdate current;
+	private int nextShard;
+
+	/**
+	 * Constructs a new update.  Should not be called by application code.
+	 * @param shards updates each carrying a share of the resources
+	 */
+	public ShardedForecastProposalUpdate(List<ForecastRatingProposalUpdate> shards) {
+		if (shards.isEmpty()) {
+			throw new IllegalArgumentException("At least one shard is required");
+		}
+		this.shards = List.copyOf(shards);
+	}
+
+	/**
+	 *
+	 * @return number of concurrent requests the proposal is spread over
+	 */
+	public int getShardCount() {
+		return shards.size();
+	}
+
+	/**
+	 * Begin every stream, sending each the populated header
+	 * @param header populated header.  Must include at least emergency rating durations and
+	 *               power system resources
+	 * @throws TrolieException if a stream fails to begin, such as when it cannot get a worker in time.
+	 * All streams are then closed, releasing the workers of those already begun.
+	 */
+	public void begin(ForecastProposalHeader header) {
+		try {
+			for (ForecastRatingProposalUpdate shard : shards) {
+				shard.begin(header);
+			}
+		} catch (RuntimeException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Begin writing a new group of ratings for a particular resource, on the next stream in turn.
+	 * @param resourceId resource ID to write
+	 */
+	public void beginResource(String resourceId) {
+		if (current != null) {
+			throw new IllegalStateException("Resource must be ended before beginning another");
+		}
+		ForecastRatingProposalUpdate shard = shards.get(nextShard);
+		shard.beginResource(resourceId);
+		current = shard;
+		nextShard = (nextShard + 1) % shards.size();
+	}
+
+	/**
+	 * Fluent way of constructing valid forecast periods for the current resource.
+	 * @return instance of a {@link ForecastPeriodBuilder} to create a new period.
+	 * @see ForecastRatingProposalUpdate#periodBuilder()
+	 */
+	public ForecastPeriodBuilder periodBuilder() {
+		return currentShard().periodBuilder();
+	}
+
+	/**
+	 * Write out a rating set for the current resource.
+	 * @param forecastRatingPeriod per-period rating set
+	 * @see ForecastRatingProposalUpdate#period(ForecastRatingPeriod)
+	 */
+	public void period(ForecastRatingPeriod forecastRatingPeriod) {
+		currentShard().period(forecastRatingPeriod);
+	}
+
+	/**
+	 * Finish the resource set started with {@link #beginResource(String)}.
+	 */
+	public void endResource() {
+		currentShard().endResource();
+		current = null;
+	}
+
+	private ForecastRatingProposalUpdate currentShard() {
+		if (current == null) {
+			throw new IllegalStateException("No resource has been begun");
+		}
+		return current;
+	}
+
+	/**
+	 * Finalize every request.  If any of them fails, the others are still completed, and the first
+	 * failure is thrown.
+	 * @return status merged from the statuses of all requests.  As each request carries the whole
+	 * header, resources sent on other requests are reported as incomplete by each of them, so only
+	 * obligations incomplete on every request are kept.  Validation errors of all requests are kept.
+	 */
+	@Override
+	public ForecastRatingProposalStatus complete() {
+		List<ForecastRatingProposalStatus> statuses = new ArrayList<>(shards.size());
+		TrolieException failure = null;
+		for (ForecastRatingProposalUpdate shard : shards) {
+			try {
+				statuses.add(shard.complete());
+			} catch (TrolieException e) {
+				if (failure == null) {
+					failure = e;
+				} else {
+					failure.addSuppressed(e);
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+		return merge(statuses);
+	}
+
+	/**
+	 * Merge the statuses returned for each share of a proposal
+	 * @param statuses statuses of all shares
+	 * @return merged status
+	 */
+	static ForecastRatingProposalStatus merge(List<ForecastRatingProposalStatus> statuses) {
+		ForecastRatingProposalStatus first = statuses.get(0);
+
+		//a resource is incomplete only if no share delivered it
+		List<PowerSystemResource> incomplete = null;
+		int incompleteCount = first.getIncompleteObligationCount();
+		for (ForecastRatingProposalStatus status : statuses) {
+			incompleteCount = Math.min(incompleteCount, status.getIncompleteObligationCount());
+			if (status.getIncompleteObligations() == null) {
+				continue;
+			}
+			if (incomplete == null) {
+				incomplete = new ArrayList<>(status.getIncompleteObligations());
+			} else {
+				Set<String> ids = new HashSet<>();
+				for (PowerSystemResource resource : status.getIncompleteObligations()) {
+					ids.add(resource.getResourceId());
+				}
+				incomplete.removeIf(resource -> !ids.contains(resource.getResourceId()));
+			}
+		}
+
+		List<ProposalValidationError> errors = null;
+		int invalidCount = 0;
+		for (ForecastRatingProposalStatus status : statuses) {
+			invalidCount += status.getInvalidProposalCount();
+			if (status.getProposalValidationErrors() != null) {
+				if (errors == null) {
+					errors = new ArrayList<>();
+				}
+				errors.addAll(status.getProposalValidationErrors());
+			}
+		}
+
+		return ForecastRatingProposalStatus.builder()
+				.source(first.getSource())
+				.begins(first.getBegins())
+				.incompleteObligationCount(incomplete == null ? incompleteCount : incomplete.size())
+				.incompleteObligations(incomplete)
+				.invalidProposalCount(invalidCount)
+				.proposalValidationErrors(errors)
+				.build();
+	}
+
+	/**
+	 * Close every request, abandoning any that are not complete
+	 */
+	@Override
+	public void close() {
+		for (ForecastRatingProposalUpdate shard : shards) {
+			shard.close();
+		}
+	}
+}
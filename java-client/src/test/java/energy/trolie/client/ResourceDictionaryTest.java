@@ -0,0 +1,75 @@
+package energy.trolie.client;
+
+import energy.trolie.client.model.common.PowerSystemResource;
+import energy.trolie.client.model.monitoringsets.MonitoringSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ResourceDictionaryTest {
+
+    @Test
+    void testIndicesAreDenseAndStable() {
+        ResourceDictionary dictionary = new ResourceDictionary();
+        MonitoringSet monitoringSet = MonitoringSet.builder()
+                .powerSystemResources(List.of(
+                        PowerSystemResource.builder().resourceId("line-a").build(),
+                        PowerSystemResource.builder().resourceId("line-b").build()))
+                .build();
+        dictionary.seed(monitoringSet);
+
+        assertEquals(2, dictionary.size());
+        assertEquals(0, dictionary.indexOf("line-a"));
+        assertEquals(1, dictionary.indexOf("line-b"));
+        assertEquals(2, dictionary.indexOf("line-c"));
+
+        char[] text = "xxline-byy".toCharArray();
+        assertEquals(1, dictionary.indexOf(text, 2, 6));
+        assertSame(dictionary.getResourceId(1), dictionary.getResourceId(dictionary.indexOf(new String("line-b"))));
+
+        //growing the table keeps every index
+        for (int i = 0; i < 10000; i++) {
+            dictionary.indexOf("resource-" + i);
+        }
+        assertEquals(10003, dictionary.size());
+        assertEquals(0, dictionary.indexOf("line-a"));
+        assertEquals(3 + 1234, dictionary.indexOf("resource-1234".toCharArray(), 0, 13));
+        assertEquals("resource-9999", dictionary.getResourceId(10002));
+    }
+
+    @Test
+    void testConcurrentInterningAssignsOneIndexPerId() throws Exception {
+        ResourceDictionary dictionary = new ResourceDictionary();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    int[] indices = new int[5000];
+                    for (int i = 0; i < indices.length; i++) {
+                        indices[i] = dictionary.indexOf("resource-" + i);
+                    }
+                    return indices;
+                }));
+            }
+            int[] first = results.get(0).get();
+            for (Future<int[]> result : results) {
+                int[] indices = result.get();
+                for (int i = 0; i < indices.length; i++) {
+                    assertEquals(first[i], indices[i]);
+                    assertEquals("resource-" + i, dictionary.getResourceId(indices[i]));
+                }
+            }
+            assertEquals(5000, dictionary.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
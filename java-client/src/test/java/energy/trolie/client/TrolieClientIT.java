@@ -2,6 +2,8 @@ package energy.trolie.client;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.core.json.JsonWriteFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import energy.trolie.client.exception.StreamingGetException;
@@ -9,6 +11,7 @@ import energy.trolie.client.exception.TrolieException;
 import energy.trolie.client.exception.TrolieServerException;
 import energy.trolie.client.impl.request.RequestSubscriptionInternal;
 import energy.trolie.client.model.common.DataProvenance;
+import energy.trolie.client.model.common.PowerSystemResource;
 import energy.trolie.client.model.common.RatingValue;
 import energy.trolie.client.model.monitoringsets.MonitoringSet;
 import energy.trolie.client.model.operatingsnapshots.ForecastPeriodSnapshot;
@@ -21,6 +24,7 @@ import energy.trolie.client.model.ratingproposals.ForecastProposalHeader;
 import energy.trolie.client.model.ratingproposals.ForecastRatingPeriod;
 import energy.trolie.client.model.ratingproposals.ForecastRatingProposalStatus;
 import energy.trolie.client.model.ratingproposals.ProposalHeader;
+import energy.trolie.client.model.ratingproposals.ProposalValidationError;
 import energy.trolie.client.model.ratingproposals.RealTimeRating;
 import energy.trolie.client.model.ratingproposals.RealTimeRatingProposalStatus;
 import energy.trolie.client.request.monitoringsets.MonitoringSetsReceiver;
@@ -33,13 +37,17 @@ import energy.trolie.client.request.operatingsnapshots.SeasonalSnapshotReceiver;
 import energy.trolie.client.request.operatingsnapshots.SeasonalSnapshotSubscribedReceiver;
 import energy.trolie.client.request.ratingproposals.ForecastRatingProposalUpdate;
 import energy.trolie.client.request.ratingproposals.RealTimeRatingProposalUpdate;
+import energy.trolie.client.request.ratingproposals.RealTimeRatingPublisher;
+import energy.trolie.client.request.ratingproposals.ShardedForecastProposalUpdate;
 import energy.trolie.client.spp.SppApiTokenHeaderProvider;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hc.client5.http.HttpHostConnectException;
 import org.apache.hc.client5.http.classic.HttpClient;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.entity.GzipCompressingEntity;
 import org.apache.hc.client5.http.entity.GzipDecompressingEntity;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
 import org.apache.hc.client5.http.impl.classic.BasicHttpClientResponseHandler;
 import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
 import org.apache.hc.core5.http.ClassicHttpRequest;
@@ -55,10 +63,12 @@ import org.apache.hc.core5.http.impl.bootstrap.HttpServer;
 import org.apache.hc.core5.http.impl.io.DefaultBHttpServerConnectionFactory;
 import org.apache.hc.core5.http.impl.io.HttpService;
 import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
 import org.apache.hc.core5.http.io.entity.InputStreamEntity;
 import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
 import org.apache.hc.core5.http.protocol.DefaultHttpProcessor;
+import org.apache.hc.core5.util.Timeout;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
@@ -67,6 +77,7 @@ import org.junit.jupiter.api.Test;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import javax.net.ServerSocketFactory;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
@@ -74,21 +85,30 @@ import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -273,6 +293,169 @@ public class TrolieClientIT {
 		}
 	}
 
+	@Test
+	void testShardedForecastRatingProposalUpdate() throws IOException {
+
+		//each request is answered as if it were the whole proposal, reporting the resources of the
+		//other requests as incomplete
+		var startTime = Instant.now();
+		List<PowerSystemResource> obligations = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			obligations.add(PowerSystemResource.of("resource" + i, null));
+		}
+		obligations.add(PowerSystemResource.of("missing", null));
+		AtomicInteger requests = new AtomicInteger();
+		Set<String> received = ConcurrentHashMap.newKeySet();
+
+		requestHandler = request -> {
+			requests.incrementAndGet();
+			try (GzipDecompressingEntity entity = new GzipDecompressingEntity(request.getEntity())) {
+
+				Map<String,Object> data = objectMapper.readValue(entity.getContent(), Map.class);
+				List<String> sent = new ArrayList<>();
+				for (Map<String,Object> rating : (List<Map<String,Object>>) data.get("ratings")) {
+					sent.add((String) rating.get("resource-id"));
+				}
+				received.addAll(sent);
+
+				List<PowerSystemResource> incomplete = obligations.stream()
+						.filter(r -> !sent.contains(r.getResourceId()))
+						.toList();
+				List<ProposalValidationError> errors = sent.contains("resource4") ?
+						List.of(new ProposalValidationError("Limit out of range", "resource4")) : List.of();
+				ForecastRatingProposalStatus status = ForecastRatingProposalStatus.builder()
+						.begins(startTime)
+						.incompleteObligationCount(incomplete.size())
+						.incompleteObligations(incomplete)
+						.invalidProposalCount(errors.size())
+						.proposalValidationErrors(errors)
+						.build();
+
+				BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+				response.setEntity(new StringEntity(objectMapper.writeValueAsString(status)));
+				return response;
+
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		};
+
+		try (TrolieClient trolieClient = new TrolieClientBuilder(baseUri, HttpClientBuilder.create().build()).build()) {
+
+			try (ShardedForecastProposalUpdate update = trolieClient.createShardedForecastRatingProposalStreamingUpdate(3)) {
+
+				update.begin(ForecastProposalHeader.builder()
+						.begins(startTime)
+						.powerSystemResources(obligations)
+						.build());
+				for (int i = 0; i < 10; i++) {
+					update.beginResource("resource" + i);
+					update.period(ForecastRatingPeriod.builder()
+							.periodStart(startTime)
+							.periodEnd(startTime)
+							.continuousOperatingLimit(RatingValue.fromMva(100f))
+							.build());
+					update.endResource();
+				}
+				ForecastRatingProposalStatus status = update.complete();
+
+				Assertions.assertEquals(3, requests.get());
+				Assertions.assertEquals(10, received.size());
+				Assertions.assertEquals(1, status.getIncompleteObligationCount());
+				Assertions.assertEquals("missing", status.getIncompleteObligations().get(0).getResourceId());
+				Assertions.assertEquals(1, status.getInvalidProposalCount());
+				Assertions.assertEquals("resource4", status.getProposalValidationErrors().get(0).getResourceId());
+			}
+		}
+	}
+
+	@Test
+	void testShardedUpdatesFailWhenWorkersAreHeld() throws IOException {
+
+		requestHandler = request -> {
+			try (GzipDecompressingEntity entity = new GzipDecompressingEntity(request.getEntity())) {
+				objectMapper.readValue(entity.getContent(), Map.class);
+				BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+				response.setEntity(new StringEntity(objectMapper.writeValueAsString(
+						ForecastRatingProposalStatus.builder().build())));
+				return response;
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		};
+
+		ForecastProposalHeader header = ForecastProposalHeader.builder().begins(Instant.now()).build();
+		try (TrolieClient trolieClient = new TrolieClientBuilder(baseUri, HttpClientBuilder.create().build())
+				.workerThreads(3)
+				.requestConfig(RequestConfig.custom().setConnectionRequestTimeout(Timeout.ofMilliseconds(500)).build())
+				.build()) {
+
+			try (ShardedForecastProposalUpdate first = trolieClient.createShardedForecastRatingProposalStreamingUpdate(10)) {
+				//one worker is left to subscriptions
+				Assertions.assertEquals(2, first.getShardCount());
+				first.begin(header);
+
+				//the shards of another update cannot start while the first holds the workers
+				try (ShardedForecastProposalUpdate second = trolieClient.createShardedForecastRatingProposalStreamingUpdate(2)) {
+					Assertions.assertThrows(TrolieException.class, () -> second.begin(header));
+				}
+
+				first.complete();
+			}
+		}
+	}
+
+	@Test
+	void testShardedUpdateLeavesSingleWorkerToPolls() throws Exception {
+
+		AtomicInteger polls = new AtomicInteger();
+		requestHandler = request -> {
+			BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+			try {
+				if ("GET".equals(request.getMethod())) {
+					polls.incrementAndGet();
+					var out = new ByteArrayOutputStream();
+					try (JsonGenerator json = new JsonFactory(objectMapper).createGenerator(out)) {
+						writeMonitoringSet(json, "set-1");
+					}
+					response.setEntity(new StringEntity(out.toString(StandardCharsets.UTF_8),
+							ContentType.create(TrolieApiConstants.CONTENT_TYPE_MONITORING_SET)));
+				} else {
+					try (GzipDecompressingEntity entity = new GzipDecompressingEntity(request.getEntity())) {
+						objectMapper.readValue(entity.getContent(), Map.class);
+					}
+					response.setEntity(new StringEntity(objectMapper.writeValueAsString(
+							ForecastRatingProposalStatus.builder().build())));
+				}
+			} catch (Exception e) {
+				e.printStackTrace();
+				response.setCode(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+			}
+			return response;
+		};
+
+		try (TrolieClient trolieClient = new TrolieClientBuilder(baseUri, HttpClientBuilder.create().build())
+				.workerThreads(1)
+				.monitoringSetPollMs(50)
+				.build()) {
+
+			try (ShardedForecastProposalUpdate update = trolieClient.createShardedForecastRatingProposalStreamingUpdate(4)) {
+				Assertions.assertEquals(1, update.getShardCount());
+				update.begin(ForecastProposalHeader.builder().begins(Instant.now()).build());
+
+				//the open update must not hold the only worker
+				trolieClient.subscribeToMonitoringSetUpdates(monitoringSet -> { }, "set-1");
+				long deadline = System.currentTimeMillis() + 5000;
+				while (polls.get() < 2 && System.currentTimeMillis() < deadline) {
+					Thread.sleep(20);
+				}
+				Assertions.assertTrue(polls.get() >= 2);
+
+				update.complete();
+			}
+		}
+	}
+
 	@Test
 	void testForecastRatingProposalStreamingUpdate_ConnectError() throws IOException {
 
@@ -872,6 +1055,158 @@ public class TrolieClientIT {
 		}
 	}
 
+	@Test
+	void testRealTimeRatingPublisherBatches() throws Exception {
+
+		List<List<Map<String,Object>>> posted = Collections.synchronizedList(new ArrayList<>());
+		requestHandler = request -> {
+			try (GzipDecompressingEntity entity = new GzipDecompressingEntity(request.getEntity())) {
+
+				Map<String,Object> data = objectMapper.readValue(entity.getContent(), Map.class);
+				posted.add((List<Map<String,Object>>) data.get("ratings"));
+
+				BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+				response.setEntity(new StringEntity(objectMapper.writeValueAsString(
+						RealTimeRatingProposalStatus.builder().build())));
+				return response;
+
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		};
+
+		List<List<RealTimeRating>> sent = Collections.synchronizedList(new ArrayList<>());
+		RealTimeRatingPublisher.Listener listener = new RealTimeRatingPublisher.Listener() {
+			@Override
+			public void sent(List<RealTimeRating> ratings, RealTimeRatingProposalStatus status) {
+				sent.add(ratings);
+			}
+
+			@Override
+			public void failed(List<RealTimeRating> ratings, TrolieException error) {
+				Assertions.fail(error);
+			}
+		};
+
+		try (TrolieClient trolieClient = new TrolieClientBuilder(baseUri, HttpClientBuilder.create().build()).build()) {
+
+			try (RealTimeRatingPublisher publisher = trolieClient.createRealTimeRatingPublisher(
+					() -> ProposalHeader.builder().build(), listener)
+					.maxBatchRatings(10)
+					.maxLatencyMillis(200)) {
+
+				//below the batch size, sent once the latency elapsed with only the latest rating of each resource
+				for (int i = 1; i <= 3; i++) {
+					publisher.publish(RealTimeRating.builder().resourceId("line-a")
+							.continuousOperatingLimit(RatingValue.fromMva(i)).build());
+				}
+				publisher.publish(RealTimeRating.builder().resourceId("line-b")
+						.continuousOperatingLimit(RatingValue.fromMva(7f)).build());
+
+				long deadline = System.currentTimeMillis() + 5000;
+				while (sent.isEmpty() && System.currentTimeMillis() < deadline) {
+					Thread.sleep(20);
+				}
+				Assertions.assertEquals(1, sent.size());
+				Assertions.assertEquals(2, sent.get(0).size());
+				Assertions.assertEquals(3f, sent.get(0).get(0).getContinuousOperatingLimit().getMVA());
+				Assertions.assertEquals(2, publisher.getSupersededRatings());
+
+				//a full batch is sent without waiting, the rest when closed
+				for (int i = 0; i < 15; i++) {
+					publisher.publish(RealTimeRating.builder().resourceId("line-" + i)
+							.continuousOperatingLimit(RatingValue.fromMva(100f)).build());
+				}
+			}
+
+			Assertions.assertEquals(3, sent.size());
+			Assertions.assertEquals(10, sent.get(1).size());
+			Assertions.assertEquals(5, sent.get(2).size());
+			Assertions.assertEquals(List.of(2, 10, 5), posted.stream().map(List::size).toList());
+		}
+	}
+
+	@Test
+	void testRealTimeRatingPublisherClosedWithClient() throws Exception {
+
+		AtomicInteger posted = new AtomicInteger();
+		requestHandler = request -> {
+			posted.incrementAndGet();
+			BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+			try {
+				response.setEntity(new StringEntity(objectMapper.writeValueAsString(
+						RealTimeRatingProposalStatus.builder().build())));
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+			return response;
+		};
+
+		List<RealTimeRating> sent = Collections.synchronizedList(new ArrayList<>());
+		RealTimeRatingPublisher publisher;
+		try (TrolieClient trolieClient = new TrolieClientBuilder(baseUri, HttpClientBuilder.create().build()).build()) {
+			publisher = trolieClient.createRealTimeRatingPublisher(() -> ProposalHeader.builder().build(),
+					new RealTimeRatingPublisher.Listener() {
+						@Override
+						public void sent(List<RealTimeRating> ratings, RealTimeRatingProposalStatus status) {
+							sent.addAll(ratings);
+						}
+
+						@Override
+						public void failed(List<RealTimeRating> ratings, TrolieException error) {
+							Assertions.fail(error);
+						}
+					}).maxLatencyMillis(60000);
+			publisher.publish(RealTimeRating.builder().resourceId("line-a")
+					.continuousOperatingLimit(RatingValue.fromMva(100f)).build());
+		}
+
+		//left open, the publisher was closed by the client and sent its pending rating
+		Assertions.assertEquals(1, posted.get());
+		Assertions.assertEquals(1, sent.size());
+		Assertions.assertThrows(IllegalStateException.class, () -> publisher.publish(RealTimeRating.builder()
+				.resourceId("line-b").continuousOperatingLimit(RatingValue.fromMva(100f)).build()));
+	}
+
+	@Test
+	void testRealTimeRatingPublisherClosedByListener() throws Exception {
+
+		requestHandler = request -> {
+			BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+			try {
+				response.setEntity(new StringEntity(objectMapper.writeValueAsString(
+						RealTimeRatingProposalStatus.builder().build())));
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+			return response;
+		};
+
+		AtomicReference<RealTimeRatingPublisher> publisher = new AtomicReference<>();
+		CompletableFuture<Void> closed = new CompletableFuture<>();
+		try (TrolieClient trolieClient = new TrolieClientBuilder(baseUri, HttpClientBuilder.create().build()).build()) {
+			publisher.set(trolieClient.createRealTimeRatingPublisher(
+					() -> ProposalHeader.builder().build(), new RealTimeRatingPublisher.Listener() {
+						@Override
+						public void sent(List<RealTimeRating> ratings, RealTimeRatingProposalStatus status) {
+							//on the thread of the publisher, which must not wait for itself
+							publisher.get().close();
+							closed.complete(null);
+						}
+
+						@Override
+						public void failed(List<RealTimeRating> ratings, TrolieException error) {
+							closed.completeExceptionally(error);
+						}
+					}).maxLatencyMillis(0));
+			publisher.get().publish(RealTimeRating.builder().resourceId("line-a")
+					.continuousOperatingLimit(RatingValue.fromMva(100f)).build());
+			closed.get(5, TimeUnit.SECONDS);
+			Assertions.assertThrows(IllegalStateException.class, () -> publisher.get().publish(RealTimeRating.builder()
+					.resourceId("line-b").continuousOperatingLimit(RatingValue.fromMva(100f)).build()));
+		}
+	}
+
 	@Test
 	void testRealTimeSnapshotSubscription() throws Exception {
 
@@ -1097,6 +1432,109 @@ public class TrolieClientIT {
 		}
 	}
 
+	@Test
+	void testDataFormatNegotiation() throws Exception {
+
+		//stands in for a binary format.  Field names are unquoted, so a body parsed as JSON fails.
+		DataFormat format = DataFormat.of("x-unquoted", JsonFactory.builder()
+				.disable(JsonWriteFeature.QUOTE_FIELD_NAMES)
+				.enable(JsonReadFeature.ALLOW_UNQUOTED_FIELD_NAMES)
+				.build());
+		ObjectMapper formatMapper = format.withObjectMapper(objectMapper).getObjectMapper();
+		String snapshotType = format.mediaType(TrolieApiConstants.CONTENT_TYPE_REALTIME_SNAPSHOT);
+		String proposalType = format.mediaType(TrolieApiConstants.CONTENT_TYPE_REALTIME_PROPOSAL);
+		Assertions.assertEquals("application/vnd.trolie.realtime-limits-snapshot.v1+x-unquoted", snapshotType);
+
+		AtomicBoolean serverSupportsFormat = new AtomicBoolean(true);
+		List<String> accepted = Collections.synchronizedList(new ArrayList<>());
+		requestHandler = request -> {
+
+			BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+			try {
+				if (request.getPath().startsWith(TrolieApiConstants.PATH_REALTIME_PROPOSAL)) {
+					//proposals are sent in the format, and answered in it when accepted
+					Assertions.assertEquals(proposalType, ContentType.parse(request.getEntity().getContentType()).getMimeType());
+					try (GzipDecompressingEntity entity = new GzipDecompressingEntity(request.getEntity())) {
+						Map<String,Object> data = formatMapper.readValue(entity.getContent(), Map.class);
+						Assertions.assertEquals(3, ((List<?>) data.get("ratings")).size());
+					}
+					String accept = request.getFirstHeader(HttpHeaders.ACCEPT).getValue();
+					Assertions.assertTrue(accept.startsWith(proposalType));
+					response.setEntity(new ByteArrayEntity(formatMapper.writeValueAsBytes(
+							RealTimeRatingProposalStatus.builder().incompleteObligationCount(5).build()),
+							ContentType.create(proposalType)));
+					response.addHeader(HttpHeaders.CONTENT_TYPE, proposalType);
+					return response;
+				}
+
+				String accept = request.getFirstHeader(HttpHeaders.ACCEPT).getValue();
+				accepted.add(accept);
+				boolean binary = serverSupportsFormat.get() && accept.contains(snapshotType);
+				ByteArrayOutputStream body = new ByteArrayOutputStream();
+				try (JsonGenerator json = (binary ? formatMapper : objectMapper).createGenerator(body)) {
+					writeRealTimeSnapshot(json);
+				}
+				String contentType = binary ? snapshotType : TrolieApiConstants.CONTENT_TYPE_REALTIME_SNAPSHOT;
+				response.setEntity(new ByteArrayEntity(body.toByteArray(), ContentType.create(contentType)));
+				response.addHeader(HttpHeaders.CONTENT_TYPE, contentType);
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+			return response;
+		};
+
+		try (TrolieClient trolieClient = new TrolieClientBuilder(baseUri, HttpClientBuilder.create().build())
+				.dataFormat(format)
+				.build()) {
+
+			AtomicInteger limits = new AtomicInteger();
+			AtomicInteger errorCount = new AtomicInteger();
+			RealTimeSnapshotReceiver receiver = new RealTimeSnapshotReceiver() {
+				@Override
+				public void header(RealTimeSnapshotHeader header) {
+				}
+
+				@Override
+				public void limit(RealTimeLimit limit) {
+					limits.incrementAndGet();
+				}
+
+				@Override
+				public void endSnapshot() {
+				}
+
+				@Override
+				public void beginSnapshot() {
+				}
+
+				@Override
+				public void error(StreamingGetException t) {
+					errorCount.incrementAndGet();
+				}
+			};
+
+			//served in the format
+			trolieClient.getInUseLimits(receiver);
+			Assertions.assertEquals(100, limits.get());
+
+			//falls back to JSON on servers without support for the format
+			serverSupportsFormat.set(false);
+			trolieClient.getInUseLimits(receiver);
+			Assertions.assertEquals(200, limits.get());
+			Assertions.assertEquals(0, errorCount.get());
+			Assertions.assertEquals(List.of(snapshotType + ", " + TrolieApiConstants.CONTENT_TYPE_REALTIME_SNAPSHOT + ";q=0.5"),
+					accepted.stream().distinct().toList());
+
+			try (RealTimeRatingProposalUpdate update = trolieClient.createRealTimeRatingProposalStreamingUpdate()) {
+				update.begin(ProposalHeader.builder().build());
+				for (int i = 0; i < 3; i++) {
+					update.rating(RealTimeRating.builder().continuousOperatingLimit(RatingValue.fromMva(100f)).build());
+				}
+				Assertions.assertEquals(5, update.complete().getIncompleteObligationCount());
+			}
+		}
+	}
+
 	@Test
 	void testRegionalRealTimeSnapshotSubscription() throws Exception {
 
@@ -2301,4 +2739,660 @@ public class TrolieClientIT {
 		}
 	}
 
+
+	@Test
+	void testSubscriptionsShareBoundedWorkerPool() throws Exception {
+
+		requestHandler = request -> {
+			BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+			try {
+				String path = request.getUri().getPath();
+				String id = path.substring(path.lastIndexOf('/') + 1);
+				var out = new ByteArrayOutputStream();
+				try (JsonGenerator json = new JsonFactory(objectMapper).createGenerator(out)) {
+					writeMonitoringSet(json, id);
+				}
+				response.setHeader(HttpHeaders.ETAG, id);
+				response.setEntity(new StringEntity(out.toString(StandardCharsets.UTF_8),
+						ContentType.create(TrolieApiConstants.CONTENT_TYPE_MONITORING_SET)));
+			} catch (Exception e) {
+				e.printStackTrace();
+				response.setCode(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+			}
+			return response;
+		};
+
+		int subscriptionCount = 10;
+		try (TrolieClient trolieClient = new TrolieClientBuilder(baseUri, HttpClientBuilder.create().build())
+				.monitoringSetPollMs(100)
+				.workerThreads(2)
+				.build()) {
+
+			Map<String, AtomicInteger> received = new ConcurrentHashMap<>();
+			for (int i = 0; i < subscriptionCount; i++) {
+				String id = "set-" + i;
+				received.put(id, new AtomicInteger());
+				trolieClient.subscribeToMonitoringSetUpdates(
+						monitoringSet -> received.get(monitoringSet.getId()).incrementAndGet(), id);
+			}
+
+			//more subscriptions than workers must all be served
+			long deadline = System.currentTimeMillis() + 5000;
+			while (received.values().stream().anyMatch(c -> c.get() == 0)
+					&& System.currentTimeMillis() < deadline) {
+				Thread.sleep(50);
+			}
+
+			received.forEach((id, count) -> assertTrue(count.get() > 0, id));
+			ExecutorMetrics metrics = trolieClient.getExecutorMetrics();
+			assertEquals(2, metrics.getMaxWorkers());
+			assertTrue(metrics.getPoolSize() <= 2);
+			assertTrue(metrics.getCompletedTasks() >= subscriptionCount);
+		}
+	}
+
+	@Test
+	void testUpdateFromSubscriptionCallback() throws Exception {
+
+		requestHandler = request -> {
+			BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+			try {
+				if ("GET".equals(request.getMethod())) {
+					var out = new ByteArrayOutputStream();
+					try (JsonGenerator json = new JsonFactory(objectMapper).createGenerator(out)) {
+						writeMonitoringSet(json, "set-1");
+					}
+					response.setHeader(HttpHeaders.ETAG, "set-1");
+					response.setEntity(new StringEntity(out.toString(StandardCharsets.UTF_8),
+							ContentType.create(TrolieApiConstants.CONTENT_TYPE_MONITORING_SET)));
+				} else {
+					try (GzipDecompressingEntity entity = new GzipDecompressingEntity(request.getEntity())) {
+						objectMapper.readValue(entity.getContent(), Map.class);
+					}
+					response.setEntity(new StringEntity(objectMapper.writeValueAsString(
+							RealTimeRatingProposalStatus.builder().incompleteObligationCount(2).build())));
+				}
+			} catch (Exception e) {
+				e.printStackTrace();
+				response.setCode(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+			}
+			return response;
+		};
+
+		CompletableFuture<RealTimeRatingProposalStatus> sent = new CompletableFuture<>();
+		try (TrolieClient trolieClient = new TrolieClientBuilder(baseUri, HttpClientBuilder.create().build())
+				.workerThreads(1)
+				.build()) {
+
+			//the callback holds the only worker while the update is sent
+			trolieClient.subscribeToMonitoringSetUpdates(monitoringSet -> {
+				if (sent.isDone()) {
+					return;
+				}
+				try (RealTimeRatingProposalUpdate update = trolieClient.createRealTimeRatingProposalStreamingUpdate()) {
+					update.begin(ProposalHeader.builder().build());
+					update.rating(RealTimeRating.builder().resourceId("line-1")
+							.continuousOperatingLimit(RatingValue.fromMva(100f)).build());
+					sent.complete(update.complete());
+				} catch (Exception e) {
+					sent.completeExceptionally(e);
+				}
+			}, "set-1");
+
+			assertEquals(2, sent.get(5, TimeUnit.SECONDS).getIncompleteObligationCount());
+		}
+	}
+
+	@Test
+	void testForecastSnapshotGetOverAsyncTransport() throws Exception {
+
+		Instant startTime = Instant.now();
+		requestHandler = request -> {
+			BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+			try {
+				var out = new ByteArrayOutputStream();
+				try (JsonGenerator json = new JsonFactory(objectMapper).createGenerator(out)) {
+					writeForecastSnapshot(json, startTime);
+				}
+				response.setEntity(new StringEntity(out.toString(StandardCharsets.UTF_8),
+						ContentType.create(TrolieApiConstants.CONTENT_TYPE_FORECAST_SNAPSHOT)));
+			} catch (Exception e) {
+				e.printStackTrace();
+				response.setCode(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+			}
+			return response;
+		};
+
+		try (TrolieClient trolieClient = new TrolieClientBuilder(baseUri, HttpClientBuilder.create().build())
+				.asyncHttpClient(HttpAsyncClients.createDefault())
+				.build()) {
+
+			AtomicInteger resources = new AtomicInteger();
+			AtomicInteger periods = new AtomicInteger();
+			AtomicInteger errorCount = new AtomicInteger();
+			List<String> callbackThreads = new ArrayList<>();
+
+			trolieClient.getInUseLimitForecasts(new ForecastSnapshotReceiver() {
+				@Override
+				public void beginSnapshot() {
+					callbackThreads.add(Thread.currentThread().getName());
+				}
+
+				@Override
+				public void header(ForecastSnapshotHeader header) {
+					Assertions.assertEquals(startTime, header.getBegins());
+				}
+
+				@Override
+				public void beginResource(String resourceId) {
+					Assertions.assertEquals("resource" + resources.getAndIncrement(), resourceId);
+				}
+
+				@Override
+				public void period(ForecastPeriodSnapshot period) {
+					periods.incrementAndGet();
+				}
+
+				@Override
+				public void endResource() {
+				}
+
+				@Override
+				public void endSnapshot() {
+				}
+
+				@Override
+				public void error(StreamingGetException t) {
+					errorCount.incrementAndGet();
+				}
+			});
+
+			Assertions.assertEquals(0, errorCount.get());
+			Assertions.assertEquals(100, resources.get());
+			Assertions.assertEquals(2400, periods.get());
+			//parsed on the I/O thread of the async client, not on the caller
+			Assertions.assertNotEquals(Thread.currentThread().getName(), callbackThreads.get(0));
+		}
+	}
+
+	@Test
+	void testRealTimeSnapshotSubscriptionOverAsyncTransport() throws Exception {
+
+		AtomicInteger requests = new AtomicInteger();
+		requestHandler = request -> {
+			requests.incrementAndGet();
+			if (request.containsHeader(HttpHeaders.IF_NONE_MATCH)) {
+				return new BasicClassicHttpResponse(HttpStatus.SC_NOT_MODIFIED);
+			}
+			BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+			try {
+				var out = new ByteArrayOutputStream();
+				try (JsonGenerator json = new JsonFactory(objectMapper).createGenerator(out)) {
+					writeRealTimeSnapshot(json);
+				}
+				response.setHeader(HttpHeaders.ETAG, "v1");
+				response.setEntity(new StringEntity(out.toString(StandardCharsets.UTF_8),
+						ContentType.create(TrolieApiConstants.CONTENT_TYPE_REALTIME_SNAPSHOT)));
+			} catch (Exception e) {
+				e.printStackTrace();
+				response.setCode(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+			}
+			return response;
+		};
+
+		try (TrolieClient trolieClient = new TrolieClientBuilder(baseUri, HttpClientBuilder.create().build())
+				.asyncHttpClient(HttpAsyncClients.createDefault())
+				.realTimeRatingsPollMs(50)
+				.build()) {
+
+			AtomicInteger snapshots = new AtomicInteger();
+			AtomicInteger limits = new AtomicInteger();
+			AtomicInteger errorCount = new AtomicInteger();
+
+			RequestSubscription subscription = trolieClient.subscribeToInUseLimits(new RealTimeSnapshotSubscribedReceiver() {
+				@Override
+				public void beginSnapshot() {
+					snapshots.incrementAndGet();
+				}
+
+				@Override
+				public void header(RealTimeSnapshotHeader header) {
+				}
+
+				@Override
+				public void limit(RealTimeLimit limit) {
+					limits.incrementAndGet();
+				}
+
+				@Override
+				public void endSnapshot() {
+				}
+
+				@Override
+				public void error(StreamingGetException t) {
+					errorCount.incrementAndGet();
+				}
+			});
+
+			long deadline = System.currentTimeMillis() + 5000;
+			while (requests.get() < 3 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+
+			//later polls are answered with 304 using the stored ETag
+			Assertions.assertTrue(requests.get() >= 3);
+			Assertions.assertEquals(1, snapshots.get());
+			Assertions.assertEquals(100, limits.get());
+			Assertions.assertEquals(0, errorCount.get());
+			Assertions.assertTrue(subscription.isHealthy());
+		}
+	}
+
+	@Test
+	void testAdaptivePollingHonorsCacheControl() throws Exception {
+
+		AtomicInteger requests = new AtomicInteger();
+		requestHandler = request -> {
+			requests.incrementAndGet();
+			BasicClassicHttpResponse response;
+			if (request.containsHeader(HttpHeaders.IF_NONE_MATCH)) {
+				response = new BasicClassicHttpResponse(HttpStatus.SC_NOT_MODIFIED);
+			} else {
+				response = new BasicClassicHttpResponse(200);
+				try {
+					var out = new ByteArrayOutputStream();
+					try (JsonGenerator json = new JsonFactory(objectMapper).createGenerator(out)) {
+						writeRealTimeSnapshot(json);
+					}
+					response.setHeader(HttpHeaders.ETAG, "v1");
+					response.setEntity(new StringEntity(out.toString(StandardCharsets.UTF_8),
+							ContentType.create(TrolieApiConstants.CONTENT_TYPE_REALTIME_SNAPSHOT)));
+				} catch (Exception e) {
+					e.printStackTrace();
+					response.setCode(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+				}
+			}
+			response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=1");
+			return response;
+		};
+
+		try (TrolieClient trolieClient = new TrolieClientBuilder(baseUri, HttpClientBuilder.create().build())
+				.realTimeRatingsPollMs(50)
+				.adaptivePolling()
+				.build()) {
+
+			AtomicInteger errorCount = new AtomicInteger();
+			RequestSubscription subscription = trolieClient.subscribeToInUseLimits(new RealTimeSnapshotSubscribedReceiver() {
+				@Override
+				public void beginSnapshot() {
+				}
+
+				@Override
+				public void header(RealTimeSnapshotHeader header) {
+				}
+
+				@Override
+				public void limit(RealTimeLimit limit) {
+				}
+
+				@Override
+				public void endSnapshot() {
+				}
+
+				@Override
+				public void error(StreamingGetException t) {
+					errorCount.incrementAndGet();
+				}
+			});
+
+			Thread.sleep(1500);
+
+			//polled once the response went stale, rather than every 50 ms
+			Assertions.assertEquals(2, requests.get());
+			Assertions.assertEquals(1000, subscription.getPollIntervalMillis());
+			Assertions.assertEquals(0, errorCount.get());
+		}
+	}
+
+	@Test
+	void testSubscriptionsToSameEndpointShareRequests() throws Exception {
+
+		AtomicInteger requests = new AtomicInteger();
+		AtomicInteger fullResponses = new AtomicInteger();
+		requestHandler = request -> {
+			requests.incrementAndGet();
+			if (request.containsHeader(HttpHeaders.IF_NONE_MATCH)) {
+				return new BasicClassicHttpResponse(HttpStatus.SC_NOT_MODIFIED);
+			}
+			fullResponses.incrementAndGet();
+			BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+			try {
+				var out = new ByteArrayOutputStream();
+				try (JsonGenerator json = new JsonFactory(objectMapper).createGenerator(out)) {
+					writeRealTimeSnapshot(json);
+				}
+				response.setHeader(HttpHeaders.ETAG, "v1");
+				response.setEntity(new StringEntity(out.toString(StandardCharsets.UTF_8),
+						ContentType.create(TrolieApiConstants.CONTENT_TYPE_REALTIME_SNAPSHOT)));
+			} catch (Exception e) {
+				e.printStackTrace();
+				response.setCode(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+			}
+			return response;
+		};
+
+		try (TrolieClient trolieClient = new TrolieClientBuilder(baseUri, HttpClientBuilder.create().build())
+				.realTimeRatingsPollMs(50)
+				.coalesceSubscriptions(true)
+				.build()) {
+
+			List<AtomicInteger> limits = new ArrayList<>();
+			List<RequestSubscription> subscriptions = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				AtomicInteger received = new AtomicInteger();
+				limits.add(received);
+				if (i == 2) {
+					//joins once the others have received the snapshot and are polling with its ETag
+					Thread.sleep(300);
+				}
+				subscriptions.add(trolieClient.subscribeToInUseLimits(new RealTimeSnapshotSubscribedReceiver() {
+					@Override
+					public void beginSnapshot() {
+					}
+
+					@Override
+					public void header(RealTimeSnapshotHeader header) {
+					}
+
+					@Override
+					public void limit(RealTimeLimit limit) {
+						received.incrementAndGet();
+					}
+
+					@Override
+					public void endSnapshot() {
+					}
+				}, "set1"));
+			}
+
+			long deadline = System.currentTimeMillis() + 5000;
+			while (limits.get(2).get() < 100 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+			Thread.sleep(100);
+
+			//one request per poll, and one more full response for the receiver that joined late
+			Assertions.assertEquals(2, fullResponses.get());
+			Assertions.assertEquals(200, limits.get(0).get());
+			Assertions.assertEquals(200, limits.get(1).get());
+			Assertions.assertEquals(100, limits.get(2).get());
+
+			//the shared request polls until the last receiver unsubscribes
+			trolieClient.unsubscribe(subscriptions.get(0));
+			trolieClient.unsubscribe(subscriptions.get(1));
+			Assertions.assertFalse(subscriptions.get(0).isSubscribed());
+			Assertions.assertTrue(subscriptions.get(2).isSubscribed());
+			int polled = requests.get();
+			Thread.sleep(200);
+			Assertions.assertTrue(requests.get() > polled);
+
+			trolieClient.unsubscribe(subscriptions.get(2));
+			Assertions.assertFalse(subscriptions.get(2).isSubscribed());
+			polled = requests.get();
+			Thread.sleep(200);
+			Assertions.assertEquals(polled, requests.get());
+		}
+	}
+
+	@Test
+	void testSnapshotCacheReplaysAfterRestart() throws Exception {
+
+		AtomicInteger fullResponses = new AtomicInteger();
+		requestHandler = request -> {
+			Header requestEtag = request.getFirstHeader(HttpHeaders.IF_NONE_MATCH);
+			if (requestEtag != null && "v1".equals(requestEtag.getValue())) {
+				return new BasicClassicHttpResponse(HttpStatus.SC_NOT_MODIFIED);
+			}
+			fullResponses.incrementAndGet();
+			BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+			try {
+				var out = new ByteArrayOutputStream();
+				try (JsonGenerator json = new JsonFactory(objectMapper).createGenerator(out)) {
+					writeRealTimeSnapshot(json);
+				}
+				response.setHeader(HttpHeaders.ETAG, "v1");
+				response.setEntity(new StringEntity(out.toString(StandardCharsets.UTF_8),
+						ContentType.create(TrolieApiConstants.CONTENT_TYPE_REALTIME_SNAPSHOT)));
+			} catch (Exception e) {
+				e.printStackTrace();
+				response.setCode(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+			}
+			return response;
+		};
+
+		Path cacheDirectory = Files.createTempDirectory("trolie-snapshot-cache");
+		try {
+			//the second client starts with an empty ETag store, as after a restart
+			for (int run = 0; run < 2; run++) {
+				try (TrolieClient trolieClient = new TrolieClientBuilder(baseUri, HttpClientBuilder.create().build())
+						.snapshotCacheDirectory(cacheDirectory)
+						.realTimeRatingsPollMs(50)
+						.build()) {
+
+					AtomicInteger snapshots = new AtomicInteger();
+					AtomicInteger limits = new AtomicInteger();
+					AtomicInteger errorCount = new AtomicInteger();
+
+					trolieClient.subscribeToInUseLimits(new RealTimeSnapshotSubscribedReceiver() {
+						@Override
+						public void beginSnapshot() {
+							snapshots.incrementAndGet();
+						}
+
+						@Override
+						public void header(RealTimeSnapshotHeader header) {
+						}
+
+						@Override
+						public void limit(RealTimeLimit limit) {
+							limits.incrementAndGet();
+						}
+
+						@Override
+						public void endSnapshot() {
+						}
+
+						@Override
+						public void error(StreamingGetException t) {
+							errorCount.incrementAndGet();
+						}
+					});
+
+					long deadline = System.currentTimeMillis() + 5000;
+					while (limits.get() < 100 && System.currentTimeMillis() < deadline) {
+						Thread.sleep(20);
+					}
+					Thread.sleep(200);
+
+					Assertions.assertEquals(1, snapshots.get());
+					Assertions.assertEquals(100, limits.get());
+					Assertions.assertEquals(0, errorCount.get());
+				}
+			}
+			//the snapshot replayed by the second client was not sent again
+			Assertions.assertEquals(1, fullResponses.get());
+		} finally {
+			try (var files = Files.list(cacheDirectory)) {
+				for (Path file : files.toList()) {
+					Files.delete(file);
+				}
+			}
+			Files.delete(cacheDirectory);
+		}
+	}
+
+	@Test
+	void testResponseCacheReplaysNotModified() throws Exception {
+
+		AtomicInteger fullResponses = new AtomicInteger();
+		AtomicInteger notModified = new AtomicInteger();
+		requestHandler = request -> {
+			Header requestEtag = request.getFirstHeader(HttpHeaders.IF_NONE_MATCH);
+			if (requestEtag != null && "v1".equals(requestEtag.getValue())) {
+				notModified.incrementAndGet();
+				return new BasicClassicHttpResponse(HttpStatus.SC_NOT_MODIFIED);
+			}
+			fullResponses.incrementAndGet();
+			BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+			try {
+				var out = new ByteArrayOutputStream();
+				try (JsonGenerator json = new JsonFactory(objectMapper).createGenerator(out)) {
+					writeRealTimeSnapshot(json);
+				}
+				response.setHeader(HttpHeaders.ETAG, "v1");
+				response.setEntity(new StringEntity(out.toString(StandardCharsets.UTF_8),
+						ContentType.create(TrolieApiConstants.CONTENT_TYPE_REALTIME_SNAPSHOT)));
+			} catch (Exception e) {
+				e.printStackTrace();
+				response.setCode(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+			}
+			return response;
+		};
+
+		try (TrolieClient trolieClient = new TrolieClientBuilder(baseUri, HttpClientBuilder.create().build())
+				.responseCacheMaxBytes(1 << 20)
+				.build()) {
+
+			AtomicInteger snapshots = new AtomicInteger();
+			AtomicInteger limits = new AtomicInteger();
+			AtomicInteger errorCount = new AtomicInteger();
+			RealTimeSnapshotReceiver receiver = new RealTimeSnapshotReceiver() {
+				@Override
+				public void beginSnapshot() {
+					snapshots.incrementAndGet();
+				}
+
+				@Override
+				public void header(RealTimeSnapshotHeader header) {
+				}
+
+				@Override
+				public void limit(RealTimeLimit limit) {
+					limits.incrementAndGet();
+				}
+
+				@Override
+				public void endSnapshot() {
+				}
+
+				@Override
+				public void error(StreamingGetException t) {
+					errorCount.incrementAndGet();
+				}
+			};
+
+			for (int i = 0; i < 3; i++) {
+				trolieClient.getInUseLimits(receiver);
+			}
+
+			//every request delivered the full snapshot, but only the first one downloaded it
+			Assertions.assertEquals(3, snapshots.get());
+			Assertions.assertEquals(300, limits.get());
+			Assertions.assertEquals(0, errorCount.get());
+			Assertions.assertEquals(1, fullResponses.get());
+			Assertions.assertEquals(2, notModified.get());
+		}
+	}
+
+	@Test
+	void testRealTimeSnapshotGetAsyncFanOut() throws Exception {
+
+		requestHandler = request -> {
+			BasicClassicHttpResponse response = new BasicClassicHttpResponse(200);
+			try {
+				if (request.getUri().getQuery().contains("missing")) {
+					response.setCode(HttpStatus.SC_NOT_FOUND);
+					return response;
+				}
+				var out = new ByteArrayOutputStream();
+				try (JsonGenerator json = new JsonFactory(objectMapper).createGenerator(out)) {
+					writeRealTimeSnapshot(json);
+				}
+				response.setEntity(new StringEntity(out.toString(StandardCharsets.UTF_8),
+						ContentType.create(TrolieApiConstants.CONTENT_TYPE_REALTIME_SNAPSHOT)));
+			} catch (Exception e) {
+				e.printStackTrace();
+				response.setCode(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+			}
+			return response;
+		};
+
+		try (TrolieClient trolieClient = new TrolieClientBuilder(baseUri, HttpClientBuilder.create().build()).build()) {
+
+			Map<String, AtomicInteger> limits = new ConcurrentHashMap<>();
+			AtomicInteger errorCount = new AtomicInteger();
+			List<CompletableFuture<Void>> futures = new ArrayList<>();
+			for (String monitoringSet : List.of("set1", "set2", "set3", "set4")) {
+				futures.add(trolieClient.getInUseLimitsAsync(new RealTimeSnapshotReceiver() {
+					@Override
+					public void beginSnapshot() {
+					}
+
+					@Override
+					public void header(RealTimeSnapshotHeader header) {
+					}
+
+					@Override
+					public void limit(RealTimeLimit limit) {
+						limits.computeIfAbsent(monitoringSet, k -> new AtomicInteger()).incrementAndGet();
+					}
+
+					@Override
+					public void endSnapshot() {
+					}
+
+					@Override
+					public void error(StreamingGetException t) {
+						errorCount.incrementAndGet();
+					}
+				}, monitoringSet));
+			}
+
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+			Assertions.assertEquals(4, limits.size());
+			limits.values().forEach(count -> Assertions.assertEquals(100, count.get()));
+			Assertions.assertEquals(0, errorCount.get());
+
+			//the future fails with the same error the receiver is given
+			List<StreamingGetException> errors = new ArrayList<>();
+			CompletableFuture<Void> failed = trolieClient.getInUseLimitsAsync(new RealTimeSnapshotReceiver() {
+				@Override
+				public void beginSnapshot() {
+				}
+
+				@Override
+				public void header(RealTimeSnapshotHeader header) {
+				}
+
+				@Override
+				public void limit(RealTimeLimit limit) {
+				}
+
+				@Override
+				public void endSnapshot() {
+				}
+
+				@Override
+				public void error(StreamingGetException t) {
+					errors.add(t);
+				}
+			}, "missing");
+
+			ExecutionException e = Assertions.assertThrows(ExecutionException.class,
+					() -> failed.get(5, TimeUnit.SECONDS));
+			Assertions.assertEquals(1, errors.size());
+			Assertions.assertSame(errors.get(0), e.getCause());
+		}
+	}
+
 }
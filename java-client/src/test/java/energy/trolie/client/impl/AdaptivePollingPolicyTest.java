@@ -0,0 +1,65 @@
+package energy.trolie.client.impl;
+
+import energy.trolie.client.PollingPolicy.PollOutcome;
+import energy.trolie.client.PollingPolicy.PollResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptivePollingPolicyTest {
+
+    private static final long RATE = 1000;
+
+    @Test
+    void testBacksOffOnNotModifiedAndErrors() {
+        AdaptivePollingPolicy policy = new AdaptivePollingPolicy().jitter(0);
+
+        assertEquals(RATE, policy.nextPollDelayMillis(outcome(PollResult.CHANGED, 0, 0, -1, -1, 0)));
+        assertEquals(RATE, policy.nextPollDelayMillis(outcome(PollResult.NOT_MODIFIED, 3, 0, -1, -1, 0)));
+        assertEquals(2 * RATE, policy.nextPollDelayMillis(outcome(PollResult.NOT_MODIFIED, 4, 0, -1, -1, 0)));
+        assertEquals(4 * RATE, policy.nextPollDelayMillis(outcome(PollResult.NOT_MODIFIED, 5, 0, -1, -1, 0)));
+        assertEquals(8 * RATE, policy.nextPollDelayMillis(outcome(PollResult.NOT_MODIFIED, 50, 0, -1, -1, 0)));
+
+        assertEquals(RATE, policy.nextPollDelayMillis(outcome(PollResult.ERROR, 0, 1, -1, -1, 0)));
+        assertEquals(2 * RATE, policy.nextPollDelayMillis(outcome(PollResult.ERROR, 0, 2, -1, -1, 0)));
+        assertEquals(16 * RATE, policy.nextPollDelayMillis(outcome(PollResult.ERROR, 0, 50, -1, -1, 0)));
+
+        AdaptivePollingPolicy jittered = new AdaptivePollingPolicy().jitter(0.5);
+        long delay = jittered.nextPollDelayMillis(outcome(PollResult.ERROR, 0, 3, -1, -1, 0));
+        assertTrue(delay >= 2 * RATE && delay <= 6 * RATE, "delay " + delay);
+    }
+
+    @Test
+    void testServerDirectivesTakePrecedence() {
+        AdaptivePollingPolicy policy = new AdaptivePollingPolicy().jitter(0);
+
+        assertEquals(5000, policy.nextPollDelayMillis(outcome(PollResult.CHANGED, 0, 0, 5000, -1, 0)));
+        assertEquals(RATE, policy.nextPollDelayMillis(outcome(PollResult.CHANGED, 0, 0, 0, -1, 0)));
+        assertEquals(30000, policy.nextPollDelayMillis(outcome(PollResult.ERROR, 0, 1, -1, 30000, 0)));
+        //freshness of an error response is not meaningful
+        assertEquals(RATE, policy.nextPollDelayMillis(outcome(PollResult.ERROR, 0, 1, 60000, -1, 0)));
+    }
+
+    @Test
+    void testPollsFasterAroundPublishes() {
+        //publishes every 5 minutes, polled every 200 ms from 2 s before until 10 s after
+        AdaptivePollingPolicy policy = new AdaptivePollingPolicy().jitter(0)
+                .publishSchedule(300_000, 0, 2000, 10_000, 200);
+
+        //inside the window around the publish at 300 s
+        assertEquals(200, policy.nextPollDelayMillis(outcome(PollResult.NOT_MODIFIED, 10, 0, -1, -1, 299_000)));
+        assertEquals(200, policy.nextPollDelayMillis(outcome(PollResult.NOT_MODIFIED, 10, 0, -1, -1, 305_000)));
+        //backed off outside, but not past the start of the next window
+        assertEquals(8 * RATE, policy.nextPollDelayMillis(outcome(PollResult.NOT_MODIFIED, 10, 0, -1, -1, 100_000)));
+        assertEquals(3000, policy.nextPollDelayMillis(outcome(PollResult.NOT_MODIFIED, 10, 0, -1, -1, 295_000)));
+        //the server still has the final say
+        assertEquals(5000, policy.nextPollDelayMillis(outcome(PollResult.NOT_MODIFIED, 10, 0, 5000, -1, 299_000)));
+    }
+
+    private static PollOutcome outcome(PollResult result, int notModified, int errors,
+                                       long maxAgeMillis, long retryAfterMillis, long completedAtMillis) {
+        return new PollOutcome(RATE, result, result == PollResult.NOT_MODIFIED ? 304 : 200,
+                notModified, errors, maxAgeMillis, retryAfterMillis, completedAtMillis);
+    }
+}
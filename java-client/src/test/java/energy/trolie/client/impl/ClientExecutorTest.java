@@ -0,0 +1,75 @@
+package energy.trolie.client.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClientExecutorTest {
+
+    @Test
+    void testPlatformPoolIsBounded() throws Exception {
+        ClientExecutor executor = new ClientExecutor(2);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch started = new CountDownLatch(2);
+            for (int i = 0; i < 5; i++) {
+                executor.execute(() -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertFalse(executor.isVirtual());
+            assertEquals(2, executor.getActiveWorkers());
+            assertEquals(3, executor.getQueueDepth());
+            release.countDown();
+        } finally {
+            executor.shutdown(5000);
+        }
+        assertEquals(5, executor.getCompletedTasks());
+    }
+
+    @Test
+    void testRunningTasksMayScheduleDuringShutdown() throws Exception {
+        ClientExecutor executor = new ClientExecutor(2);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(100);
+                executor.schedule(() -> { }, 10);
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.shutdown(5000);
+        assertNull(failure.get());
+        assertEquals(1, executor.getCompletedTasks());
+    }
+
+    @Test
+    void testVirtualThreadsFallBackBeforeJava21() throws Exception {
+        ClientExecutor executor = new ClientExecutor(2, true);
+        try {
+            assertEquals(Runtime.version().feature() >= 21, executor.isVirtual());
+            CountDownLatch ran = new CountDownLatch(1);
+            executor.schedule(ran::countDown, 10);
+            assertTrue(ran.await(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown(5000);
+        }
+    }
+}
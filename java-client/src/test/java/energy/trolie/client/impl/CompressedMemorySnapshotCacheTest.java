@@ -0,0 +1,77 @@
+package energy.trolie.client.impl;
+
+import energy.trolie.client.SnapshotCache;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedMemorySnapshotCacheTest {
+
+    @Test
+    void testCommittedBodyIsReadBack() throws Exception {
+        CompressedMemorySnapshotCache cache = new CompressedMemorySnapshotCache(1 << 20);
+        assertNull(cache.get("key"));
+
+        String body = "{\"limits\":[" + "{\"continuous-operating-limit\":{\"mva\":100}},".repeat(1000) + "]}";
+        SnapshotCache.Writer writer = cache.newWriter("key");
+        writer.write(ByteBuffer.wrap(body.getBytes(StandardCharsets.UTF_8)));
+        //direct buffers are copied in chunks
+        ByteBuffer direct = ByteBuffer.allocateDirect(4);
+        direct.put("tail".getBytes(StandardCharsets.UTF_8)).flip();
+        writer.write(direct);
+        assertEquals(4, direct.remaining());
+        assertNull(cache.get("key"));
+        writer.commit("v1");
+
+        SnapshotCache.Entry entry = cache.get("key");
+        assertEquals("v1", entry.getETag());
+        try (InputStream in = entry.openContent()) {
+            assertEquals(body + "tail", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        ByteBuffer content = entry.getContent();
+        assertEquals(body.length() + 4, content.remaining());
+        assertTrue(cache.getTotalBytes() < body.length() / 10);
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntriesAreEvicted() {
+        CompressedMemorySnapshotCache probe = new CompressedMemorySnapshotCache(1 << 20);
+        store(probe, "a", "1");
+        long entrySize = probe.getTotalBytes();
+        //room for two entries, but not three
+        long maxBytes = 2 * entrySize + entrySize / 2;
+        CompressedMemorySnapshotCache cache = new CompressedMemorySnapshotCache(maxBytes);
+        store(cache, "a", "1");
+        store(cache, "b", "1");
+
+        assertNotNull(cache.get("a"));
+        store(cache, "c", "1");
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertTrue(cache.getTotalBytes() <= maxBytes);
+
+        //bodies beyond the budget are not kept, nor do they evict others
+        SnapshotCache.Writer writer = cache.newWriter("d");
+        byte[] random = new byte[(int) maxBytes * 4];
+        new Random(1).nextBytes(random);
+        writer.write(ByteBuffer.wrap(random));
+        writer.commit("1");
+        assertNull(cache.get("d"));
+        assertEquals(2, cache.size());
+    }
+
+    private static void store(SnapshotCache cache, String key, String eTag) {
+        SnapshotCache.Writer writer = cache.newWriter(key);
+        writer.write(ByteBuffer.wrap(("body of " + key).getBytes(StandardCharsets.UTF_8)));
+        writer.commit(eTag);
+    }
+}
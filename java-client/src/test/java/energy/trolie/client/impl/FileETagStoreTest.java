@@ -0,0 +1,75 @@
+package energy.trolie.client.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileETagStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testETagsSurviveRestart() throws Exception {
+        Path file = directory.resolve("etags");
+        try (FileETagStore store = new FileETagStore(file)) {
+            assertNull(store.getETag("/limits/forecast-snapshot"));
+            store.putETag("/limits/forecast-snapshot", "v1");
+            store.putETag("/limits/realtime-snapshot", "r1");
+            store.putETag("/limits/forecast-snapshot", "v2");
+            //unchanged ETags are not journaled
+            store.putETag("/limits/forecast-snapshot", "v2");
+            assertEquals(3, store.getJournalRecords());
+        }
+
+        //bytes that do not start a record are dropped
+        byte[] journal = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(journal, journal.length + 3));
+        try (FileETagStore store = new FileETagStore(file)) {
+            assertEquals("v2", store.getETag("/limits/forecast-snapshot"));
+            assertEquals("r1", store.getETag("/limits/realtime-snapshot"));
+            //compacted when opened
+            assertEquals(2, store.getJournalRecords());
+        }
+    }
+
+    @Test
+    void testTruncatedRecordIsDropped() throws Exception {
+        Path file = directory.resolve("etags");
+        try (FileETagStore store = new FileETagStore(file)) {
+            store.putETag("/limits/forecast-snapshot", "v1");
+            store.putETag("/limits/realtime-snapshot", "r1");
+            store.putETag("/limits/forecast-snapshot", "v2");
+        }
+
+        //the last record is cut short partway through its ETag
+        byte[] journal = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(journal, journal.length - 2));
+        try (FileETagStore store = new FileETagStore(file)) {
+            assertEquals("v1", store.getETag("/limits/forecast-snapshot"));
+            assertEquals("r1", store.getETag("/limits/realtime-snapshot"));
+            assertEquals(2, store.getJournalRecords());
+        }
+    }
+
+    @Test
+    void testJournalIsCompacted() throws Exception {
+        Path file = directory.resolve("etags");
+        try (FileETagStore store = new FileETagStore(file)) {
+            for (int i = 0; i < 5000; i++) {
+                store.putETag("/limits/realtime-snapshot", "r" + i);
+            }
+            assertTrue(store.getJournalRecords() < 2000);
+        }
+        try (FileETagStore store = new FileETagStore(file)) {
+            assertEquals("r4999", store.getETag("/limits/realtime-snapshot"));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package energy.trolie.client.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedWheelTimerTest {
+
+    @Test
+    void testTimeoutsExpireInDeadlineOrderAcrossRounds() throws Exception {
+        // wheel of 4 buckets x 5ms so the later timeouts wrap around the wheel
+        HashedWheelTimer timer = new HashedWheelTimer(5, 4, Thread::new);
+        try {
+            long start = System.nanoTime();
+            CountDownLatch done = new CountDownLatch(2);
+            long[] elapsed = new long[2];
+            timer.newTimeout(() -> {
+                elapsed[1] = System.nanoTime() - start;
+                done.countDown();
+            }, 120);
+            timer.newTimeout(() -> {
+                elapsed[0] = System.nanoTime() - start;
+                done.countDown();
+            }, 30);
+            assertEquals(2, timer.getPendingCount());
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertTrue(elapsed[0] >= TimeUnit.MILLISECONDS.toNanos(25));
+            assertTrue(elapsed[1] >= TimeUnit.MILLISECONDS.toNanos(115));
+            assertTrue(elapsed[0] < elapsed[1]);
+            assertEquals(0, timer.getPendingCount());
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    void testCancelledTimeoutNeverRuns() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(5, 8, Thread::new);
+        try {
+            AtomicBoolean ran = new AtomicBoolean();
+            HashedWheelTimer.Timeout timeout = timer.newTimeout(() -> ran.set(true), 20);
+            assertTrue(timeout.cancel());
+            assertFalse(timeout.cancel());
+            assertEquals(0, timer.getPendingCount());
+            Thread.sleep(60);
+            assertFalse(ran.get());
+        } finally {
+            timer.stop();
+        }
+    }
+}
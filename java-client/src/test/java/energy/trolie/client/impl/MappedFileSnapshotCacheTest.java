@@ -0,0 +1,80 @@
+package energy.trolie.client.impl;
+
+import energy.trolie.client.SnapshotCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MappedFileSnapshotCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testCommittedBodyIsReadBack() {
+        MappedFileSnapshotCache cache = new MappedFileSnapshotCache(directory);
+        assertNull(cache.get("key"));
+
+        store(cache, "key", "v1", "{\"limits\":", "[1,2,3]}");
+        SnapshotCache.Entry entry = cache.get("key");
+        assertEquals("v1", entry.getETag());
+        assertEquals("{\"limits\":[1,2,3]}", read(entry));
+        //every view starts at the beginning of the body
+        assertEquals("{\"limits\":[1,2,3]}", read(entry));
+
+        //survives a restart
+        assertEquals("{\"limits\":[1,2,3]}", read(new MappedFileSnapshotCache(directory).get("key")));
+        assertNull(cache.get("other"));
+    }
+
+    @Test
+    void testEntryIsOnlyReplacedOnCommit() {
+        MappedFileSnapshotCache cache = new MappedFileSnapshotCache(directory);
+        store(cache, "key", "v1", "first");
+
+        SnapshotCache.Writer writer = cache.newWriter("key");
+        writer.write(ByteBuffer.wrap("second".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("first", read(cache.get("key")));
+        writer.abort();
+        assertEquals("first", read(cache.get("key")));
+
+        store(cache, "key", "v2", "");
+        assertEquals("v2", cache.get("key").getETag());
+        assertEquals("", read(cache.get("key")));
+    }
+
+    @Test
+    void testCorruptFileIsIgnored() throws Exception {
+        MappedFileSnapshotCache cache = new MappedFileSnapshotCache(directory);
+        store(cache, "key", "v1", "body");
+        try (var files = Files.list(directory)) {
+            Path file = files.findFirst().orElseThrow();
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        }
+        assertNull(cache.get("key"));
+    }
+
+    private static void store(SnapshotCache cache, String key, String eTag, String... parts) {
+        SnapshotCache.Writer writer = cache.newWriter(key);
+        for (String part : parts) {
+            writer.write(ByteBuffer.wrap(part.getBytes(StandardCharsets.UTF_8)));
+        }
+        writer.commit(eTag);
+    }
+
+    private static String read(SnapshotCache.Entry entry) {
+        ByteBuffer content = entry.getContent();
+        byte[] bytes = new byte[content.remaining()];
+        content.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
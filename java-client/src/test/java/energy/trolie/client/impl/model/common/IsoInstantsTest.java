@@ -0,0 +1,25 @@
+package energy.trolie.client.impl.model.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IsoInstantsTest {
+
+    private static final List<String> TIMESTAMPS = List.of("2024-02-29T23:59:59Z", "1970-01-01T00:00:00Z",
+            "1969-12-31T23:59:59.999Z", "2025-07-12T05:00:00-05:00", "2025-07-12T05:00:00.123456789+05:30",
+            "2400-03-01T00:00:00Z", "0001-01-01T00:00:00Z", "+12025-07-12T05:00:00Z");
+
+    @Test
+    void testMatchesInstantParse() {
+        for (String text : TIMESTAMPS) {
+            char[] chars = ("  " + text + "  ").toCharArray();
+            Instant expected = Instant.parse(text);
+            assertEquals(expected.getEpochSecond(), IsoInstants.parseEpochSeconds(chars, 2, text.length()), text);
+            assertEquals(expected, IsoInstants.parseInstant(chars, 2, text.length()), text);
+        }
+    }
+}
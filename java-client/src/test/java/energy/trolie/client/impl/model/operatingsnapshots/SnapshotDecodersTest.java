@@ -0,0 +1,63 @@
+package energy.trolie.client.impl.model.operatingsnapshots;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import energy.trolie.client.model.operatingsnapshots.ForecastPeriodSnapshot;
+import energy.trolie.client.model.operatingsnapshots.RealTimeLimit;
+import energy.trolie.client.model.operatingsnapshots.SeasonalPeriodSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SnapshotDecodersTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void testForecastPeriodMatchesDatabind() throws IOException {
+        String json = """
+                {"period-start": "2025-01-01T00:00:00-05:00", "period-end": "2025-01-01T01:00:00.250Z",
+                 "continuous-operating-limit": {"mva": 100},
+                 "emergency-operating-limits": [
+                   {"duration-name": "lte", "limit": {"mw": "120", "pf": 0.9}},
+                   {"duration-name": "ste", "limit": {"amps": 1300}}
+                 ]}
+                """;
+        try (JsonParser parser = mapper.createParser(json)) {
+            parser.nextToken();
+            assertEquals(mapper.readValue(json, ForecastPeriodSnapshot.class), SnapshotDecoders.forecastPeriod(parser));
+        }
+    }
+
+    @Test
+    void testSeasonalPeriodMatchesDatabind() throws IOException {
+        String json = """
+                {"period-start": "2025-06-01T00:00:00Z", "period-end": "2025-09-01T00:00:00Z", "season-name": "summer",
+                 "continuous-operating-limit": {"mva": 90}, "emergency-operating-limits": []}
+                """;
+        try (JsonParser parser = mapper.createParser(json)) {
+            parser.nextToken();
+            assertEquals(mapper.readValue(json, SeasonalPeriodSnapshot.class), SnapshotDecoders.seasonalPeriod(parser));
+        }
+    }
+
+    @Test
+    void testRealTimeLimitSkipsUnknownFields() throws IOException {
+        String json = """
+                {"resource-id": "line-1", "extension": {"nested": [1, {"a": null}]},
+                 "continuous-operating-limit": {"mva": 95}, "emergency-operating-limits": null}
+                """;
+        try (JsonParser parser = mapper.createParser(json)) {
+            parser.nextToken();
+            RealTimeLimit limit = SnapshotDecoders.realTimeLimit(parser);
+            assertEquals("line-1", limit.getResourceId());
+            assertEquals(95f, limit.getContinuousOperatingLimit().getMVA());
+            assertNull(limit.getEmergencyOperatingLimits());
+            assertNull(parser.nextToken());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package energy.trolie.client.impl.request;
+
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class AbstractStreamingGetTest {
+
+    private static final HttpHost HOST = new HttpHost("http", "Trolie.Example.com", 8080);
+
+    @Test
+    void testRequestKeyIncludesQueryAndMediaType() throws Exception {
+        String key = key("/limits/forecast-snapshot?monitoring-set=set-1",
+                "application/vnd.trolie.forecast-limits-snapshot.v1+json");
+        assertEquals("application/vnd.trolie.forecast-limits-snapshot.v1+json "
+                + "http://trolie.example.com:8080/limits/forecast-snapshot?monitoring-set=set-1", key);
+
+        assertNotEquals(key, key("/limits/forecast-snapshot?monitoring-set=set-2",
+                "application/vnd.trolie.forecast-limits-snapshot.v1+json"));
+        assertNotEquals(key, key("/limits/forecast-snapshot?monitoring-set=set-1",
+                "application/vnd.trolie.forecast-limits-detailed-snapshot.v1+json"));
+        assertEquals("application/json http://trolie.example.com:8080/limits/realtime-snapshot",
+                key("/limits/realtime-snapshot", "application/json"));
+    }
+
+    @Test
+    void testEquivalentRequestsShareKey() throws Exception {
+        assertEquals(key("/limits/forecast-snapshot?monitoring-set=a&offset-period-start=2",
+                        "application/json"),
+                key("/limits/./forecast-snapshot?offset-period-start=2&monitoring-set=a",
+                        "Application/JSON "));
+    }
+
+    private static String key(String path, String accept) throws Exception {
+        HttpGet get = new HttpGet(path);
+        get.addHeader(HttpHeaders.ACCEPT, accept);
+        return AbstractStreamingGet.requestKey(HOST, get);
+    }
+}
@@ -0,0 +1,55 @@
+package energy.trolie.client.impl.request;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class BufferPoolTest {
+
+    @Test
+    void testReusesReleasedBuffersUpToLimit() {
+        BufferPool pool = new BufferPool(16, 1);
+        byte[] first = pool.acquire();
+        byte[] second = pool.acquire();
+        assertNotSame(first, second);
+
+        pool.release(first);
+        pool.release(second);
+        assertSame(first, pool.acquire());
+        //only one idle buffer is retained
+        assertNotSame(second, pool.acquire());
+    }
+
+    @Test
+    void testStreamReturnsBufferOnClose() throws IOException {
+        BufferPool pool = new BufferPool(7, 4);
+        byte[] data = new byte[100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+
+        byte[] buffer;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = pool.newInputStream(new ByteArrayInputStream(data))) {
+            out.write(in.read());
+            byte[] chunk = new byte[5];
+            int read;
+            while ((read = in.read(chunk, 0, chunk.length)) >= 0) {
+                out.write(chunk, 0, read);
+            }
+            assertEquals(-1, in.read());
+        } finally {
+            buffer = pool.acquire();
+        }
+        assertArrayEquals(data, out.toByteArray());
+        assertEquals(7, buffer.length);
+    }
+}
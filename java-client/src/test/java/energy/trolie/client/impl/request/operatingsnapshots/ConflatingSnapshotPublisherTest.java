@@ -0,0 +1,146 @@
+package energy.trolie.client.impl.request.operatingsnapshots;
+
+import energy.trolie.client.impl.request.RequestSubscriptionInternal;
+import energy.trolie.client.request.operatingsnapshots.RealTimeSnapshotEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConflatingSnapshotPublisherTest {
+
+    private final ConflatingSnapshotPublisher<RealTimeSnapshotEvent> publisher =
+            new ConflatingSnapshotPublisher<>(Runnable::run);
+
+    ConflatingSnapshotPublisherTest() {
+        publisher.setRequest(new StubRequest());
+    }
+
+    @Test
+    void testDeliversNewestSnapshotOnDemand() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.start();
+        publisher.subscribe(subscriber);
+
+        RealTimeSnapshotEvent first = snapshot();
+        RealTimeSnapshotEvent second = snapshot();
+        RealTimeSnapshotEvent third = snapshot();
+        publisher.publish(first);
+        publisher.publish(second);
+        publisher.publish(third);
+        assertTrue(subscriber.received.isEmpty());
+
+        //only the newest is kept while there is no demand
+        subscriber.subscription.request(1);
+        assertEquals(List.of(third), subscriber.received);
+        assertEquals(2, publisher.getConflatedSnapshots());
+
+        //outstanding demand is served as soon as a snapshot arrives
+        subscriber.subscription.request(2);
+        publisher.publish(first);
+        assertEquals(List.of(third, first), subscriber.received);
+
+        publisher.stop();
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void testLateSubscriberReceivesLatestSnapshot() {
+        publisher.start();
+        RealTimeSnapshotEvent latest = snapshot();
+        publisher.publish(snapshot());
+        publisher.publish(latest);
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(1, subscriber.received.size());
+        assertSame(latest, subscriber.received.get(0));
+
+        subscriber.subscription.cancel();
+        publisher.publish(snapshot());
+        assertEquals(1, subscriber.received.size());
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    void testRejectsNonPositiveDemand() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.start();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertInstanceOf(IllegalArgumentException.class, subscriber.error);
+    }
+
+    private static RealTimeSnapshotEvent snapshot() {
+        return new RealTimeSnapshotEvent(null, List.of());
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<RealTimeSnapshotEvent> {
+
+        final List<RealTimeSnapshotEvent> received = new ArrayList<>();
+        Flow.Subscription subscription;
+        Throwable error;
+        boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(RealTimeSnapshotEvent item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    private static class StubRequest implements RequestSubscriptionInternal {
+
+        boolean active;
+
+        @Override
+        public void start() {
+            active = true;
+        }
+
+        @Override
+        public Future<Void> stop() {
+            active = false;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+
+        @Override
+        public boolean isSubscribed() {
+            return active;
+        }
+
+        @Override
+        public boolean isHealthy() {
+            return true;
+        }
+    }
+}
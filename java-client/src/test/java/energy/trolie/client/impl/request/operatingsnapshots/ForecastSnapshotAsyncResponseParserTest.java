@@ -0,0 +1,118 @@
+package energy.trolie.client.impl.request.operatingsnapshots;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import energy.trolie.client.exception.StreamingGetException;
+import energy.trolie.client.exception.StreamingGetConnectionException;
+import energy.trolie.client.model.operatingsnapshots.ForecastPeriodSnapshot;
+import energy.trolie.client.model.operatingsnapshots.ForecastSnapshotHeader;
+import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotReceiver;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ForecastSnapshotAsyncResponseParserTest {
+
+    private static final String SNAPSHOT = """
+            {
+              "snapshot-header": {"begins": "2025-01-01T00:00:00Z"},
+              "unknown": [1, {"a": [2]}],
+              "ratings": [
+                {
+                  "resource-id": "line-1",
+                  "periods": [
+                    {"period-start": "2025-01-01T00:00:00Z", "period-end": "2025-01-01T01:00:00Z",
+                     "continuous-operating-limit": {"mva": 100}, "emergency-operating-limits": []},
+                    {"period-start": "2025-01-01T01:00:00Z", "period-end": "2025-01-01T02:00:00Z",
+                     "continuous-operating-limit": {"mva": 110}, "emergency-operating-limits": []}
+                  ]
+                },
+                {"resource-id": "line-2", "periods": []}
+              ]
+            }
+            """;
+
+    private final JsonFactory jsonFactory = new JsonFactory(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    @Test
+    void testParsesInputSplitAtEveryByte() throws Exception {
+        RecordingReceiver receiver = new RecordingReceiver();
+        ForecastSnapshotAsyncResponseParser parser = new ForecastSnapshotAsyncResponseParser(receiver, receiver.errors::add, jsonFactory, 16);
+
+        byte[] bytes = SNAPSHOT.getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            assertTrue(parser.feed(ByteBuffer.wrap(new byte[]{b})));
+        }
+        assertTrue(parser.endOfInput());
+
+        assertEquals(List.of("begin", "header 2025-01-01T00:00:00Z", "resource line-1", "period 100.0",
+                "period 110.0", "endResource", "resource line-2", "endResource", "end"), receiver.events);
+        assertTrue(receiver.errors.isEmpty());
+    }
+
+    @Test
+    void testReportsTruncatedInput() throws Exception {
+        RecordingReceiver receiver = new RecordingReceiver();
+        ForecastSnapshotAsyncResponseParser parser = new ForecastSnapshotAsyncResponseParser(receiver, receiver.errors::add, jsonFactory, 16);
+
+        byte[] bytes = SNAPSHOT.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length / 2);
+        direct.put(bytes, 0, bytes.length / 2).flip();
+        assertTrue(parser.feed(direct));
+        assertFalse(parser.endOfInput());
+
+        //reported like a body cut short on the blocking transport
+        assertEquals(1, receiver.errors.size());
+        assertInstanceOf(StreamingGetConnectionException.class, receiver.errors.get(0));
+    }
+
+    private static class RecordingReceiver implements ForecastSnapshotReceiver {
+
+        final List<String> events = new ArrayList<>();
+        final List<StreamingGetException> errors = new ArrayList<>();
+
+        @Override
+        public void beginSnapshot() {
+            events.add("begin");
+        }
+
+        @Override
+        public void header(ForecastSnapshotHeader header) {
+            events.add("header " + header.getBegins());
+        }
+
+        @Override
+        public void beginResource(String resourceId) {
+            events.add("resource " + resourceId);
+        }
+
+        @Override
+        public void period(ForecastPeriodSnapshot period) {
+            events.add("period " + period.getContinuousOperatingLimit().getMVA());
+        }
+
+        @Override
+        public void endResource() {
+            events.add("endResource");
+        }
+
+        @Override
+        public void endSnapshot() {
+            events.add("end");
+        }
+
+        @Override
+        public void error(StreamingGetException t) {
+            errors.add(t);
+        }
+    }
+}
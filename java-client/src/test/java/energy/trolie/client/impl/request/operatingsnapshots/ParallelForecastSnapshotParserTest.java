@@ -0,0 +1,174 @@
+package energy.trolie.client.impl.request.operatingsnapshots;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import energy.trolie.client.ResourceDictionary;
+import energy.trolie.client.exception.StreamingGetException;
+import energy.trolie.client.model.operatingsnapshots.ForecastPeriodSnapshot;
+import energy.trolie.client.model.operatingsnapshots.ForecastSnapshotHeader;
+import energy.trolie.client.request.operatingsnapshots.EmergencyLimitsAccessor;
+import energy.trolie.client.request.operatingsnapshots.ForecastSnapshotReceiver;
+import energy.trolie.client.request.operatingsnapshots.PrimitiveForecastSnapshotReceiver;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelForecastSnapshotParserTest {
+
+    private static final ForkJoinPool pool = new ForkJoinPool(4);
+
+    private final JsonFactory jsonFactory = new JsonFactory(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    @AfterAll
+    static void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testDeliversChunksInResponseOrder() {
+        byte[] snapshot = snapshot(200);
+
+        for (boolean primitive : new boolean[]{false, true}) {
+            RecordingReceiver sequential = primitive ? new PrimitiveRecordingReceiver(false) : new RecordingReceiver(false);
+            assertTrue(new ForecastSnapshotResponseParser(sequential, sequential.errors::add, new ResourceDictionary())
+                    .parseResponse(new ByteArrayInputStream(snapshot), jsonFactory));
+
+            RecordingReceiver parallel = primitive ? new PrimitiveRecordingReceiver(false) : new RecordingReceiver(false);
+            //small chunks, so the array is split many times
+            assertTrue(new ParallelForecastSnapshotParser(parallel, parallel.errors::add, new ResourceDictionary(), pool, 512)
+                    .parseResponse(new ByteArrayInputStream(snapshot), jsonFactory));
+
+            assertTrue(sequential.errors.isEmpty() && parallel.errors.isEmpty());
+            assertEquals(200 * 4 + 3, sequential.events.size());
+            assertEquals(sequential.events, parallel.events);
+        }
+    }
+
+    @Test
+    void testHandsThreadSafeReceiversEveryResource() {
+        byte[] snapshot = snapshot(200);
+
+        RecordingReceiver sequential = new PrimitiveRecordingReceiver(false);
+        new ForecastSnapshotResponseParser(sequential, sequential.errors::add, new ResourceDictionary())
+                .parseResponse(new ByteArrayInputStream(snapshot), jsonFactory);
+
+        RecordingReceiver parallel = new PrimitiveRecordingReceiver(true);
+        assertTrue(new ParallelForecastSnapshotParser(parallel, parallel.errors::add, new ResourceDictionary(), pool, 512)
+                .parseResponse(new ByteArrayInputStream(snapshot), jsonFactory));
+
+        //snapshot callbacks still come first and last
+        assertEquals(sequential.events.subList(0, 2), parallel.events.subList(0, 2));
+        assertEquals("end", parallel.events.get(parallel.events.size() - 1));
+        List<String> expected = new ArrayList<>(sequential.events);
+        List<String> actual = new ArrayList<>(parallel.events);
+        Collections.sort(expected);
+        Collections.sort(actual);
+        assertEquals(expected, actual);
+    }
+
+    //resource IDs with escaped quotes and brackets, so that the scan has to track strings
+    private static byte[] snapshot(int resources) {
+        StringBuilder json = new StringBuilder("{\"snapshot-header\": {\"begins\": \"2025-01-01T00:00:00Z\"}, \"ratings\": [");
+        for (int r = 0; r < resources; r++) {
+            if (r > 0) {
+                json.append(",\n");
+            }
+            json.append("{\"resource-id\": \"line-").append(r).append(" \\\"],{\", \"periods\": [");
+            for (int p = 0; p < 2; p++) {
+                if (p > 0) {
+                    json.append(',');
+                }
+                json.append("{\"period-start\": \"2025-01-01T0").append(p).append(":00:00Z\", ")
+                        .append("\"period-end\": \"2025-01-01T0").append(p + 1).append(":00:00Z\", ")
+                        .append("\"continuous-operating-limit\": {\"mva\": ").append(r + p).append("}, ")
+                        .append("\"emergency-operating-limits\": [{\"duration-name\": \"lte\", \"limit\": {\"mva\": ")
+                        .append(r * 2).append("}}]}");
+            }
+            json.append("]}");
+        }
+        json.append("]}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static class RecordingReceiver implements ForecastSnapshotReceiver {
+
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final List<StreamingGetException> errors = new ArrayList<>();
+        final boolean threadSafe;
+        final ThreadLocal<String> resource = new ThreadLocal<>();
+
+        RecordingReceiver(boolean threadSafe) {
+            this.threadSafe = threadSafe;
+        }
+
+        @Override
+        public void beginSnapshot() {
+            events.add("begin");
+        }
+
+        @Override
+        public void header(ForecastSnapshotHeader header) {
+            events.add("header " + header.getBegins());
+        }
+
+        @Override
+        public void beginResource(String resourceId) {
+            resource.set(resourceId);
+            events.add("resource " + resourceId);
+        }
+
+        @Override
+        public void period(ForecastPeriodSnapshot period) {
+            events.add("period " + resource.get() + " " + period.getPeriodStart() + " "
+                    + period.getContinuousOperatingLimit().getMVA() + " " + period.getEmergencyOperatingLimits().size());
+        }
+
+        @Override
+        public void endResource() {
+            events.add("endResource " + resource.get());
+        }
+
+        @Override
+        public void endSnapshot() {
+            events.add("end");
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return threadSafe;
+        }
+
+        @Override
+        public void error(StreamingGetException t) {
+            errors.add(t);
+        }
+    }
+
+    private static class PrimitiveRecordingReceiver extends RecordingReceiver implements PrimitiveForecastSnapshotReceiver {
+
+        PrimitiveRecordingReceiver(boolean threadSafe) {
+            super(threadSafe);
+        }
+
+        @Override
+        public void period(int resourceIndex, long periodStart, long periodEnd, float continuousLimit,
+                           EmergencyLimitsAccessor emergencyLimits) {
+            StringBuilder event = new StringBuilder("period ").append(resource.get()).append(' ')
+                    .append(periodStart).append('-').append(periodEnd).append(' ').append(continuousLimit);
+            for (int i = 0; i < emergencyLimits.size(); i++) {
+                event.append(' ').append(emergencyLimits.getDurationName(i)).append('=').append(emergencyLimits.getLimit(i));
+            }
+            events.add(event.toString());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package energy.trolie.client.impl.request.operatingsnapshots;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import energy.trolie.client.exception.StreamingGetException;
+import energy.trolie.client.model.operatingsnapshots.ForecastPeriodSnapshot;
+import energy.trolie.client.model.operatingsnapshots.ForecastSnapshotHeader;
+import energy.trolie.client.request.operatingsnapshots.EmergencyLimitsAccessor;
+import energy.trolie.client.request.operatingsnapshots.PrimitiveForecastSnapshotReceiver;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrimitivePeriodReaderTest {
+
+    private static final String SNAPSHOT = """
+            {
+              "snapshot-header": {"begins": "2025-01-01T00:00:00Z"},
+              "ratings": [
+                {
+                  "resource-id": "line-1",
+                  "periods": [
+                    {"period-start": "2025-01-01T00:00:00-05:00", "period-end": "2025-01-01T01:00:00.500-05:00",
+                     "continuous-operating-limit": {"mva": 100},
+                     "emergency-operating-limits": [
+                       {"duration-name": "lte", "limit": {"mva": "120"}},
+                       {"duration-name": "ste", "limit": {"mva": 130.5}}
+                     ]},
+                    {"period-start": "2025-01-01T06:00:00Z", "period-end": "2025-01-01T07:00:00Z",
+                     "extra": {"ignored": [1, 2]},
+                     "continuous-operating-limit": {"pf": 0.9, "mw": 90},
+                     "emergency-operating-limits": [{"duration-name": "lte", "limit": {"amps": 700}}]}
+                  ]
+                },
+                {"resource-id": "line-2", "periods": [
+                    {"period-start": "2025-01-01T00:00:00Z", "period-end": "2025-01-01T01:00:00Z",
+                     "continuous-operating-limit": {"mva": 50}, "emergency-operating-limits": []}
+                ]}
+              ]
+            }
+            """;
+
+    private static final List<String> EXPECTED = List.of(
+            "resource line-1",
+            "period 0 2025-01-01T05:00:00Z 2025-01-01T06:00:00Z 100.0 [lte=120.0, ste=130.5]",
+            "period 0 2025-01-01T06:00:00Z 2025-01-01T07:00:00Z 90.0 [lte=700.0]",
+            "resource line-2",
+            "period 1 2025-01-01T00:00:00Z 2025-01-01T01:00:00Z 50.0 []");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final JsonFactory jsonFactory = new JsonFactory(objectMapper);
+
+    @Test
+    void testBlockingParser() {
+        RecordingReceiver receiver = new RecordingReceiver();
+        assertTrue(new ForecastSnapshotResponseParser(receiver, receiver.errors::add).parseResponse(
+                new ByteArrayInputStream(SNAPSHOT.getBytes(StandardCharsets.UTF_8)), jsonFactory));
+
+        assertEquals(EXPECTED, receiver.events);
+        assertTrue(receiver.errors.isEmpty());
+        //duration names are shared between periods
+        assertSame(receiver.durationNames.get(0), receiver.durationNames.get(2));
+    }
+
+    @Test
+    void testAsyncParser() throws Exception {
+        RecordingReceiver receiver = new RecordingReceiver();
+        ForecastSnapshotAsyncResponseParser parser = new ForecastSnapshotAsyncResponseParser(receiver, receiver.errors::add, jsonFactory, 16);
+
+        byte[] bytes = SNAPSHOT.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i += 7) {
+            assertTrue(parser.feed(ByteBuffer.wrap(bytes, i, Math.min(7, bytes.length - i))));
+        }
+        assertTrue(parser.endOfInput());
+
+        assertEquals(EXPECTED, receiver.events);
+        assertTrue(receiver.errors.isEmpty());
+    }
+
+    @Test
+    void testPeriodObjectsArePassedOn() throws Exception {
+        RecordingReceiver receiver = new RecordingReceiver();
+        receiver.period(objectMapper.readValue("""
+                {"period-start": "2025-01-01T00:00:00Z", "period-end": "2025-01-01T01:00:00Z",
+                 "continuous-operating-limit": {"mva": 100},
+                 "emergency-operating-limits": [{"duration-name": "lte", "limit": {"mva": 120}}]}
+                """, ForecastPeriodSnapshot.class));
+
+        assertEquals(List.of("period -1 2025-01-01T00:00:00Z 2025-01-01T01:00:00Z 100.0 [lte=120.0]"),
+                receiver.events);
+    }
+
+    private static class RecordingReceiver implements PrimitiveForecastSnapshotReceiver {
+
+        final List<String> events = new ArrayList<>();
+        final List<String> durationNames = new ArrayList<>();
+        final List<StreamingGetException> errors = new ArrayList<>();
+
+        @Override
+        public void beginSnapshot() {
+        }
+
+        @Override
+        public void header(ForecastSnapshotHeader header) {
+        }
+
+        @Override
+        public void beginResource(String resourceId) {
+            events.add("resource " + resourceId);
+        }
+
+        @Override
+        public void period(int resourceIndex, long periodStart, long periodEnd, float continuousLimit,
+                           EmergencyLimitsAccessor emergencyLimits) {
+            List<String> limits = new ArrayList<>();
+            for (int i = 0; i < emergencyLimits.size(); i++) {
+                durationNames.add(emergencyLimits.getDurationName(i));
+                limits.add(emergencyLimits.getDurationName(i) + "=" + emergencyLimits.getLimit(i));
+            }
+            events.add("period " + resourceIndex + " " + Instant.ofEpochSecond(periodStart) + " "
+                    + Instant.ofEpochSecond(periodEnd) + " " + continuousLimit + " " + limits);
+        }
+
+        @Override
+        public void endResource() {
+        }
+
+        @Override
+        public void endSnapshot() {
+        }
+
+        @Override
+        public void error(StreamingGetException t) {
+            errors.add(t);
+        }
+    }
+}
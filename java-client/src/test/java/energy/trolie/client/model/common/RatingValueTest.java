@@ -4,9 +4,15 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class RatingValueTest {
 
@@ -86,4 +92,46 @@ class RatingValueTest {
         recirculate(RatingValue.fromMwAndPf(900f, 0.9f));
     }
 
+    @Test
+    void read_compact() throws JsonProcessingException {
+        var value = mapper.readValue("""
+                {
+                   "pf":0.95,
+                   "mw":750
+                }
+                """, RatingValue.class);
+
+        assertTrue(value.isCompact());
+        assertEquals(750f, value.getValue());
+        assertEquals(0.95f, value.getPowerFactor());
+        assertEquals(Map.of("mw", 750f, "pf", 0.95f), value.getValues());
+        assertEquals(RatingValue.ofMappedJson(Map.of("mva", 10f)), RatingValue.fromMva(10f));
+    }
+
+    @Test
+    void write_unknown_units() throws JsonProcessingException {
+        var value = mapper.readValue("""
+                {
+                   "mvar":"200",
+                   "mva":1000
+                }
+                """, RatingValue.class);
+
+        assertFalse(value.isCompact());
+        assertEquals(RatingUnits.MVA, value.getUnits());
+        assertEquals(1000f, value.getMVA());
+        assertEquals(Map.of("mvar", 200f, "mva", 1000f), value.getValues());
+        recirculate(value);
+    }
+
+    @Test
+    void mapped_json_is_copied() {
+        Map<String, Float> json = new HashMap<>(Map.of("mvar", 200f, "mva", 1000f));
+        var value = RatingValue.ofMappedJson(json);
+        json.put("mva", 1f);
+
+        assertEquals(1000f, value.getMVA());
+        assertThrows(UnsupportedOperationException.class, () -> value.getValues().put("mva", 1f));
+    }
+
 }
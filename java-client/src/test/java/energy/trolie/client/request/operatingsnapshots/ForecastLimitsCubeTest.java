@@ -0,0 +1,102 @@
+package energy.trolie.client.request.operatingsnapshots;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import energy.trolie.client.ResourceDictionary;
+import energy.trolie.client.impl.request.operatingsnapshots.ForecastSnapshotResponseParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ForecastLimitsCubeTest {
+
+    private static final String SNAPSHOT = """
+            {
+              "snapshot-header": {
+                "begins": "2025-01-01T00:00:00Z",
+                "default-emergency-durations": [{"name": "lte", "duration-minutes": 240}, {"name": "ste", "duration-minutes": 15}],
+                "power-system-resources": [{"resource-id": "line-1"}, {"resource-id": "line-2"}]
+              },
+              "ratings": [
+                {"resource-id": "line-2", "periods": [
+                  {"period-start": "2025-01-01T01:00:00Z", "period-end": "2025-01-01T02:00:00Z",
+                   "continuous-operating-limit": {"mva": 200},
+                   "emergency-operating-limits": [{"duration-name": "ste", "limit": {"mva": 250}},
+                                                  {"duration-name": "dal", "limit": {"mva": 999}}]}
+                ]},
+                {"resource-id": "line-3", "periods": [
+                  {"period-start": "2025-01-01T00:00:00Z", "period-end": "2025-01-01T01:00:00Z",
+                   "continuous-operating-limit": {"mva": 300}, "emergency-operating-limits": []},
+                  {"period-start": "2025-01-01T05:00:00Z", "period-end": "2025-01-01T06:00:00Z",
+                   "continuous-operating-limit": {"mva": 310}, "emergency-operating-limits": []}
+                ]}
+              ]
+            }
+            """;
+
+    private final JsonFactory jsonFactory = new JsonFactory(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    @Test
+    void testSnapshotIsPublishedOnCompletion() {
+        ResourceDictionary dictionary = new ResourceDictionary();
+        ForecastLimitsCube cube = new ForecastLimitsCube(dictionary, 4, Duration.ofHours(1));
+        assertNull(cube.getSnapshot());
+
+        assertTrue(parse(cube, dictionary, SNAPSHOT));
+        ForecastLimitsCube.Snapshot snapshot = cube.getSnapshot();
+
+        assertEquals(List.of("lte", "ste"), snapshot.getDurationNames());
+        assertEquals(3, snapshot.getResourceCount());
+        int line1 = dictionary.indexOf("line-1");
+        int line2 = dictionary.indexOf("line-2");
+        int line3 = dictionary.indexOf("line-3");
+        int period = snapshot.periodIndex(Instant.parse("2025-01-01T01:30:00Z"));
+        assertEquals(1, period);
+        assertEquals(200f, snapshot.getContinuousLimit(line2, period));
+        assertEquals(250f, snapshot.getEmergencyLimit(line2, period, 1));
+        assertTrue(Float.isNaN(snapshot.getEmergencyLimit(line2, period, 0)));
+        assertTrue(Float.isNaN(snapshot.getContinuousLimit(line1, period)));
+        //resources beyond the header grow the cube, periods beyond it are dropped
+        assertEquals(300f, snapshot.getContinuousLimit(line3, 0));
+        assertEquals(-1, snapshot.periodIndex(Instant.parse("2025-01-01T05:00:00Z")));
+
+        //a failed snapshot leaves the last complete one in place
+        assertFalse(parse(cube, dictionary, SNAPSHOT.substring(0, SNAPSHOT.length() / 2)));
+        assertSame(snapshot, cube.getSnapshot());
+    }
+
+    @Test
+    void testResourcesOfOtherRequestsAreSkipped() {
+        ResourceDictionary dictionary = new ResourceDictionary();
+        //known to the client from other requests, but not in the snapshot
+        for (int i = 0; i < 100000; i++) {
+            dictionary.indexOf("other-" + i);
+        }
+        ForecastLimitsCube cube = new ForecastLimitsCube(dictionary, 4, Duration.ofHours(1));
+
+        assertTrue(parse(cube, dictionary, SNAPSHOT));
+        ForecastLimitsCube.Snapshot snapshot = cube.getSnapshot();
+
+        assertEquals(dictionary.indexOf("line-3") + 1, snapshot.getResourceCount());
+        assertEquals(200f, snapshot.getContinuousLimit(dictionary.indexOf("line-2"), 1));
+        assertEquals(300f, snapshot.getContinuousLimit(dictionary.indexOf("line-3"), 0));
+        assertTrue(Float.isNaN(snapshot.getContinuousLimit(dictionary.indexOf("line-1"), 1)));
+        assertTrue(Float.isNaN(snapshot.getContinuousLimit(dictionary.indexOf("other-7"), 0)));
+    }
+
+    private boolean parse(ForecastLimitsCube cube, ResourceDictionary dictionary, String json) {
+        return new ForecastSnapshotResponseParser(cube, cube::error, dictionary).parseResponse(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), jsonFactory);
+    }
+}
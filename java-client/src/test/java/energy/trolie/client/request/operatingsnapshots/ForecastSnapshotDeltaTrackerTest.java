@@ -0,0 +1,116 @@
+package energy.trolie.client.request.operatingsnapshots;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import energy.trolie.client.ResourceDictionary;
+import energy.trolie.client.impl.request.operatingsnapshots.ForecastSnapshotResponseParser;
+import energy.trolie.client.model.operatingsnapshots.ForecastSnapshotHeader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ForecastSnapshotDeltaTrackerTest {
+
+    private static final String FIRST = """
+            {
+              "snapshot-header": {"begins": "2025-01-01T00:00:00Z"},
+              "ratings": [
+                {"resource-id": "line-1", "periods": [
+                  {"period-start": "2025-01-01T00:00:00Z", "period-end": "2025-01-01T01:00:00Z",
+                   "continuous-operating-limit": {"mva": 100},
+                   "emergency-operating-limits": [{"duration-name": "ste", "limit": {"mva": 150}}]},
+                  {"period-start": "2025-01-01T01:00:00Z", "period-end": "2025-01-01T02:00:00Z",
+                   "continuous-operating-limit": {"mva": 110}, "emergency-operating-limits": []}
+                ]},
+                {"resource-id": "line-2", "periods": [
+                  {"period-start": "2025-01-01T00:00:00Z", "period-end": "2025-01-01T01:00:00Z",
+                   "continuous-operating-limit": {"mva": 200}, "emergency-operating-limits": []}
+                ]}
+              ]
+            }
+            """;
+
+    private static final String SECOND = """
+            {
+              "snapshot-header": {"begins": "2025-01-01T00:00:00Z"},
+              "ratings": [
+                {"resource-id": "line-1", "periods": [
+                  {"period-start": "2025-01-01T00:00:00Z", "period-end": "2025-01-01T01:00:00Z",
+                   "continuous-operating-limit": {"mva": 100},
+                   "emergency-operating-limits": [{"duration-name": "ste", "limit": {"mva": 160}}]},
+                  {"period-start": "2025-01-01T02:00:00Z", "period-end": "2025-01-01T03:00:00Z",
+                   "continuous-operating-limit": {"mva": 120}, "emergency-operating-limits": []}
+                ]},
+                {"resource-id": "line-3", "periods": [
+                  {"period-start": "2025-01-01T00:00:00Z", "period-end": "2025-01-01T01:00:00Z",
+                   "continuous-operating-limit": {"mva": 300}, "emergency-operating-limits": []}
+                ]}
+              ]
+            }
+            """;
+
+    private final JsonFactory jsonFactory = new JsonFactory(new ObjectMapper().registerModule(new JavaTimeModule()));
+    private final ResourceDictionary dictionary = new ResourceDictionary();
+    private final List<String> events = new ArrayList<>();
+    private final ForecastSnapshotDeltaTracker tracker = new ForecastSnapshotDeltaTracker(new DeltaForecastSnapshotReceiver() {
+        @Override
+        public void beginDelta(ForecastSnapshotHeader header) {
+            events.clear();
+        }
+
+        @Override
+        public void added(int resourceIndex, long periodStart, long periodEnd, float continuousLimit,
+                          EmergencyLimitsAccessor emergencyLimits) {
+            events.add("added " + describe(resourceIndex, periodStart) + " " + continuousLimit);
+        }
+
+        @Override
+        public void changed(int resourceIndex, long periodStart, long periodEnd, float continuousLimit,
+                            EmergencyLimitsAccessor emergencyLimits) {
+            events.add("changed " + describe(resourceIndex, periodStart) + " "
+                    + emergencyLimits.getDurationName(0) + "=" + emergencyLimits.getLimit(0));
+        }
+
+        @Override
+        public void removed(int resourceIndex, long periodStart, long periodEnd) {
+            events.add("removed " + describe(resourceIndex, periodStart));
+        }
+
+        @Override
+        public void endDelta() {
+            events.add("end");
+        }
+    });
+
+    @Test
+    void testOnlyDifferencesAreReported() {
+        assertTrue(parse(FIRST));
+        assertEquals(List.of("added line-1@0 100.0", "added line-1@1 110.0", "added line-2@0 200.0", "end"), events);
+
+        assertTrue(parse(FIRST));
+        assertEquals(List.of("end"), events);
+
+        assertTrue(parse(SECOND));
+        assertEquals(List.of("changed line-1@0 ste=160.0", "added line-1@2 120.0", "removed line-1@1",
+                "added line-3@0 300.0", "removed line-2@0", "end"), events);
+
+        assertTrue(parse(SECOND));
+        assertEquals(List.of("end"), events);
+    }
+
+    private String describe(int resourceIndex, long periodStart) {
+        return dictionary.getResourceId(resourceIndex) + "@" + (periodStart - 1735689600L) / 3600;
+    }
+
+    private boolean parse(String json) {
+        return new ForecastSnapshotResponseParser(tracker, tracker::error, dictionary).parseResponse(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), jsonFactory);
+    }
+}
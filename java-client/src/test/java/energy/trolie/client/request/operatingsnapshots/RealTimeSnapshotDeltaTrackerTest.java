@@ -0,0 +1,72 @@
+package energy.trolie.client.request.operatingsnapshots;
+
+import energy.trolie.client.model.common.RatingValue;
+import energy.trolie.client.model.operatingsnapshots.RealTimeLimit;
+import energy.trolie.client.model.operatingsnapshots.RealTimeSnapshotHeader;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RealTimeSnapshotDeltaTrackerTest {
+
+    private final List<String> events = new ArrayList<>();
+    private final RealTimeSnapshotDeltaTracker tracker = new RealTimeSnapshotDeltaTracker(new DeltaRealTimeSnapshotReceiver() {
+        @Override
+        public void beginDelta(RealTimeSnapshotHeader header) {
+            events.clear();
+        }
+
+        @Override
+        public void added(int resourceIndex, RealTimeLimit limit) {
+            events.add("added " + resourceIndex);
+        }
+
+        @Override
+        public void changed(int resourceIndex, RealTimeLimit previous, RealTimeLimit limit) {
+            events.add("changed " + resourceIndex + " " + previous.getContinuousOperatingLimit().getValue()
+                    + "->" + limit.getContinuousOperatingLimit().getValue());
+        }
+
+        @Override
+        public void removed(int resourceIndex, RealTimeLimit previous) {
+            events.add("removed " + resourceIndex);
+        }
+
+        @Override
+        public void endDelta() {
+            events.add("end");
+        }
+    });
+
+    @Test
+    void testOnlyDifferencesAreReported() {
+        snapshot(100, 200, Float.NaN);
+        assertEquals(List.of("added 0", "added 1", "end"), events);
+
+        snapshot(100, 200, Float.NaN);
+        assertEquals(List.of("end"), events);
+
+        snapshot(100, 210, 300);
+        assertEquals(List.of("changed 1 200.0->210.0", "added 2", "end"), events);
+
+        snapshot(Float.NaN, 210, 300);
+        assertEquals(List.of("removed 0", "end"), events);
+    }
+
+    /**
+     * Deliver a snapshot with the given continuous limit per resource index, NaN for none
+     */
+    private void snapshot(float... limits) {
+        tracker.beginSnapshot();
+        tracker.header(RealTimeSnapshotHeader.builder().build());
+        for (int i = 0; i < limits.length; i++) {
+            if (!Float.isNaN(limits[i])) {
+                tracker.limit(i, new RealTimeLimit("line-" + i, RatingValue.fromMva(limits[i]), List.of()));
+            }
+        }
+        tracker.endSnapshot();
+    }
+}